@@ -0,0 +1,156 @@
+package ru.tinkoff.kora.common;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares slot indexed {@link Context} against previous {@link ConcurrentHashMap} based implementation.
+ * Context is populated with immutable keys like {@link Principal} and {@link Deadline} plus one mutable key like MDC or tracing context,
+ * {@code forkImmutable} measures fork of a context without mutable values.
+ * Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Measurement(time = 5, iterations = 5)
+@Warmup(time = 5, iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ContextBenchmark {
+    private static final int IMMUTABLE_KEYS = 4;
+
+    @SuppressWarnings("unchecked")
+    private static final Context.Key<Object>[] KEYS = new Context.Key[IMMUTABLE_KEYS];
+    private static final Context.Key<Object> MUTABLE_KEY = new Context.Key<>() {
+        @Override
+        protected Object copy(Object object) {
+            return new Object();
+        }
+    };
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEYS[i] = new Context.KeyImmutable<>() {};
+        }
+    }
+
+    @Param({"array", "map"})
+    public String implementation;
+
+    private final Object value = new Object();
+    private ContextOps immutable;
+    private ContextOps mutable;
+
+    @Setup
+    public void setup() {
+        this.immutable = this.create();
+        this.mutable = this.create();
+        for (var key : KEYS) {
+            this.immutable.set(key, this.value);
+            this.mutable.set(key, this.value);
+        }
+        this.mutable.set(MUTABLE_KEY, this.value);
+    }
+
+    @Benchmark
+    public Object get() {
+        return this.mutable.get(KEYS[IMMUTABLE_KEYS - 1]);
+    }
+
+    @Benchmark
+    public Object set() {
+        return this.mutable.set(KEYS[0], this.value);
+    }
+
+    @Benchmark
+    public Object forkImmutable() {
+        return this.immutable.fork();
+    }
+
+    @Benchmark
+    public Object forkMutable() {
+        return this.mutable.fork();
+    }
+
+    /**
+     * Typical hop of a request: fork, set a value in forked context and read a few values
+     */
+    @Benchmark
+    public void forkSetGet(Blackhole bh) {
+        var forked = this.mutable.fork();
+        forked.set(KEYS[0], this.value);
+        for (var key : KEYS) {
+            bh.consume(forked.get(key));
+        }
+        bh.consume(forked.get(MUTABLE_KEY));
+    }
+
+    private ContextOps create() {
+        return switch (this.implementation) {
+            case "array" -> new ArrayContext(Context.clear());
+            case "map" -> new MapContext(new ConcurrentHashMap<>(8));
+            default -> throw new IllegalArgumentException(this.implementation);
+        };
+    }
+
+    private interface ContextOps {
+        <T> T set(Context.Key<T> key, T value);
+
+        <T> T get(Context.Key<T> key);
+
+        ContextOps fork();
+    }
+
+    private record ArrayContext(Context context) implements ContextOps {
+        @Override
+        public <T> T set(Context.Key<T> key, T value) {
+            return this.context.set(key, value);
+        }
+
+        @Override
+        public <T> T get(Context.Key<T> key) {
+            return this.context.get(key);
+        }
+
+        @Override
+        public ContextOps fork() {
+            return new ArrayContext(this.context.fork());
+        }
+    }
+
+    /**
+     * Previous implementation of {@link Context}
+     */
+    private record MapContext(ConcurrentHashMap<Context.Key<?>, Object> values) implements ContextOps {
+        @Override
+        public <T> T set(Context.Key<T> key, T value) {
+            this.values.put(key, value);
+            return value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Context.Key<T> key) {
+            return (T) this.values.get(key);
+        }
+
+        @Override
+        public ContextOps fork() {
+            var values = new ConcurrentHashMap<Context.Key<?>, Object>((int) Math.ceil(this.values.size() / 0.75D));
+            for (var entry : this.values.entrySet()) {
+                var copiedValue = copy(entry.getKey(), entry.getValue());
+                if (copiedValue != null) {
+                    values.put(entry.getKey(), copiedValue);
+                }
+            }
+            return new MapContext(values);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T copy(Context.Key<T> key, Object value) {
+            return key.copy((T) value);
+        }
+    }
+}
@@ -6,67 +6,229 @@ import kotlinx.coroutines.ThreadContextElementKt;
 import ru.tinkoff.kora.common.util.CoroutineContextElement;
 import ru.tinkoff.kora.common.util.ReactorContextHook;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Callable;
 
+/**
+ * Values are kept in a copy-on-write array of present entries: key at even index and its value right after it.
+ * Context holds a handful of entries, so lookup is a scan by key identity and array size is bounded by number of entries, not by number of keys ever created.
+ * Array is never modified after publication, so {@link #fork()} shares it unless some value has to be copied by its key.
+ */
 public class Context {
 
-    private static final ThreadLocal<Context> INSTANCE = ThreadLocal.withInitial(Context::new);
-    private final ConcurrentHashMap<Context.Key<?>, Object> values;
+    private static final ThreadLocal<Context> INSTANCE = new ThreadLocal<>();
+    /**
+     * Context restored by {@link Kotlin#asCoroutineContext(Context)} element on every coroutine resume when {@link ScopedContextCarrier} is enabled,
+     * takes precedence over scoped binding that can't follow coroutine across threads
+     */
+    private static final ThreadLocal<Context> COROUTINE = new ThreadLocal<>();
+    private static final Object[] EMPTY = new Object[0];
+    private static final VarHandle VALUES;
+
+    private volatile Object[] values;
 
     @Override
     public String toString() {
-        return "Context{" + values + '}';
+        var values = this.values;
+        var sb = new StringBuilder("Context{");
+        var first = true;
+        for (int i = 0; i < values.length; i += 2) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(values[i]).append('=').append(values[i + 1]);
+        }
+        return sb.append('}').toString();
     }
 
-    private Context(ConcurrentHashMap<Key<?>, Object> values) {
+    private Context(Object[] values) {
         this.values = values;
     }
 
     private Context() {
-        this(new ConcurrentHashMap<>(8));
+        this(EMPTY);
     }
 
     public static Context current() {
-        return INSTANCE.get();
+        if (ScopedContextCarrier.ENABLED) {
+            var coroutine = COROUTINE.get();
+            if (coroutine != null) {
+                return coroutine;
+            }
+            var binding = ScopedContextCarrier.binding();
+            if (binding != null) {
+                if (binding.owner == Thread.currentThread()) {
+                    return binding.context;
+                }
+                var injected = INSTANCE.get();
+                if (injected != null) {
+                    return injected;
+                }
+                // StructuredTaskScope subtask gets a fork of the scope context on first access, like any other task switching threads
+                var forked = binding.context.fork();
+                INSTANCE.set(forked);
+                return forked;
+            }
+        }
+        var ctx = INSTANCE.get();
+        if (ctx == null) {
+            ctx = new Context();
+            INSTANCE.set(ctx);
+        }
+        return ctx;
+    }
+
+    /**
+     * Runs with context bound as current and restores previous one after.
+     * Context is bound with {@code ScopedValue} when {@link ScopedContextCarrier} is enabled, so it is inherited by {@code StructuredTaskScope} subtasks,
+     * which get its {@link #fork()}. Inside a coroutine context is bound to the thread local restored by coroutine element instead.
+     */
+    public static void runWith(Context context, Runnable runnable) {
+        var local = INSTANCE;
+        if (ScopedContextCarrier.ENABLED) {
+            if (COROUTINE.get() == null) {
+                ScopedContextCarrier.run(context, runnable);
+                return;
+            }
+            local = COROUTINE;
+        }
+        var oldCtx = local.get();
+        local.set(context);
+        try {
+            runnable.run();
+        } finally {
+            local.set(oldCtx);
+        }
+    }
+
+    /**
+     * @see #runWith(Context, Runnable)
+     */
+    public static <T> T callWith(Context context, Callable<T> callable) throws Exception {
+        var local = INSTANCE;
+        if (ScopedContextCarrier.ENABLED) {
+            if (COROUTINE.get() == null) {
+                return ScopedContextCarrier.call(context, callable);
+            }
+            local = COROUTINE;
+        }
+        var oldCtx = local.get();
+        local.set(context);
+        try {
+            return callable.call();
+        } finally {
+            local.set(oldCtx);
+        }
     }
 
     public Context fork() {
-        var values = new ConcurrentHashMap<Key<?>, Object>(capacity(this.values.size()));
-        for (var entry : this.values.entrySet()) {
-            var key = entry.getKey();
-            var copiedValue = copy(key, entry.getValue());
-            if (copiedValue == null) {
+        var values = this.values;
+        Object[] forked = null;
+        var length = 0;
+        for (int i = 0; i < values.length; i += 2) {
+            var key = (Key<?>) values[i];
+            if (!key.copies) {
+                if (forked != null) {
+                    forked[length++] = key;
+                    forked[length++] = values[i + 1];
+                }
                 continue;
             }
-            values.put(key, copiedValue);
+            if (forked == null) {
+                forked = new Object[values.length];
+                System.arraycopy(values, 0, forked, 0, i);
+                length = i;
+            }
+            var copiedValue = copy(key, values[i + 1]);
+            if (copiedValue != null) {
+                forked[length++] = key;
+                forked[length++] = copiedValue;
+            }
         }
-
-        return new Context(values);
+        if (forked == null) {
+            return new Context(values);
+        }
+        return new Context(length == forked.length ? forked : Arrays.copyOf(forked, length));
     }
 
     public void inject() {
+        if (ScopedContextCarrier.ENABLED) {
+            if (COROUTINE.get() != null) {
+                COROUTINE.set(this);
+                return;
+            }
+            var binding = ScopedContextCarrier.binding();
+            if (binding != null && binding.owner == Thread.currentThread()) {
+                binding.context = this;
+                return;
+            }
+        }
         INSTANCE.set(this);
     }
 
     public static Context clear() {
         var clean = new Context();
-        INSTANCE.set(clean);
+        clean.inject();
         return clean;
     }
 
     public <T> T set(Key<T> key, T value) {
-        this.values.put(key, value);
-        return value;
+        Objects.requireNonNull(value);
+        while (true) {
+            var values = this.values;
+            var index = indexOf(values, key);
+            final Object[] updated;
+            if (index < 0) {
+                updated = Arrays.copyOf(values, values.length + 2);
+                updated[values.length] = key;
+                updated[values.length + 1] = value;
+            } else {
+                updated = values.clone();
+                updated[index + 1] = value;
+            }
+            if (VALUES.compareAndSet(this, values, updated)) {
+                return value;
+            }
+        }
     }
 
     public <T> void remove(Key<T> key) {
-        this.values.remove(key);
+        while (true) {
+            var values = this.values;
+            var index = indexOf(values, key);
+            if (index < 0) {
+                return;
+            }
+            var updated = values.length == 2 ? EMPTY : new Object[values.length - 2];
+            System.arraycopy(values, 0, updated, 0, index);
+            System.arraycopy(values, index + 2, updated, index, values.length - index - 2);
+            if (VALUES.compareAndSet(this, values, updated)) {
+                return;
+            }
+        }
     }
 
     @Nullable
     @SuppressWarnings("unchecked")
     public <T> T get(Key<T> key) {
-        return (T) this.values.get(key);
+        var values = this.values;
+        var index = indexOf(values, key);
+        return index < 0
+            ? null
+            : (T) values[index + 1];
+    }
+
+    private static int indexOf(Object[] values, Key<?> key) {
+        for (int i = 0; i < values.length; i += 2) {
+            if (values[i] == key) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     public static class Reactor {
@@ -94,12 +256,17 @@ public class Context {
         }
 
         public static CoroutineContext asCoroutineContext(Context ctx) {
-            return ThreadContextElementKt.asContextElement(INSTANCE, ctx);
+            return ThreadContextElementKt.asContextElement(ScopedContextCarrier.ENABLED ? COROUTINE : INSTANCE, ctx);
         }
     }
 
 
     public static abstract class Key<T> {
+        /**
+         * Whether {@link #fork()} has to copy value of this key: false only for {@link KeyImmutable} that does not override {@link #copy(Object)}
+         */
+        private final boolean copies = !(this instanceof KeyImmutable<?>) || overridesCopy(this.getClass());
+
         @Override
         public final int hashCode() {
             return super.hashCode();
@@ -111,8 +278,23 @@ public class Context {
         }
 
         protected abstract T copy(T object);
+
+        private static boolean overridesCopy(Class<?> type) {
+            for (var t = type; t != KeyImmutable.class; t = t.getSuperclass()) {
+                try {
+                    t.getDeclaredMethod("copy", Object.class);
+                    return true;
+                } catch (NoSuchMethodException ignore) {
+                    // not declared in this class
+                }
+            }
+            return false;
+        }
     }
 
+    /**
+     * Key of immutable value that is shared by forked contexts as is
+     */
     public static abstract class KeyImmutable<T> extends Key<T> {
         protected T copy(T object) {
             return object;
@@ -124,11 +306,12 @@ public class Context {
         return key.copy((T) value);
     }
 
-    private static int capacity(int numMappings) {
-        return (int) Math.ceil(numMappings / 0.75D);
-    }
-
     static {
+        try {
+            VALUES = MethodHandles.lookup().findVarHandle(Context.class, "values", Object[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
         try {
             ReactorContextHook.init();
         } catch (NoClassDefFoundError ignore) {
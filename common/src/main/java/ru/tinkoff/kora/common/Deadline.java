@@ -0,0 +1,133 @@
+package ru.tinkoff.kora.common;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+
+/**
+ * <b>Русский</b>: Крайний срок выполнения текущей операции в рамках контекста {@link Context}.
+ * Проставляется при получении запроса и используется клиентами для ограничения собственных таймаутов,
+ * чтобы не продолжать работу, результат которой уже никто не ждет.
+ * <hr>
+ * <b>English</b>: Deadline of the current operation within the context {@link Context}.
+ * It is set when request is received and is used by clients to cap their own timeouts,
+ * so the work is not continued after the caller has given up.
+ */
+public final class Deadline {
+
+    public static final Context.Key<Deadline> KEY = new Context.KeyImmutable<>() {};
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return <b>Русский</b>: Крайний срок через переданное время от текущего момента.
+     * <hr>
+     * <b>English</b>: Deadline after passed timeout from now.
+     */
+    public static Deadline after(Duration timeout) {
+        var nanos = timeout.isNegative() ? 0 : saturatedNanos(timeout);
+        return new Deadline(System.nanoTime() + nanos);
+    }
+
+    /**
+     * @return <b>Русский</b>: Крайний срок в рамках контекста {@link Context} текущего потока.
+     * <hr>
+     * <b>English</b>: Deadline within the context {@link Context} of the current thread.
+     */
+    @Nullable
+    public static Deadline current() {
+        return current(Context.current());
+    }
+
+    /**
+     * @return <b>Русский</b>: Крайний срок в рамках переданного контекста {@link Context}.
+     * <hr>
+     * <b>English</b>: Deadline within the passed context {@link Context}.
+     */
+    @Nullable
+    public static Deadline current(Context context) {
+        return context.get(KEY);
+    }
+
+    /**
+     * <b>Русский</b>: Проставляет крайний срок в переданный контекст, если в контексте уже есть более ранний срок то остается он.
+     * <hr>
+     * <b>English</b>: Sets the deadline within the passed context, if context already has an earlier deadline it is kept.
+     *
+     * @return <b>Русский</b>: Действующий крайний срок.
+     * <hr>
+     * <b>English</b>: Effective deadline.
+     */
+    public static Deadline set(Context context, Deadline deadline) {
+        var current = context.get(KEY);
+        if (current != null && current.deadlineNanos - deadline.deadlineNanos <= 0) {
+            return current;
+        }
+        return context.set(KEY, deadline);
+    }
+
+    /**
+     * <b>Русский</b>: Ограничивает таймаут операции оставшимся временем до крайнего срока из контекста.
+     * <hr>
+     * <b>English</b>: Caps the operation timeout with the time remaining until the deadline from the context.
+     *
+     * @param timeout <b>Русский</b>: собственный таймаут операции, если есть.
+     *                <hr>
+     *                <b>English</b>: own timeout of the operation, if any.
+     * @return <b>Русский</b>: Меньшее из таймаута и оставшегося времени или переданный таймаут, если крайнего срока нет.
+     * <hr>
+     * <b>English</b>: Smaller of timeout and remaining time or passed timeout if there is no deadline.
+     */
+    @Nullable
+    public static Duration timeout(Context context, @Nullable Duration timeout) {
+        var deadline = context.get(KEY);
+        if (deadline == null) {
+            return timeout;
+        }
+        var remaining = deadline.remaining();
+        if (timeout == null || remaining.compareTo(timeout) < 0) {
+            return remaining;
+        }
+        return timeout;
+    }
+
+    /**
+     * @return <b>Русский</b>: Время до крайнего срока в наносекундах, отрицательное если срок уже прошел.
+     * <hr>
+     * <b>English</b>: Time until the deadline in nanoseconds, negative if deadline has already passed.
+     */
+    public long remainingNanos() {
+        return this.deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * @return <b>Русский</b>: Время до крайнего срока, {@link Duration#ZERO} если срок уже прошел.
+     * <hr>
+     * <b>English</b>: Time until the deadline, {@link Duration#ZERO} if deadline has already passed.
+     */
+    public Duration remaining() {
+        var remaining = this.remainingNanos();
+        return remaining <= 0 ? Duration.ZERO : Duration.ofNanos(remaining);
+    }
+
+    public boolean isExpired() {
+        return this.remainingNanos() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + this.remaining() + '}';
+    }
+
+    private static long saturatedNanos(Duration timeout) {
+        try {
+            return timeout.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE / 2;
+        }
+    }
+}
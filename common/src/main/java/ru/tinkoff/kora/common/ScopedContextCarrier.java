@@ -0,0 +1,162 @@
+package ru.tinkoff.kora.common;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+/**
+ * Binds {@link Context} to {@code java.lang.ScopedValue} instead of {@link ThreadLocal} when it is available (JDK 21 with {@code --enable-preview} or JDK 25+).
+ * Binding is cheap on virtual threads and is inherited by {@code StructuredTaskScope} subtasks.
+ * Can be disabled with {@code -Dkora.context.scoped.enabled=false}.
+ *
+ * @see Context#runWith(Context, Runnable)
+ * @see Context#callWith(Context, Callable)
+ */
+public final class ScopedContextCarrier {
+
+    public enum Status {
+        DISABLED,
+        ENABLED,
+        UNAVAILABLE
+    }
+
+    /**
+     * Holder of the context bound to the scope, {@link Context#inject()} on the owner thread replaces context inside the scope.
+     * Subtasks inherit the holder, but get {@link Context#fork()} of its context in thread local on first access and inject their own contexts there.
+     */
+    static final class Binding {
+        final Thread owner = Thread.currentThread();
+        Context context;
+
+        private Binding(Context context) {
+            this.context = context;
+        }
+    }
+
+    private ScopedContextCarrier() {}
+
+    static final boolean ENABLED;
+    private static final Status status;
+
+    @Nullable
+    private static final Object scopedValue;
+    @Nullable
+    private static final MethodHandle isBound;
+    @Nullable
+    private static final MethodHandle get;
+    @Nullable
+    private static final MethodHandle where;
+    @Nullable
+    private static final MethodHandle run;
+
+    static {
+        Object scopedValueInstance = null;
+        MethodHandle isBoundHandle = null;
+        MethodHandle getHandle = null;
+        MethodHandle whereHandle = null;
+        MethodHandle runHandle = null;
+        Status carrierStatus;
+
+        var enabled = System.getProperty("kora.context.scoped.enabled");
+        if (enabled != null && !Boolean.parseBoolean(enabled)) {
+            carrierStatus = Status.DISABLED;
+        } else {
+            try {
+                var lookup = MethodHandles.publicLookup();
+                var scopedValueClass = lookup.findClass("java.lang.ScopedValue");
+                var carrierClass = lookup.findClass("java.lang.ScopedValue$Carrier");
+                scopedValueInstance = lookup.findStatic(scopedValueClass, "newInstance", MethodType.methodType(scopedValueClass)).invoke();
+                isBoundHandle = lookup.findVirtual(scopedValueClass, "isBound", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+                getHandle = lookup.findVirtual(scopedValueClass, "get", MethodType.methodType(Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+                whereHandle = lookup.findStatic(scopedValueClass, "where", MethodType.methodType(carrierClass, scopedValueClass, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+                runHandle = lookup.findVirtual(carrierClass, "run", MethodType.methodType(void.class, Runnable.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+
+                // preview api can be present in runtime but refuse to work without --enable-preview
+                var carrier = (Object) whereHandle.invokeExact(scopedValueInstance, (Object) new Object());
+                runHandle.invokeExact(carrier, (Runnable) () -> {});
+                carrierStatus = Status.ENABLED;
+            } catch (Throwable e) {
+                scopedValueInstance = null;
+                isBoundHandle = null;
+                getHandle = null;
+                whereHandle = null;
+                runHandle = null;
+                carrierStatus = Status.UNAVAILABLE;
+            }
+        }
+
+        scopedValue = scopedValueInstance;
+        isBound = isBoundHandle;
+        get = getHandle;
+        where = whereHandle;
+        run = runHandle;
+        status = carrierStatus;
+        ENABLED = carrierStatus == Status.ENABLED;
+    }
+
+    @Nonnull
+    public static Status status() {
+        return status;
+    }
+
+    @Nullable
+    static Binding binding() {
+        try {
+            if ((boolean) isBound.invokeExact(scopedValue)) {
+                return (Binding) (Object) get.invokeExact(scopedValue);
+            }
+            return null;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void run(Context context, Runnable runnable) {
+        try {
+            var carrier = (Object) where.invokeExact(scopedValue, (Object) new Binding(context));
+            run.invokeExact(carrier, runnable);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static <T> T call(Context context, Callable<T> callable) throws Exception {
+        var call = new ScopedCall<>(callable);
+        run(context, call);
+        if (call.error != null) {
+            throw call.error;
+        }
+        return call.result;
+    }
+
+    private static final class ScopedCall<T> implements Runnable {
+        private final Callable<T> callable;
+        private T result;
+        private Exception error;
+
+        private ScopedCall(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.result = this.callable.call();
+            } catch (Exception e) {
+                this.error = e;
+            }
+        }
+    }
+}
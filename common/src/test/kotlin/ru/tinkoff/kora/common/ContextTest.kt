@@ -2,15 +2,20 @@ package ru.tinkoff.kora.common
 
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
 import kotlinx.coroutines.reactor.awaitSingle
 import kotlinx.coroutines.reactor.mono
 import org.junit.jupiter.api.Assertions
 import org.junit.jupiter.api.Assertions.assertDoesNotThrow
+import org.junit.jupiter.api.Assertions.assertNotSame
 import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assumptions.assumeTrue
 import org.junit.jupiter.api.Test
 import reactor.core.publisher.Mono
 import ru.tinkoff.kora.common.util.ReactorContextHook
 import java.time.Duration
+import java.util.concurrent.Callable
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.atomic.AtomicReference
 
@@ -18,6 +23,14 @@ class ContextTest {
 
     private object TestKey : Context.KeyImmutable<String>()
 
+    private object TestMutableKey : Context.Key<StringBuilder>() {
+        override fun copy(obj: StringBuilder) = StringBuilder(obj)
+    }
+
+    private object TestImmutableKeyWithCopy : Context.KeyImmutable<StringBuilder>() {
+        override fun copy(obj: StringBuilder) = StringBuilder(obj)
+    }
+
     private object TestKeyWithCopyNull : Context.Key<String>() {
         override fun copy(obj: String?) = null
     }
@@ -127,4 +140,151 @@ class ContextTest {
         }
     }
 
+    @Test
+    fun setGetRemoveTest() {
+        val context = Context.clear()
+        assertNull(context.get(TestKey))
+
+        context.set(TestKey, "foo")
+        Assertions.assertEquals("foo", context.get(TestKey))
+
+        context.remove(TestKey)
+        assertNull(context.get(TestKey))
+        Assertions.assertEquals("Context{}", context.toString())
+    }
+
+    @Test
+    fun forkIsIsolatedFromParentTest() {
+        val context = Context.clear()
+        context.set(TestKey, "foo")
+
+        val forked = context.fork()
+        forked.set(TestKey, "bar")
+        context.remove(TestKey)
+
+        assertNull(context.get(TestKey))
+        Assertions.assertEquals("bar", forked.get(TestKey))
+    }
+
+    @Test
+    fun forkCopiesMutableValuesTest() {
+        val context = Context.clear()
+        context.set(TestKey, "foo")
+        context.set(TestMutableKey, StringBuilder("foo"))
+
+        val forked = context.fork()
+        forked.get(TestMutableKey)!!.append("bar")
+
+        Assertions.assertEquals("foo", forked.get(TestKey))
+        assertNotSame(context.get(TestMutableKey), forked.get(TestMutableKey))
+        Assertions.assertEquals("foo", context.get(TestMutableKey).toString())
+        Assertions.assertEquals("foobar", forked.get(TestMutableKey).toString())
+    }
+
+    @Test
+    fun forkHonorsCopyOverriddenByImmutableKeyTest() {
+        val context = Context.clear()
+        context.set(TestKey, "foo")
+        context.set(TestImmutableKeyWithCopy, StringBuilder("foo"))
+
+        val forked = context.fork()
+        forked.get(TestImmutableKeyWithCopy)!!.append("bar")
+
+        Assertions.assertSame(context.get(TestKey), forked.get(TestKey))
+        Assertions.assertEquals("foo", context.get(TestImmutableKeyWithCopy).toString())
+        Assertions.assertEquals("foobar", forked.get(TestImmutableKeyWithCopy).toString())
+    }
+
+    @Test
+    fun callWithRestoresPreviousContextTest() {
+        val outer = Context.clear()
+        outer.set(TestKey, "outer")
+        val inner = Context.clear()
+        inner.set(TestKey, "inner")
+        outer.inject()
+
+        val result = Context.callWith(inner) { Context.current().get(TestKey) }
+
+        Assertions.assertEquals("inner", result)
+        Assertions.assertSame(outer, Context.current())
+    }
+
+    @Test
+    fun coroutineContextTakesPrecedenceOverBoundContextTest() {
+        val outer = Context.clear()
+        outer.set(TestKey, "outer")
+        val coroutine = Context.clear()
+        coroutine.set(TestKey, "coroutine")
+        outer.inject()
+
+        val result = Context.callWith(outer) {
+            runBlocking(Context.Kotlin.asCoroutineContext(coroutine)) {
+                val sameThread = Context.current().get(TestKey)
+                val otherThread = withContext(Dispatchers.Default) {
+                    delay(1)
+                    Context.current().get(TestKey)
+                }
+                val nested = Context.callWith(outer) { Context.current().get(TestKey) }
+                listOf(sameThread, otherThread, nested, Context.current().get(TestKey))
+            }
+        }
+
+        Assertions.assertEquals(listOf("coroutine", "coroutine", "outer", "coroutine"), result)
+        Assertions.assertEquals("outer", Context.current().get(TestKey))
+    }
+
+    @Test
+    fun scopedBindingIsReplacedByInjectTest() {
+        assumeTrue(ScopedContextCarrier.status() == ScopedContextCarrier.Status.ENABLED)
+        val outer = Context.clear()
+        val inner = Context.clear()
+        outer.inject()
+
+        Context.runWith(inner) {
+            Assertions.assertSame(inner, Context.current())
+            val replaced = Context.clear()
+            Assertions.assertSame(replaced, Context.current())
+        }
+
+        Assertions.assertSame(outer, Context.current())
+    }
+
+    @Test
+    fun structuredTaskScopeSubtaskGetsForkedContextTest() {
+        assumeTrue(ScopedContextCarrier.status() == ScopedContextCarrier.Status.ENABLED)
+        val parent = Context.clear()
+        parent.set(TestKey, "foo")
+        parent.set(TestMutableKey, StringBuilder("foo"))
+
+        val result = Context.callWith(parent) {
+            inSubtask {
+                val context = Context.current()
+                context.get(TestMutableKey)!!.append("bar")
+                context.set(TestKey, "bar")
+                Triple(context !== parent, context.get(TestMutableKey).toString(), Context.current().get(TestKey))
+            }
+        }
+
+        Assertions.assertEquals(Triple(true, "foobar", "bar"), result)
+        Assertions.assertEquals("foo", parent.get(TestKey))
+        Assertions.assertEquals("foo", parent.get(TestMutableKey).toString())
+    }
+
+    /**
+     * StructuredTaskScope is a preview api until JDK 25 and is not available to JDK 17 sources, so it is called reflectively
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun <T> inSubtask(task: Callable<T>): T {
+        val scopeClass = Class.forName("java.util.concurrent.StructuredTaskScope")
+        val scope = try {
+            scopeClass.getMethod("open").invoke(null)
+        } catch (e: NoSuchMethodException) {
+            scopeClass.getConstructor().newInstance()
+        }
+        (scope as AutoCloseable).use {
+            val subtask = scopeClass.getMethod("fork", Callable::class.java).invoke(scope, task)
+            scopeClass.getMethod("join").invoke(scope)
+            return Class.forName("java.util.concurrent.StructuredTaskScope\$Subtask").getMethod("get").invoke(subtask) as T
+        }
+    }
 }
@@ -187,6 +187,7 @@ public final class JdbcRepositoryGenerator implements RepositoryGenerator {
         } else {
             b.addCode("try (_conToClose; var _stmt = _conToUse.prepareStatement(_query.sql())) {$>\n");
         }
+        b.addStatement("$T.applyDeadline(_ctxCurrent, _stmt)", JdbcTypes.JDBC_HELPER);
         b.addCode(StatementSetterGenerator.generate(method, query, parameters, batchParam, parameterMappers));
         if (MethodUtils.isVoid(method)
             || isMono && MethodUtils.isVoidGeneric(methodType.getReturnType())
@@ -6,6 +6,7 @@ public class JdbcTypes {
     public static final ClassName CONNECTION = ClassName.get("java.sql", "Connection");
     public static final ClassName CONNECTION_FACTORY = ClassName.get("ru.tinkoff.kora.database.jdbc", "JdbcConnectionFactory");
     public static final ClassName JDBC_REPOSITORY = ClassName.get("ru.tinkoff.kora.database.jdbc", "JdbcRepository");
+    public static final ClassName JDBC_HELPER = ClassName.get("ru.tinkoff.kora.database.jdbc", "JdbcHelper");
 
     public static final String RESULT_PACKAGE = "ru.tinkoff.kora.database.jdbc.mapper.result";
     public static final ClassName JDBC_DATABASE = ClassName.get("ru.tinkoff.kora.database.jdbc", "JdbcDatabase");
@@ -36,9 +36,11 @@ public interface JdbcConnectionFactory {
     DataBaseTelemetry telemetry();
 
     default <T> T query(QueryContext queryContext, JdbcHelper.SqlFunction1<PreparedStatement, T> callback) {
-        var telemetry = this.telemetry().createContext(Context.current(), queryContext);
+        var context = Context.current();
+        var telemetry = this.telemetry().createContext(context, queryContext);
         return withConnection(connection -> {
             try (var ps = connection.prepareStatement(queryContext.sql())) {
+                JdbcHelper.applyDeadline(context, ps);
                 var result = callback.apply(ps);
                 telemetry.close(null);
                 return result;
@@ -1,11 +1,39 @@
 package ru.tinkoff.kora.database.jdbc;
 
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.Deadline;
+
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
 
 public final class JdbcHelper {
 
     private JdbcHelper() { }
 
+    /**
+     * Caps statement query timeout with the time remaining until {@link Deadline} from the context.
+     * JDBC query timeout has a precision of seconds, so remaining time is rounded up.
+     *
+     * @throws SQLTimeoutException if deadline has already passed
+     */
+    public static void applyDeadline(Context context, Statement statement) throws SQLException {
+        var deadline = Deadline.current(context);
+        if (deadline == null) {
+            return;
+        }
+        var remainingNanos = deadline.remainingNanos();
+        if (remainingNanos <= 0) {
+            throw new SQLTimeoutException("Request deadline exceeded");
+        }
+        var seconds = (int) Math.min(Integer.MAX_VALUE, (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        var current = statement.getQueryTimeout();
+        if (current == 0 || seconds < current) {
+            statement.setQueryTimeout(seconds);
+        }
+    }
+
     public interface SqlFunction0<T> {
         T apply() throws SQLException;
     }
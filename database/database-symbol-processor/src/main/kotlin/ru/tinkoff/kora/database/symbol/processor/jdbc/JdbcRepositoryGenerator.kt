@@ -131,6 +131,7 @@ class JdbcRepositoryGenerator(private val resolver: Resolver) : RepositoryGenera
                     beginControlFlow("_conToUse!!.prepareStatement(_query.sql(), %T.RETURN_GENERATED_KEYS).use { _stmt ->", Statement::class)
                 else
                     beginControlFlow("_conToUse!!.prepareStatement(_query.sql()).use { _stmt ->")
+                addStatement("%T.applyDeadline(_ctxCurrent, _stmt)", JdbcTypes.jdbcHelper)
 
                 StatementSetterGenerator.generate(b, query, parameters, batchParam, parameterMappers)
                 if (methodType.returnType!! == resolver.builtIns.unitType) {
@@ -9,6 +9,7 @@ object JdbcTypes {
     val connectionFactory = ClassName("ru.tinkoff.kora.database.jdbc", "JdbcConnectionFactory")
     val jdbcDatabase = ClassName("ru.tinkoff.kora.database.jdbc", "JdbcDatabase")
     val jdbcRepository = ClassName("ru.tinkoff.kora.database.jdbc", "JdbcRepository")
+    val jdbcHelper = ClassName("ru.tinkoff.kora.database.jdbc", "JdbcHelper")
     val jdbcResultSetMapper = ClassName("ru.tinkoff.kora.database.jdbc.mapper.result", "JdbcResultSetMapper")
     val jdbcRowMapper = ClassName("ru.tinkoff.kora.database.jdbc.mapper.result", "JdbcRowMapper")
     val jdbcResultColumnMapper = ClassName("ru.tinkoff.kora.database.jdbc.mapper.result", "JdbcResultColumnMapper")
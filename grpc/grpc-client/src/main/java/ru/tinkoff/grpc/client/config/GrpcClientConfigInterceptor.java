@@ -1,6 +1,8 @@
 package ru.tinkoff.grpc.client.config;
 
 import io.grpc.*;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.Deadline;
 
 import java.util.concurrent.TimeUnit;
 
@@ -16,6 +18,14 @@ public final class GrpcClientConfigInterceptor implements ClientInterceptor {
         if (callOptions.getDeadline() == null && this.config.timeout() != null) {
             callOptions = callOptions.withDeadlineAfter(this.config.timeout().toMillis(), TimeUnit.MILLISECONDS); // todo per method??
         }
+        var deadline = Deadline.current(Context.current());
+        if (deadline != null) {
+            // grpc sends remaining time of call deadline to the server in grpc-timeout header
+            var requestDeadline = io.grpc.Deadline.after(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+            if (callOptions.getDeadline() == null || requestDeadline.isBefore(callOptions.getDeadline())) {
+                callOptions = callOptions.withDeadline(requestDeadline);
+            }
+        }
         return next.newCall(method, callOptions);
     }
 }
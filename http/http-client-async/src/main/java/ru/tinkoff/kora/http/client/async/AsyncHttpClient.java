@@ -46,6 +46,11 @@ public class AsyncHttpClient implements HttpClient, Lifecycle {
     }
 
     private CompletionStage<HttpClientResponse> processRequest(Context context, HttpClientRequest request) {
+        try {
+            request = HttpClientDeadline.apply(context, request);
+        } catch (HttpClientTimeoutException e) {
+            return CompletableFuture.failedFuture(e);
+        }
         var clientHeaders = new DefaultHttpHeaders();
         for (var header : request.headers()) {
             clientHeaders.add(header.getKey(), header.getValue());
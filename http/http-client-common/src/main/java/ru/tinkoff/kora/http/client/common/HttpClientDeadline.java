@@ -0,0 +1,49 @@
+package ru.tinkoff.kora.http.client.common;
+
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.Deadline;
+import ru.tinkoff.kora.http.client.common.request.DefaultHttpClientRequest;
+import ru.tinkoff.kora.http.client.common.request.HttpClientRequest;
+import ru.tinkoff.kora.http.common.header.RequestTimeoutHeader;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <b>Русский</b>: Применяет крайний срок {@link Deadline} из контекста к запросу HTTP клиента:
+ * таймаут запроса ограничивается оставшимся временем, а оставшееся время передается в заголовке {@link RequestTimeoutHeader#NAME}.
+ * <hr>
+ * <b>English</b>: Applies {@link Deadline} from the context to the HTTP client request:
+ * request timeout is capped with the remaining time and the remaining time is passed in {@link RequestTimeoutHeader#NAME} header.
+ */
+public final class HttpClientDeadline {
+
+    private static final Duration MIN_TIMEOUT = Duration.ofMillis(1);
+
+    private HttpClientDeadline() {}
+
+    /**
+     * @throws HttpClientTimeoutException <b>Русский</b>: если крайний срок уже прошел и запрос не имеет смысла отправлять.
+     *                                    <hr>
+     *                                    <b>English</b>: if deadline has already passed and there is no point in sending the request.
+     */
+    public static HttpClientRequest apply(Context context, HttpClientRequest request) throws HttpClientTimeoutException {
+        var deadline = Deadline.current(context);
+        if (deadline == null) {
+            return request;
+        }
+        if (deadline.isExpired()) {
+            throw new HttpClientTimeoutException(new TimeoutException("Request deadline exceeded"));
+        }
+        var timeout = Deadline.timeout(context, request.requestTimeout());
+        if (timeout.compareTo(MIN_TIMEOUT) < 0) {
+            // clients work with millisecond timeouts and treat zero as no timeout at all
+            timeout = MIN_TIMEOUT;
+        }
+        request.headers().set(RequestTimeoutHeader.NAME, RequestTimeoutHeader.format(timeout));
+        if (timeout.equals(request.requestTimeout())) {
+            return request;
+        }
+        return new DefaultHttpClientRequest(request.method(), request.uri(), request.uriTemplate(), request.headers(), request.body(), timeout);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.tinkoff.kora.http.client.common;
+
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.Deadline;
+import ru.tinkoff.kora.http.client.common.request.HttpClientRequest;
+import ru.tinkoff.kora.http.common.header.RequestTimeoutHeader;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpClientDeadlineTest {
+
+    @Test
+    void requestWithoutDeadlineIsNotChanged() {
+        // given
+        var request = HttpClientRequest.get("/foo").requestTimeout(Duration.ofSeconds(10)).build();
+
+        // when
+        var result = HttpClientDeadline.apply(Context.clear(), request);
+
+        // then
+        assertThat(result).isSameAs(request);
+        assertThat(result.headers().has(RequestTimeoutHeader.NAME)).isFalse();
+    }
+
+    @Test
+    void timeoutIsCappedWithDeadline() {
+        // given
+        var context = Context.clear();
+        Deadline.set(context, Deadline.after(Duration.ofSeconds(2)));
+        var request = HttpClientRequest.get("/foo").requestTimeout(Duration.ofSeconds(10)).build();
+
+        // when
+        var result = HttpClientDeadline.apply(context, request);
+
+        // then
+        assertThat(result.requestTimeout()).isLessThanOrEqualTo(Duration.ofSeconds(2)).isGreaterThan(Duration.ofSeconds(1));
+        assertThat(RequestTimeoutHeader.parse(result.headers().getFirst(RequestTimeoutHeader.NAME))).isEqualTo(Duration.ofMillis(result.requestTimeout().toMillis()));
+    }
+
+    @Test
+    void shorterRequestTimeoutIsKept() {
+        // given
+        var context = Context.clear();
+        Deadline.set(context, Deadline.after(Duration.ofSeconds(20)));
+        var request = HttpClientRequest.get("/foo").requestTimeout(Duration.ofSeconds(1)).build();
+
+        // when
+        var result = HttpClientDeadline.apply(context, request);
+
+        // then
+        assertThat(result.requestTimeout()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(result.headers().getFirst(RequestTimeoutHeader.NAME)).isEqualTo("1000");
+    }
+
+    @Test
+    void expiredDeadlineFailsRequest() {
+        // given
+        var context = Context.clear();
+        Deadline.set(context, Deadline.after(Duration.ZERO));
+        var request = HttpClientRequest.get("/foo").build();
+
+        // then
+        assertThatThrownBy(() -> HttpClientDeadline.apply(context, request)).isInstanceOf(HttpClientTimeoutException.class);
+    }
+}
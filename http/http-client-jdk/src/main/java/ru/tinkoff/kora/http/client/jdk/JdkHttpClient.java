@@ -1,5 +1,6 @@
 package ru.tinkoff.kora.http.client.jdk;
 
+import ru.tinkoff.kora.common.Context;
 import ru.tinkoff.kora.http.client.common.*;
 import ru.tinkoff.kora.http.client.common.request.HttpClientRequest;
 import ru.tinkoff.kora.http.client.common.response.HttpClientResponse;
@@ -24,6 +25,11 @@ public class JdkHttpClient implements HttpClient {
 
     @Override
     public CompletionStage<HttpClientResponse> execute(HttpClientRequest request) {
+        try {
+            request = HttpClientDeadline.apply(Context.current(), request);
+        } catch (HttpClientTimeoutException e) {
+            return CompletableFuture.failedFuture(e);
+        }
         var httpClientRequest = HttpRequest.newBuilder()
             .uri(request.uri());
         if (request.requestTimeout() != null) {
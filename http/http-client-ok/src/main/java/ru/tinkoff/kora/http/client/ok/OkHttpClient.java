@@ -4,8 +4,10 @@ import jakarta.annotation.Nullable;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.internal.http.HttpMethod;
+import ru.tinkoff.kora.common.Context;
 import ru.tinkoff.kora.http.client.common.HttpClient;
 import ru.tinkoff.kora.http.client.common.HttpClientConnectionException;
+import ru.tinkoff.kora.http.client.common.HttpClientDeadline;
 import ru.tinkoff.kora.http.client.common.HttpClientTimeoutException;
 import ru.tinkoff.kora.http.client.common.request.HttpClientRequest;
 import ru.tinkoff.kora.http.client.common.response.HttpClientResponse;
@@ -24,6 +26,7 @@ public final class OkHttpClient implements HttpClient {
     @Override
     public CompletionStage<HttpClientResponse> execute(HttpClientRequest request) {
         try {
+            request = HttpClientDeadline.apply(Context.current(), request);
             var b = new Request.Builder();
             b.method(request.method(), toRequestBody(request))
                 .url(request.uri().toURL());
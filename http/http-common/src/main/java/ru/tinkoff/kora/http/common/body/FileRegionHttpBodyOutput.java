@@ -0,0 +1,174 @@
+package ru.tinkoff.kora.http.common.body;
+
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>Русский</b>: Тело ответа из участка файла.
+ * Сервер может передать его в сокет без копирования через {@link #openChannel()} и {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * при подписке файл читается по частям по запросу подписчика.
+ * <hr>
+ * <b>English</b>: Response body of a file region.
+ * Server can transfer it to the socket without copying via {@link #openChannel()} and {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * when subscribed the file is read by chunks on subscriber demand.
+ */
+public final class FileRegionHttpBodyOutput extends AtomicBoolean implements HttpBodyOutput {
+    private static final int READ_CHUNK_SIZE = 16 * 1024;
+
+    @Nullable
+    private final String contentType;
+    private final Path file;
+    private final long position;
+    private final long count;
+
+    public FileRegionHttpBodyOutput(@Nullable String contentType, Path file, long position, long count) {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("File region position and count should not be negative");
+        }
+        this.contentType = contentType;
+        this.file = file;
+        this.position = position;
+        this.count = count;
+    }
+
+    public static FileRegionHttpBodyOutput of(@Nullable String contentType, Path file, long size) {
+        return new FileRegionHttpBodyOutput(contentType, file, 0, size);
+    }
+
+    public Path file() {
+        return this.file;
+    }
+
+    public long position() {
+        return this.position;
+    }
+
+    @Override
+    public long contentLength() {
+        return this.count;
+    }
+
+    @Nullable
+    @Override
+    public String contentType() {
+        return this.contentType;
+    }
+
+    /**
+     * <b>Русский</b>: Открывает файл для передачи участка {@link #position()} - {@link #contentLength()}, закрыть канал должен вызывающий.
+     * Тело может быть прочитано только один раз.
+     * <hr>
+     * <b>English</b>: Opens file to transfer region {@link #position()} - {@link #contentLength()}, caller should close the channel.
+     * Body can be read only once.
+     */
+    public FileChannel openChannel() throws IOException {
+        if (!this.compareAndSet(false, true)) {
+            throw new IllegalStateException("Body was already subscribed");
+        }
+        return FileChannel.open(this.file, StandardOpenOption.READ);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        final FileChannel channel;
+        try {
+            channel = this.openChannel();
+        } catch (IOException e) {
+            subscriber.onSubscribe(new FileRegionSubscription(subscriber, null, 0, 0));
+            subscriber.onError(e);
+            return;
+        }
+        subscriber.onSubscribe(new FileRegionSubscription(subscriber, channel, this.position, this.count));
+    }
+
+    @Override
+    public void close() {
+        this.set(true);
+    }
+
+    private static final class FileRegionSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        @Nullable
+        private final FileChannel channel;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+        private long position;
+        private long remaining;
+
+        private FileRegionSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, @Nullable FileChannel channel, long position, long count) {
+            this.subscriber = subscriber;
+            this.channel = channel;
+            this.position = position;
+            this.remaining = count;
+            this.done = channel == null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.terminate();
+                this.subscriber.onError(new IllegalArgumentException("Requested " + n + " items, should be positive"));
+                return;
+            }
+            this.demand.getAndAccumulate(n, (current, requested) -> current + requested < 0 ? Long.MAX_VALUE : current + requested);
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            var missed = 1;
+            do {
+                while (!this.done && this.demand.get() > 0) {
+                    if (this.remaining == 0) {
+                        this.terminate();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    final ByteBuffer chunk;
+                    try {
+                        chunk = ByteBuffer.allocate((int) Math.min(READ_CHUNK_SIZE, this.remaining));
+                        while (chunk.hasRemaining()) {
+                            var read = this.channel.read(chunk, this.position + chunk.position());
+                            if (read < 0) {
+                                throw new IOException("Unexpected end of file " + this.remaining + " bytes before region end");
+                            }
+                        }
+                    } catch (IOException e) {
+                        this.terminate();
+                        this.subscriber.onError(e);
+                        return;
+                    }
+                    this.position += chunk.limit();
+                    this.remaining -= chunk.limit();
+                    this.demand.decrementAndGet();
+                    this.subscriber.onNext(chunk.flip());
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void cancel() {
+            this.terminate();
+        }
+
+        private void terminate() {
+            if (this.done) {
+                return;
+            }
+            this.done = true;
+            try {
+                this.channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.tinkoff.kora.http.common.body;
+
+import jakarta.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Keeps the first pooled buffer until the next one arrives: single buffer bodies are read without copying.
+ */
+final class PooledContentSubscriber<T> implements Flow.Subscriber<ReleasableByteBuffer> {
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final long contentLength;
+    private final PooledHttpBodyInput.ContentReader<T> reader;
+    private final CompletableFuture<T> future;
+    private Flow.Subscription subscription;
+    @Nullable
+    private ReleasableByteBuffer first;
+    @Nullable
+    private byte[] content;
+    private int size;
+
+    PooledContentSubscriber(long contentLength, PooledHttpBodyInput.ContentReader<T> reader, CompletableFuture<T> future) {
+        this.contentLength = contentLength;
+        this.reader = reader;
+        this.future = future;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ReleasableByteBuffer chunk) {
+        if (this.future.isDone()) {
+            chunk.release();
+            return;
+        }
+        if (this.first == null && this.content == null) {
+            this.first = chunk;
+            return;
+        }
+        try {
+            var first = this.first;
+            if (first != null) {
+                this.first = null;
+                try {
+                    this.append(first.buffer());
+                } finally {
+                    first.release();
+                }
+            }
+            this.append(chunk.buffer());
+        } catch (Throwable e) {
+            this.subscription.cancel();
+            this.future.completeExceptionally(e);
+        } finally {
+            chunk.release();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        this.releaseFirst();
+        this.future.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (this.future.isDone()) {
+            this.releaseFirst();
+            return;
+        }
+        var first = this.first;
+        if (first != null) {
+            this.first = null;
+            try {
+                this.future.complete(this.reader.read(first.buffer()));
+            } catch (Throwable e) {
+                this.future.completeExceptionally(e);
+            } finally {
+                first.release();
+            }
+            return;
+        }
+        var content = this.content == null
+            ? ByteBuffer.allocate(0)
+            : ByteBuffer.wrap(this.content, 0, this.size);
+        this.content = null;
+        try {
+            this.future.complete(this.reader.read(content));
+        } catch (Throwable e) {
+            this.future.completeExceptionally(e);
+        }
+    }
+
+    private void append(ByteBuffer buffer) {
+        var length = buffer.remaining();
+        if ((long) this.size + length > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Request body is too large to be read into memory");
+        }
+        var content = this.content;
+        if (content == null) {
+            var initialSize = this.contentLength >= 0 && this.contentLength <= MAX_ARRAY_SIZE
+                ? (int) this.contentLength
+                : 8 * 1024;
+            content = this.content = new byte[Math.max(initialSize, length)];
+        } else if (this.size + length > content.length) {
+            var newSize = (int) Math.min(MAX_ARRAY_SIZE, Math.max(content.length * 2L, this.size + length));
+            content = this.content = Arrays.copyOf(content, newSize);
+        }
+        buffer.get(content, this.size, length);
+        this.size += length;
+    }
+
+    private void releaseFirst() {
+        var first = this.first;
+        if (first != null) {
+            this.first = null;
+            first.release();
+        }
+    }
+}
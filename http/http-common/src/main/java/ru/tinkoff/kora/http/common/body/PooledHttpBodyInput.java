@@ -0,0 +1,63 @@
+package ru.tinkoff.kora.http.common.body;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * <b>Русский</b>: Тело HTTP запроса, которое может отдавать буферы из пула сервера без копирования
+ * <hr>
+ * <b>English</b>: HTTP request body that can hand out server pooled buffers without copying them
+ * <br>
+ * <br>
+ * Regular {@link #subscribe(Flow.Subscriber)} still delivers copies, as its subscribers are allowed to retain buffers.
+ */
+public interface PooledHttpBodyInput extends HttpBodyInput {
+
+    /**
+     * <b>Русский</b>: Подписка на тело запроса, каждый полученный буфер должен быть освобожден подписчиком
+     * <hr>
+     * <b>English</b>: Subscribes to request body, every received buffer must be released by subscriber
+     */
+    void subscribePooled(Flow.Subscriber<? super ReleasableByteBuffer> subscriber);
+
+    /**
+     * <b>Русский</b>: Читает тело запроса целиком и применяет к нему reader
+     * <hr>
+     * <b>English</b>: Reads whole request body and applies reader to its content.
+     * If body arrives in a single buffer, reader is applied directly to the pooled buffer,
+     * otherwise content is copied once into an array sized by content length.
+     * Buffer passed to reader is valid only during the reader call.
+     */
+    default <T> CompletionStage<T> readPooled(ContentReader<T> reader) {
+        var future = new CompletableFuture<T>();
+        this.subscribePooled(new PooledContentSubscriber<>(this.contentLength(), reader, future));
+        return future;
+    }
+
+    @Override
+    default CompletionStage<ByteBuffer> asBufferStage() {
+        return this.readPooled(content -> ByteBuffer.wrap(toArray(content)));
+    }
+
+    @Override
+    default CompletionStage<byte[]> asArrayStage() {
+        return this.readPooled(PooledHttpBodyInput::toArray);
+    }
+
+    private static byte[] toArray(ByteBuffer content) {
+        if (content.hasArray() && content.arrayOffset() == 0 && content.position() == 0 && content.remaining() == content.array().length) {
+            return content.array();
+        }
+        var array = new byte[content.remaining()];
+        content.get(array);
+        return array;
+    }
+
+    @FunctionalInterface
+    interface ContentReader<T> {
+        T read(ByteBuffer content) throws IOException;
+    }
+}
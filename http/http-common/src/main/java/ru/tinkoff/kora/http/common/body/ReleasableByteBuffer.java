@@ -0,0 +1,25 @@
+package ru.tinkoff.kora.http.common.body;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <b>Русский</b>: Буфер из пула сервера, доступный только на чтение. Буфер нужно освободить после использования, после освобождения обращаться к нему нельзя
+ * <hr>
+ * <b>English</b>: Read-only buffer owned by server pool. Buffer must be released after use and must not be accessed after release
+ */
+public interface ReleasableByteBuffer {
+
+    /**
+     * @return <b>Русский</b>: Возвращает содержимое буфера, позицию можно менять
+     * <hr>
+     * <b>English</b>: Returns buffer content, its position can be changed by consumer
+     */
+    ByteBuffer buffer();
+
+    /**
+     * <b>Русский</b>: Возвращает буфер в пул сервера
+     * <hr>
+     * <b>English</b>: Returns buffer to server pool
+     */
+    void release();
+}
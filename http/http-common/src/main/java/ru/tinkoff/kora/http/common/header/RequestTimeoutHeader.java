@@ -0,0 +1,41 @@
+package ru.tinkoff.kora.http.common.header;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+
+/**
+ * <b>Русский</b>: Заголовок с оставшимся временем на обработку запроса в миллисекундах.
+ * Передается относительное время, а не момент времени, чтобы не зависеть от расхождения часов между сервисами.
+ * <hr>
+ * <b>English</b>: Header with time remaining for request processing in milliseconds.
+ * Relative time is passed instead of a point in time, so it does not depend on clock skew between services.
+ */
+public final class RequestTimeoutHeader {
+
+    public static final String NAME = "x-request-timeout";
+
+    private RequestTimeoutHeader() {}
+
+    public static String format(Duration timeout) {
+        return Long.toString(Math.max(0, timeout.toMillis()));
+    }
+
+    /**
+     * @return <b>Русский</b>: Таймаут или null, если значение заголовка не является неотрицательным числом.
+     * <hr>
+     * <b>English</b>: Timeout or null if header value is not a non-negative number.
+     */
+    @Nullable
+    public static Duration parse(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            var millis = Long.parseLong(value.trim());
+            return millis < 0 ? null : Duration.ofMillis(millis);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
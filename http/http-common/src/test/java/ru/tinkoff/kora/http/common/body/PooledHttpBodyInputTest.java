@@ -0,0 +1,120 @@
+package ru.tinkoff.kora.http.common.body;
+
+import jakarta.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledHttpBodyInputTest {
+
+    @Test
+    void singleBufferIsReadWithoutCopy() {
+        // given
+        var released = new AtomicInteger();
+        var buffer = ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        var body = new TestBody(5, List.of(buffer), released);
+
+        // when
+        var result = body.readPooled(content -> content).toCompletableFuture().join();
+
+        // then
+        assertThat(result).isSameAs(buffer);
+        assertThat(released).hasValue(1);
+    }
+
+    @Test
+    void multipleBuffersAreCopiedOnce() {
+        // given
+        var released = new AtomicInteger();
+        var body = new TestBody(11, List.of(
+            ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(),
+            ByteBuffer.wrap(" ".getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(),
+            ByteBuffer.wrap("world".getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer()
+        ), released);
+
+        // when
+        var result = body.asArrayStage().toCompletableFuture().join();
+
+        // then
+        assertThat(result).asString(StandardCharsets.UTF_8).isEqualTo("hello world");
+        assertThat(released).hasValue(3);
+    }
+
+    @Test
+    void unknownContentLength() {
+        // given
+        var released = new AtomicInteger();
+        var content = new byte[20000];
+        var body = new TestBody(-1, List.of(
+            ByteBuffer.wrap(content, 0, 10000).slice().asReadOnlyBuffer(),
+            ByteBuffer.wrap(content, 10000, 10000).slice().asReadOnlyBuffer()
+        ), released);
+
+        // when
+        var result = body.asArrayStage().toCompletableFuture().join();
+
+        // then
+        assertThat(result).hasSize(20000);
+        assertThat(released).hasValue(2);
+    }
+
+    @Test
+    void emptyBody() {
+        // given
+        var body = new TestBody(0, List.of(), new AtomicInteger());
+
+        // when
+        var result = body.asArrayStage().toCompletableFuture().join();
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    private record TestBody(long contentLength, List<ByteBuffer> buffers, AtomicInteger released) implements PooledHttpBodyInput {
+
+        @Override
+        public void subscribePooled(Flow.Subscriber<? super ReleasableByteBuffer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            for (var buffer : this.buffers) {
+                subscriber.onNext(new ReleasableByteBuffer() {
+                    @Override
+                    public ByteBuffer buffer() {
+                        return buffer;
+                    }
+
+                    @Override
+                    public void release() {
+                        released.incrementAndGet();
+                    }
+                });
+            }
+            subscriber.onComplete();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nullable
+        @Override
+        public String contentType() {
+            return null;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
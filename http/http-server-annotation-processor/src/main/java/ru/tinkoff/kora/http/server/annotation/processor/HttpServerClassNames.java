@@ -23,5 +23,7 @@ public class HttpServerClassNames {
     public static final ClassName httpServerRequest = ClassName.get("ru.tinkoff.kora.http.server.common", "HttpServerRequest");
     public static final ClassName httpRoute = ClassName.get("ru.tinkoff.kora.http.common.annotation", "HttpRoute");
     public static final ClassName blockingRequestExecutor = ClassName.get("ru.tinkoff.kora.http.server.common.handler", "BlockingRequestExecutor");
+    public static final ClassName responseCache = ClassName.get("ru.tinkoff.kora.http.server.common.annotation", "ResponseCache");
+    public static final ClassName responseCacheInterceptor = ClassName.get("ru.tinkoff.kora.http.server.common.cache", "ResponseCacheHttpServerInterceptor");
     public static final ClassName requestHandlerUtils = ClassName.get("ru.tinkoff.kora.http.server.common.handler", "RequestHandlerUtils");
 }
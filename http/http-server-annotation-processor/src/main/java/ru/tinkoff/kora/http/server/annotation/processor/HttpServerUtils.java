@@ -91,4 +91,24 @@ public class HttpServerUtils {
             responseMapper
         );
     }
+
+    /**
+     * @return position of {@code {name}} segment among all path parameters of route template or -1 if there is no such parameter
+     */
+    public static int pathParameterIndex(String route, String name) {
+        var index = 0;
+        var start = route.indexOf('{');
+        while (start >= 0) {
+            var end = route.indexOf('}', start);
+            if (end < 0) {
+                return -1;
+            }
+            if (route.regionMatches(start + 1, name, 0, name.length()) && end == start + 1 + name.length()) {
+                return index;
+            }
+            index++;
+            start = route.indexOf('{', end);
+        }
+        return -1;
+    }
 }
@@ -91,7 +91,8 @@ public class RequestHandlerGenerator {
             methodBuilder.addParameter(blockingRequestExecutor, "_executor");
         }
 
-        var handlerCode = this.buildRequestHandler(controller, requestMappingData, parameters, methodBuilder);
+        var responseCacheInterceptorName = this.defineResponseCache(requestMappingData, methodBuilder);
+        var handlerCode = this.buildRequestHandler(controller, requestMappingData, parameters, methodBuilder, responseCacheInterceptorName);
 
         methodBuilder.addCode("return $T.of($S, $S, (_ctx, _request) -> {$>\n$L\n$<});",
             HttpServerClassNames.httpServerRequestHandlerImpl,
@@ -103,7 +104,37 @@ public class RequestHandlerGenerator {
         return methodBuilder.build();
     }
 
-    private CodeBlock buildRequestHandler(TypeElement controller, RequestMappingData requestMappingData, List<Parameter> parameters, MethodSpec.Builder methodBuilder) {
+    /**
+     * @return name of response cache interceptor variable or null if route is not cached
+     */
+    @Nullable
+    private String defineResponseCache(RequestMappingData requestMappingData, MethodSpec.Builder methodBuilder) {
+        var method = requestMappingData.executableElement();
+        var annotation = AnnotationUtils.findAnnotation(method, responseCache);
+        if (annotation == null) {
+            return null;
+        }
+        if (!requestMappingData.httpMethod().equalsIgnoreCase("GET")) {
+            throw new HttpProcessorException("@ResponseCache can be used only on GET routes", method);
+        }
+        var cacheType = Objects.requireNonNull(AnnotationUtils.<TypeMirror>parseAnnotationValueWithoutDefault(annotation, "value"));
+        var cacheInterface = this.elements.getTypeElement("ru.tinkoff.kora.cache.Cache");
+        if (cacheInterface == null || !this.types.isAssignable(this.types.erasure(cacheType), this.types.erasure(cacheInterface.asType()))) {
+            throw new HttpProcessorException("@ResponseCache value should implement ru.tinkoff.kora.cache.Cache<HttpResponseCacheKey, CachedHttpResponse>", method);
+        }
+        List<String> queries = Objects.requireNonNullElse(AnnotationUtils.parseAnnotationValueWithoutDefault(annotation, "queries"), List.of());
+        List<String> headers = Objects.requireNonNullElse(AnnotationUtils.parseAnnotationValueWithoutDefault(annotation, "headers"), List.of());
+        methodBuilder.addParameter(TypeName.get(cacheType), "_responseCache");
+        methodBuilder.addStatement("var _responseCacheInterceptor = new $T(_responseCache, $S, $T.of($L), $T.of($L))",
+            responseCacheInterceptor,
+            requestMappingData.route(),
+            List.class, queries.stream().map(q -> CodeBlock.of("$S", q)).collect(CodeBlock.joining(", ")),
+            List.class, headers.stream().map(h -> CodeBlock.of("$S", h)).collect(CodeBlock.joining(", "))
+        );
+        return "_responseCacheInterceptor";
+    }
+
+    private CodeBlock buildRequestHandler(TypeElement controller, RequestMappingData requestMappingData, List<Parameter> parameters, MethodSpec.Builder methodBuilder, @Nullable String responseCacheInterceptorName) {
         var handler = CodeBlock.builder();
         var returnType = requestMappingData.executableType().getReturnType();
 
@@ -118,20 +149,28 @@ public class RequestHandlerGenerator {
 
         var requestMappingBlock = CodeBlock.builder();
         var requestName = "_request";
+        var interceptorNames = new ArrayList<String>(interceptors.size() + 1);
         for (int i = 0; i < interceptors.size(); i++) {
             var interceptor = interceptors.get(i);
             var interceptorName = "_interceptor" + (i + 1);
-            var newRequestName = "_request" + (i + 1);
-            var ctxName = "_ctx_" + (i + 1);
-            requestMappingBlock.beginControlFlow("try").add("return ");
-            requestMappingBlock.add("$L.intercept(_ctx, $L, ($N, $N) -> $>{\n", interceptorName, requestName, ctxName, newRequestName);
-            requestName = newRequestName;
+            interceptorNames.add(interceptorName);
             var builder = ParameterSpec.builder(interceptor.type(), interceptorName);
             if (interceptor.tag() != null) {
                 builder.addAnnotation(interceptor.tag());
             }
             methodBuilder.addParameter(builder.build());
         }
+        if (responseCacheInterceptorName != null) {
+            // innermost, so authorization and other interceptors still run on cache hits
+            interceptorNames.add(responseCacheInterceptorName);
+        }
+        for (int i = 0; i < interceptorNames.size(); i++) {
+            var newRequestName = "_request" + (i + 1);
+            var ctxName = "_ctx_" + (i + 1);
+            requestMappingBlock.beginControlFlow("try").add("return ");
+            requestMappingBlock.add("$L.intercept(_ctx, $L, ($N, $N) -> $>{\n", interceptorNames.get(i), requestName, ctxName, newRequestName);
+            requestName = newRequestName;
+        }
         handler.add(requestMappingBlock.build());
 
         for (var parameter : parameters) {
@@ -152,7 +191,7 @@ public class RequestHandlerGenerator {
 
         for (var parameter : parameters) {
             var codeBlock = switch (parameter.parameterType) {
-                case PATH -> this.definePathParameter(parameter, methodBuilder);
+                case PATH -> this.definePathParameter(requestMappingData, parameter, methodBuilder);
                 case QUERY -> this.defineQueryParameter(parameter, methodBuilder);
                 case HEADER -> this.defineHeaderParameter(parameter, methodBuilder);
                 case COOKIE -> this.defineCookieParameter(parameter, methodBuilder);
@@ -184,7 +223,7 @@ public class RequestHandlerGenerator {
 
         handler.add(controllerCall);
 
-        for (int i = 0; i < interceptors.size(); i++) {
+        for (int i = 0; i < interceptorNames.size(); i++) {
             handler.addStatement("$<})");
             handler.nextControlFlow("catch (Exception _e)")
                 .addStatement("return $T.failedFuture(_e)", CompletableFuture.class)
@@ -357,16 +396,20 @@ public class RequestHandlerGenerator {
         return b.build();
     }
 
-    private CodeBlock definePathParameter(Parameter parameter, MethodSpec.Builder methodBuilder) {
+    private CodeBlock definePathParameter(RequestMappingData requestMappingData, Parameter parameter, MethodSpec.Builder methodBuilder) {
         var code = CodeBlock.builder();
         var typeString = TypeName.get(parameter.type).withoutAnnotations().toString();
+        var index = HttpServerUtils.pathParameterIndex(requestMappingData.route(), parameter.name);
+        var args = index < 0
+            ? CodeBlock.of("_request, $S", parameter.name)
+            : CodeBlock.of("_request, $L, $S", index, parameter.name);
         switch (typeString) {
-            case "java.lang.Boolean", "boolean" -> code.add("$L = $T.parseBooleanPathParameter(_request, $S);", parameter.variableElement, requestHandlerUtils, parameter.name);
-            case "java.lang.Integer", "int" -> code.add("$L = $T.parseIntegerPathParameter(_request, $S);", parameter.variableElement, requestHandlerUtils, parameter.name);
-            case "java.lang.Long", "long" -> code.add("$L = $T.parseLongPathParameter(_request, $S);", parameter.variableElement, requestHandlerUtils, parameter.name);
-            case "java.lang.Double", "double" -> code.add("$L = $T.parseDoublePathParameter(_request, $S);", parameter.variableElement, requestHandlerUtils, parameter.name);
-            case "java.lang.String" -> code.add("$L = $T.parseStringPathParameter(_request, $S);", parameter.variableElement, requestHandlerUtils, parameter.name);
-            case "java.util.UUID" -> code.add("$L = $T.parseUUIDPathParameter(_request, $S);", parameter.variableElement, requestHandlerUtils, parameter.name);
+            case "java.lang.Boolean", "boolean" -> code.add("$L = $T.parseBooleanPathParameter($L);", parameter.variableElement, requestHandlerUtils, args);
+            case "java.lang.Integer", "int" -> code.add("$L = $T.parseIntegerPathParameter($L);", parameter.variableElement, requestHandlerUtils, args);
+            case "java.lang.Long", "long" -> code.add("$L = $T.parseLongPathParameter($L);", parameter.variableElement, requestHandlerUtils, args);
+            case "java.lang.Double", "double" -> code.add("$L = $T.parseDoublePathParameter($L);", parameter.variableElement, requestHandlerUtils, args);
+            case "java.lang.String" -> code.add("$L = $T.parseStringPathParameter($L);", parameter.variableElement, requestHandlerUtils, args);
+            case "java.util.UUID" -> code.add("$L = $T.parseUUIDPathParameter($L);", parameter.variableElement, requestHandlerUtils, args);
             default -> {
                 var parameterReaderType = ParameterizedTypeName.get(
                     HttpServerClassNames.stringParameterReader,
@@ -374,7 +417,7 @@ public class RequestHandlerGenerator {
                 );
                 var parameterReaderName = "_" + parameter.variableElement.getSimpleName().toString() + "Reader";
                 methodBuilder.addParameter(parameterReaderType, parameterReaderName);
-                code.add("$L = $L.read($T.parseStringPathParameter(_request, $S));", parameter.variableElement, parameterReaderName, requestHandlerUtils, parameter.name);
+                code.add("$L = $L.read($T.parseStringPathParameter($L));", parameter.variableElement, parameterReaderName, requestHandlerUtils, args);
                 return code.build();
             }
         }
@@ -0,0 +1,83 @@
+package ru.tinkoff.kora.http.server.common.router;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares stem based {@link PathTemplateMatcher} with segment trie {@link PathTemplateRouter}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Measurement(time = 5, iterations = 5)
+@Warmup(time = 5, iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class RouterBenchmark {
+    @Param({"10", "100", "1000"})
+    public int routes;
+
+    private PathTemplateMatcher<Integer> matcher;
+    private PathTemplateRouter<Integer> router;
+    private String[] paths;
+    private int index;
+
+    @Setup
+    public void setup() {
+        var random = new Random(1337);
+        this.matcher = new PathTemplateMatcher<>();
+        this.router = new PathTemplateRouter<>();
+        this.paths = new String[this.routes];
+        for (int i = 0; i < this.routes; i++) {
+            var service = "service" + (i % 17);
+            var resource = "resource" + i;
+            final String template;
+            final String path;
+            switch (i % 4) {
+                case 0 -> {
+                    template = "/api/v1/" + service + "/" + resource;
+                    path = template;
+                }
+                case 1 -> {
+                    template = "/api/v1/" + service + "/" + resource + "/{id}";
+                    path = "/api/v1/" + service + "/" + resource + "/" + random.nextInt(100000);
+                }
+                case 2 -> {
+                    template = "/api/v1/" + service + "/{tenant}/" + resource + "/{id}/items";
+                    path = "/api/v1/" + service + "/tenant" + random.nextInt(100) + "/" + resource + "/" + random.nextInt(100000) + "/items";
+                }
+                default -> {
+                    template = "/api/v1/" + service + "/" + resource + "/files/*";
+                    path = "/api/v1/" + service + "/" + resource + "/files/some/file.txt";
+                }
+            }
+            this.matcher.add(template, i);
+            this.router.add(template, i);
+            this.paths[i] = path;
+        }
+        for (int i = 0; i < this.routes; i++) {
+            var expected = this.matcher.match(this.paths[i]);
+            var actual = this.router.match(this.paths[i]);
+            if (expected == null || actual == null || !expected.value().equals(actual.value()) || !expected.parameters().equals(actual.parameters())) {
+                throw new IllegalStateException("Router mismatch for " + this.paths[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object pathTemplateMatcher() {
+        return this.matcher.match(nextPath());
+    }
+
+    @Benchmark
+    public Object pathTemplateRouter() {
+        return this.router.match(nextPath());
+    }
+
+    private String nextPath() {
+        var i = this.index;
+        this.index = i + 1 == this.paths.length ? 0 : i + 1;
+        return this.paths[i];
+    }
+}
@@ -1,9 +1,17 @@
 package ru.tinkoff.kora.http.server.common;
 
 import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.body.HttpServerRequestBodyConfig;
+import ru.tinkoff.kora.http.server.common.deadline.HttpServerDeadlineConfig;
+import ru.tinkoff.kora.http.server.common.form.HttpServerMultipartConfig;
+import ru.tinkoff.kora.http.server.common.limit.HttpServerConcurrencyLimitConfig;
+import ru.tinkoff.kora.http.server.common.probe.HttpServerProbeConfig;
+import ru.tinkoff.kora.http.server.common.singleflight.HttpServerSingleFlightConfig;
+import ru.tinkoff.kora.http.server.common.stream.HttpServerEventStreamConfig;
 import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTelemetryConfig;
 
 import java.time.Duration;
+import java.util.Set;
 
 @ConfigValueExtractor
 public interface HttpServerConfig {
@@ -20,6 +28,13 @@ public interface HttpServerConfig {
         return "/metrics";
     }
 
+    /**
+     * Rendered metrics are shared by scrapes for this long, metrics are written straight to response on every scrape if zero
+     */
+    default Duration privateApiHttpMetricsCacheTtl() {
+        return Duration.ZERO;
+    }
+
     default String privateApiHttpReadinessPath() {
         return "/system/readiness";
     }
@@ -61,4 +76,104 @@ public interface HttpServerConfig {
     }
 
     HttpServerTelemetryConfig telemetry();
+
+    HttpServerCompressionConfig compression();
+
+    HttpServerHttp2Config http2();
+
+    HttpServerMultipartConfig multipart();
+
+    HttpServerRequestBodyConfig requestBody();
+
+    HttpServerDeadlineConfig deadline();
+
+    HttpServerConcurrencyLimitConfig concurrencyLimit();
+
+    HttpServerSingleFlightConfig singleFlight();
+
+    HttpServerEventStreamConfig eventStream();
+
+    HttpServerProbeConfig probes();
+
+    /**
+     * Response body compression with gzip or deflate, negotiated by request Accept-Encoding header
+     */
+    @ConfigValueExtractor
+    interface HttpServerCompressionConfig {
+
+        default boolean enabled() {
+            return false;
+        }
+
+        /**
+         * Bodies with known content length smaller than this are sent as is, streaming bodies of unknown length are always compressed
+         */
+        default int minSize() {
+            return 1024;
+        }
+
+        /**
+         * Content types without parameters eligible for compression
+         */
+        default Set<String> mimeTypes() {
+            return Set.of(
+                "application/json",
+                "application/xml",
+                "application/javascript",
+                "application/x-ndjson",
+                "text/plain",
+                "text/html",
+                "text/css",
+                "text/csv",
+                "text/xml",
+                "text/event-stream"
+            );
+        }
+
+        /**
+         * Deflate level from 1 (fastest) to 9 (best compression)
+         */
+        default int level() {
+            return 6;
+        }
+
+        /**
+         * Max number of idle deflaters kept for reuse per encoding
+         */
+        default int poolSize() {
+            return 64;
+        }
+    }
+
+    /**
+     * HTTP/2 over cleartext on public api port: both prior knowledge connections and HTTP/1.1 Upgrade to h2c are accepted
+     */
+    @ConfigValueExtractor
+    interface HttpServerHttp2Config {
+
+        default boolean enabled() {
+            return false;
+        }
+
+        /**
+         * SETTINGS_MAX_CONCURRENT_STREAMS advertised to client, limits number of requests in flight on a single connection
+         */
+        default int maxConcurrentStreams() {
+            return 100;
+        }
+
+        /**
+         * SETTINGS_INITIAL_WINDOW_SIZE advertised to client, amount of request body data client may send per stream without waiting for window update
+         */
+        default int initialWindowSize() {
+            return 65535;
+        }
+
+        /**
+         * SETTINGS_MAX_FRAME_SIZE advertised to client, between 16384 and 16777215
+         */
+        default int maxFrameSize() {
+            return 16384;
+        }
+    }
 }
@@ -10,10 +10,16 @@ import ru.tinkoff.kora.common.liveness.LivenessProbe;
 import ru.tinkoff.kora.common.readiness.ReadinessProbe;
 import ru.tinkoff.kora.config.common.Config;
 import ru.tinkoff.kora.config.common.extractor.ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.body.RequestBodyLimitHttpServerInterceptor;
+import ru.tinkoff.kora.http.server.common.deadline.DeadlineHttpServerInterceptor;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandler;
+import ru.tinkoff.kora.http.server.common.limit.ConcurrencyLimitHttpServerInterceptor;
 import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.http.server.common.singleflight.SingleFlightHttpServerInterceptor;
+import ru.tinkoff.kora.http.server.common.stream.HttpServerEventStreams;
 import ru.tinkoff.kora.http.server.common.telemetry.*;
 
+import java.util.ArrayList;
 import java.util.Optional;
 
 public interface HttpServerModule extends StringParameterReadersModule, HttpServerRequestMapperModule, HttpServerResponseMapperModule {
@@ -22,18 +28,48 @@ public interface HttpServerModule extends StringParameterReadersModule, HttpServ
         return configValueExtractor.extract(config.get("httpServer"));
     }
 
+    @DefaultComponent
+    default HttpServerEventStreams httpServerEventStreams(HttpServerConfig config, @Nullable HttpServerMetricsFactory metricsFactory) {
+        var metrics = metricsFactory == null ? null : metricsFactory.get(config.telemetry().metrics());
+        return new HttpServerEventStreams(config.eventStream(), metrics);
+    }
+
     default PrivateApiHandler privateApiHandler(ValueOf<HttpServerConfig> config,
                                                 ValueOf<Optional<PrivateApiMetrics>> meterRegistry,
                                                 All<PromiseOf<ReadinessProbe>> readinessProbes,
                                                 All<PromiseOf<LivenessProbe>> livenessProbes) {
-        return new PrivateApiHandler(config, meterRegistry, readinessProbes, livenessProbes);
+        return new PrivateApiHandler(config, meterRegistry, readinessProbes, livenessProbes, config.get().probes());
     }
 
+    /**
+     * Built-in interceptors are added only when enabled by config and always wrap {@link HttpServerModule} tagged interceptors in the same order,
+     * from outermost to innermost: deadline, single flight, concurrency limit, request body limit.
+     * Deadline covers time spent waiting for coalesced response and for limiter, coalesced requests wait without holding a limiter permit
+     * and body limit is applied only to requests that are going to be processed.
+     */
     default PublicApiHandler publicApiHandler(All<HttpServerRequestHandler> handlers,
                                               @Tag(HttpServerModule.class) All<HttpServerInterceptor> interceptors,
                                               HttpServerTelemetryFactory telemetry,
-                                              HttpServerConfig config) {
-        return new PublicApiHandler(handlers, interceptors, telemetry, config);
+                                              HttpServerConfig config,
+                                              @Nullable HttpServerMetricsFactory metricsFactory) {
+        var metrics = metricsFactory == null ? null : metricsFactory.get(config.telemetry().metrics());
+        // interceptor added last is the outermost one
+        var chain = new ArrayList<HttpServerInterceptor>(interceptors.size() + 4);
+        chain.addAll(interceptors);
+        var requestBody = config.requestBody();
+        if (requestBody.maxSize() != null || !requestBody.routes().isEmpty()) {
+            chain.add(new RequestBodyLimitHttpServerInterceptor(requestBody));
+        }
+        if (config.concurrencyLimit().enabled()) {
+            chain.add(new ConcurrencyLimitHttpServerInterceptor(config.concurrencyLimit(), metrics));
+        }
+        if (config.singleFlight().enabled() && !config.singleFlight().routes().isEmpty()) {
+            chain.add(new SingleFlightHttpServerInterceptor(config.singleFlight(), metrics));
+        }
+        if (config.deadline().enabled()) {
+            chain.add(new DeadlineHttpServerInterceptor(config.deadline()));
+        }
+        return new PublicApiHandler(handlers, chain, telemetry, config);
     }
 
     @DefaultComponent
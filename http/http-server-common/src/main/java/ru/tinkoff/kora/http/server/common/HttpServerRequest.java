@@ -29,5 +29,17 @@ public interface HttpServerRequest {
 
     Map<String, String> pathParams();
 
+    /**
+     * Path parameter lookup by its position in route template, implementations bound to a matched route may resolve it without building {@link #pathParams()} map
+     *
+     * @param index position of {@code {name}} segment in route template
+     * @param name  parameter name
+     * @return parameter value or null if there is no such parameter
+     */
+    @Nullable
+    default String pathParam(int index, String name) {
+        return this.pathParams().get(name);
+    }
+
     HttpBodyInput body();
 }
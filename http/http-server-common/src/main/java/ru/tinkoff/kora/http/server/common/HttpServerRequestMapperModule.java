@@ -1,11 +1,15 @@
 package ru.tinkoff.kora.http.server.common;
 
+import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.http.common.form.FormMultipart.FormPart.MultipartFileStream;
 import ru.tinkoff.kora.http.common.form.FormUrlEncoded;
 import ru.tinkoff.kora.http.server.common.form.FormMultipartAsyncServerRequestMapper;
 import ru.tinkoff.kora.http.server.common.form.FormMultipartServerRequestMapper;
 import ru.tinkoff.kora.http.server.common.form.FormUrlEncodedAsyncServerRequestMapper;
 import ru.tinkoff.kora.http.server.common.form.FormUrlEncodedServerRequestMapper;
+import ru.tinkoff.kora.http.server.common.form.MultipartReader;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestMapper;
 
 import java.io.InputStream;
@@ -134,11 +138,15 @@ public interface HttpServerRequestMapperModule {
         return new FormUrlEncodedAsyncServerRequestMapper();
     }
 
-    default FormMultipartAsyncServerRequestMapper formMultipartAsyncServerRequestMapper() {
-        return new FormMultipartAsyncServerRequestMapper();
+    default FormMultipartAsyncServerRequestMapper formMultipartAsyncServerRequestMapper(HttpServerConfig config, @Nullable BlockingRequestExecutor executor) {
+        return new FormMultipartAsyncServerRequestMapper(config.multipart(), executor);
     }
 
-    default FormMultipartServerRequestMapper formMultipartServerRequestMapper() {
-        return new FormMultipartServerRequestMapper();
+    default FormMultipartServerRequestMapper formMultipartServerRequestMapper(HttpServerConfig config) {
+        return new FormMultipartServerRequestMapper(config.multipart());
+    }
+
+    default HttpServerRequestMapper<Flow.Publisher<MultipartFileStream>> formMultipartPublisherServerRequestMapper(HttpServerConfig config, @Nullable BlockingRequestExecutor executor) {
+        return r -> MultipartReader.readParts(r, config.multipart(), executor);
     }
 }
@@ -1,5 +1,6 @@
 package ru.tinkoff.kora.http.server.common;
 
+import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.application.graph.All;
 import ru.tinkoff.kora.application.graph.PromiseOf;
 import ru.tinkoff.kora.application.graph.ValueOf;
@@ -10,13 +11,15 @@ import ru.tinkoff.kora.common.readiness.ReadinessProbe;
 import ru.tinkoff.kora.common.readiness.ReadinessProbeFailure;
 import ru.tinkoff.kora.http.common.body.HttpBody;
 import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.probe.CachedProbe;
+import ru.tinkoff.kora.http.server.common.probe.HttpServerProbeConfig;
 import ru.tinkoff.kora.http.server.common.telemetry.PrivateApiMetrics;
+import ru.tinkoff.kora.http.server.common.telemetry.PrivateApiMetricsScraper;
 
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 
 public class PrivateApiHandler {
@@ -25,23 +28,43 @@ public class PrivateApiHandler {
     private static final HttpServerResponse NOT_FOUND = HttpServerResponse.of(404, HttpBody.plaintext("Private API path not found"));
 
     private final Executor executor;
+    private final PrivateApiMetricsScraper metricsScraper;
     private final ValueOf<HttpServerConfig> config;
     private final ValueOf<Optional<PrivateApiMetrics>> meterRegistry;
     private final All<PromiseOf<ReadinessProbe>> readinessProbes;
     private final All<PromiseOf<LivenessProbe>> livenessProbes;
+    private final HttpServerProbeConfig probeConfig;
+    private final AtomicReferenceArray<CachedProbe<ReadinessProbe>> cachedReadinessProbes;
+    private final AtomicReferenceArray<CachedProbe<LivenessProbe>> cachedLivenessProbes;
 
     public PrivateApiHandler(ValueOf<HttpServerConfig> config,
                              ValueOf<Optional<PrivateApiMetrics>> meterRegistry,
                              All<PromiseOf<ReadinessProbe>> readinessProbes,
                              All<PromiseOf<LivenessProbe>> livenessProbes) {
+        this(config, meterRegistry, readinessProbes, livenessProbes, new HttpServerProbeConfig() {});
+    }
+
+    public PrivateApiHandler(ValueOf<HttpServerConfig> config,
+                             ValueOf<Optional<PrivateApiMetrics>> meterRegistry,
+                             All<PromiseOf<ReadinessProbe>> readinessProbes,
+                             All<PromiseOf<LivenessProbe>> livenessProbes,
+                             HttpServerProbeConfig probeConfig) {
         this.config = config;
         this.meterRegistry = meterRegistry;
         this.readinessProbes = readinessProbes;
         this.livenessProbes = livenessProbes;
+        this.probeConfig = probeConfig;
+        this.cachedReadinessProbes = new AtomicReferenceArray<>(readinessProbes.size());
+        this.cachedLivenessProbes = new AtomicReferenceArray<>(livenessProbes.size());
         this.executor = Objects.requireNonNullElse(VirtualThreadExecutorHolder.executor(), ForkJoinPool.commonPool());
+        this.metricsScraper = new PrivateApiMetricsScraper(this.executor);
     }
 
     public CompletionStage<? extends HttpServerResponse> handle(String path) {
+        return this.handle(path, HttpHeaders.empty());
+    }
+
+    public CompletionStage<? extends HttpServerResponse> handle(String path, HttpHeaders headers) {
         var metricsPath = config.get().privateApiHttpMetricsPath();
         var livenessPath = config.get().privateApiHttpLivenessPath();
         var readinessPath = config.get().privateApiHttpReadinessPath();
@@ -54,7 +77,7 @@ public class PrivateApiHandler {
             ? metricsPath.substring(0, metricsPath.length() - 1)
             : metricsPath;
         if (pathWithoutSlash.equals(metricPathWithoutSlash) || pathWithoutSlash.startsWith(metricPathWithoutSlash + "?")) {
-            return this.metrics();
+            return this.metrics(headers.getFirst("accept-encoding"));
         }
 
         var readinessPathWithoutSlash = (readinessPath.endsWith("/"))
@@ -74,27 +97,31 @@ public class PrivateApiHandler {
         return CompletableFuture.completedFuture(NOT_FOUND);
     }
 
-    private CompletionStage<HttpServerResponse> metrics() {
-        var response = this.meterRegistry.get()
-            .map(PrivateApiMetrics::scrape)
-            .orElse("");
-        var body = ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
-        return CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext(body)));
+    private CompletionStage<HttpServerResponse> metrics(@Nullable String acceptEncoding) {
+        var metrics = this.meterRegistry.get();
+        if (metrics.isEmpty()) {
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext("")));
+        }
+        return this.metricsScraper.scrape(metrics.get(), acceptEncoding, this.config.get().privateApiHttpMetricsCacheTtl());
     }
 
     private CompletionStage<HttpServerResponse> readiness() {
-        return handleProbes(readinessProbes, ReadinessProbe::probe, ReadinessProbeFailure::message);
+        return handleProbes("readiness", this.readinessProbes, this.cachedReadinessProbes, ReadinessProbe::probe, ReadinessProbeFailure::message);
     }
 
     private CompletionStage<HttpServerResponse> liveness() {
-        return handleProbes(livenessProbes, LivenessProbe::probe, LivenessProbeFailure::message);
+        return handleProbes("liveness", this.livenessProbes, this.cachedLivenessProbes, LivenessProbe::probe, LivenessProbeFailure::message);
     }
 
     public interface TFunction<T, R> {
         R apply(T t) throws Exception;
     }
 
-    private <Probe, Failure> CompletionStage<HttpServerResponse> handleProbes(All<PromiseOf<Probe>> probes, TFunction<Probe, Failure> performProbe, Function<Failure, String> getMessage) {
+    private <Probe, Failure> CompletionStage<HttpServerResponse> handleProbes(String type,
+                                                                              All<PromiseOf<Probe>> probes,
+                                                                              AtomicReferenceArray<CachedProbe<Probe>> cachedProbes,
+                                                                              TFunction<Probe, Failure> performProbe,
+                                                                              Function<Failure, String> getMessage) {
         if (probes.isEmpty()) {
             return CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext("OK")));
         }
@@ -105,31 +132,19 @@ public class PrivateApiHandler {
                 return CompletableFuture.completedFuture(HttpServerResponse.of(503, HttpBody.plaintext("Probe is not ready yet")));
             }
             var probe = optional.get();
-            try {
-                var probeResult = CompletableFuture.supplyAsync(() -> {
-                    try {
-                        return performProbe.apply(probe);
-                    } catch (Exception e) {
-                        throw new CompletionException(e);
-                    }
-                }, executor);
-                var future = new CompletableFuture<String>();
-                probeResult.whenComplete((result, error) -> {
-                    if (error != null) {
-                        future.complete("Probe failed: " + error.getMessage());
-                    } else if (result != null) {
-                        future.complete(getMessage.apply(result));
-                    } else {
-                        future.complete(null);
-                    }
-                });
-                futures[i] = future;
-            } catch (Exception e) {
-                futures[i] = CompletableFuture.failedFuture(e);
+            var cachedProbe = cachedProbes.get(i);
+            if (cachedProbe == null || cachedProbe.probe() != probe) {
+                // probe component could be replaced on graph refresh
+                cachedProbe = new CachedProbe<>(type, componentName(probe), probe, p -> {
+                    var failure = performProbe.apply(p);
+                    return failure == null ? null : getMessage.apply(failure);
+                }, this.probeConfig, this.executor, () -> this.meterRegistry.get().orElse(null));
+                cachedProbes.set(i, cachedProbe);
             }
+            futures[i] = cachedProbe.evaluate().toCompletableFuture();
         }
 
-        var resultFuture = CompletableFuture.allOf(futures).handle((r, error) -> {
+        return CompletableFuture.allOf(futures).handle((r, error) -> {
             if (error != null) {
                 return HttpServerResponseException.of(error, 500, error.getMessage());
             }
@@ -142,14 +157,14 @@ public class PrivateApiHandler {
             }
             return HttpServerResponse.of(200, HttpBody.plaintext("OK"));
         });
+    }
 
-        var timeoutFuture = CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(30, TimeUnit.SECONDS, executor));
-        return CompletableFuture.anyOf(resultFuture, timeoutFuture).thenApply(v -> {
-            if (resultFuture.isDone()) {
-                return resultFuture.getNow(null);
-            }
-            resultFuture.cancel(true);
-            return HttpServerResponse.of(408, HttpBody.plaintext("Probe failed: timeout"));
-        });
+    private static String componentName(Object probe) {
+        var type = probe.getClass();
+        var name = type.getSimpleName();
+        if (name.isEmpty() || type.isSynthetic()) {
+            return type.getName();
+        }
+        return name;
     }
 }
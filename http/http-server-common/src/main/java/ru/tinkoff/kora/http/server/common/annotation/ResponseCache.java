@@ -0,0 +1,61 @@
+package ru.tinkoff.kora.http.server.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <b>Русский</b>: Аннотация указывает что ответ GET обработчика должен кэшироваться на стороне сервера.
+ * Сериализованное тело ответа сохраняется в кэш вместе с ETag, на запрос с совпадающим If-None-Match возвращается 304
+ * без вызова контроллера. Кэшируются только ответы с кодом 200 без заголовка set-cookie.
+ * <hr>
+ * <b>English</b>: Annotation specifies that GET handler response should be cached on server side.
+ * Serialized response body is stored in cache together with ETag, request with matching If-None-Match gets 304
+ * without controller invocation. Only responses with code 200 and without set-cookie header are cached.
+ * <br>
+ * <br>
+ * Пример / Example:
+ * <pre>
+ * {@code
+ * @Cache("cache.pets")
+ * public interface PetsResponseCache extends CaffeineCache<HttpResponseCacheKey, CachedHttpResponse> {}
+ *
+ * @HttpController
+ * public class Controller {
+ *
+ *     @ResponseCache(value = PetsResponseCache.class, headers = "accept-language")
+ *     @HttpRoute(method = GET, path = "/pets/{petId}")
+ *     public Pet getPet(@Path long petId) {
+ *        return ...;
+ *     }
+ * }
+ * }
+ * </pre>
+ * @see ru.tinkoff.kora.http.server.common.cache.ResponseCacheHttpServerInterceptor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.CLASS)
+public @interface ResponseCache {
+
+    /**
+     * @return <b>Русский</b>: Тип кэша, должен реализовывать {@code Cache<HttpResponseCacheKey, CachedHttpResponse>}
+     * <hr>
+     * <b>English</b>: Cache type, should implement {@code Cache<HttpResponseCacheKey, CachedHttpResponse>}
+     */
+    Class<?> value();
+
+    /**
+     * @return <b>Русский</b>: Query параметры, которые входят в ключ кэша, если не указаны то входят все параметры
+     * <hr>
+     * <b>English</b>: Query parameters that are part of cache key, all parameters are part of the key if none specified
+     */
+    String[] queries() default {};
+
+    /**
+     * @return <b>Русский</b>: Заголовки запроса, которые входят в ключ кэша
+     * <hr>
+     * <b>English</b>: Request headers that are part of cache key
+     */
+    String[] headers() default {};
+}
@@ -0,0 +1,24 @@
+package ru.tinkoff.kora.http.server.common.body;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.util.Size;
+import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+
+import java.util.Map;
+
+@ConfigValueExtractor
+public interface HttpServerRequestBodyConfig {
+
+    /**
+     * Max request body size for routes that have no limit of their own, request bodies are not limited if not set
+     */
+    @Nullable
+    Size maxSize();
+
+    /**
+     * Max request body size by route template, overrides {@link #maxSize()} in both directions
+     */
+    default Map<String, Size> routes() {
+        return Map.of();
+    }
+}
@@ -0,0 +1,201 @@
+package ru.tinkoff.kora.http.server.common.body;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.common.body.PooledHttpBodyInput;
+import ru.tinkoff.kora.http.common.body.ReleasableByteBuffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Request body of unknown length that fails with 413 as soon as more than limit bytes are received.
+ * Exceeding chunk is not passed to subscriber, subscription is cancelled so server discards the rest of the body.
+ */
+class LimitedHttpBodyInput implements HttpBodyInput {
+    protected final HttpBodyInput delegate;
+    protected final long limit;
+
+    LimitedHttpBodyInput(HttpBodyInput delegate, long limit) {
+        this.delegate = delegate;
+        this.limit = limit;
+    }
+
+    static HttpBodyInput of(HttpBodyInput delegate, long limit) {
+        if (delegate instanceof PooledHttpBodyInput pooled) {
+            return new Pooled(pooled, limit);
+        }
+        return new LimitedHttpBodyInput(delegate, limit);
+    }
+
+    @Override
+    public long contentLength() {
+        return this.delegate.contentLength();
+    }
+
+    @Nullable
+    @Override
+    public String contentType() {
+        return this.delegate.contentType();
+    }
+
+    @Nullable
+    @Override
+    public ByteBuffer getFullContentIfAvailable() {
+        var content = this.delegate.getFullContentIfAvailable();
+        if (content == null || content.remaining() > this.limit) {
+            // too large content is read through subscription, so it fails with 413
+            return null;
+        }
+        return content;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        this.delegate.subscribe(new LimitingSubscriber<>(subscriber, this.limit, ByteBuffer::remaining, b -> {}));
+    }
+
+    @Nullable
+    @Override
+    public InputStream asInputStream() {
+        var stream = this.delegate.asInputStream();
+        if (stream == null) {
+            return null;
+        }
+        return new LimitingInputStream(stream, this.limit);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.delegate.close();
+    }
+
+    static final class Pooled extends LimitedHttpBodyInput implements PooledHttpBodyInput {
+        Pooled(PooledHttpBodyInput delegate, long limit) {
+            super(delegate, limit);
+        }
+
+        @Override
+        public void subscribePooled(Flow.Subscriber<? super ReleasableByteBuffer> subscriber) {
+            ((PooledHttpBodyInput) this.delegate).subscribePooled(new LimitingSubscriber<>(subscriber, this.limit, b -> b.buffer().remaining(), ReleasableByteBuffer::release));
+        }
+    }
+
+    private static final class LimitingSubscriber<T> implements Flow.Subscriber<T>, Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final long limit;
+        private final ToIntFunction<T> size;
+        private final Consumer<T> discard;
+        private Flow.Subscription subscription;
+        private long received;
+        private boolean done;
+
+        private LimitingSubscriber(Flow.Subscriber<? super T> subscriber, long limit, ToIntFunction<T> size, Consumer<T> discard) {
+            this.subscriber = subscriber;
+            this.limit = limit;
+            this.size = size;
+            this.discard = discard;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            this.subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (this.done) {
+                this.discard.accept(item);
+                return;
+            }
+            this.received += this.size.applyAsInt(item);
+            if (this.received > this.limit) {
+                this.done = true;
+                this.discard.accept(item);
+                this.subscription.cancel();
+                this.subscriber.onError(RequestBodyLimitHttpServerInterceptor.tooLarge(this.limit));
+                return;
+            }
+            this.subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!this.done) {
+                this.done = true;
+                this.subscriber.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!this.done) {
+                this.done = true;
+                this.subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            this.subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            this.subscription.cancel();
+        }
+    }
+
+    private static final class LimitingInputStream extends FilterInputStream {
+        private final long limit;
+        private long received;
+
+        private LimitingInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = super.read();
+            if (b >= 0) {
+                this.count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var n = super.read(b, off, len);
+            if (n > 0) {
+                this.count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            var skipped = super.skip(n);
+            this.count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) {
+            this.received += n;
+            if (this.received > this.limit) {
+                throw RequestBodyLimitHttpServerInterceptor.tooLarge(this.limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.tinkoff.kora.http.server.common.body;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.common.cookie.Cookie;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerInterceptor;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.HttpServerResponseException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Limits request body size globally and per route.
+ * Requests with larger Content-Length are answered with 413 before handler is called,
+ * bodies of unknown length are counted while they are read and fail with 413 as soon as the limit is crossed.
+ */
+public final class RequestBodyLimitHttpServerInterceptor implements HttpServerInterceptor {
+    @Nullable
+    private final Long maxSize;
+    private final Map<String, Long> routes;
+
+    public RequestBodyLimitHttpServerInterceptor(HttpServerRequestBodyConfig config) {
+        this.maxSize = config.maxSize() == null ? null : config.maxSize().toBytes();
+        var routes = new HashMap<String, Long>();
+        for (var entry : config.routes().entrySet()) {
+            routes.put(entry.getKey(), entry.getValue().toBytes());
+        }
+        this.routes = routes;
+    }
+
+    @Override
+    public CompletionStage<HttpServerResponse> intercept(Context context, HttpServerRequest request, InterceptChain chain) throws Exception {
+        var limit = this.limit(request.route());
+        if (limit == null) {
+            return chain.process(context, request);
+        }
+        var body = request.body();
+        var contentLength = body.contentLength();
+        if (contentLength > limit) {
+            return CompletableFuture.failedFuture(tooLarge(limit));
+        }
+        if (contentLength >= 0) {
+            // server does not let client send more than declared content length
+            return chain.process(context, request);
+        }
+        return chain.process(context, new LimitedRequest(request, LimitedHttpBodyInput.of(body, limit)));
+    }
+
+    @Nullable
+    private Long limit(@Nullable String route) {
+        if (route != null) {
+            var routeLimit = this.routes.get(route);
+            if (routeLimit != null) {
+                return routeLimit;
+            }
+        }
+        return this.maxSize;
+    }
+
+    static HttpServerResponseException tooLarge(long limit) {
+        // connection header is not set, it is forbidden in HTTP/2 responses: server itself drains or closes connection with unread body
+        return HttpServerResponseException.of(413, "Request body is larger than " + limit + " bytes");
+    }
+
+    private record LimitedRequest(HttpServerRequest request, HttpBodyInput body) implements HttpServerRequest {
+        @Override
+        public String method() {
+            return this.request.method();
+        }
+
+        @Override
+        public String path() {
+            return this.request.path();
+        }
+
+        @Nullable
+        @Override
+        public String route() {
+            return this.request.route();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return this.request.headers();
+        }
+
+        @Override
+        public List<Cookie> cookies() {
+            return this.request.cookies();
+        }
+
+        @Override
+        public Map<String, ? extends Collection<String>> queryParams() {
+            return this.request.queryParams();
+        }
+
+        @Override
+        public Map<String, String> pathParams() {
+            return this.request.pathParams();
+        }
+
+        @Nullable
+        @Override
+        public String pathParam(int index, String name) {
+            return this.request.pathParam(index, name);
+        }
+    }
+}
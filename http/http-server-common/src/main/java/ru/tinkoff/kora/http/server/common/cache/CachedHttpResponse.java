@@ -0,0 +1,11 @@
+package ru.tinkoff.kora.http.server.common.cache;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+
+/**
+ * <b>Русский</b>: Сериализованный ответ в кэше, см. {@link ru.tinkoff.kora.http.server.common.annotation.ResponseCache}
+ * <hr>
+ * <b>English</b>: Serialized response stored in cache, see {@link ru.tinkoff.kora.http.server.common.annotation.ResponseCache}
+ */
+public record CachedHttpResponse(int code, HttpHeaders headers, @Nullable String contentType, byte[] body, String etag) {}
@@ -0,0 +1,26 @@
+package ru.tinkoff.kora.http.server.common.cache;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>Русский</b>: Ключ кэша ответов, см. {@link ru.tinkoff.kora.http.server.common.annotation.ResponseCache}
+ * <hr>
+ * <b>English</b>: Response cache key, see {@link ru.tinkoff.kora.http.server.common.annotation.ResponseCache}
+ *
+ * @param route   <b>Русский</b>: шаблон пути обработчика
+ *                <hr>
+ *                <b>English</b>: handler route template
+ * @param path    <b>Русский</b>: путь запроса
+ *                <hr>
+ *                <b>English</b>: request path
+ * @param query   <b>Русский</b>: значения выбранных query параметров по имени, отсортированные по имени
+ *                <hr>
+ *                <b>English</b>: values of selected query parameters by name, sorted by name
+ * @param headers <b>Русский</b>: значения выбранных заголовков в порядке объявления
+ *                <hr>
+ *                <b>English</b>: values of selected headers in declaration order
+ */
+public record HttpResponseCacheKey(String route, String path, Map<String, List<String>> query, List<@Nullable String> headers) {}
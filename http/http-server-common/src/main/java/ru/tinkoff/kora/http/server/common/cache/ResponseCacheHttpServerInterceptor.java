@@ -0,0 +1,136 @@
+package ru.tinkoff.kora.http.server.common.cache;
+
+import ru.tinkoff.kora.cache.AsyncCache;
+import ru.tinkoff.kora.cache.Cache;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.server.common.HttpServerInterceptor;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerResponseUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Interceptor generated for handlers annotated with {@link ru.tinkoff.kora.http.server.common.annotation.ResponseCache}.
+ * <p>
+ * It is the innermost interceptor of the handler, so authorization and other interceptors still see every request,
+ * while cache hits skip parameter parsing, controller call and response serialization.
+ * <p>
+ * Interceptor may be called on server IO thread, so cache that implements {@link AsyncCache} is used through its async API,
+ * other caches are called synchronously and should be in-memory ones that never block.
+ */
+public final class ResponseCacheHttpServerInterceptor implements HttpServerInterceptor {
+
+    private final Cache<HttpResponseCacheKey, CachedHttpResponse> cache;
+    private final String route;
+    private final List<String> queries;
+    private final List<String> headers;
+
+    public ResponseCacheHttpServerInterceptor(Cache<HttpResponseCacheKey, CachedHttpResponse> cache, String route, List<String> queries, List<String> headers) {
+        this.cache = cache;
+        this.route = route;
+        this.queries = List.copyOf(queries);
+        this.headers = headers.stream().map(h -> h.toLowerCase(Locale.ROOT)).toList();
+    }
+
+    @Override
+    public CompletionStage<HttpServerResponse> intercept(Context context, HttpServerRequest request, InterceptChain chain) throws Exception {
+        var key = this.key(request);
+        if (this.cache instanceof AsyncCache<HttpResponseCacheKey, CachedHttpResponse> asyncCache) {
+            return asyncCache.getAsync(key)
+                // unavailable cache is treated as a miss, so request is still processed
+                .exceptionally(e -> null)
+                .thenCompose(cached -> {
+                    if (cached != null) {
+                        return CompletableFuture.completedFuture(toResponse(request, cached));
+                    }
+                    try {
+                        return this.process(context, request, chain, key);
+                    } catch (Exception e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+        }
+        var cached = this.cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(toResponse(request, cached));
+        }
+        return this.process(context, request, chain, key);
+    }
+
+    private CompletionStage<HttpServerResponse> process(Context context, HttpServerRequest request, InterceptChain chain, HttpResponseCacheKey key) throws Exception {
+        return chain.process(context, request).thenCompose(response -> {
+            if (response.code() != 200 || response.body() == null || response.headers().has("set-cookie")) {
+                return CompletableFuture.completedFuture(response);
+            }
+            var body = response.body();
+            var full = body.getFullContentIfAvailable();
+            var bytes = full != null
+                ? CompletableFuture.completedFuture(HttpServerResponseUtils.toArray(full))
+                : FlowUtils.toByteArrayFuture(body);
+            return bytes.thenCompose(content -> {
+                var etag = response.headers().getFirst("etag");
+                if (etag == null) {
+                    etag = HttpServerResponseUtils.etag(content);
+                }
+                var entry = new CachedHttpResponse(response.code(), response.headers().toMutable(), body.contentType(), content, etag);
+                if (this.cache instanceof AsyncCache<HttpResponseCacheKey, CachedHttpResponse> asyncCache) {
+                    // response does not depend on whether it was stored
+                    return asyncCache.putAsync(key, entry).handle((r, e) -> toResponse(request, entry));
+                }
+                this.cache.put(key, entry);
+                return CompletableFuture.completedFuture(toResponse(request, entry));
+            });
+        });
+    }
+
+    HttpResponseCacheKey key(HttpServerRequest request) {
+        var queryParams = request.queryParams();
+        // decoded values are kept apart, so no query can be spelled to produce the key of another one
+        var query = new TreeMap<String, List<String>>();
+        if (this.queries.isEmpty()) {
+            for (var entry : queryParams.entrySet()) {
+                query.put(entry.getKey(), List.copyOf(entry.getValue()));
+            }
+        } else {
+            for (var name : this.queries) {
+                var values = queryParams.get(name);
+                if (values != null) {
+                    query.put(name, List.copyOf(values));
+                }
+            }
+        }
+        final List<String> headerValues;
+        if (this.headers.isEmpty()) {
+            headerValues = List.of();
+        } else {
+            var values = new ArrayList<String>(this.headers.size());
+            for (var header : this.headers) {
+                values.add(request.headers().getFirst(header));
+            }
+            headerValues = values;
+        }
+        return new HttpResponseCacheKey(this.route, request.path(), Collections.unmodifiableMap(query), headerValues);
+    }
+
+    private static HttpServerResponse toResponse(HttpServerRequest request, CachedHttpResponse cached) {
+        var headers = cached.headers().toMutable();
+        headers.set("etag", cached.etag());
+        if (HttpServerResponseUtils.etagMatches(request.headers().getAll("if-none-match"), cached.etag())) {
+            // representation headers are not sent with 304, see RFC 9110 section 15.4.5
+            headers.remove("content-type");
+            headers.remove("content-length");
+            headers.remove("content-encoding");
+            return HttpServerResponse.of(304, headers);
+        }
+        return HttpServerResponse.of(cached.code(), headers, HttpBody.of(cached.contentType(), cached.body()));
+    }
+}
@@ -0,0 +1,433 @@
+package ru.tinkoff.kora.http.server.common.compression;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.server.common.HttpServerConfig;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Response body compression negotiated by request Accept-Encoding header, servers only adapt their exchange to {@link Exchange}.
+ * <p>
+ * Body is compressed with pooled {@link Deflater}s straight into a byte array, gzip header and trailer are written around raw deflate data,
+ * so neither {@link java.util.zip.GZIPOutputStream} nor a new native zlib stream per response is involved.
+ */
+public final class HttpServerResponseCompression {
+
+    /**
+     * Server response that is about to be written: status and headers are already set, but nothing is sent yet
+     */
+    public interface Exchange {
+
+        int statusCode();
+
+        boolean isHeadRequest();
+
+        List<String> requestHeaders(String name);
+
+        List<String> responseHeaders(String name);
+
+        void setResponseHeader(String name, String value);
+
+        void addResponseHeader(String name, String value);
+
+        void removeResponseHeader(String name);
+    }
+
+    enum Encoding {
+        GZIP("gzip", true),
+        DEFLATE("deflate", false);
+
+        private final String value;
+        private final boolean nowrap;
+
+        Encoding(String value, boolean nowrap) {
+            this.value = value;
+            this.nowrap = nowrap;
+        }
+    }
+
+    private static final byte[] GZIP_HEADER = new byte[]{0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final int minSize;
+    private final int level;
+    private final Set<String> mimeTypes;
+    @Nullable
+    private final HttpServerMetrics metrics;
+    private final ArrayBlockingQueue<Deflater> gzipDeflaters;
+    private final ArrayBlockingQueue<Deflater> deflateDeflaters;
+
+    public HttpServerResponseCompression(HttpServerConfig.HttpServerCompressionConfig config, @Nullable HttpServerMetrics metrics) {
+        if (config.level() < 1 || config.level() > 9) {
+            throw new IllegalArgumentException("Compression level should be between 1 and 9, but was " + config.level());
+        }
+        this.minSize = config.minSize();
+        this.level = config.level();
+        this.mimeTypes = new HashSet<>();
+        for (var mimeType : config.mimeTypes()) {
+            this.mimeTypes.add(mimeType.trim().toLowerCase(Locale.ROOT));
+        }
+        this.metrics = metrics;
+        this.gzipDeflaters = new ArrayBlockingQueue<>(Math.max(config.poolSize(), 1));
+        this.deflateDeflaters = new ArrayBlockingQueue<>(Math.max(config.poolSize(), 1));
+    }
+
+    /**
+     * @return compression or null if it is disabled in config
+     */
+    @Nullable
+    public static HttpServerResponseCompression create(HttpServerConfig.HttpServerCompressionConfig config, @Nullable HttpServerMetrics metrics) {
+        if (!config.enabled()) {
+            return null;
+        }
+        return new HttpServerResponseCompression(config, metrics);
+    }
+
+    /**
+     * Should be called when status and headers of response are already set, but response is not written yet.
+     * If response is compressed then Content-Encoding header is set, Content-Length header is removed and strong ETag is made weak,
+     * because compressed body is not byte equal to the identity one.
+     * Partial responses are never compressed: their Content-Range refers to identity body bytes.
+     *
+     * @param contentLength length of body or -1 if unknown
+     * @return compressor for response body or null if body should be sent as is
+     */
+    @Nullable
+    public Compressor start(Exchange exchange, long contentLength) {
+        if (contentLength == 0 || contentLength > 0 && contentLength < this.minSize) {
+            return null;
+        }
+        var status = exchange.statusCode();
+        if (status < 200 || status == 204 || status == 304 || exchange.isHeadRequest()) {
+            return null;
+        }
+        if (status == 206 || !exchange.responseHeaders("content-range").isEmpty()) {
+            return null;
+        }
+        if (!exchange.responseHeaders("content-encoding").isEmpty() || !this.isCompressible(exchange.responseHeaders("content-type"))) {
+            return null;
+        }
+        if (!containsIgnoreCase(exchange.responseHeaders("vary"), "accept-encoding")) {
+            exchange.addResponseHeader("vary", "accept-encoding");
+        }
+        var encoding = negotiate(exchange.requestHeaders("accept-encoding"));
+        if (encoding == null) {
+            return null;
+        }
+        exchange.setResponseHeader("content-encoding", encoding.value);
+        exchange.removeResponseHeader("content-length");
+        var etags = exchange.responseHeaders("etag");
+        String strongEtag = null;
+        if (!etags.isEmpty() && !etags.get(0).startsWith("W/")) {
+            strongEtag = etags.get(0);
+            exchange.setResponseHeader("etag", "W/" + strongEtag);
+        }
+        return new Compressor(exchange, encoding, this.acquire(encoding), contentLength, strongEtag);
+    }
+
+    private boolean isCompressible(List<String> contentType) {
+        if (contentType.isEmpty()) {
+            return false;
+        }
+        var value = contentType.get(0);
+        var semicolon = value.indexOf(';');
+        var mimeType = semicolon < 0 ? value : value.substring(0, semicolon);
+        return this.mimeTypes.contains(mimeType.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gzip is preferred over deflate when both have the same quality
+     */
+    @Nullable
+    static Encoding negotiate(List<String> acceptEncoding) {
+        if (acceptEncoding.isEmpty()) {
+            return null;
+        }
+        var gzip = -1f;
+        var deflate = -1f;
+        var any = -1f;
+        for (var header : acceptEncoding) {
+            for (var token : header.split(",")) {
+                var semicolon = token.indexOf(';');
+                var name = (semicolon < 0 ? token : token.substring(0, semicolon)).trim();
+                var quality = semicolon < 0 ? 1f : quality(token.substring(semicolon + 1));
+                if (name.equalsIgnoreCase("gzip")) {
+                    gzip = quality;
+                } else if (name.equalsIgnoreCase("deflate")) {
+                    deflate = quality;
+                } else if (name.equals("*")) {
+                    any = quality;
+                }
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? Encoding.GZIP : Encoding.DEFLATE;
+    }
+
+    private static float quality(String parameters) {
+        for (var parameter : parameters.split(";")) {
+            var p = parameter.trim();
+            if (p.startsWith("q=") || p.startsWith("Q=")) {
+                try {
+                    return Float.parseFloat(p.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1f;
+    }
+
+    private static boolean containsIgnoreCase(List<String> values, String value) {
+        for (var header : values) {
+            for (var token : header.split(",")) {
+                if (token.trim().equalsIgnoreCase(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private ArrayBlockingQueue<Deflater> pool(Encoding encoding) {
+        return encoding == Encoding.GZIP ? this.gzipDeflaters : this.deflateDeflaters;
+    }
+
+    private Deflater acquire(Encoding encoding) {
+        var deflater = this.pool(encoding).poll();
+        if (deflater != null) {
+            return deflater;
+        }
+        return new Deflater(this.level, encoding.nowrap);
+    }
+
+    private void release(Encoding encoding, Deflater deflater) {
+        deflater.reset();
+        if (!this.pool(encoding).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Compressor of a single response body, not thread safe.
+     * Deflater is returned to the pool by {@link #release()} after the body is finished or is destroyed by {@link #discard()} if body failed.
+     */
+    public final class Compressor {
+        private final Exchange exchange;
+        private final Encoding encoding;
+        @Nullable
+        private final String strongEtag;
+        @Nullable
+        private final CRC32 crc;
+        @Nullable
+        private Deflater deflater;
+        private byte[] buffer;
+        private boolean headerWritten;
+        private long compressedBytes;
+
+        private Compressor(Exchange exchange, Encoding encoding, Deflater deflater, long contentLength, @Nullable String strongEtag) {
+            this.exchange = exchange;
+            this.encoding = encoding;
+            this.strongEtag = strongEtag;
+            this.deflater = deflater;
+            this.crc = encoding == Encoding.GZIP ? new CRC32() : null;
+            this.buffer = new byte[contentLength > 0 ? (int) Math.min(contentLength / 4 + 64, 64 * 1024) : 8 * 1024];
+        }
+
+        /**
+         * Compresses whole body and releases compressor. Body smaller than configured min size is returned as is, Content-Encoding header is removed and ETag is restored.
+         */
+        public ByteBuffer compress(ByteBuffer body) {
+            if (body.remaining() < minSize) {
+                this.exchange.removeResponseHeader("content-encoding");
+                if (this.strongEtag != null) {
+                    this.exchange.setResponseHeader("etag", this.strongEtag);
+                }
+                HttpServerResponseCompression.this.release(this.encoding, this.deflater);
+                this.deflater = null;
+                return body;
+            }
+            var length = this.deflate(body, Deflater.NO_FLUSH);
+            length = this.finish(length);
+            var compressed = ByteBuffer.wrap(this.buffer, 0, length);
+            this.buffer = null;
+            this.release();
+            return compressed;
+        }
+
+        /**
+         * Compresses chunk of streaming body and flushes deflater, so client receives everything written so far.
+         * Returned buffer is a view of compressor buffer and is valid until the next call, so chunk should be sent or copied before next one is compressed
+         */
+        public ByteBuffer compressChunk(ByteBuffer chunk) {
+            var length = this.deflate(chunk, Deflater.SYNC_FLUSH);
+            return ByteBuffer.wrap(this.buffer, 0, length);
+        }
+
+        /**
+         * @return remaining compressed data with stream trailer, view of compressor buffer
+         */
+        public ByteBuffer finishChunks() {
+            return ByteBuffer.wrap(this.buffer, 0, this.finish());
+        }
+
+        public OutputStream outputStream(OutputStream out) {
+            return new CompressingOutputStream(this, out);
+        }
+
+        public void release() {
+            var deflater = this.deflater;
+            if (deflater == null) {
+                return;
+            }
+            this.deflater = null;
+            var metrics = HttpServerResponseCompression.this.metrics;
+            if (metrics != null) {
+                metrics.responseCompressed(this.encoding.value, deflater.getBytesRead(), this.compressedBytes);
+            }
+            HttpServerResponseCompression.this.release(this.encoding, deflater);
+        }
+
+        public void discard() {
+            var deflater = this.deflater;
+            if (deflater != null) {
+                this.deflater = null;
+                deflater.end();
+            }
+        }
+
+        /**
+         * @return number of compressed bytes at the beginning of {@link #buffer}
+         */
+        private int deflate(ByteBuffer input, int flush) {
+            var deflater = this.deflater;
+            var length = 0;
+            if (this.crc != null && !this.headerWritten) {
+                System.arraycopy(GZIP_HEADER, 0, this.buffer, 0, GZIP_HEADER.length);
+                length = GZIP_HEADER.length;
+                this.headerWritten = true;
+            }
+            if (this.crc != null) {
+                this.crc.update(input.duplicate());
+            }
+            deflater.setInput(input);
+            length = this.drain(deflater, length, flush);
+            this.compressedBytes += length;
+            return length;
+        }
+
+        private int finish() {
+            return this.finish(this.deflate(EMPTY, Deflater.NO_FLUSH));
+        }
+
+        private int finish(int length) {
+            var deflater = this.deflater;
+            deflater.finish();
+            var start = length;
+            length = this.drain(deflater, length, Deflater.NO_FLUSH);
+            if (this.crc != null) {
+                if (length + 8 > this.buffer.length) {
+                    this.buffer = Arrays.copyOf(this.buffer, length + 8);
+                }
+                writeIntLE(this.buffer, length, (int) this.crc.getValue());
+                writeIntLE(this.buffer, length + 4, (int) deflater.getBytesRead());
+                length += 8;
+            }
+            this.compressedBytes += length - start;
+            return length;
+        }
+
+        private int drain(Deflater deflater, int length, int flush) {
+            while (true) {
+                if (length == this.buffer.length) {
+                    this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+                }
+                length += deflater.deflate(this.buffer, length, this.buffer.length - length, flush);
+                if (deflater.finished() || length < this.buffer.length && deflater.needsInput()) {
+                    return length;
+                }
+            }
+        }
+
+        private static void writeIntLE(byte[] buffer, int offset, int value) {
+            buffer[offset] = (byte) value;
+            buffer[offset + 1] = (byte) (value >> 8);
+            buffer[offset + 2] = (byte) (value >> 16);
+            buffer[offset + 3] = (byte) (value >> 24);
+        }
+    }
+
+    private static final class CompressingOutputStream extends OutputStream {
+        private final Compressor compressor;
+        private final OutputStream out;
+        private boolean pending;
+        private boolean closed;
+
+        private CompressingOutputStream(Compressor compressor, OutputStream out) {
+            this.compressor = compressor;
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            var length = this.compressor.deflate(ByteBuffer.wrap(b, off, len), Deflater.NO_FLUSH);
+            this.pending = true;
+            if (length > 0) {
+                this.out.write(this.compressor.buffer, 0, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.pending) {
+                var length = this.compressor.deflate(EMPTY, Deflater.SYNC_FLUSH);
+                this.pending = false;
+                this.out.write(this.compressor.buffer, 0, length);
+            }
+            this.out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try (this.out) {
+                var length = this.compressor.finish();
+                this.out.write(this.compressor.buffer, 0, length);
+                this.compressor.release();
+            } catch (IOException | RuntimeException e) {
+                this.compressor.discard();
+                throw e;
+            }
+        }
+    }
+}
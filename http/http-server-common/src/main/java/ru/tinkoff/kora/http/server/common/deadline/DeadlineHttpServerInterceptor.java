@@ -0,0 +1,66 @@
+package ru.tinkoff.kora.http.server.common.deadline;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.Deadline;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.header.RequestTimeoutHeader;
+import ru.tinkoff.kora.http.server.common.HttpServerInterceptor;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Sets request {@link Deadline} from request header or route budget, whichever is earlier.
+ * Requests that arrive with no time left are answered with 504 without calling the handler.
+ */
+public final class DeadlineHttpServerInterceptor implements HttpServerInterceptor {
+    private final HttpServerDeadlineConfig config;
+
+    public DeadlineHttpServerInterceptor(HttpServerDeadlineConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public CompletionStage<HttpServerResponse> intercept(Context context, HttpServerRequest request, InterceptChain chain) throws Exception {
+        if (!this.config.enabled()) {
+            return chain.process(context, request);
+        }
+        var timeout = this.timeout(request);
+        if (timeout == null) {
+            return chain.process(context, request);
+        }
+        var deadline = Deadline.set(context, Deadline.after(timeout));
+        if (deadline.isExpired()) {
+            return CompletableFuture.completedFuture(HttpServerResponse.of(504, HttpBody.plaintext("Request deadline exceeded")));
+        }
+        return chain.process(context, request);
+    }
+
+    @Nullable
+    private Duration timeout(HttpServerRequest request) {
+        Duration budget = null;
+        var routes = this.config.routes();
+        if (routes != null && request.route() != null) {
+            budget = routes.get(request.route());
+        }
+        if (budget == null) {
+            budget = this.config.defaultTimeout();
+        }
+        var headerTimeout = RequestTimeoutHeader.parse(request.headers().getFirst(this.config.header()));
+        if (headerTimeout == null) {
+            return budget;
+        }
+        var maxTimeout = this.config.maxTimeout();
+        if (maxTimeout != null && headerTimeout.compareTo(maxTimeout) > 0) {
+            headerTimeout = maxTimeout;
+        }
+        if (budget == null || headerTimeout.compareTo(budget) < 0) {
+            return headerTimeout;
+        }
+        return budget;
+    }
+}
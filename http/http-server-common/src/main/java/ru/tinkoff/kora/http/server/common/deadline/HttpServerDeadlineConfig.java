@@ -0,0 +1,41 @@
+package ru.tinkoff.kora.http.server.common.deadline;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+import ru.tinkoff.kora.http.common.header.RequestTimeoutHeader;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigValueExtractor
+public interface HttpServerDeadlineConfig {
+
+    default boolean enabled() {
+        return false;
+    }
+
+    /**
+     * Request header with time remaining for request processing in milliseconds
+     */
+    default String header() {
+        return RequestTimeoutHeader.NAME;
+    }
+
+    /**
+     * Budget of requests to routes that have no budget of their own, requests are not limited if not set
+     */
+    @Nullable
+    Duration defaultTimeout();
+
+    /**
+     * Budgets by route template, timeout from request header can only make them shorter
+     */
+    @Nullable
+    Map<String, Duration> routes();
+
+    /**
+     * Upper bound of timeout accepted from request header
+     */
+    @Nullable
+    Duration maxTimeout();
+}
@@ -1,14 +1,39 @@
 package ru.tinkoff.kora.http.server.common.form;
 
+import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.http.common.form.FormMultipart;
 import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestMapper;
 
 import java.util.concurrent.CompletionStage;
 
 public final class FormMultipartAsyncServerRequestMapper implements HttpServerRequestMapper<CompletionStage<FormMultipart>> {
+    @Nullable
+    private final HttpServerMultipartConfig config;
+
+    @Nullable
+    private final BlockingRequestExecutor executor;
+
+    public FormMultipartAsyncServerRequestMapper() {
+        this(null);
+    }
+
+    public FormMultipartAsyncServerRequestMapper(@Nullable HttpServerMultipartConfig config) {
+        this(config, null);
+    }
+
+    public FormMultipartAsyncServerRequestMapper(@Nullable HttpServerMultipartConfig config, @Nullable BlockingRequestExecutor executor) {
+        this.config = config;
+        this.executor = executor;
+    }
+
     @Override
     public CompletionStage<FormMultipart> apply(HttpServerRequest request) {
+        if (this.config != null && this.config.streaming()) {
+            return MultipartReader.readStreaming(request, this.config, this.executor)
+                .thenApply(FormMultipart::new);
+        }
         return MultipartReader.read(request)
             .thenApply(FormMultipart::new);
     }
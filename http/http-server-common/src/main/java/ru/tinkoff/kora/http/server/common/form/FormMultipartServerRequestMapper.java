@@ -1,12 +1,29 @@
 package ru.tinkoff.kora.http.server.common.form;
 
+import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.http.common.form.FormMultipart;
 import ru.tinkoff.kora.http.server.common.HttpServerRequest;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestMapper;
 
 public final class FormMultipartServerRequestMapper implements HttpServerRequestMapper<FormMultipart> {
+    @Nullable
+    private final HttpServerMultipartConfig config;
+
+    public FormMultipartServerRequestMapper() {
+        this(null);
+    }
+
+    public FormMultipartServerRequestMapper(@Nullable HttpServerMultipartConfig config) {
+        this.config = config;
+    }
+
     @Override
     public FormMultipart apply(HttpServerRequest request) throws Exception {
+        if (this.config != null && this.config.streaming()) {
+            // mapper is already called on blocking thread, so temp file writes are done on it instead of waiting for another blocking thread
+            var parts = MultipartReader.readStreamingBlocking(request, this.config).toCompletableFuture().get();
+            return new FormMultipart(parts);
+        }
         var parts = MultipartReader.read(request).toCompletableFuture().get();
         return new FormMultipart(parts);
     }
@@ -0,0 +1,30 @@
+package ru.tinkoff.kora.http.server.common.form;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.util.Size;
+import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+
+@ConfigValueExtractor
+public interface HttpServerMultipartConfig {
+
+    /**
+     * Parse parts while request body arrives and expose them as {@link ru.tinkoff.kora.http.common.form.FormMultipart.FormPart.MultipartFileStream},
+     * instead of collecting whole request body in memory
+     */
+    default boolean streaming() {
+        return false;
+    }
+
+    /**
+     * Part content larger than this is written to a temp file in streaming mode
+     */
+    default Size inMemoryThreshold() {
+        return Size.of(1, Size.Type.MiB);
+    }
+
+    /**
+     * Directory for temp files, system temp directory is used if not set
+     */
+    @Nullable
+    String tempDirectory();
+}
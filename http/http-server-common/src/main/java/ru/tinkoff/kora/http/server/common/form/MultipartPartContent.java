@@ -0,0 +1,265 @@
+package ru.tinkoff.kora.http.server.common.form;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.flow.SingleSubscription;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content of a single multipart part: kept in memory until it exceeds the threshold, after that everything is written to a temp file.
+ * Temp file writes are done on blocking executor when it is provided, so server IO thread is never blocked by disk.
+ * <p>
+ * Temp file is deleted when its content publisher is completed or cancelled, or when publisher becomes unreachable if content was never read.
+ */
+final class MultipartPartContent {
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final int READ_CHUNK_SIZE = 16 * 1024;
+
+    private final long inMemoryThreshold;
+    @Nullable
+    private final Path tempDirectory;
+    @Nullable
+    private final BlockingRequestExecutor executor;
+    private final Context context;
+    private byte[] memory = new byte[0];
+    private int memorySize = 0;
+    @Nullable
+    private Path file;
+    @Nullable
+    private FileChannel channel;
+    private long fileSize = 0;
+
+    MultipartPartContent(long inMemoryThreshold, @Nullable Path tempDirectory, @Nullable BlockingRequestExecutor executor, Context context) {
+        this.inMemoryThreshold = Math.min(inMemoryThreshold, Integer.MAX_VALUE - 8);
+        this.tempDirectory = tempDirectory;
+        this.executor = executor;
+        this.context = context;
+    }
+
+    /**
+     * @return null if bytes are written, or stage completed when bytes are written to temp file by blocking executor: bytes should not be changed until then
+     */
+    @Nullable
+    CompletionStage<?> write(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return null;
+        }
+        if (this.channel == null && this.memorySize + length <= this.inMemoryThreshold) {
+            if (this.memorySize + length > this.memory.length) {
+                var newSize = (int) Math.min(Math.max(this.memory.length * 2L, this.memorySize + length), this.inMemoryThreshold);
+                this.memory = Arrays.copyOf(this.memory, newSize);
+            }
+            System.arraycopy(bytes, offset, this.memory, this.memorySize, length);
+            this.memorySize += length;
+            return null;
+        }
+        var executor = this.executor;
+        if (executor == null) {
+            this.writeFile(bytes, offset, length);
+            return null;
+        }
+        return executor.execute(this.context, () -> {
+            this.writeFile(bytes, offset, length);
+            return null;
+        });
+    }
+
+    private void writeFile(byte[] bytes, int offset, int length) throws IOException {
+        var channel = this.channel;
+        if (channel == null) {
+            this.file = this.tempDirectory == null
+                ? Files.createTempFile("kora-multipart-", ".part")
+                : Files.createTempFile(this.tempDirectory, "kora-multipart-", ".part");
+            channel = this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE);
+            writeFully(channel, ByteBuffer.wrap(this.memory, 0, this.memorySize));
+            this.fileSize = this.memorySize;
+            this.memory = null;
+            this.memorySize = 0;
+        }
+        writeFully(channel, ByteBuffer.wrap(bytes, offset, length));
+        this.fileSize += length;
+    }
+
+    Flow.Publisher<ByteBuffer> finish() throws IOException {
+        var file = this.file;
+        if (file == null) {
+            var memory = this.memory;
+            var size = this.memorySize;
+            this.memory = null;
+            return subscriber -> subscriber.onSubscribe(new SingleSubscription<>(subscriber, Context.current(), ByteBuffer.wrap(memory, 0, size)));
+        }
+        this.channel.close();
+        this.channel = null;
+        var publisher = new FileContentPublisher(file, this.fileSize);
+        CLEANER.register(publisher, publisher.deleteAction);
+        return publisher;
+    }
+
+    void discard() {
+        this.memory = null;
+        var channel = this.channel;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+        if (this.file != null) {
+            try {
+                Files.deleteIfExists(this.file);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final class DeleteAction implements Runnable {
+        private final Path file;
+        private final AtomicBoolean deleted = new AtomicBoolean();
+
+        private DeleteAction(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public void run() {
+            if (this.deleted.compareAndSet(false, true)) {
+                try {
+                    Files.deleteIfExists(this.file);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Single use publisher: file is read by chunks on subscriber demand in the requesting thread and deleted afterwards
+     */
+    private static final class FileContentPublisher implements Flow.Publisher<ByteBuffer> {
+        private final Path file;
+        private final long size;
+        private final DeleteAction deleteAction;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        private FileContentPublisher(Path file, long size) {
+            this.file = file;
+            this.size = size;
+            this.deleteAction = new DeleteAction(file);
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            if (!this.subscribed.compareAndSet(false, true)) {
+                subscriber.onSubscribe(new FileSubscription(subscriber, null, 0, this.deleteAction));
+                subscriber.onError(new IllegalStateException("Multipart part content stored in temp file can be read only once"));
+                return;
+            }
+            final FileChannel channel;
+            try {
+                channel = FileChannel.open(this.file, StandardOpenOption.READ);
+            } catch (IOException e) {
+                this.deleteAction.run();
+                subscriber.onSubscribe(new FileSubscription(subscriber, null, 0, this.deleteAction));
+                subscriber.onError(new UncheckedIOException(e));
+                return;
+            }
+            subscriber.onSubscribe(new FileSubscription(subscriber, channel, this.size, this.deleteAction));
+        }
+    }
+
+    private static final class FileSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        @Nullable
+        private final FileChannel channel;
+        private final DeleteAction deleteAction;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+        private long remaining;
+
+        private FileSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, @Nullable FileChannel channel, long size, DeleteAction deleteAction) {
+            this.subscriber = subscriber;
+            this.channel = channel;
+            this.remaining = size;
+            this.deleteAction = deleteAction;
+            this.done = channel == null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.terminate();
+                this.subscriber.onError(new IllegalArgumentException("Requested " + n + " items, should be positive"));
+                return;
+            }
+            this.demand.getAndAccumulate(n, (current, requested) -> current + requested < 0 ? Long.MAX_VALUE : current + requested);
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            var missed = 1;
+            do {
+                while (!this.done && this.demand.get() > 0) {
+                    if (this.remaining == 0) {
+                        this.terminate();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    final ByteBuffer chunk;
+                    try {
+                        chunk = ByteBuffer.allocate((int) Math.min(READ_CHUNK_SIZE, this.remaining));
+                        while (chunk.hasRemaining()) {
+                            if (this.channel.read(chunk) < 0) {
+                                throw new IOException("Unexpected end of multipart temp file");
+                            }
+                        }
+                    } catch (IOException e) {
+                        this.terminate();
+                        this.subscriber.onError(e);
+                        return;
+                    }
+                    this.remaining -= chunk.limit();
+                    this.demand.decrementAndGet();
+                    this.subscriber.onNext(chunk.flip());
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void cancel() {
+            this.terminate();
+        }
+
+        private void terminate() {
+            if (this.done) {
+                return;
+            }
+            this.done = true;
+            try {
+                this.channel.close();
+            } catch (IOException ignore) {
+            }
+            this.deleteAction.run();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package ru.tinkoff.kora.http.server.common.form;
 
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.flow.ErrorSubscription;
 import ru.tinkoff.kora.http.common.form.FormMultipart.FormPart.MultipartFile;
+import ru.tinkoff.kora.http.common.form.FormMultipart.FormPart.MultipartFileStream;
 import ru.tinkoff.kora.http.server.common.HttpServerRequest;
 import ru.tinkoff.kora.http.server.common.HttpServerResponseException;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
 
 import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -14,12 +21,111 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 public class MultipartReader {
     private static final Pattern boundaryPattern = Pattern.compile(".*(\\s|;)boundary=\"?(?<boundary>[^;\"]+).*");
+    static final Pattern namePattern = Pattern.compile(".*form-data;.*(\\s|;)name=\"(?<name>.*?)\".*", Pattern.CASE_INSENSITIVE);
+    static final Pattern fileNamePattern = Pattern.compile(".*form-data;.*(\\s|;)filename=\"(?<filename>.*?)\".*", Pattern.CASE_INSENSITIVE);
 
     public static CompletionStage<List<MultipartFile>> read(HttpServerRequest r) {
+        var boundary = boundary(r);
+        var future = new CompletableFuture<List<MultipartFile>>();
+        var decoder = new MultipartDecoder(boundary, future);
+        r.body().subscribe(decoder);
+        return future;
+    }
+
+    /**
+     * Parses parts while request body arrives: part content above {@link HttpServerMultipartConfig#inMemoryThreshold()} is written to a temp file.
+     * Part is added to result when its content is received completely, temp file is deleted after part content is read.
+     */
+    public static CompletionStage<List<MultipartFileStream>> readStreaming(HttpServerRequest r, HttpServerMultipartConfig config) {
+        return readStreaming(r, config, null);
+    }
+
+    /**
+     * @param executor executor for temp file writes, they are done in the thread that delivers request body if null
+     * @see #readStreaming(HttpServerRequest, HttpServerMultipartConfig)
+     */
+    public static CompletionStage<List<MultipartFileStream>> readStreaming(HttpServerRequest r, HttpServerMultipartConfig config, @Nullable BlockingRequestExecutor executor) {
+        return collect(readParts(r, config, executor));
+    }
+
+    /**
+     * Parses parts on the calling thread, which must be allowed to block: request body is read as input stream and temp file writes are done on the same thread,
+     * so parsing never waits for another blocking thread to become free.
+     * Returned stage is completed when method returns, unless request body can't be read as input stream.
+     *
+     * @see #readStreaming(HttpServerRequest, HttpServerMultipartConfig)
+     */
+    public static CompletionStage<List<MultipartFileStream>> readStreamingBlocking(HttpServerRequest r, HttpServerMultipartConfig config) {
+        var body = r.body();
+        var stream = body.asInputStream();
+        if (stream == null) {
+            return readStreaming(r, config, null);
+        }
+        return collect(readParts(r, config, null, subscriber -> subscriber.onSubscribe(new InputStreamSubscription(subscriber, stream))));
+    }
+
+    private static CompletionStage<List<MultipartFileStream>> collect(Flow.Publisher<MultipartFileStream> publisher) {
+        var future = new CompletableFuture<List<MultipartFileStream>>();
+        var parts = new ArrayList<MultipartFileStream>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(MultipartFileStream item) {
+                parts.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(parts);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Single use publisher of parts: part is published as soon as its content is received completely, before the rest of request body.
+     * Request body is read only while subscriber has demand for parts, temp file of part is deleted after part content is read.
+     *
+     * @param executor executor for temp file writes, they are done in the thread that delivers request body if null
+     */
+    public static Flow.Publisher<MultipartFileStream> readParts(HttpServerRequest r, HttpServerMultipartConfig config, @Nullable BlockingRequestExecutor executor) {
+        return readParts(r, config, executor, r.body());
+    }
+
+    private static Flow.Publisher<MultipartFileStream> readParts(HttpServerRequest r, HttpServerMultipartConfig config, @Nullable BlockingRequestExecutor executor, Flow.Publisher<ByteBuffer> body) {
+        var boundary = boundary(r);
+        var tempDirectory = config.tempDirectory() == null
+            ? null
+            : Path.of(config.tempDirectory());
+        var subscribed = new AtomicBoolean();
+        return subscriber -> {
+            if (!subscribed.compareAndSet(false, true)) {
+                subscriber.onSubscribe(new ErrorSubscription<>(subscriber, Context.current(), new IllegalStateException("Multipart request body can be read only once")));
+                return;
+            }
+            var decoder = new MultipartStreamingDecoder(boundary, config.inMemoryThreshold().toBytes(), tempDirectory, executor, subscriber);
+            subscriber.onSubscribe(decoder);
+            body.subscribe(decoder);
+        };
+    }
+
+    private static String boundary(HttpServerRequest r) {
         var contentType = r.headers().getFirst("content-type");
         if (contentType == null) {
             throw HttpServerResponseException.of(400, "content-type header is required");
@@ -28,16 +134,79 @@ public class MultipartReader {
         if (!m.matches()) {
             throw HttpServerResponseException.of(400, "content-type header is invalid");
         }
-        var boundary = m.group("boundary");
-        var future = new CompletableFuture<List<MultipartFile>>();
-        var decoder = new MultipartDecoder(boundary, future);
-        r.body().subscribe(decoder);
-        return future;
+        return m.group("boundary");
+    }
+
+    /**
+     * Reads request body input stream by chunks on demand in the requesting thread
+     */
+    private static final class InputStreamSubscription implements Flow.Subscription {
+        private static final int READ_CHUNK_SIZE = 16 * 1024;
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final InputStream stream;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+
+        private InputStreamSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, InputStream stream) {
+            this.subscriber = subscriber;
+            this.stream = stream;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.terminate();
+                this.subscriber.onError(new IllegalArgumentException("Requested " + n + " items, should be positive"));
+                return;
+            }
+            this.demand.getAndAccumulate(n, (current, requested) -> current + requested < 0 ? Long.MAX_VALUE : current + requested);
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            var missed = 1;
+            do {
+                while (!this.done && this.demand.get() > 0) {
+                    var chunk = new byte[READ_CHUNK_SIZE];
+                    final int read;
+                    try {
+                        read = this.stream.read(chunk);
+                    } catch (Exception e) {
+                        this.terminate();
+                        this.subscriber.onError(e);
+                        return;
+                    }
+                    if (read < 0) {
+                        this.terminate();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    this.demand.decrementAndGet();
+                    this.subscriber.onNext(ByteBuffer.wrap(chunk, 0, read));
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void cancel() {
+            this.terminate();
+        }
+
+        private void terminate() {
+            if (this.done) {
+                return;
+            }
+            this.done = true;
+            try {
+                this.stream.close();
+            } catch (IOException ignore) {
+            }
+        }
     }
 
     private static class MultipartDecoder implements Flow.Subscriber<ByteBuffer> {
-        private static final Pattern namePattern = Pattern.compile(".*form-data;.*(\\s|;)name=\"(?<name>.*?)\".*", Pattern.CASE_INSENSITIVE);
-        private static final Pattern fileNamePattern = Pattern.compile(".*form-data;.*(\\s|;)filename=\"(?<filename>.*?)\".*", Pattern.CASE_INSENSITIVE);
         private static final int SIZE_STEP = 4 * 1024 * 1024; // 4 mb
         private final byte[] boundary;
         private final byte[] boundaryBuf;
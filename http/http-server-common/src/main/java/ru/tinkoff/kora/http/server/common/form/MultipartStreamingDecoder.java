@@ -0,0 +1,421 @@
+package ru.tinkoff.kora.http.server.common.form;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.form.FormMultipart.FormPart.MultipartFileStream;
+import ru.tinkoff.kora.http.server.common.HttpServerResponseException;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multipart decoder that keeps only the unparsed tail of request body in memory and publishes each part as soon as its closing delimiter is received.
+ * <p>
+ * Boundary delimiter is searched with Boyer-Moore-Horspool: alignments that were ruled out are never checked again, so bytes before current alignment
+ * are written to part content right away and at most delimiter length bytes are carried to the next chunk.
+ * Part content is kept in memory up to the threshold and is spilled to a temp file after that, see {@link MultipartPartContent}.
+ * <p>
+ * Request body is requested by one chunk: next chunk is requested only after the previous one is parsed, its temp file write is finished
+ * and parsed part is taken by subscriber, so neither slow disk nor slow subscriber make decoder buffer the body.
+ */
+final class MultipartStreamingDecoder implements Flow.Subscriber<ByteBuffer>, Flow.Subscription {
+    private static final int MAX_HEADERS_SIZE = 16 * 1024;
+
+    private final Flow.Subscriber<? super MultipartFileStream> downstream;
+    private final byte[] delimiter;
+    private final int[] shift = new int[256];
+    private final long inMemoryThreshold;
+    @Nullable
+    private final Path tempDirectory;
+    @Nullable
+    private final BlockingRequestExecutor executor;
+    private final Context context;
+    private final ArrayDeque<MultipartFileStream> ready = new ArrayDeque<>(2);
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong demand = new AtomicLong();
+
+    private volatile Flow.Subscription upstream;
+    private volatile ByteBuffer chunk;
+    private volatile boolean upstreamDone = false;
+    @Nullable
+    private volatile Throwable failure;
+    private volatile boolean writing = false;
+    private volatile boolean cancelled = false;
+    private volatile boolean done = false;
+    private boolean requested = false;
+
+    private byte[] buf;
+    private int start = 0;
+    private int end = 0;
+    private int scan = 0;
+    private State state = State.PREAMBLE;
+
+    @Nullable
+    private MultipartPartContent content;
+    private String name;
+    @Nullable
+    private String fileName;
+    @Nullable
+    private String contentType;
+
+    MultipartStreamingDecoder(String boundary, long inMemoryThreshold, @Nullable Path tempDirectory, @Nullable BlockingRequestExecutor executor, Flow.Subscriber<? super MultipartFileStream> downstream) {
+        this.downstream = downstream;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        this.inMemoryThreshold = inMemoryThreshold;
+        this.tempDirectory = tempDirectory;
+        this.executor = executor;
+        this.context = Context.current();
+        var m = this.delimiter.length;
+        Arrays.fill(this.shift, m);
+        for (int i = 0; i < m - 1; i++) {
+            this.shift[this.delimiter[i] & 0xFF] = m - 1 - i;
+        }
+        this.buf = new byte[Math.max(8 * 1024, m * 2)];
+        // first boundary may have no preceding line break, so body is treated as if it starts with one
+        this.buf[this.end++] = '\r';
+        this.buf[this.end++] = '\n';
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.upstream = subscription;
+        if (this.done) {
+            subscription.request(Long.MAX_VALUE);
+            return;
+        }
+        this.drain();
+    }
+
+    @Override
+    public void onNext(ByteBuffer byteBuffer) {
+        if (this.done) {
+            return;
+        }
+        this.chunk = byteBuffer;
+        this.drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (this.failure == null) {
+            this.failure = throwable;
+        }
+        this.upstreamDone = true;
+        this.drain();
+    }
+
+    @Override
+    public void onComplete() {
+        this.upstreamDone = true;
+        this.drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            this.failure = new IllegalArgumentException("Requested " + n + " items, should be positive");
+        } else {
+            this.demand.getAndAccumulate(n, (current, requested) -> current + requested < 0 ? Long.MAX_VALUE : current + requested);
+        }
+        this.drain();
+    }
+
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+        this.drain();
+    }
+
+    private void drain() {
+        if (this.wip.getAndIncrement() != 0) {
+            return;
+        }
+        var missed = 1;
+        do {
+            this.drainLoop();
+            missed = this.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainLoop() {
+        while (!this.done) {
+            if (this.writing) {
+                // part content is not touched until temp file write is finished
+                return;
+            }
+            if (this.cancelled) {
+                this.terminate();
+                return;
+            }
+            var failure = this.failure;
+            if (failure != null) {
+                this.terminate();
+                this.downstream.onError(failure);
+                return;
+            }
+            while (!this.ready.isEmpty() && this.demand.get() > 0) {
+                this.demand.decrementAndGet();
+                this.downstream.onNext(this.ready.poll());
+            }
+            if (!this.ready.isEmpty()) {
+                return;
+            }
+            if (this.state == State.EPILOGUE) {
+                this.done = true;
+                this.requestRemaining();
+                this.downstream.onComplete();
+                return;
+            }
+            var chunk = this.chunk;
+            if (chunk != null) {
+                this.chunk = null;
+                this.requested = false;
+                this.append(chunk);
+            }
+            final Step step;
+            try {
+                step = this.process();
+            } catch (Throwable e) {
+                this.failure = e;
+                continue;
+            }
+            if (step == Step.NEED_DATA) {
+                if (this.upstreamDone) {
+                    this.failure = HttpServerResponseException.of(400, "Unexpected end of multipart body");
+                    continue;
+                }
+                var upstream = this.upstream;
+                if (!this.requested && upstream != null) {
+                    this.requested = true;
+                    upstream.request(1);
+                }
+                return;
+            }
+        }
+    }
+
+    private Step process() throws IOException {
+        while (true) {
+            switch (this.state) {
+                case PREAMBLE, BODY -> {
+                    var match = this.findDelimiter();
+                    var contentEnd = match < 0 ? this.scan : match;
+                    if (this.state == State.BODY && contentEnd > this.start) {
+                        var write = this.content.write(this.buf, this.start, contentEnd - this.start);
+                        this.start = contentEnd;
+                        if (write != null) {
+                            // buffer is not appended until write is finished, the same delimiter match is found again after it
+                            this.writing = true;
+                            write.whenComplete((v, e) -> {
+                                if (e != null) {
+                                    this.failure = e;
+                                }
+                                this.writing = false;
+                                this.drain();
+                            });
+                            return Step.WRITING;
+                        }
+                    }
+                    if (match < 0) {
+                        this.start = contentEnd;
+                        return Step.NEED_DATA;
+                    }
+                    this.start = match + this.delimiter.length;
+                    this.scan = this.start;
+                    var previous = this.state;
+                    this.state = State.DELIMITER;
+                    if (previous == State.BODY) {
+                        this.finishPart();
+                        return Step.PART;
+                    }
+                }
+                case DELIMITER -> {
+                    while (this.start < this.end && (this.buf[this.start] == ' ' || this.buf[this.start] == '\t')) {
+                        this.start++;
+                    }
+                    if (this.end - this.start < 2) {
+                        return Step.NEED_DATA;
+                    }
+                    var b1 = this.buf[this.start];
+                    var b2 = this.buf[this.start + 1];
+                    if (b1 == '-' && b2 == '-') {
+                        this.state = State.EPILOGUE;
+                        this.start = this.end;
+                        return Step.PART;
+                    }
+                    if (b1 != '\r' || b2 != '\n') {
+                        throw HttpServerResponseException.of(400, "Invalid multipart boundary delimiter");
+                    }
+                    this.start += 2;
+                    this.scan = this.start;
+                    this.state = State.HEADERS;
+                }
+                case HEADERS -> {
+                    var headersEnd = this.findHeadersEnd();
+                    if (headersEnd < 0) {
+                        if (this.end - this.start > MAX_HEADERS_SIZE) {
+                            throw HttpServerResponseException.of(400, "Multipart part headers are too large");
+                        }
+                        return Step.NEED_DATA;
+                    }
+                    this.parseHeaders(this.start, headersEnd);
+                    this.start = headersEnd + 4;
+                    this.scan = this.start;
+                    this.content = new MultipartPartContent(this.inMemoryThreshold, this.tempDirectory, this.executor, this.context);
+                    this.state = State.BODY;
+                }
+                case EPILOGUE -> {
+                    this.start = this.end;
+                    return Step.PART;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return start of delimiter or -1 if not found, {@link #scan} is set to the first alignment that is not ruled out yet
+     */
+    private int findDelimiter() {
+        var buf = this.buf;
+        var delimiter = this.delimiter;
+        var m = delimiter.length;
+        var end = this.end;
+        var i = Math.max(this.scan, this.start);
+        while (i + m <= end) {
+            var j = m - 1;
+            while (buf[i + j] == delimiter[j]) {
+                if (j == 0) {
+                    this.scan = i;
+                    return i;
+                }
+                j--;
+            }
+            i += this.shift[buf[i + m - 1] & 0xFF];
+        }
+        this.scan = i;
+        return -1;
+    }
+
+    private int findHeadersEnd() {
+        var buf = this.buf;
+        var i = Math.max(this.scan, this.start);
+        for (; i + 3 < this.end; i++) {
+            if (buf[i] == '\r' && buf[i + 1] == '\n' && buf[i + 2] == '\r' && buf[i + 3] == '\n') {
+                return i;
+            }
+        }
+        this.scan = i;
+        if (this.end - this.start >= 2 && buf[this.start] == '\r' && buf[this.start + 1] == '\n') {
+            throw HttpServerResponseException.of(400, "Multipart part is missing content-disposition header");
+        }
+        return -1;
+    }
+
+    private void parseHeaders(int from, int to) {
+        String name = null;
+        String fileName = null;
+        String contentType = null;
+        for (var line : new String(this.buf, from, to - from, StandardCharsets.UTF_8).split("\r\n")) {
+            var colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            var headerName = line.substring(0, colon).trim();
+            var headerValue = line.substring(colon);
+            if (headerName.equalsIgnoreCase("content-disposition")) {
+                var m1 = MultipartReader.namePattern.matcher(headerValue);
+                if (m1.matches()) {
+                    name = m1.group("name");
+                    var m2 = MultipartReader.fileNamePattern.matcher(headerValue);
+                    fileName = m2.matches() ? m2.group("filename") : null;
+                }
+            } else if (headerName.equalsIgnoreCase("content-type")) {
+                contentType = headerValue.substring(1).trim();
+            }
+        }
+        if (name == null) {
+            throw HttpServerResponseException.of(400, "Multipart part is missing content-disposition header");
+        }
+        this.name = name;
+        this.fileName = fileName;
+        this.contentType = contentType;
+    }
+
+    private void finishPart() throws IOException {
+        var content = this.content;
+        this.content = null;
+        this.ready.add(new MultipartFileStream(this.name, this.fileName, this.contentType, content.finish()));
+    }
+
+    private void append(ByteBuffer byteBuffer) {
+        var length = byteBuffer.remaining();
+        if (this.end + length > this.buf.length) {
+            if (this.start > 0) {
+                System.arraycopy(this.buf, this.start, this.buf, 0, this.end - this.start);
+                this.end -= this.start;
+                this.scan = Math.max(this.scan - this.start, 0);
+                this.start = 0;
+            }
+            if (this.end + length > this.buf.length) {
+                this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length * 2, this.end + length));
+            }
+        }
+        byteBuffer.get(this.buf, this.end, length);
+        this.end += length;
+    }
+
+    private void terminate() {
+        this.done = true;
+        this.state = State.EPILOGUE;
+        var content = this.content;
+        if (content != null) {
+            this.content = null;
+            content.discard();
+        }
+        for (var part = this.ready.poll(); part != null; part = this.ready.poll()) {
+            // temp file is deleted when its content subscription is cancelled
+            part.content().subscribe(new CancellingSubscriber());
+        }
+        this.requestRemaining();
+    }
+
+    private void requestRemaining() {
+        // rest of request body is read and ignored, so connection stays usable
+        var upstream = this.upstream;
+        if (upstream != null) {
+            upstream.request(Long.MAX_VALUE);
+        }
+    }
+
+    private enum Step {
+        NEED_DATA, WRITING, PART
+    }
+
+    private static final class CancellingSubscriber implements Flow.Subscriber<ByteBuffer> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {}
+
+        @Override
+        public void onError(Throwable throwable) {}
+
+        @Override
+        public void onComplete() {}
+    }
+
+    private enum State {
+        PREAMBLE, DELIMITER, HEADERS, BODY, EPILOGUE
+    }
+}
@@ -11,31 +11,25 @@ public interface BlockingRequestExecutor {
 
     static <T> CompletionStage<T> defaultExecute(Context context, Consumer<Runnable> executor, Callable<T> handler) {
         var future = new CompletableFuture<T>();
-        executor.accept(() -> {
-            var oldCtx = Context.current();
-            context.inject();
+        executor.accept(() -> Context.runWith(context, () -> {
+            T result;
             try {
-                T result;
-                try {
-                    result = handler.call();
-                } catch (CompletionException e) {
-                    future.completeExceptionally(e.getCause());
-                    return;
-                } catch (ExecutionException e) {
-                    future.completeExceptionally(Objects.requireNonNullElse(e.getCause(), e));
-                    return;
-                } catch (Throwable e) {
-                    future.completeExceptionally(e);
-                    return;
-                }
-                if (future.isCancelled()) {
-                    return;
-                }
-                future.complete(result);
-            } finally {
-                oldCtx.inject();
+                result = handler.call();
+            } catch (CompletionException e) {
+                future.completeExceptionally(e.getCause());
+                return;
+            } catch (ExecutionException e) {
+                future.completeExceptionally(Objects.requireNonNullElse(e.getCause(), e));
+                return;
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+                return;
             }
-        });
+            if (future.isCancelled()) {
+                return;
+            }
+            future.complete(result);
+        }));
         return future;
     }
 
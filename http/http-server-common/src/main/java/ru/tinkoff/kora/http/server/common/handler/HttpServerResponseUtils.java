@@ -0,0 +1,58 @@
+package ru.tinkoff.kora.http.server.common.handler;
+
+import jakarta.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+public final class HttpServerResponseUtils {
+
+    private HttpServerResponseUtils() { }
+
+    /**
+     * @return strong entity tag of content: first 128 bits of its SHA-256 digest
+     */
+    public static String etag(byte[] content) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Weak comparison of If-None-Match header values with entity tag, see RFC 9110 section 13.1.2
+     */
+    public static boolean etagMatches(@Nullable List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        var opaqueTag = opaqueTag(etag);
+        for (var value : ifNoneMatch) {
+            for (var tag : value.split(",")) {
+                var trimmed = tag.trim();
+                if (trimmed.equals("*") || opaqueTag(trimmed).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return copy of buffer remaining content, buffer position is not changed
+     */
+    public static byte[] toArray(ByteBuffer buffer) {
+        var array = new byte[buffer.remaining()];
+        buffer.slice().get(array);
+        return array;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
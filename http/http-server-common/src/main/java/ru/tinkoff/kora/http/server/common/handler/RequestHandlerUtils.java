@@ -17,7 +17,18 @@ public final class RequestHandlerUtils {
      */
     @Nonnull
     public static String parseStringPathParameter(HttpServerRequest request, String name) throws HttpServerResponseException {
-        var param = request.pathParams().get(name);
+        return parseStringPathParameter(request.pathParams().get(name), name);
+    }
+
+    /**
+     * @param index position of parameter in route template, lets request resolve it without building path parameters map
+     */
+    @Nonnull
+    public static String parseStringPathParameter(HttpServerRequest request, int index, String name) throws HttpServerResponseException {
+        return parseStringPathParameter(request.pathParam(index, name), name);
+    }
+
+    private static String parseStringPathParameter(@Nullable String param, String name) throws HttpServerResponseException {
         if (param == null) {
             throw HttpServerResponseException.of(400, "Path parameter '%s' is required".formatted(name));
         }
@@ -51,7 +62,15 @@ public final class RequestHandlerUtils {
 
     @Nonnull
     public static UUID parseUUIDPathParameter(HttpServerRequest request, String name) throws HttpServerResponseException {
-        var param = request.pathParams().get(name);
+        return parseUUIDPathParameter(request.pathParams().get(name), name);
+    }
+
+    @Nonnull
+    public static UUID parseUUIDPathParameter(HttpServerRequest request, int index, String name) throws HttpServerResponseException {
+        return parseUUIDPathParameter(request.pathParam(index, name), name);
+    }
+
+    private static UUID parseUUIDPathParameter(@Nullable String param, String name) throws HttpServerResponseException {
         if (param == null) {
             throw HttpServerResponseException.of(400, "Path parameter '%s' is required".formatted(name));
         }
@@ -64,7 +83,14 @@ public final class RequestHandlerUtils {
     }
 
     public static int parseIntegerPathParameter(HttpServerRequest request, String name) throws HttpServerResponseException {
-        var param = request.pathParams().get(name);
+        return parseIntegerPathParameter(request.pathParams().get(name), name);
+    }
+
+    public static int parseIntegerPathParameter(HttpServerRequest request, int index, String name) throws HttpServerResponseException {
+        return parseIntegerPathParameter(request.pathParam(index, name), name);
+    }
+
+    private static int parseIntegerPathParameter(@Nullable String param, String name) throws HttpServerResponseException {
         if (param == null) {
             throw HttpServerResponseException.of(400, "Path parameter '%s' is required".formatted(name));
         }
@@ -77,7 +103,14 @@ public final class RequestHandlerUtils {
     }
 
     public static long parseLongPathParameter(HttpServerRequest request, String name) throws HttpServerResponseException {
-        var param = request.pathParams().get(name);
+        return parseLongPathParameter(request.pathParams().get(name), name);
+    }
+
+    public static long parseLongPathParameter(HttpServerRequest request, int index, String name) throws HttpServerResponseException {
+        return parseLongPathParameter(request.pathParam(index, name), name);
+    }
+
+    private static long parseLongPathParameter(@Nullable String param, String name) throws HttpServerResponseException {
         if (param == null) {
             throw HttpServerResponseException.of(400, "Path parameter '%s' is required".formatted(name));
         }
@@ -90,7 +123,14 @@ public final class RequestHandlerUtils {
     }
 
     public static double parseDoublePathParameter(HttpServerRequest request, String name) throws HttpServerResponseException {
-        var param = request.pathParams().get(name);
+        return parseDoublePathParameter(request.pathParams().get(name), name);
+    }
+
+    public static double parseDoublePathParameter(HttpServerRequest request, int index, String name) throws HttpServerResponseException {
+        return parseDoublePathParameter(request.pathParam(index, name), name);
+    }
+
+    private static double parseDoublePathParameter(@Nullable String param, String name) throws HttpServerResponseException {
         if (param == null) {
             throw HttpServerResponseException.of(400, "Path parameter '%s' is required".formatted(name));
         }
@@ -103,7 +143,14 @@ public final class RequestHandlerUtils {
     }
 
     public static boolean parseBooleanPathParameter(HttpServerRequest request, String name) throws HttpServerResponseException {
-        var param = request.pathParams().get(name);
+        return parseBooleanPathParameter(request.pathParams().get(name), name);
+    }
+
+    public static boolean parseBooleanPathParameter(HttpServerRequest request, int index, String name) throws HttpServerResponseException {
+        return parseBooleanPathParameter(request.pathParam(index, name), name);
+    }
+
+    private static boolean parseBooleanPathParameter(@Nullable String param, String name) throws HttpServerResponseException {
         if (param == null) {
             throw HttpServerResponseException.of(400, "Path parameter '%s' is required".formatted(name));
         }
@@ -0,0 +1,96 @@
+package ru.tinkoff.kora.http.server.common.limit;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerInterceptor;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits number of concurrently processed requests with a limit adapted to observed latency.
+ * Excess requests are rejected with 503 and Retry-After before handler reads request body.
+ */
+public final class ConcurrencyLimitHttpServerInterceptor implements HttpServerInterceptor {
+    private final HttpServerConcurrencyLimitConfig config;
+    @Nullable
+    private final HttpServerMetrics metrics;
+    @Nullable
+    private final GradientConcurrencyLimit sharedLimit;
+    private final ConcurrentHashMap<String, GradientConcurrencyLimit> routeLimits = new ConcurrentHashMap<>();
+    private final String retryAfter;
+
+    public ConcurrencyLimitHttpServerInterceptor(HttpServerConcurrencyLimitConfig config, @Nullable HttpServerMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.retryAfter = Long.toString(Math.max(1, (config.retryAfter().toMillis() + 999) / 1000));
+        if (config.enabled() && !config.perRoute()) {
+            this.sharedLimit = new GradientConcurrencyLimit(config);
+            if (metrics != null) {
+                metrics.concurrencyLimiterCreated(null, this.sharedLimit::limit, this.sharedLimit::inflight);
+            }
+        } else {
+            this.sharedLimit = null;
+        }
+    }
+
+    @Override
+    public CompletionStage<HttpServerResponse> intercept(Context context, HttpServerRequest request, InterceptChain chain) throws Exception {
+        var limit = this.limit(request.route());
+        if (limit == null) {
+            return chain.process(context, request);
+        }
+        if (!limit.tryAcquire()) {
+            if (this.metrics != null) {
+                this.metrics.concurrencyLimitRejected(this.sharedLimit == null ? request.route() : null);
+            }
+            return CompletableFuture.completedFuture(HttpServerResponse.of(503, HttpHeaders.of("retry-after", this.retryAfter), HttpBody.plaintext("Service Unavailable")));
+        }
+        var start = System.nanoTime();
+        final CompletionStage<HttpServerResponse> response;
+        try {
+            response = chain.process(context, request);
+        } catch (Throwable e) {
+            limit.release(-1);
+            throw e;
+        }
+        return response.whenComplete((rs, error) -> {
+            if (error != null || rs.code() >= 500) {
+                limit.release(-1);
+            } else {
+                limit.release(System.nanoTime() - start);
+            }
+        });
+    }
+
+    @Nullable
+    private GradientConcurrencyLimit limit(@Nullable String route) {
+        if (!this.config.enabled() || route == null) {
+            return null;
+        }
+        var routes = this.config.routes();
+        if (routes != null && !routes.contains(route)) {
+            return null;
+        }
+        if (this.sharedLimit != null) {
+            return this.sharedLimit;
+        }
+        var limit = this.routeLimits.get(route);
+        if (limit != null) {
+            return limit;
+        }
+        return this.routeLimits.computeIfAbsent(route, r -> {
+            var newLimit = new GradientConcurrencyLimit(this.config);
+            if (this.metrics != null) {
+                this.metrics.concurrencyLimiterCreated(r, newLimit::limit, newLimit::inflight);
+            }
+            return newLimit;
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package ru.tinkoff.kora.http.server.common.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient limit: compares short term latency to long term latency, while they are close limit grows by square root of itself,
+ * when short term latency rises limit is reduced proportionally, so queueing inside the server is kept small.
+ * <p>
+ * Samples are taken under try lock: under contention some samples are skipped instead of serializing request completion.
+ */
+final class GradientConcurrencyLimit {
+    private static final double SHORT_WINDOW_FACTOR = 2.0 / (10 + 1);
+    private static final double LONG_WINDOW_FACTOR = 2.0 / (600 + 1);
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRtt = 0;
+    private double longRtt = 0;
+
+    GradientConcurrencyLimit(HttpServerConcurrencyLimitConfig config) {
+        this.minLimit = Math.max(1, config.minLimit());
+        this.maxLimit = Math.max(this.minLimit, config.maxLimit());
+        this.smoothing = config.smoothing();
+        this.rttTolerance = config.rttTolerance();
+        this.estimatedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, config.initialLimit()));
+        this.limit = (int) this.estimatedLimit;
+    }
+
+    int limit() {
+        return this.limit;
+    }
+
+    int inflight() {
+        return this.inflight.get();
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            var current = this.inflight.get();
+            if (current >= this.limit) {
+                return false;
+            }
+            if (this.inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos request processing time or -1 if request failed and its latency should not be used as a sample
+     */
+    void release(long rttNanos) {
+        var inflight = this.inflight.getAndDecrement();
+        if (rttNanos <= 0 || !this.lock.tryLock()) {
+            return;
+        }
+        try {
+            this.update(rttNanos, inflight);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int inflight) {
+        if (this.longRtt == 0) {
+            this.shortRtt = rttNanos;
+            this.longRtt = rttNanos;
+            return;
+        }
+        this.shortRtt += (rttNanos - this.shortRtt) * SHORT_WINDOW_FACTOR;
+        this.longRtt += (this.shortRtt - this.longRtt) * LONG_WINDOW_FACTOR;
+        if (this.longRtt / this.shortRtt > 2) {
+            // latency dropped a lot, long term average catches up faster
+            this.longRtt *= 0.95;
+        }
+        if (inflight < this.estimatedLimit / 2) {
+            // server is not busy enough for latency to say anything about the limit
+            return;
+        }
+        var gradient = Math.max(0.5, Math.min(1.0, this.rttTolerance * this.longRtt / this.shortRtt));
+        var newLimit = this.estimatedLimit * gradient + Math.sqrt(this.estimatedLimit);
+        newLimit = this.estimatedLimit * (1 - this.smoothing) + newLimit * this.smoothing;
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+        this.limit = (int) this.estimatedLimit;
+    }
+}
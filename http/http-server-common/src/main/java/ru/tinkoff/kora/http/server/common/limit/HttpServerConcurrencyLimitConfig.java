@@ -0,0 +1,61 @@
+package ru.tinkoff.kora.http.server.common.limit;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+
+import java.time.Duration;
+import java.util.Set;
+
+@ConfigValueExtractor
+public interface HttpServerConcurrencyLimitConfig {
+
+    default boolean enabled() {
+        return false;
+    }
+
+    default int initialLimit() {
+        return 20;
+    }
+
+    default int minLimit() {
+        return 4;
+    }
+
+    default int maxLimit() {
+        return 1000;
+    }
+
+    /**
+     * Share of a new limit estimate applied on every update, smaller values react slower to latency changes
+     */
+    default double smoothing() {
+        return 0.2;
+    }
+
+    /**
+     * Short term latency is allowed to exceed long term latency by this factor before limit starts to decrease
+     */
+    default double rttTolerance() {
+        return 1.5;
+    }
+
+    /**
+     * Value of Retry-After header for rejected requests, rounded up to seconds
+     */
+    default Duration retryAfter() {
+        return Duration.ofSeconds(1);
+    }
+
+    /**
+     * Every route template gets its own limit instead of a single limit shared by all routes
+     */
+    default boolean perRoute() {
+        return false;
+    }
+
+    /**
+     * Route templates to limit, all routes are limited if not set
+     */
+    @Nullable
+    Set<String> routes();
+}
@@ -0,0 +1,157 @@
+package ru.tinkoff.kora.http.server.common.probe;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.server.common.telemetry.PrivateApiMetrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates probe of a single component with a timeout. Concurrent requests share single evaluation,
+ * result is reused for {@link HttpServerProbeConfig#cacheTtl()} and is refreshed ahead: the first request after half of ttl has passed
+ * still gets cached result and starts evaluation in background. Probes are not evaluated without requests, so unused result just expires.
+ * <p>
+ * Probe that did not answer in {@link HttpServerProbeConfig#timeout()} is reported as failed, but stays in flight until it actually completes:
+ * requests that come meanwhile get timeout failure at once and no more evaluations of the hung probe are started.
+ *
+ * @param <P> probe type
+ */
+public final class CachedProbe<P> {
+
+    @FunctionalInterface
+    public interface ProbeFunction<P> {
+        /**
+         * @return failure message or null if probe succeeded
+         */
+        @Nullable
+        String probe(P probe) throws Exception;
+    }
+
+    private record Result(@Nullable String failure, long evaluatedAt) {}
+
+    private static final String TIMEOUT = "Probe failed: timeout";
+
+    private final String type;
+    private final String component;
+    private final P probe;
+    private final ProbeFunction<P> function;
+    private final HttpServerProbeConfig config;
+    private final Executor executor;
+    private final Supplier<PrivateApiMetrics> metrics;
+    /**
+     * Completed with probe result or with timeout failure, whichever comes first, but cleared only when probe completes
+     */
+    private final AtomicReference<CompletableFuture<Result>> inflight = new AtomicReference<>();
+    @Nullable
+    private volatile Result result;
+
+    public CachedProbe(String type, String component, P probe, ProbeFunction<P> function, HttpServerProbeConfig config, Executor executor, Supplier<PrivateApiMetrics> metrics) {
+        this.type = type;
+        this.component = component;
+        this.probe = probe;
+        this.function = function;
+        this.config = config;
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    public P probe() {
+        return this.probe;
+    }
+
+    /**
+     * @return failure message or null if probe succeeded
+     */
+    public CompletionStage<String> evaluate() {
+        var ttl = this.config.cacheTtl().toNanos();
+        var result = this.result;
+        if (result != null && ttl > 0) {
+            var age = System.nanoTime() - result.evaluatedAt();
+            if (age < ttl) {
+                if (age >= ttl / 2) {
+                    this.refresh();
+                }
+                return CompletableFuture.completedFuture(result.failure());
+            }
+        }
+        return this.refresh().thenApply(Result::failure);
+    }
+
+    private CompletableFuture<Result> refresh() {
+        while (true) {
+            var current = this.inflight.get();
+            if (current != null) {
+                return current;
+            }
+            var future = new CompletableFuture<Result>();
+            if (this.inflight.compareAndSet(null, future)) {
+                this.start(future);
+                return future;
+            }
+        }
+    }
+
+    private void start(CompletableFuture<Result> future) {
+        var started = System.nanoTime();
+        CompletableFuture<String> evaluation;
+        try {
+            evaluation = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.function.probe(this.probe);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, this.executor);
+        } catch (Exception e) {
+            evaluation = CompletableFuture.failedFuture(e);
+        }
+        // probe itself is not interrupted, but a hanging probe should not hang probe requests
+        CompletableFuture.delayedExecutor(this.config.timeout().toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            var now = System.nanoTime();
+            var result = new Result(TIMEOUT, now);
+            synchronized (future) {
+                if (this.inflight.get() != future || future.isDone()) {
+                    return;
+                }
+                this.result = result;
+            }
+            if (future.complete(result)) {
+                this.record("timeout", now - started);
+            }
+        });
+        evaluation.whenComplete((failure, error) -> {
+            final String message;
+            final String status;
+            if (error == null) {
+                message = failure;
+                status = failure == null ? "success" : "failure";
+            } else {
+                var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                message = "Probe failed: " + cause.getMessage();
+                status = "failure";
+            }
+            var now = System.nanoTime();
+            var result = new Result(message, now);
+            synchronized (future) {
+                this.result = result;
+                this.inflight.set(null);
+            }
+            // result of probe that completed after timeout is cached for next requests, but its evaluation is already reported as timeout
+            if (future.complete(result)) {
+                this.record(status, now - started);
+            }
+        });
+    }
+
+    private void record(String status, long duration) {
+        var metrics = this.metrics.get();
+        if (metrics != null) {
+            metrics.probeEvaluated(this.type, this.component, status, duration);
+        }
+    }
+}
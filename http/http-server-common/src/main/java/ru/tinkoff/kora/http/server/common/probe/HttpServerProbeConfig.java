@@ -0,0 +1,26 @@
+package ru.tinkoff.kora.http.server.common.probe;
+
+import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+
+import java.time.Duration;
+
+@ConfigValueExtractor
+public interface HttpServerProbeConfig {
+
+    /**
+     * Time given to a single probe, probe that did not answer in time is reported as failed.
+     * Hung probe is not evaluated again until it completes, requests get timeout failure meanwhile.
+     */
+    default Duration timeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    /**
+     * Probe result is reused for this long, probes are evaluated on every request if zero.
+     * Result is refreshed ahead: result older than half of ttl is returned as is while probe is evaluated again in background.
+     * Refresh is started by a probe request, there is no timer.
+     */
+    default Duration cacheTtl() {
+        return Duration.ZERO;
+    }
+}
@@ -0,0 +1,280 @@
+package ru.tinkoff.kora.http.server.common.resource;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandler;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerResponseUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Serves resolved static resources with conditional requests (RFC 9110 section 13) and single byte range requests (RFC 9110 section 14).
+ * Multiple ranges are answered with the full content, which the RFC allows.
+ * <p>
+ * Resolvers that touch file system are called on blocking executor, so file attributes are never read on server io thread.
+ */
+final class StaticContentHandler implements HttpServerRequestHandler.HandlerFunction {
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final String[] CONTENT_CODINGS = {"br", "gzip"};
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+        Map.entry("html", "text/html; charset=utf-8"),
+        Map.entry("htm", "text/html; charset=utf-8"),
+        Map.entry("css", "text/css; charset=utf-8"),
+        Map.entry("js", "text/javascript; charset=utf-8"),
+        Map.entry("mjs", "text/javascript; charset=utf-8"),
+        Map.entry("json", "application/json"),
+        Map.entry("map", "application/json"),
+        Map.entry("txt", "text/plain; charset=utf-8"),
+        Map.entry("xml", "application/xml"),
+        Map.entry("yaml", "application/yaml"),
+        Map.entry("yml", "application/yaml"),
+        Map.entry("svg", "image/svg+xml"),
+        Map.entry("png", "image/png"),
+        Map.entry("jpg", "image/jpeg"),
+        Map.entry("jpeg", "image/jpeg"),
+        Map.entry("gif", "image/gif"),
+        Map.entry("webp", "image/webp"),
+        Map.entry("avif", "image/avif"),
+        Map.entry("ico", "image/x-icon"),
+        Map.entry("woff", "font/woff"),
+        Map.entry("woff2", "font/woff2"),
+        Map.entry("ttf", "font/ttf"),
+        Map.entry("wasm", "application/wasm"),
+        Map.entry("pdf", "application/pdf")
+    );
+
+    interface Resolver {
+        @Nullable
+        StaticResource resolve(String path) throws IOException;
+    }
+
+    private final Resolver resolver;
+    @Nullable
+    private final String cacheControl;
+    @Nullable
+    private final BlockingRequestExecutor executor;
+
+    /**
+     * @param executor executor for blocking resolver or null if resolver doesn't block
+     */
+    StaticContentHandler(Resolver resolver, @Nullable String cacheControl, @Nullable BlockingRequestExecutor executor) {
+        this.resolver = resolver;
+        this.cacheControl = cacheControl;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletionStage<HttpServerResponse> apply(Context context, HttpServerRequest request) throws IOException {
+        var path = request.pathParams().get("*");
+        if (path == null || !isSafePath(path)) {
+            return CompletableFuture.completedFuture(HttpServerResponse.of(404));
+        }
+        var executor = this.executor;
+        if (executor == null) {
+            return CompletableFuture.completedFuture(this.resolveAndRespond(request.headers(), path));
+        }
+        return executor.execute(context, () -> this.resolveAndRespond(request.headers(), path));
+    }
+
+    private HttpServerResponse resolveAndRespond(HttpHeaders requestHeaders, String path) throws IOException {
+        var resource = this.resolver.resolve(path);
+        if (resource == null) {
+            return HttpServerResponse.of(404);
+        }
+        return this.respond(requestHeaders, resource);
+    }
+
+    HttpServerResponse respond(HttpHeaders requestHeaders, StaticResource resource) throws IOException {
+        var selected = resource;
+        String contentCoding = null;
+        if (resource.hasEncodings()) {
+            var acceptEncoding = requestHeaders.getFirst("accept-encoding");
+            for (var coding : CONTENT_CODINGS) {
+                var encoded = resource.encoded(coding);
+                if (encoded != null && accepts(acceptEncoding, coding)) {
+                    selected = encoded;
+                    contentCoding = coding;
+                    break;
+                }
+            }
+        }
+
+        var headers = HttpHeaders.of();
+        headers.set("etag", selected.etag());
+        if (selected.lastModified() > 0) {
+            headers.set("last-modified", HTTP_DATE.format(Instant.ofEpochMilli(selected.lastModified())));
+        }
+        if (this.cacheControl != null) {
+            headers.set("cache-control", this.cacheControl);
+        }
+        if (resource.hasEncodings()) {
+            headers.set("vary", "accept-encoding");
+        }
+        if (this.notModified(requestHeaders, selected)) {
+            return HttpServerResponse.of(304, headers);
+        }
+        if (contentCoding != null) {
+            headers.set("content-encoding", contentCoding);
+            return HttpServerResponse.of(200, headers, selected.body(0, selected.length()));
+        }
+
+        headers.set("accept-ranges", "bytes");
+        var length = selected.length();
+        var range = requestHeaders.getFirst("range");
+        if (range == null || !this.ifRangeMatches(requestHeaders.getFirst("if-range"), selected)) {
+            return HttpServerResponse.of(200, headers, selected.body(0, length));
+        }
+        var bounds = parseRange(range, length);
+        if (bounds == null) {
+            return HttpServerResponse.of(200, headers, selected.body(0, length));
+        }
+        if (bounds.length == 0) {
+            headers.set("content-range", "bytes */" + length);
+            return HttpServerResponse.of(416, headers);
+        }
+        var start = bounds[0];
+        var end = bounds[1];
+        headers.set("content-range", "bytes " + start + "-" + end + "/" + length);
+        return HttpServerResponse.of(206, headers, selected.body(start, end - start + 1));
+    }
+
+    private boolean notModified(HttpHeaders requestHeaders, StaticResource resource) {
+        var ifNoneMatch = requestHeaders.getAll("if-none-match");
+        if (ifNoneMatch != null && !ifNoneMatch.isEmpty()) {
+            return HttpServerResponseUtils.etagMatches(ifNoneMatch, resource.etag());
+        }
+        var ifModifiedSince = requestHeaders.getFirst("if-modified-since");
+        if (ifModifiedSince == null || resource.lastModified() <= 0) {
+            return false;
+        }
+        var since = parseHttpDate(ifModifiedSince);
+        return since != null && resource.lastModified() / 1000 <= since.getEpochSecond();
+    }
+
+    private boolean ifRangeMatches(@Nullable String ifRange, StaticResource resource) {
+        if (ifRange == null) {
+            return true;
+        }
+        var value = ifRange.trim();
+        if (value.startsWith("\"")) {
+            // strong comparison, see RFC 9110 section 13.1.5
+            return value.equals(resource.etag());
+        }
+        if (value.startsWith("W/")) {
+            return false;
+        }
+        var date = parseHttpDate(value);
+        return date != null && resource.lastModified() > 0 && resource.lastModified() / 1000 == date.getEpochSecond();
+    }
+
+    /**
+     * @return null if range should be ignored, empty array if range is not satisfiable, first and last byte positions otherwise
+     */
+    @Nullable
+    static long[] parseRange(String range, long length) {
+        var value = range.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6) || value.indexOf(',') >= 0) {
+            return null;
+        }
+        var spec = value.substring(6).trim();
+        var dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            var first = spec.substring(0, dash).trim();
+            var last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                var suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return new long[0];
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            var start = Long.parseLong(first);
+            var end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start < 0 || !last.isEmpty() && Long.parseLong(last) < start) {
+                return null;
+            }
+            if (start >= length) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static boolean accepts(@Nullable String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (var item : acceptEncoding.split(",")) {
+            var semicolon = item.indexOf(';');
+            var name = (semicolon < 0 ? item : item.substring(0, semicolon)).trim();
+            if (!name.equalsIgnoreCase(coding) && !name.equals("*")) {
+                continue;
+            }
+            if (semicolon < 0) {
+                return true;
+            }
+            var params = item.substring(semicolon + 1).trim();
+            if (params.startsWith("q=") || params.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(params.substring(2).trim()) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static String contentType(String path) {
+        var slash = path.lastIndexOf('/');
+        var dot = path.lastIndexOf('.');
+        if (dot <= slash) {
+            return "application/octet-stream";
+        }
+        var extension = path.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    static boolean isSafePath(String path) {
+        if (path.indexOf('\\') >= 0 || path.indexOf('\0') >= 0 || path.indexOf(':') >= 0) {
+            return false;
+        }
+        for (var segment : path.split("/")) {
+            if (segment.equals("..") || segment.equals(".")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static Instant parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
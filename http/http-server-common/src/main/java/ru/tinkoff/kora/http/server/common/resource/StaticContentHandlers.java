@@ -0,0 +1,206 @@
+package ru.tinkoff.kora.http.server.common.resource;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandler;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandlerImpl;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerResponseUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>Русский</b>: Обработчики статического контента с поддержкой ETag, If-None-Match/If-Modified-Since и запросов Range.
+ * Файлы из директории ищутся на блокирующем исполнителе и передаются без копирования в память, если сервер это поддерживает,
+ * ресурсы из classpath небольшого размера загружаются в память при создании обработчика вместе с заранее сжатыми вариантами {@code .br} и {@code .gz},
+ * ресурсы большего размера читаются на блокирующем исполнителе.
+ * <hr>
+ * <b>English</b>: Static content handlers with ETag, If-None-Match/If-Modified-Since and Range requests support.
+ * Directory files are looked up on blocking executor and transferred without copying into memory if server supports it,
+ * small classpath resources are loaded into memory when handler is created together with their precompressed {@code .br} and {@code .gz} variants,
+ * larger ones are read on blocking executor.
+ * <br>
+ * <br>
+ * Пример / Example:
+ * <pre>
+ * {@code
+ * default HttpServerRequestHandler staticFiles() {
+ *     return StaticContentHandlers.classpath("/static", "static", List.of("index.html", "app.js"));
+ * }
+ *
+ * default HttpServerRequestHandler uploads(BlockingRequestExecutor executor) {
+ *     return StaticContentHandlers.directory("/uploads", Path.of("/var/uploads"), executor);
+ * }
+ * }
+ * </pre>
+ */
+public final class StaticContentHandlers {
+
+    public static final long DEFAULT_MAX_CACHED_SIZE = 256 * 1024;
+
+    private StaticContentHandlers() {}
+
+    /**
+     * @param pathPrefix <b>Русский</b>: префикс пути, файл {@code directory/a/b.css} будет доступен по пути {@code pathPrefix/a/b.css}
+     *                   <hr>
+     *                   <b>English</b>: path prefix, file {@code directory/a/b.css} is served at {@code pathPrefix/a/b.css}
+     * @param executor   <b>Русский</b>: исполнитель, на котором читаются атрибуты файлов
+     *                   <hr>
+     *                   <b>English</b>: executor file attributes are read on
+     */
+    public static HttpServerRequestHandler directory(String pathPrefix, Path directory, BlockingRequestExecutor executor) {
+        return directory(pathPrefix, directory, null, executor);
+    }
+
+    public static HttpServerRequestHandler directory(String pathPrefix, Path directory, @Nullable String cacheControl, BlockingRequestExecutor executor) {
+        var root = directory.toAbsolutePath().normalize();
+        var handler = new StaticContentHandler(path -> resolveFile(root, path), cacheControl, executor);
+        return HttpServerRequestHandlerImpl.get(route(pathPrefix), handler);
+    }
+
+    /**
+     * @param resourceRoot <b>Русский</b>: директория ресурсов в classpath
+     *                     <hr>
+     *                     <b>English</b>: resource directory in classpath
+     * @param resources    <b>Русский</b>: пути ресурсов относительно resourceRoot, только они будут доступны
+     *                     <hr>
+     *                     <b>English</b>: resource paths relative to resourceRoot, only they are served
+     */
+    public static HttpServerRequestHandler classpath(String pathPrefix, String resourceRoot, List<String> resources) {
+        return classpath(pathPrefix, StaticContentHandlers.class.getClassLoader(), resourceRoot, resources, null, DEFAULT_MAX_CACHED_SIZE, null);
+    }
+
+    /**
+     * @param executor <b>Русский</b>: исполнитель, на котором читаются ресурсы больше {@link #DEFAULT_MAX_CACHED_SIZE}
+     *                 <hr>
+     *                 <b>English</b>: executor resources larger than {@link #DEFAULT_MAX_CACHED_SIZE} are read on
+     */
+    public static HttpServerRequestHandler classpath(String pathPrefix, String resourceRoot, List<String> resources, BlockingRequestExecutor executor) {
+        return classpath(pathPrefix, StaticContentHandlers.class.getClassLoader(), resourceRoot, resources, null, DEFAULT_MAX_CACHED_SIZE, executor);
+    }
+
+    /**
+     * @param maxCachedSize <b>Русский</b>: ресурсы до этого размера загружаются в память, большие читаются на исполнителе
+     *                      <hr>
+     *                      <b>English</b>: resources up to this size are loaded into memory, larger ones are read on executor
+     * @param executor      <b>Русский</b>: исполнитель для ресурсов больше maxCachedSize, обязателен если такие ресурсы есть
+     *                      <hr>
+     *                      <b>English</b>: executor for resources larger than maxCachedSize, required if there are such resources
+     */
+    public static HttpServerRequestHandler classpath(String pathPrefix,
+                                                     ClassLoader classLoader,
+                                                     String resourceRoot,
+                                                     List<String> resources,
+                                                     @Nullable String cacheControl,
+                                                     long maxCachedSize,
+                                                     @Nullable BlockingRequestExecutor executor) {
+        var root = resourceRoot.isEmpty() || resourceRoot.endsWith("/") ? resourceRoot : resourceRoot + "/";
+        if (root.startsWith("/")) {
+            root = root.substring(1);
+        }
+        var loaded = new HashMap<String, StaticResource>(resources.size() * 2);
+        for (var resource : resources) {
+            var name = resource.startsWith("/") ? resource.substring(1) : resource;
+            try {
+                loaded.put(name, loadResource(classLoader, root + name, maxCachedSize, executor));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't load static resource " + root + name, e);
+            }
+        }
+        // resources are resolved in memory, only content of streamed ones is read on executor
+        var handler = new StaticContentHandler(path -> loaded.get(path.isEmpty() || path.endsWith("/") ? path + "index.html" : path), cacheControl, null);
+        return HttpServerRequestHandlerImpl.get(route(pathPrefix), handler);
+    }
+
+    private static String route(String pathPrefix) {
+        var prefix = pathPrefix.endsWith("/") ? pathPrefix.substring(0, pathPrefix.length() - 1) : pathPrefix;
+        return prefix + "/*";
+    }
+
+    @Nullable
+    private static StaticResource resolveFile(Path root, String path) throws IOException {
+        var file = root.resolve(path).normalize();
+        if (!file.startsWith(root)) {
+            return null;
+        }
+        try {
+            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.isDirectory()) {
+                file = file.resolve("index.html");
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            }
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            var contentType = StaticContentHandler.contentType(file.getFileName().toString());
+            return new StaticResource.FileResource(contentType, file, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static StaticResource loadResource(ClassLoader classLoader, String name, long maxCachedSize, @Nullable BlockingRequestExecutor executor) throws IOException {
+        var url = classLoader.getResource(name);
+        if (url == null) {
+            throw new NoSuchFileException(name);
+        }
+        var contentType = StaticContentHandler.contentType(name);
+        var connection = url.openConnection();
+        var length = connection.getContentLengthLong();
+        var lastModified = connection.getLastModified();
+        if (length < 0) {
+            length = readLength(url);
+        }
+        if (length > maxCachedSize) {
+            if (executor == null) {
+                throw new IllegalArgumentException("Static resource " + name + " is larger than " + maxCachedSize + " bytes, BlockingRequestExecutor is required to serve it");
+            }
+            return new StaticResource.StreamedResource(contentType, url, length, lastModified, executor);
+        }
+        var encodings = new HashMap<String, StaticResource.CachedResource>();
+        var brotli = loadVariant(classLoader, name + ".br", contentType, lastModified);
+        if (brotli != null) {
+            encodings.put("br", brotli);
+        }
+        var gzip = loadVariant(classLoader, name + ".gz", contentType, lastModified);
+        if (gzip != null) {
+            encodings.put("gzip", gzip);
+        }
+        return cached(contentType, readAll(url), lastModified, Map.copyOf(encodings));
+    }
+
+    @Nullable
+    private static StaticResource.CachedResource loadVariant(ClassLoader classLoader, String name, String contentType, long lastModified) throws IOException {
+        var url = classLoader.getResource(name);
+        if (url == null) {
+            return null;
+        }
+        return cached(contentType, readAll(url), lastModified, Map.of());
+    }
+
+    private static StaticResource.CachedResource cached(String contentType, byte[] content, long lastModified, Map<String, StaticResource.CachedResource> encodings) {
+        return new StaticResource.CachedResource(contentType, ByteBuffer.wrap(content), HttpServerResponseUtils.etag(content), lastModified, encodings);
+    }
+
+    private static byte[] readAll(URL url) throws IOException {
+        try (var is = url.openStream()) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static long readLength(URL url) throws IOException {
+        try (var is = url.openStream()) {
+            return is.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package ru.tinkoff.kora.http.server.common.resource;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.body.FileRegionHttpBodyOutput;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single representation of static content with its validators
+ */
+interface StaticResource {
+
+    String contentType();
+
+    long length();
+
+    String etag();
+
+    /**
+     * @return last modification time in millis or -1 if unknown
+     */
+    long lastModified();
+
+    HttpBodyOutput body(long position, long count) throws IOException;
+
+    /**
+     * @return precompressed representation for content coding or null if there is none
+     */
+    @Nullable
+    default StaticResource encoded(String contentCoding) {
+        return null;
+    }
+
+    default boolean hasEncodings() {
+        return false;
+    }
+
+    record FileResource(String contentType, Path file, long length, long lastModified) implements StaticResource {
+
+        @Override
+        public String etag() {
+            // same validator nginx uses: cheap to compute and changes together with the file
+            return '"' + Long.toHexString(this.lastModified) + '-' + Long.toHexString(this.length) + '"';
+        }
+
+        @Override
+        public HttpBodyOutput body(long position, long count) {
+            return new FileRegionHttpBodyOutput(this.contentType, this.file, position, count);
+        }
+    }
+
+    record CachedResource(String contentType, ByteBuffer content, String etag, long lastModified, Map<String, CachedResource> encodings) implements StaticResource {
+
+        @Override
+        public long length() {
+            return this.content.remaining();
+        }
+
+        @Override
+        public HttpBodyOutput body(long position, long count) {
+            return HttpBody.of(this.contentType, this.content.slice((int) position, (int) count));
+        }
+
+        @Nullable
+        @Override
+        public StaticResource encoded(String contentCoding) {
+            return this.encodings.get(contentCoding);
+        }
+
+        @Override
+        public boolean hasEncodings() {
+            return !this.encodings.isEmpty();
+        }
+    }
+
+    /**
+     * Classpath resource above cached size: it is opened, skipped to position and read on blocking executor, never on server io thread
+     */
+    record StreamedResource(String contentType, URL url, long length, long lastModified, BlockingRequestExecutor executor) implements StaticResource {
+
+        @Override
+        public String etag() {
+            return '"' + Long.toHexString(this.lastModified) + '-' + Long.toHexString(this.length) + '"';
+        }
+
+        @Override
+        public HttpBodyOutput body(long position, long count) {
+            var context = Context.current();
+            Flow.Publisher<ByteBuffer> content = subscriber -> subscriber.onSubscribe(new StreamedSubscription(subscriber, this, context, position, count));
+            return HttpBodyOutput.of(this.contentType, count, content);
+        }
+    }
+
+    /**
+     * Reads requested chunks on blocking executor, chunks of one subscription are read one after another
+     */
+    final class StreamedSubscription implements Flow.Subscription {
+        private static final int CHUNK_SIZE = 16 * 1024;
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final StreamedResource resource;
+        private final Context context;
+        private final long position;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private boolean done;
+        private long remaining;
+        @Nullable
+        private InputStream stream;
+
+        StreamedSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, StreamedResource resource, Context context, long position, long count) {
+            this.subscriber = subscriber;
+            this.resource = resource;
+            this.context = context;
+            this.position = position;
+            this.remaining = count;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.cancelled = true;
+                this.subscriber.onError(new IllegalArgumentException("Requested " + n + " items, should be positive"));
+            } else {
+                this.demand.getAndAccumulate(n, (current, requested) -> current + requested < 0 ? Long.MAX_VALUE : current + requested);
+            }
+            this.schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (this.wip.getAndIncrement() == 0) {
+                this.resource.executor().execute(this.context, () -> {
+                    this.drain();
+                    return null;
+                });
+            }
+        }
+
+        private void drain() {
+            var missed = 1;
+            do {
+                while (!this.done) {
+                    if (this.cancelled) {
+                        this.close();
+                        break;
+                    }
+                    if (this.remaining == 0) {
+                        this.close();
+                        this.subscriber.onComplete();
+                        break;
+                    }
+                    if (this.demand.get() == 0) {
+                        break;
+                    }
+                    final ByteBuffer chunk;
+                    try {
+                        chunk = this.read();
+                    } catch (IOException e) {
+                        this.close();
+                        this.subscriber.onError(e);
+                        break;
+                    }
+                    this.demand.decrementAndGet();
+                    this.subscriber.onNext(chunk);
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private ByteBuffer read() throws IOException {
+            var stream = this.stream;
+            if (stream == null) {
+                stream = this.stream = this.resource.url().openStream();
+                stream.skipNBytes(this.position);
+            }
+            var chunk = new byte[(int) Math.min(CHUNK_SIZE, this.remaining)];
+            var read = stream.read(chunk);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of static resource " + this.resource.url());
+            }
+            this.remaining -= read;
+            return ByteBuffer.wrap(chunk, 0, read);
+        }
+
+        private void close() {
+            this.done = true;
+            var stream = this.stream;
+            if (stream != null) {
+                this.stream = null;
+                try {
+                    stream.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+}
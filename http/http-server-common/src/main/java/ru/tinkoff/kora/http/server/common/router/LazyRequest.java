@@ -16,17 +16,18 @@ class LazyRequest implements HttpServerRequest {
     private final PublicApiRequest publicApiRequest;
     private final String method;
     private final String path;
-    private final Map<String, String> pathParams;
+    @Nullable
+    private final PathTemplateRouter.Match<?> match;
     private final String route;
     private HttpHeaders headers;
     private Map<String, ? extends Collection<String>> queryParams;
     private List<Cookie> cookies;
 
-    LazyRequest(PublicApiRequest publicApiRequest, Map<String, String> pathParams, @Nullable String routeTemplate) {
+    LazyRequest(PublicApiRequest publicApiRequest, @Nullable PathTemplateRouter.Match<?> match, @Nullable String routeTemplate) {
         this.publicApiRequest = publicApiRequest;
         this.method = publicApiRequest.method();
         this.path = publicApiRequest.path();
-        this.pathParams = pathParams;
+        this.match = match;
         this.route = routeTemplate;
     }
 
@@ -78,7 +79,21 @@ class LazyRequest implements HttpServerRequest {
 
     @Override
     public Map<String, String> pathParams() {
-        return this.pathParams;
+        var match = this.match;
+        if (match == null) {
+            return Map.of();
+        }
+        return match.parameters();
+    }
+
+    @Nullable
+    @Override
+    public String pathParam(int index, String name) {
+        var match = this.match;
+        if (match == null) {
+            return null;
+        }
+        return match.parameter(index, name);
     }
 
     @Override
@@ -0,0 +1,328 @@
+package ru.tinkoff.kora.http.server.common.router;
+
+import jakarta.annotation.Nullable;
+
+import java.util.*;
+
+/**
+ * Segment trie over compiled path templates.
+ * <p>
+ * Request path is walked segment by segment without substring allocation, so matching cost depends on path length rather than on the number of registered templates.
+ * On each segment candidates are tried in the same order {@link PathTemplateMatcher} uses:
+ * <ol>
+ *     <li>static segment</li>
+ *     <li>trailing wildcard, longest prefix first</li>
+ *     <li>{@code {param}} segment</li>
+ * </ol>
+ * Matcher backtracks when a more specific branch does not match till the end of the path.
+ * <p>
+ * Router is not thread safe for modification: all templates should be added before it is published to request threads.
+ */
+public final class PathTemplateRouter<T> {
+
+    private final Node<T> root = new Node<>();
+    private int maxParameters = 0;
+
+    @Nullable
+    public Map.Entry<PathTemplate, T> add(String pathTemplate, T value) {
+        return this.add(PathTemplate.create(pathTemplate), value);
+    }
+
+    /**
+     * @return the previous value associated with equivalent path template, or null if there was none
+     */
+    @Nullable
+    public Map.Entry<PathTemplate, T> add(PathTemplate template, T value) {
+        var path = template.templateString();
+        var node = this.root;
+        var names = new ArrayList<String>();
+        var paramSeen = false;
+        var start = 1;
+        while (true) {
+            var end = path.indexOf('/', start);
+            var last = end < 0;
+            if (last) {
+                end = path.length();
+            }
+            var segment = path.substring(start, end);
+            var wildcard = segment.indexOf('*');
+            if (!paramSeen && wildcard >= 0 || paramSeen && segment.equals("*")) {
+                names.add("*");
+                var route = new Route<>(template, names.toArray(String[]::new), value);
+                var existing = node.addWildcard(segment.substring(0, wildcard), route);
+                if (existing != null) {
+                    return Map.entry(existing.template, existing.value);
+                }
+                this.maxParameters = Math.max(this.maxParameters, names.size());
+                return null;
+            }
+            if (segment.length() > 1 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}') {
+                paramSeen = true;
+                names.add(segment.substring(1, segment.length() - 1));
+                if (node.param == null) {
+                    node.param = new Node<>();
+                }
+                node = node.param;
+            } else {
+                node = node.addStatic(segment);
+            }
+            if (last) {
+                break;
+            }
+            start = end + 1;
+        }
+        if (node.route != null) {
+            return Map.entry(node.route.template, node.route.value);
+        }
+        node.route = new Route<>(template, names.toArray(String[]::new), value);
+        this.maxParameters = Math.max(this.maxParameters, names.size());
+        return null;
+    }
+
+    /**
+     * @return position of {@code {name}} segment among all path parameters of route template or -1 if there is no such parameter,
+     * handlers generated for route read its parameters from {@link Match} by this position
+     */
+    public static int parameterIndex(String pathTemplate, String name) {
+        var index = 0;
+        var start = pathTemplate.indexOf('{');
+        while (start >= 0) {
+            var end = pathTemplate.indexOf('}', start);
+            if (end < 0) {
+                return -1;
+            }
+            if (end == start + 1 + name.length() && pathTemplate.regionMatches(start + 1, name, 0, name.length())) {
+                return index;
+            }
+            index++;
+            start = pathTemplate.indexOf('{', end);
+        }
+        return -1;
+    }
+
+    @Nullable
+    public Match<T> match(String path) {
+        var normalizedPath = path.isEmpty() ? "/" : path;
+        if (normalizedPath.charAt(0) != '/') {
+            return null;
+        }
+        var captures = this.maxParameters == 0 ? EMPTY_CAPTURES : new int[this.maxParameters * 2];
+        var route = match(this.root, normalizedPath, 1, captures, 0);
+        if (route == null) {
+            return null;
+        }
+        return new Match<>(normalizedPath, route, captures);
+    }
+
+    /**
+     * Matched route. Parameters are kept as offsets into request path and are resolved by their position in route template,
+     * map of all parameters is built only when {@link #parameters()} is requested.
+     */
+    public static final class Match<T> {
+        private final String path;
+        private final Route<T> route;
+        private final int[] captures;
+        private Map<String, String> parameters;
+
+        private Match(String path, Route<T> route, int[] captures) {
+            this.path = path;
+            this.route = route;
+            this.captures = captures;
+        }
+
+        public String matchedTemplate() {
+            return this.route.template.templateString();
+        }
+
+        public T value() {
+            return this.route.value;
+        }
+
+        /**
+         * @param index position of parameter in route template
+         * @param name  parameter name, used to verify that position belongs to the same parameter
+         * @return parameter value or null if route has no such parameter
+         */
+        @Nullable
+        public String parameter(int index, String name) {
+            var names = this.route.parameterNames;
+            if (index >= 0 && index < names.length && names[index].equals(name)) {
+                return this.path.substring(this.captures[index * 2], this.captures[index * 2 + 1]);
+            }
+            return this.parameters().get(name);
+        }
+
+        public Map<String, String> parameters() {
+            var parameters = this.parameters;
+            if (parameters == null) {
+                var names = this.route.parameterNames;
+                if (names.length == 0) {
+                    parameters = Map.of();
+                } else {
+                    parameters = new LinkedHashMap<>(names.length * 2);
+                    for (int i = 0; i < names.length; i++) {
+                        parameters.put(names[i], this.path.substring(this.captures[i * 2], this.captures[i * 2 + 1]));
+                    }
+                    parameters = Collections.unmodifiableMap(parameters);
+                }
+                this.parameters = parameters;
+            }
+            return parameters;
+        }
+    }
+
+    public Set<PathTemplate> getPathTemplates() {
+        var templates = new HashSet<PathTemplate>();
+        collectTemplates(this.root, templates);
+        return templates;
+    }
+
+    private static final int[] EMPTY_CAPTURES = new int[0];
+
+    @Nullable
+    private static <T> Route<T> match(Node<T> node, String path, int start, int[] captures, int paramIndex) {
+        var end = path.indexOf('/', start);
+        var last = end < 0;
+        if (last) {
+            end = path.length();
+        }
+
+        var staticChild = node.findStatic(path, start, end);
+        if (staticChild != null) {
+            if (last) {
+                if (staticChild.route != null) {
+                    return staticChild.route;
+                }
+            } else {
+                var route = match(staticChild, path, end + 1, captures, paramIndex);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+
+        for (var wildcard : node.wildcards) {
+            if (path.startsWith(wildcard.prefix, start)) {
+                captures[paramIndex * 2] = start + wildcard.prefix.length();
+                captures[paramIndex * 2 + 1] = path.length();
+                return wildcard.route;
+            }
+        }
+
+        var param = node.param;
+        if (param != null && end > start) {
+            captures[paramIndex * 2] = start;
+            captures[paramIndex * 2 + 1] = end;
+            if (last) {
+                return param.route;
+            }
+            return match(param, path, end + 1, captures, paramIndex + 1);
+        }
+        return null;
+    }
+
+    private static <T> void collectTemplates(Node<T> node, Set<PathTemplate> templates) {
+        if (node.route != null) {
+            templates.add(node.route.template);
+        }
+        for (var wildcard : node.wildcards) {
+            templates.add(wildcard.route.template);
+        }
+        for (var child : node.staticChildren) {
+            collectTemplates(child, templates);
+        }
+        if (node.param != null) {
+            collectTemplates(node.param, templates);
+        }
+    }
+
+    private record Route<T>(PathTemplate template, String[] parameterNames, T value) {}
+
+    private record Wildcard<T>(String prefix, Route<T> route) {}
+
+    private static final class Node<T> {
+        private static final String[] EMPTY_KEYS = new String[0];
+
+        private String[] staticKeys = EMPTY_KEYS;
+        private Node<T>[] staticChildren = newArray(0);
+        private List<Wildcard<T>> wildcards = List.of();
+        @Nullable
+        private Node<T> param;
+        @Nullable
+        private Route<T> route;
+
+        private Node<T> addStatic(String segment) {
+            var idx = Arrays.binarySearch(this.staticKeys, segment);
+            if (idx >= 0) {
+                return this.staticChildren[idx];
+            }
+            var insert = -idx - 1;
+            var keys = new String[this.staticKeys.length + 1];
+            Node<T>[] children = newArray(this.staticChildren.length + 1);
+            System.arraycopy(this.staticKeys, 0, keys, 0, insert);
+            System.arraycopy(this.staticChildren, 0, children, 0, insert);
+            System.arraycopy(this.staticKeys, insert, keys, insert + 1, this.staticKeys.length - insert);
+            System.arraycopy(this.staticChildren, insert, children, insert + 1, this.staticChildren.length - insert);
+            var child = new Node<T>();
+            keys[insert] = segment;
+            children[insert] = child;
+            this.staticKeys = keys;
+            this.staticChildren = children;
+            return child;
+        }
+
+        @Nullable
+        private Route<T> addWildcard(String prefix, Route<T> route) {
+            for (var wildcard : this.wildcards) {
+                if (wildcard.prefix.equals(prefix)) {
+                    return wildcard.route;
+                }
+            }
+            var wildcards = new ArrayList<>(this.wildcards);
+            wildcards.add(new Wildcard<>(prefix, route));
+            wildcards.sort(Comparator.comparingInt((Wildcard<T> w) -> w.prefix.length()).reversed());
+            this.wildcards = List.copyOf(wildcards);
+            return null;
+        }
+
+        @Nullable
+        private Node<T> findStatic(String path, int start, int end) {
+            var keys = this.staticKeys;
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(keys[mid], path, start, end);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return this.staticChildren[mid];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Same ordering as {@link String#compareTo(String)} but against path region, so lookup requires no substring
+         */
+        private static int compare(String key, String path, int start, int end) {
+            var regionLength = end - start;
+            var length = Math.min(key.length(), regionLength);
+            for (int i = 0; i < length; i++) {
+                var c1 = key.charAt(i);
+                var c2 = path.charAt(start + i);
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+            }
+            return key.length() - regionLength;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newArray(int size) {
+            return (Node<T>[]) new Node<?>[size];
+        }
+    }
+}
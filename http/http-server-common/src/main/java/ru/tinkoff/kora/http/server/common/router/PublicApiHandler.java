@@ -16,12 +16,8 @@ import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Utility class that provides fast path matching of path templates. Templates are stored in a map based on the stem of the template,
- * and matches longest stem first.
- * <p>
- * TODO: we can probably do this faster using a trie type structure, but I think the current impl should perform ok most of the time
- *
- * @author Stuart Douglas
+ * Routes public api requests to handlers. Templates are compiled into a {@link PathTemplateRouter} per method,
+ * so matching cost depends on request path length rather than on the number of registered routes.
  */
 
 public class PublicApiHandler {
@@ -31,8 +27,8 @@ public class PublicApiHandler {
     );
     private static final HttpServerRequestHandler.HandlerFunction NOT_FOUND_HANDLER = (ctx, request) -> NOT_FOUND_RESPONSE;
 
-    private final Map<String, PathTemplateMatcher<HttpServerRequestHandler>> pathTemplateMatcher;
-    private final PathTemplateMatcher<List<String>> allMethodMatchers;
+    private final Map<String, PathTemplateRouter<RouteHandler>> pathTemplateMatcher;
+    private final PathTemplateRouter<List<String>> allMethodMatchers;
     private final AtomicReference<RequestHandler> requestHandler = new AtomicReference<>();
     private final HttpServerTelemetry telemetry;
 
@@ -42,15 +38,15 @@ public class PublicApiHandler {
                             HttpServerConfig config) {
         this.telemetry = Objects.requireNonNullElse(httpServerTelemetry.get(config.telemetry()), HttpServerTelemetry.EMPTY);
         this.pathTemplateMatcher = new HashMap<>();
-        this.allMethodMatchers = new PathTemplateMatcher<>();
+        this.allMethodMatchers = new PathTemplateRouter<>();
         for (var h : handlers) {
             if(!h.enabled()) {
                 continue;
             }
 
             var route = h.routeTemplate();
-            var methodMatchers = this.pathTemplateMatcher.computeIfAbsent(h.method(), k -> new PathTemplateMatcher<>());
-            var oldValue = methodMatchers.add(route, h);
+            var methodMatchers = this.pathTemplateMatcher.computeIfAbsent(h.method(), k -> new PathTemplateRouter<>());
+            var oldValue = methodMatchers.add(route, new RouteHandler(h, this.telemetry.bind(h.method(), route)));
             if (oldValue != null) {
                 throw new IllegalStateException("Cannot add path template %s, matcher already contains an equivalent pattern %s".formatted(route, oldValue.getKey().templateString()));
             }
@@ -61,7 +57,7 @@ public class PublicApiHandler {
                     } else {
                         route = route + '/';
                     }
-                    oldValue = methodMatchers.add(route, h);
+                    oldValue = methodMatchers.add(route, new RouteHandler(h, this.telemetry.bind(h.method(), route)));
                     if (oldValue != null) {
                         throw new IllegalStateException("Cannot add path template %s, matcher already contains an equivalent pattern %s".formatted(route, oldValue.getKey().templateString()));
                     }
@@ -82,8 +78,9 @@ public class PublicApiHandler {
 
     public PublicApiResponse process(Context context, PublicApiRequest publicApiRequest) {
         final HttpServerRequestHandler.HandlerFunction handlerFunction;
-        final Map<String, String> templateParameters;
+        final @Nullable PathTemplateRouter.Match<?> templateMatch;
         final @Nullable String routeTemplate;
+        final @Nullable HttpServerTelemetry.HttpServerRouteTelemetry routeTelemetry;
 
         var methodMatchers = this.pathTemplateMatcher.get(publicApiRequest.method());
         var pathTemplateMatch = methodMatchers == null ? null : methodMatchers.match(publicApiRequest.path());
@@ -93,20 +90,25 @@ public class PublicApiHandler {
                 var allowed = String.join(", ", allMethodMatch.value());
                 handlerFunction = (ctx, request) -> CompletableFuture.failedFuture(HttpServerResponseException.of(405, "Method Not Allowed", HttpHeaders.of("allow", allowed)));
                 routeTemplate = allMethodMatch.matchedTemplate();
-                templateParameters = Map.of();
+                templateMatch = null;
+                routeTelemetry = null;
             } else {
                 handlerFunction = NOT_FOUND_HANDLER;
                 routeTemplate = null;
-                templateParameters = Map.of();
+                templateMatch = null;
+                routeTelemetry = null;
             }
         } else {
-            templateParameters = pathTemplateMatch.parameters();
+            templateMatch = pathTemplateMatch;
             routeTemplate = pathTemplateMatch.matchedTemplate();
-            handlerFunction = pathTemplateMatch.value()::handle;
+            handlerFunction = pathTemplateMatch.value().handler()::handle;
+            routeTelemetry = pathTemplateMatch.value().telemetry();
         }
 
-        var request = new LazyRequest(publicApiRequest, templateParameters, routeTemplate);
-        var tctx = this.telemetry.get(publicApiRequest, routeTemplate);
+        var request = new LazyRequest(publicApiRequest, templateMatch, routeTemplate);
+        var tctx = routeTelemetry != null
+            ? routeTelemetry.get(publicApiRequest)
+            : this.telemetry.get(publicApiRequest, routeTemplate);
 
         try {
             var future = this.requestHandler.get().apply(context, request, handlerFunction);
@@ -119,6 +121,8 @@ public class PublicApiHandler {
     }
 
 
+    private record RouteHandler(HttpServerRequestHandler handler, @Nullable HttpServerTelemetry.HttpServerRouteTelemetry telemetry) {}
+
     private interface RequestHandler {
         CompletionStage<HttpServerResponse> apply(Context context, HttpServerRequest request, HttpServerRequestHandler.HandlerFunction lastHandlerInChain) throws Exception;
     }
@@ -138,15 +142,7 @@ public class PublicApiHandler {
             var chain = FINAL_HANDLER;
             for (var interceptor : interceptors) {
                 var remainingChain = chain;
-                chain = (ctx, r, lastHandler) -> {
-                    var oldCtx = Context.current();
-                    try {
-                        ctx.inject();
-                        return interceptor.intercept(ctx, r, (_ctx, httpServerRequest) -> remainingChain.apply(_ctx, httpServerRequest, lastHandler));
-                    } finally {
-                        oldCtx.inject();
-                    }
-                };
+                chain = (ctx, r, lastHandler) -> Context.callWith(ctx, () -> interceptor.intercept(ctx, r, (_ctx, httpServerRequest) -> remainingChain.apply(_ctx, httpServerRequest, lastHandler)));
             }
             this.chain = chain;
         }
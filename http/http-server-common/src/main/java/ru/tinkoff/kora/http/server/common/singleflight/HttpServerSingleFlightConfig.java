@@ -0,0 +1,36 @@
+package ru.tinkoff.kora.http.server.common.singleflight;
+
+import ru.tinkoff.kora.common.util.Size;
+import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+
+import java.util.List;
+import java.util.Set;
+
+@ConfigValueExtractor
+public interface HttpServerSingleFlightConfig {
+
+    default boolean enabled() {
+        return false;
+    }
+
+    /**
+     * Route templates of GET and HEAD routes to coalesce, only listed routes are coalesced
+     */
+    default Set<String> routes() {
+        return Set.of();
+    }
+
+    /**
+     * Request headers that select response representation, requests are coalesced only when values of all these headers are equal
+     */
+    default List<String> varyHeaders() {
+        return List.of("accept", "accept-encoding", "accept-language", "authorization", "cookie");
+    }
+
+    /**
+     * Responses with larger or unknown length bodies are not shared, waiting requests are processed on their own instead
+     */
+    default Size maxBodySize() {
+        return Size.of(1, Size.Type.MiB);
+    }
+}
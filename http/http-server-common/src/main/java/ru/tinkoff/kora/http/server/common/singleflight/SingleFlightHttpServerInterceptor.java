@@ -0,0 +1,150 @@
+package ru.tinkoff.kora.http.server.common.singleflight;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerInterceptor;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerResponseUtils;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces concurrent identical GET and HEAD requests into a single handler invocation.
+ * Requests are identical when they have same route, path, query parameters and values of vary headers,
+ * response of the first request is buffered and copied to every request that arrived while it was processed.
+ */
+public final class SingleFlightHttpServerInterceptor implements HttpServerInterceptor {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final HttpServerSingleFlightConfig config;
+    @Nullable
+    private final HttpServerMetrics metrics;
+    private final List<String> varyHeaders;
+    private final long maxBodySize;
+    private final ConcurrentHashMap<Key, CompletableFuture<SharedResponse>> inflight = new ConcurrentHashMap<>();
+
+    public SingleFlightHttpServerInterceptor(HttpServerSingleFlightConfig config, @Nullable HttpServerMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.varyHeaders = config.varyHeaders().stream().map(h -> h.toLowerCase(Locale.ROOT)).toList();
+        this.maxBodySize = config.maxBodySize().toBytes();
+    }
+
+    @Override
+    public CompletionStage<HttpServerResponse> intercept(Context context, HttpServerRequest request, InterceptChain chain) throws Exception {
+        var route = request.route();
+        if (!this.config.enabled() || route == null || !this.config.routes().contains(route) || !isIdempotent(request.method())) {
+            return chain.process(context, request);
+        }
+        var key = this.key(request, route);
+        var flight = new CompletableFuture<SharedResponse>();
+        var existing = this.inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            if (this.metrics != null) {
+                this.metrics.singleFlightCoalesced(route);
+            }
+            return existing.thenCompose(shared -> {
+                if (shared == null) {
+                    // response of the first request could not be shared, so this one is processed on its own
+                    try {
+                        return chain.process(context, request);
+                    } catch (Exception e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                }
+                return CompletableFuture.completedFuture(shared.toResponse());
+            });
+        }
+
+        final CompletionStage<HttpServerResponse> response;
+        try {
+            response = chain.process(context, request);
+        } catch (Throwable e) {
+            this.inflight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        return response
+            .thenCompose(rs -> this.share(rs).thenApply(shared -> {
+                this.inflight.remove(key, flight);
+                flight.complete(shared);
+                return shared == null ? rs : shared.toResponse();
+            }))
+            .whenComplete((rs, error) -> {
+                if (error != null) {
+                    this.inflight.remove(key, flight);
+                    flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                }
+            });
+    }
+
+    private CompletableFuture<SharedResponse> share(HttpServerResponse response) {
+        if (response.headers().has("set-cookie")) {
+            return CompletableFuture.completedFuture(null);
+        }
+        var body = response.body();
+        if (body == null) {
+            return CompletableFuture.completedFuture(new SharedResponse(response.code(), response.headers(), null, EMPTY));
+        }
+        var full = body.getFullContentIfAvailable();
+        if (full != null) {
+            if (full.remaining() > this.maxBodySize) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.completedFuture(new SharedResponse(response.code(), response.headers(), body.contentType(), HttpServerResponseUtils.toArray(full)));
+        }
+        var length = body.contentLength();
+        if (length < 0 || length > this.maxBodySize) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return FlowUtils.toByteArrayFuture(body)
+            .thenApply(bytes -> new SharedResponse(response.code(), response.headers(), body.contentType(), bytes));
+    }
+
+    private Key key(HttpServerRequest request, String route) {
+        var query = new TreeMap<String, Collection<String>>(request.queryParams());
+        final List<List<String>> headers;
+        if (this.varyHeaders.isEmpty()) {
+            headers = List.of();
+        } else {
+            headers = new ArrayList<>(this.varyHeaders.size());
+            var requestHeaders = request.headers();
+            for (var header : this.varyHeaders) {
+                var values = requestHeaders.getAll(header);
+                headers.add(values == null ? List.of() : values);
+            }
+        }
+        return new Key(request.method(), route, request.path(), query, headers);
+    }
+
+    private static boolean isIdempotent(String method) {
+        return method.equalsIgnoreCase("GET") || method.equalsIgnoreCase("HEAD");
+    }
+
+    private record Key(String method, String route, String path, Map<String, Collection<String>> query, List<List<String>> headers) {}
+
+    private record SharedResponse(int code, HttpHeaders headers, @Nullable String contentType, byte[] body) {
+
+        HttpServerResponse toResponse() {
+            final HttpBodyOutput responseBody = this.contentType == null && this.body.length == 0
+                ? HttpBody.empty()
+                : HttpBody.of(this.contentType, this.body);
+            return HttpServerResponse.of(this.code, this.headers.toMutable(), responseBody);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+import java.io.IOException;
+
+/**
+ * Encodes a single stream item, for example {@code JsonWriter::toByteArray} for NDJSON stream
+ */
+@FunctionalInterface
+public interface EventStreamEncoder<T> {
+    byte[] encode(T value) throws IOException;
+}
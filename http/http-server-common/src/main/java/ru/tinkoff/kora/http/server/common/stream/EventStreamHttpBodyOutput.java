@@ -0,0 +1,89 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-lived response body of encoded events, see {@link HttpServerEventStreams}.
+ * Servers should write it as connection write readiness allows and should not hold a thread for the stream lifetime.
+ */
+public final class EventStreamHttpBodyOutput<T> extends AtomicBoolean implements HttpBodyOutput {
+    private final String contentType;
+    private final Flow.Publisher<? extends T> events;
+    private final EventStreamEncoder<T> encoder;
+    private final byte[] heartbeat;
+    private final HttpServerEventStreamConfig config;
+    @Nullable
+    private final ScheduledExecutorService scheduler;
+    @Nullable
+    private final HttpServerMetrics metrics;
+
+    EventStreamHttpBodyOutput(String contentType,
+                              Flow.Publisher<? extends T> events,
+                              EventStreamEncoder<T> encoder,
+                              byte[] heartbeat,
+                              HttpServerEventStreamConfig config,
+                              @Nullable ScheduledExecutorService scheduler,
+                              @Nullable HttpServerMetrics metrics) {
+        this.contentType = contentType;
+        this.events = events;
+        this.encoder = encoder;
+        this.heartbeat = heartbeat;
+        this.config = config;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public String contentType() {
+        return this.contentType;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (!this.compareAndSet(false, true)) {
+            throw new IllegalStateException("Body was already subscribed");
+        }
+        var metrics = this.metrics;
+        if (metrics != null) {
+            metrics.eventStreamStarted();
+        }
+        var subscription = new EventStreamSubscription<>(subscriber, this.encoder, this.heartbeat, this.config.maxBufferedSize().toBytes(), this.config.prefetch(), metrics);
+        subscriber.onSubscribe(subscription);
+        subscription.startHeartbeat(this.scheduler, this.config.heartbeatInterval().toMillis());
+        this.events.subscribe(subscription);
+    }
+
+    @Override
+    public void close() {
+        if (this.compareAndSet(false, true)) {
+            // event streams are usually infinite, so they are cancelled instead of drained
+            this.events.subscribe(new Flow.Subscriber<T>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.cancel();
+                }
+
+                @Override
+                public void onNext(T item) {}
+
+                @Override
+                public void onError(Throwable throwable) {}
+
+                @Override
+                public void onComplete() {}
+            });
+        }
+    }
+}
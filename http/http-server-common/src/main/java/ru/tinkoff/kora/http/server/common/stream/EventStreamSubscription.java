@@ -0,0 +1,249 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sits between event publisher and server connection writer: events are encoded as they arrive and are queued until writer requests them,
+ * writer requests next chunk only when the previous one was written to the socket.
+ * <p>
+ * Publishers that respect demand are requested ahead by prefetch, publishers that push regardless of demand fill the queue:
+ * once queued bytes exceed the limit the client is considered too slow, publisher is cancelled and connection is closed with an error.
+ * <p>
+ * Queued bytes are reported to metrics once per event when it is handed to the writer, so the cost doesn't grow with publisher rate of a lagging client.
+ */
+final class EventStreamSubscription<T> implements Flow.Subscription, Flow.Subscriber<T>, Runnable {
+    private final Flow.Subscriber<? super ByteBuffer> downstream;
+    private final EventStreamEncoder<T> encoder;
+    private final byte[] heartbeat;
+    private final long maxBufferedBytes;
+    private final int prefetch;
+    private final int replenish;
+    @Nullable
+    private final HttpServerMetrics metrics;
+
+    private final ConcurrentLinkedQueue<Chunk> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong buffered = new AtomicLong();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean terminated = new AtomicBoolean();
+    private final AtomicBoolean active = new AtomicBoolean();
+    private volatile Flow.Subscription upstream;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile boolean evicted;
+    @Nullable
+    private volatile Throwable error;
+    @Nullable
+    private volatile ScheduledFuture<?> heartbeatTask;
+    private int consumed;
+
+    EventStreamSubscription(Flow.Subscriber<? super ByteBuffer> downstream, EventStreamEncoder<T> encoder, byte[] heartbeat, long maxBufferedBytes, int prefetch, @Nullable HttpServerMetrics metrics) {
+        this.downstream = downstream;
+        this.encoder = encoder;
+        this.heartbeat = heartbeat;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.prefetch = Math.max(1, prefetch);
+        this.replenish = Math.max(1, this.prefetch - (this.prefetch >> 2));
+        this.metrics = metrics;
+    }
+
+    void startHeartbeat(@Nullable ScheduledExecutorService scheduler, long intervalMillis) {
+        if (scheduler == null || intervalMillis <= 0) {
+            return;
+        }
+        this.heartbeatTask = scheduler.scheduleAtFixedRate(this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        if (this.terminated.get()) {
+            this.heartbeatTask.cancel(false);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.upstream = subscription;
+        if (this.cancelled || this.terminated.get()) {
+            subscription.cancel();
+        } else {
+            subscription.request(this.prefetch);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (this.done || this.evicted || this.terminated.get()) {
+            return;
+        }
+        final byte[] bytes;
+        try {
+            bytes = this.encoder.encode(item);
+        } catch (Throwable e) {
+            this.upstream.cancel();
+            this.onError(e);
+            return;
+        }
+        this.active.set(true);
+        this.enqueue(new Chunk(ByteBuffer.wrap(bytes), true));
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (this.done) {
+            return;
+        }
+        this.error = throwable;
+        this.done = true;
+        this.drain();
+    }
+
+    @Override
+    public void onComplete() {
+        this.done = true;
+        this.drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            this.cancelUpstream();
+            this.error = new IllegalArgumentException("Requested " + n + " items, should be positive");
+            this.evicted = true;
+            this.drain();
+            return;
+        }
+        this.demand.getAndAccumulate(n, (current, requested) -> current + requested < 0 ? Long.MAX_VALUE : current + requested);
+        this.drain();
+    }
+
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+        this.cancelUpstream();
+        this.terminate();
+        if (this.wip.getAndIncrement() == 0) {
+            this.queue.clear();
+        }
+    }
+
+    /**
+     * Heartbeat tick: written only if there were no events since the previous tick and nothing is waiting to be written
+     */
+    @Override
+    public void run() {
+        if (this.terminated.get()) {
+            return;
+        }
+        if (!this.active.getAndSet(false) && this.queue.isEmpty()) {
+            this.enqueue(new Chunk(ByteBuffer.wrap(this.heartbeat), false));
+        }
+    }
+
+    private void enqueue(Chunk chunk) {
+        this.queue.offer(chunk);
+        var buffered = this.buffered.addAndGet(chunk.buffer.remaining());
+        if (buffered > this.maxBufferedBytes && !this.evicted) {
+            this.error = new SlowEventStreamConsumerException(buffered);
+            this.evicted = true;
+            this.cancelUpstream();
+        }
+        this.drain();
+    }
+
+    private void drain() {
+        if (this.wip.getAndIncrement() != 0) {
+            return;
+        }
+        var missed = 1;
+        var downstream = this.downstream;
+        var metrics = this.metrics;
+        do {
+            if (this.cancelled) {
+                this.queue.clear();
+                return;
+            }
+            if (this.evicted) {
+                this.queue.clear();
+                this.terminate();
+                downstream.onError(this.error);
+                return;
+            }
+            var requested = this.demand.get();
+            var emitted = 0L;
+            while (emitted != requested) {
+                if (this.cancelled || this.evicted) {
+                    break;
+                }
+                var done = this.done;
+                var chunk = this.queue.poll();
+                if (chunk == null) {
+                    if (done) {
+                        this.complete();
+                        return;
+                    }
+                    break;
+                }
+                var size = chunk.buffer.remaining();
+                var buffered = this.buffered.getAndAdd(-size);
+                if (chunk.event && metrics != null) {
+                    metrics.eventStreamBuffered(buffered);
+                }
+                downstream.onNext(chunk.buffer);
+                emitted++;
+                if (chunk.event && ++this.consumed == this.replenish) {
+                    this.consumed = 0;
+                    this.upstream.request(this.replenish);
+                }
+            }
+            if (emitted == requested && this.done && this.queue.isEmpty() && !this.cancelled && !this.evicted) {
+                this.complete();
+                return;
+            }
+            if (emitted != 0 && requested != Long.MAX_VALUE) {
+                this.demand.addAndGet(-emitted);
+            }
+            missed = this.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void complete() {
+        this.terminate();
+        var error = this.error;
+        if (error != null) {
+            this.downstream.onError(error);
+        } else {
+            this.downstream.onComplete();
+        }
+    }
+
+    private void cancelUpstream() {
+        var upstream = this.upstream;
+        if (upstream != null) {
+            upstream.cancel();
+        }
+    }
+
+    private void terminate() {
+        if (!this.terminated.compareAndSet(false, true)) {
+            return;
+        }
+        var heartbeatTask = this.heartbeatTask;
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+        }
+        var metrics = this.metrics;
+        if (metrics != null) {
+            metrics.eventStreamFinished(this.evicted);
+        }
+    }
+
+    private record Chunk(ByteBuffer buffer, boolean event) {}
+}
@@ -0,0 +1,31 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+import ru.tinkoff.kora.common.util.Size;
+import ru.tinkoff.kora.config.common.annotation.ConfigValueExtractor;
+
+import java.time.Duration;
+
+@ConfigValueExtractor
+public interface HttpServerEventStreamConfig {
+
+    /**
+     * Heartbeat is written when no event was written during this interval, so proxies and clients do not close idle connection
+     */
+    default Duration heartbeatInterval() {
+        return Duration.ofSeconds(15);
+    }
+
+    /**
+     * Encoded events waiting for the connection to become writable, connection is closed when client does not keep up and buffer exceeds this size
+     */
+    default Size maxBufferedSize() {
+        return Size.of(1, Size.Type.MiB);
+    }
+
+    /**
+     * Events requested from publisher ahead of writing, only applies to publishers that respect demand
+     */
+    default int prefetch() {
+        return 16;
+    }
+}
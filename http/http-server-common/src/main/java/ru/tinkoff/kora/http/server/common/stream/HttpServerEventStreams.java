@@ -0,0 +1,133 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.application.graph.Lifecycle;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * <b>Русский</b>: Создает долгоживущие потоковые ответы из {@link Flow.Publisher} событий в форматах Server-Sent Events и NDJSON.
+ * События пишутся по мере готовности соединения к записи, при простое отправляется heartbeat,
+ * а соединение медленного клиента закрывается, когда буфер неотправленных событий превышает лимит.
+ * <hr>
+ * <b>English</b>: Creates long-lived streaming responses from {@link Flow.Publisher} of events in Server-Sent Events and NDJSON formats.
+ * Events are written as the connection becomes writable, heartbeat is sent when stream is idle
+ * and slow client connection is closed when buffer of unsent events exceeds the limit.
+ * <br>
+ * <br>
+ * Пример / Example:
+ * <pre>
+ * {@code
+ * return streams.sse(prices.map(p -> ServerSentEvent.of("price", p.toString())));
+ * }
+ * </pre>
+ */
+public final class HttpServerEventStreams implements Lifecycle {
+    private static final byte[] SSE_HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NDJSON_HEARTBEAT = "\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final HttpServerEventStreamConfig config;
+    @Nullable
+    private final HttpServerMetrics metrics;
+    @Nullable
+    private volatile ScheduledExecutorService scheduler;
+
+    public HttpServerEventStreams(HttpServerEventStreamConfig config, @Nullable HttpServerMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init() {
+        var scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            var t = new Thread(r, "kora-http-event-stream-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void release() {
+        var scheduler = this.scheduler;
+        if (scheduler != null) {
+            this.scheduler = null;
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return <b>Русский</b>: Ответ в формате text/event-stream.
+     * <hr>
+     * <b>English</b>: Response in text/event-stream format.
+     */
+    public HttpServerResponse sse(Flow.Publisher<? extends ServerSentEvent> events) {
+        return HttpServerResponse.of(200, streamHeaders(), this.sseBody(events));
+    }
+
+    public EventStreamHttpBodyOutput<ServerSentEvent> sseBody(Flow.Publisher<? extends ServerSentEvent> events) {
+        return new EventStreamHttpBodyOutput<>("text/event-stream; charset=utf-8", events, HttpServerEventStreams::encode, SSE_HEARTBEAT, this.config, this.scheduler, this.metrics);
+    }
+
+    /**
+     * @param encoder <b>Русский</b>: кодирует элемент в одну строку JSON, например {@code JsonWriter::toByteArray}
+     *                <hr>
+     *                <b>English</b>: encodes item to a single line of JSON, for example {@code JsonWriter::toByteArray}
+     * @return <b>Русский</b>: Ответ в формате application/x-ndjson.
+     * <hr>
+     * <b>English</b>: Response in application/x-ndjson format.
+     */
+    public <T> HttpServerResponse ndjson(Flow.Publisher<? extends T> items, EventStreamEncoder<T> encoder) {
+        return HttpServerResponse.of(200, streamHeaders(), this.ndjsonBody(items, encoder));
+    }
+
+    public <T> EventStreamHttpBodyOutput<T> ndjsonBody(Flow.Publisher<? extends T> items, EventStreamEncoder<T> encoder) {
+        EventStreamEncoder<T> lineEncoder = item -> {
+            var json = encoder.encode(item);
+            var line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        };
+        return new EventStreamHttpBodyOutput<>("application/x-ndjson", items, lineEncoder, NDJSON_HEARTBEAT, this.config, this.scheduler, this.metrics);
+    }
+
+    private static HttpHeaders streamHeaders() {
+        // responses must reach client as soon as they are written, not when proxy buffer is full
+        return HttpHeaders.of("cache-control", "no-cache", "x-accel-buffering", "no");
+    }
+
+    static byte[] encode(ServerSentEvent event) {
+        var sb = new StringBuilder(event.data().length() + 16);
+        if (event.id() != null) {
+            sb.append("id: ").append(event.id()).append('\n');
+        }
+        if (event.event() != null) {
+            sb.append("event: ").append(event.event()).append('\n');
+        }
+        if (event.retry() != null) {
+            sb.append("retry: ").append(event.retry().toMillis()).append('\n');
+        }
+        var data = event.data();
+        var lineStart = 0;
+        for (int i = 0; i < data.length(); i++) {
+            var c = data.charAt(i);
+            if (c == '\n' || c == '\r') {
+                sb.append("data: ").append(data, lineStart, i).append('\n');
+                if (c == '\r' && i + 1 < data.length() && data.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        sb.append("data: ").append(data, lineStart, data.length()).append("\n\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * <b>Русский</b>: Событие в формате <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">Server-Sent Events</a>.
+ * <hr>
+ * <b>English</b>: Event in <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">Server-Sent Events</a> format.
+ *
+ * @param id    <b>Русский</b>: идентификатор события, клиент передает последний полученный в заголовке Last-Event-ID при переподключении
+ *              <hr>
+ *              <b>English</b>: event id, client sends the last received one in Last-Event-ID header on reconnect
+ * @param event <b>Русский</b>: тип события
+ *              <hr>
+ *              <b>English</b>: event type
+ * @param data  <b>Русский</b>: данные события, могут быть многострочными
+ *              <hr>
+ *              <b>English</b>: event data, may contain multiple lines
+ * @param retry <b>Русский</b>: задержка переподключения клиента
+ *              <hr>
+ *              <b>English</b>: client reconnection delay
+ */
+public record ServerSentEvent(@Nullable String id, @Nullable String event, String data, @Nullable Duration retry) {
+
+    public ServerSentEvent {
+        Objects.requireNonNull(data);
+        if (id != null && hasLineBreak(id)) {
+            throw new IllegalArgumentException("Event id must not contain line breaks");
+        }
+        if (event != null && hasLineBreak(event)) {
+            throw new IllegalArgumentException("Event type must not contain line breaks");
+        }
+    }
+
+    public static ServerSentEvent of(String data) {
+        return new ServerSentEvent(null, null, data, null);
+    }
+
+    public static ServerSentEvent of(String event, String data) {
+        return new ServerSentEvent(null, event, data, null);
+    }
+
+    public static ServerSentEvent of(String id, String event, String data) {
+        return new ServerSentEvent(id, event, data, null);
+    }
+
+    private static boolean hasLineBreak(String value) {
+        return value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+    }
+}
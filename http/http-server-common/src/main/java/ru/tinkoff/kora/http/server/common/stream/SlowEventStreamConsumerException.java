@@ -0,0 +1,11 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+/**
+ * Client does not read events as fast as they are published, so connection is closed instead of buffering events without bound
+ */
+public final class SlowEventStreamConsumerException extends RuntimeException {
+
+    public SlowEventStreamConsumerException(long bufferedBytes) {
+        super("Event stream client is too slow, " + bufferedBytes + " bytes are waiting to be written", null, false, false);
+    }
+}
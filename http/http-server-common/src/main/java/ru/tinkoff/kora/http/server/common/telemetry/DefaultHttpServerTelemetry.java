@@ -21,6 +21,16 @@ public final class DefaultHttpServerTelemetry implements HttpServerTelemetry {
 
     @Override
     public HttpServerTelemetryContext get(PublicApiRequest request, @Nullable String routeTemplate) {
+        return this.get(request, routeTemplate, null);
+    }
+
+    @Override
+    public HttpServerRouteTelemetry bind(String method, String routeTemplate) {
+        var routeMetrics = this.metrics == null ? null : this.metrics.bind(method, routeTemplate);
+        return request -> this.get(request, routeTemplate, routeMetrics);
+    }
+
+    private HttpServerTelemetryContext get(PublicApiRequest request, @Nullable String routeTemplate, @Nullable HttpServerMetrics.HttpServerRouteMetrics routeMetrics) {
         var metrics = this.metrics;
         var logger = this.logger;
         var tracer = this.tracer;
@@ -32,7 +42,9 @@ public final class DefaultHttpServerTelemetry implements HttpServerTelemetry {
         var method = request.method();
         var scheme = request.scheme();
         var host = request.hostName();
-        if (metrics != null) {
+        if (routeMetrics != null) {
+            routeMetrics.requestStarted(host, scheme);
+        } else if (metrics != null) {
             var pathTemplate = routeTemplate != null ? routeTemplate : UNMATCHED_ROUTE_TEMPLATE;
             metrics.requestStarted(method, pathTemplate, host, scheme);
         }
@@ -54,7 +66,9 @@ public final class DefaultHttpServerTelemetry implements HttpServerTelemetry {
         return (statusCode, resultCode, httpHeaders, exception) -> {
             var end = System.nanoTime();
             var processingTime = end - start;
-            if (metrics != null) {
+            if (routeMetrics != null) {
+                routeMetrics.requestFinished(statusCode, resultCode, scheme, host, httpHeaders, processingTime, exception);
+            } else if (metrics != null) {
                 var pathTemplate = routeTemplate != null ? routeTemplate : UNMATCHED_ROUTE_TEMPLATE;
                 metrics.requestFinished(statusCode, resultCode, scheme, host, method, pathTemplate, httpHeaders, processingTime, exception);
             }
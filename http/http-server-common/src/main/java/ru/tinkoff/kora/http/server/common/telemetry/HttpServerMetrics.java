@@ -4,10 +4,101 @@ import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.http.common.HttpResultCode;
 import ru.tinkoff.kora.http.common.header.HttpHeaders;
 
+import java.util.function.IntSupplier;
+
 public interface HttpServerMetrics {
 
     void requestStarted(String method, String pathTemplate, String host, String scheme);
 
+    /**
+     * Metrics of a route known at server start, meters are resolved once so request path does no key allocation and map lookup
+     */
+    interface HttpServerRouteMetrics {
+
+        void requestStarted(String host, String scheme);
+
+        void requestFinished(int statusCode,
+                             HttpResultCode resultCode,
+                             String scheme,
+                             String host,
+                             HttpHeaders headers,
+                             long processingTimeNanos,
+                             @Nullable Throwable exception);
+    }
+
+    /**
+     * @return route metrics or null if route is reported through {@link #requestStarted(String, String, String, String)} and {@link #requestFinished(int, HttpResultCode, String, String, String, String, HttpHeaders, long, Throwable)}
+     */
+    @Nullable
+    default HttpServerRouteMetrics bind(String method, String pathTemplate) {
+        return null;
+    }
+
+    /**
+     * Response body was sent compressed
+     *
+     * @param encoding          value of Content-Encoding header
+     * @param uncompressedBytes body size before compression
+     * @param compressedBytes   body size sent to client
+     */
+    default void responseCompressed(String encoding, long uncompressedBytes, long compressedBytes) {
+
+    }
+
+    /**
+     * Concurrency limiter was created
+     *
+     * @param route    route template or null for limiter shared by all routes
+     * @param limit    current concurrency limit
+     * @param inflight requests currently holding limiter permit
+     */
+    default void concurrencyLimiterCreated(@Nullable String route, IntSupplier limit, IntSupplier inflight) {
+
+    }
+
+    /**
+     * Request was rejected by concurrency limiter
+     *
+     * @param route route template or null for limiter shared by all routes
+     */
+    default void concurrencyLimitRejected(@Nullable String route) {
+
+    }
+
+    /**
+     * Request was coalesced with identical request in flight and will get a copy of its response
+     *
+     * @param route route template
+     */
+    default void singleFlightCoalesced(String route) {
+
+    }
+
+    /**
+     * Event stream response started writing to connection
+     */
+    default void eventStreamStarted() {
+
+    }
+
+    /**
+     * Event was handed to an event stream connection writer
+     *
+     * @param bufferedBytes bytes that were waiting for this connection to become writable, including the event
+     */
+    default void eventStreamBuffered(long bufferedBytes) {
+
+    }
+
+    /**
+     * Event stream response finished
+     *
+     * @param evicted connection was closed because client did not keep up with events
+     */
+    default void eventStreamFinished(boolean evicted) {
+
+    }
+
     /**
      * @see #requestFinished(int, HttpResultCode, String, String, String, String, HttpHeaders, long, Throwable)
      */
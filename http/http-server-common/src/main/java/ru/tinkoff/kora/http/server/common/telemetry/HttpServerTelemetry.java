@@ -14,4 +14,19 @@ public interface HttpServerTelemetry {
     }
 
     HttpServerTelemetryContext get(PublicApiRequest request, @Nullable String routeTemplate);
+
+    /**
+     * Telemetry of a route known at server start, resolves route specific state once instead of on every request
+     */
+    interface HttpServerRouteTelemetry {
+        HttpServerTelemetryContext get(PublicApiRequest request);
+    }
+
+    /**
+     * @return route telemetry or null if {@link #get(PublicApiRequest, String)} should be used for the route
+     */
+    @Nullable
+    default HttpServerRouteTelemetry bind(String method, String routeTemplate) {
+        return null;
+    }
 }
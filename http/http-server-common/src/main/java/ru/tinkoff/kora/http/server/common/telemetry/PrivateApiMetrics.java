@@ -1,5 +1,28 @@
 package ru.tinkoff.kora.http.server.common.telemetry;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 public interface PrivateApiMetrics {
     String scrape();
+
+    /**
+     * Writes exposition to stream, implementations should not render whole exposition in memory
+     */
+    default void scrape(OutputStream os) throws IOException {
+        os.write(this.scrape().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Probe of a single component was evaluated
+     *
+     * @param type                readiness or liveness
+     * @param component           probe component name
+     * @param status              success, failure or timeout
+     * @param processingTimeNanos probe evaluation time
+     */
+    default void probeEvaluated(String type, String component, String status, long processingTimeNanos) {
+
+    }
 }
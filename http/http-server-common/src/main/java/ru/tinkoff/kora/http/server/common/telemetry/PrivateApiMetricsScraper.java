@@ -0,0 +1,167 @@
+package ru.tinkoff.kora.http.server.common.telemetry;
+
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Renders metrics exposition for private api.
+ * Without cache exposition is written straight to response output stream, with cache concurrent scrapes share single rendering for ttl.
+ * Exposition is gzipped when client accepts it.
+ */
+public final class PrivateApiMetricsScraper {
+    private static final String CONTENT_TYPE = "text/plain; charset=utf-8";
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private record Rendered(byte[] content, long renderedAt) {}
+
+    private final Executor executor;
+    private final AtomicReference<CompletableFuture<Rendered>> plain = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Rendered>> gzip = new AtomicReference<>();
+
+    public PrivateApiMetricsScraper(Executor executor) {
+        this.executor = executor;
+    }
+
+    public CompletionStage<HttpServerResponse> scrape(PrivateApiMetrics metrics, @Nullable String acceptEncoding, Duration cacheTtl) {
+        var gzip = acceptsGzip(acceptEncoding);
+        var headers = gzip
+            ? HttpHeaders.of("content-encoding", "gzip", "vary", "accept-encoding")
+            : HttpHeaders.of("vary", "accept-encoding");
+        var ttl = cacheTtl.toNanos();
+        if (ttl <= 0) {
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200, headers, new ScrapeHttpBodyOutput(metrics, gzip)));
+        }
+        return this.rendered(metrics, gzip, ttl)
+            .thenApply(rendered -> HttpServerResponse.of(200, headers, HttpBody.of(CONTENT_TYPE, rendered.content())));
+    }
+
+    private CompletableFuture<Rendered> rendered(PrivateApiMetrics metrics, boolean gzip, long ttl) {
+        var cache = gzip ? this.gzip : this.plain;
+        while (true) {
+            var current = cache.get();
+            if (current != null) {
+                if (!current.isDone()) {
+                    return current;
+                }
+                var rendered = current.isCompletedExceptionally() ? null : current.join();
+                if (rendered != null && System.nanoTime() - rendered.renderedAt() < ttl) {
+                    return current;
+                }
+            }
+            var future = new CompletableFuture<Rendered>();
+            if (cache.compareAndSet(current, future)) {
+                try {
+                    this.executor.execute(() -> {
+                        try {
+                            var out = new ByteArrayOutputStream(64 * 1024);
+                            write(metrics, gzip, out);
+                            future.complete(new Rendered(out.toByteArray(), System.nanoTime()));
+                        } catch (Throwable e) {
+                            future.completeExceptionally(e);
+                        }
+                    });
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+                return future;
+            }
+        }
+    }
+
+    private static void write(PrivateApiMetrics metrics, boolean gzip, OutputStream os) throws IOException {
+        if (gzip) {
+            var gzipStream = new GZIPOutputStream(os, BUFFER_SIZE);
+            metrics.scrape(gzipStream);
+            gzipStream.finish();
+        } else {
+            metrics.scrape(os);
+        }
+        os.flush();
+    }
+
+    static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (var coding : acceptEncoding.split(",")) {
+            var params = coding.split(";");
+            var name = params[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            var rejected = false;
+            for (int i = 1; i < params.length; i++) {
+                var param = params[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        rejected = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        rejected = true;
+                    }
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exposition of unknown length, servers writing it with {@link #write(OutputStream)} do not hold whole exposition in memory
+     */
+    private static final class ScrapeHttpBodyOutput implements HttpBodyOutput {
+        private final PrivateApiMetrics metrics;
+        private final boolean gzip;
+
+        private ScrapeHttpBodyOutput(PrivateApiMetrics metrics, boolean gzip) {
+            this.metrics = metrics;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public String contentType() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public void write(OutputStream os) throws IOException {
+            PrivateApiMetricsScraper.write(this.metrics, this.gzip, os);
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            FlowUtils.fromCallable(Context.current(), () -> {
+                var out = new ByteArrayOutputStream(64 * 1024);
+                PrivateApiMetricsScraper.write(this.metrics, this.gzip, out);
+                return ByteBuffer.wrap(out.toByteArray());
+            }).subscribe(subscriber);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ru.tinkoff.kora.http.server.common.body;
+
+import jakarta.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.Size;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.HttpServerResponseException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+class RequestBodyLimitHttpServerInterceptorTest {
+
+    @Test
+    void contentLengthOverLimitIsRejectedBeforeHandler() throws Exception {
+        // given
+        var interceptor = new RequestBodyLimitHttpServerInterceptor(config(Size.of(10, Size.Type.BYTES), Map.of()));
+        var called = new AtomicBoolean(false);
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request("/upload", HttpBody.octetStream(new byte[11])), (ctx, rq) -> {
+            called.set(true);
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200));
+        });
+
+        // then
+        assertThat(called).isFalse();
+        assertThatThrownBy(() -> response.toCompletableFuture().get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOfSatisfying(HttpServerResponseException.class, e -> {
+                assertThat(e.code()).isEqualTo(413);
+                assertThat(e.headers().has("connection")).isFalse();
+            });
+    }
+
+    @Test
+    void streamingBodyFailsWhenLimitIsCrossed() throws Exception {
+        // given
+        var interceptor = new RequestBodyLimitHttpServerInterceptor(config(Size.of(10, Size.Type.BYTES), Map.of()));
+        var body = new ChunkedBody(List.of(new byte[6], new byte[6], new byte[6]));
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request("/upload", body), (ctx, rq) -> rq.body().asArrayStage()
+            .thenApply(bytes -> HttpServerResponse.of(200)));
+
+        // then
+        assertThatThrownBy(() -> response.toCompletableFuture().get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOfSatisfying(HttpServerResponseException.class, e -> assertThat(e.code()).isEqualTo(413));
+        assertThat(body.cancelled).isTrue();
+        assertThat(body.sent).isEqualTo(2);
+    }
+
+    @Test
+    void streamingBodyUnderLimitIsReadCompletely() throws Exception {
+        // given
+        var interceptor = new RequestBodyLimitHttpServerInterceptor(config(Size.of(10, Size.Type.BYTES), Map.of()));
+        var body = new ChunkedBody(List.of(new byte[5], new byte[5]));
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request("/upload", body), (ctx, rq) -> rq.body().asArrayStage()
+            .thenApply(bytes -> HttpServerResponse.of(200, HttpBody.plaintext(Integer.toString(bytes.length)))));
+
+        // then
+        var rs = response.toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertThat(rs.code()).isEqualTo(200);
+        assertThat(rs.body().getFullContentIfAvailable()).isEqualTo(ByteBuffer.wrap("10".getBytes()));
+    }
+
+    @Test
+    void routeLimitOverridesGlobalLimit() throws Exception {
+        // given
+        var interceptor = new RequestBodyLimitHttpServerInterceptor(config(Size.of(10, Size.Type.BYTES), Map.of("/upload", Size.of(1, Size.Type.KiB))));
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request("/upload", HttpBody.octetStream(new byte[100])), (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200)));
+
+        // then
+        assertThat(response.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(200);
+    }
+
+    @Test
+    void noLimitNoWrapping() throws Exception {
+        // given
+        var interceptor = new RequestBodyLimitHttpServerInterceptor(config(null, Map.of()));
+        var body = new ChunkedBody(List.of(new byte[100]));
+        var request = request("/upload", body);
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request, (ctx, rq) -> {
+            assertThat(rq).isSameAs(request);
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200));
+        });
+
+        // then
+        assertThat(response.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(200);
+    }
+
+    private static HttpServerRequestBodyConfig config(@Nullable Size maxSize, Map<String, Size> routes) {
+        return new HttpServerRequestBodyConfig() {
+            @Nullable
+            @Override
+            public Size maxSize() {
+                return maxSize;
+            }
+
+            @Override
+            public Map<String, Size> routes() {
+                return routes;
+            }
+        };
+    }
+
+    private static HttpServerRequest request(String route, HttpBodyInput body) {
+        var request = Mockito.mock(HttpServerRequest.class);
+        when(request.route()).thenReturn(route);
+        when(request.body()).thenReturn(body);
+        return request;
+    }
+
+    private static final class ChunkedBody implements HttpBodyInput, Flow.Subscription {
+        private final ArrayDeque<byte[]> chunks;
+        private Flow.Subscriber<? super ByteBuffer> subscriber;
+        private volatile boolean cancelled;
+        private volatile int sent;
+
+        private ChunkedBody(List<byte[]> chunks) {
+            this.chunks = new ArrayDeque<>(chunks);
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Nullable
+        @Override
+        public String contentType() {
+            return null;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            for (long i = 0; i < n && !this.cancelled; i++) {
+                var chunk = this.chunks.poll();
+                if (chunk == null) {
+                    this.subscriber.onComplete();
+                    return;
+                }
+                this.sent++;
+                this.subscriber.onNext(ByteBuffer.wrap(chunk));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package ru.tinkoff.kora.http.server.common.cache;
+
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.cache.AsyncCache;
+import ru.tinkoff.kora.cache.Cache;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheHttpServerInterceptorTest {
+
+    @Test
+    void secondRequestIsServedFromCache() throws Exception {
+        // given
+        var interceptor = new ResponseCacheHttpServerInterceptor(new MapCache(), "/items/{id}", List.of("lang"), List.of());
+        var calls = new AtomicInteger();
+
+        // when
+        var first = interceptor.intercept(Context.clear(), request("/items/1", Map.of("lang", List.of("en")), HttpHeaders.of()), (ctx, rq) -> ok(calls, "first"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var second = interceptor.intercept(Context.clear(), request("/items/1", Map.of("lang", List.of("en"), "ignored", List.of("1")), HttpHeaders.of()), (ctx, rq) -> ok(calls, "second"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var other = interceptor.intercept(Context.clear(), request("/items/1", Map.of("lang", List.of("ru")), HttpHeaders.of()), (ctx, rq) -> ok(calls, "other"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(calls).hasValue(2);
+        assertThat(body(first)).isEqualTo("first");
+        assertThat(body(second)).isEqualTo("first");
+        assertThat(body(other)).isEqualTo("other");
+        assertThat(second.headers().getFirst("etag")).isEqualTo(first.headers().getFirst("etag")).isNotNull();
+        assertThat(second.body().contentType()).isEqualTo("text/plain; charset=utf-8");
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModifiedWithoutCallingController() throws Exception {
+        // given
+        var interceptor = new ResponseCacheHttpServerInterceptor(new MapCache(), "/items", List.of(), List.of());
+        var calls = new AtomicInteger();
+        var first = interceptor.intercept(Context.clear(), request("/items", Map.of(), HttpHeaders.of()), (ctx, rq) -> ok(calls, "content"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var etag = first.headers().getFirst("etag");
+
+        // when
+        var revalidated = interceptor.intercept(Context.clear(), request("/items", Map.of(), HttpHeaders.of("if-none-match", "W/" + etag)), (ctx, rq) -> ok(calls, "content"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(calls).hasValue(1);
+        assertThat(revalidated.code()).isEqualTo(304);
+        assertThat(revalidated.headers().getFirst("etag")).isEqualTo(etag);
+        assertThat(revalidated.headers().has("content-type")).isFalse();
+    }
+
+    @Test
+    void varyHeadersArePartOfKey() throws Exception {
+        // given
+        var interceptor = new ResponseCacheHttpServerInterceptor(new MapCache(), "/items", List.of(), List.of("Accept-Language"));
+        var calls = new AtomicInteger();
+
+        // when
+        interceptor.intercept(Context.clear(), request("/items", Map.of(), HttpHeaders.of("accept-language", "en")), (ctx, rq) -> ok(calls, "en"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var ru = interceptor.intercept(Context.clear(), request("/items", Map.of(), HttpHeaders.of("accept-language", "ru")), (ctx, rq) -> ok(calls, "ru"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(calls).hasValue(2);
+        assertThat(body(ru)).isEqualTo("ru");
+    }
+
+    @Test
+    void errorsAndResponsesWithCookiesAreNotCached() throws Exception {
+        // given
+        var cache = new MapCache();
+        var interceptor = new ResponseCacheHttpServerInterceptor(cache, "/items", List.of(), List.of());
+
+        // when
+        var error = interceptor.intercept(Context.clear(), request("/items", Map.of(), HttpHeaders.of()),
+                (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(500, HttpBody.plaintext("error"))))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var withCookie = interceptor.intercept(Context.clear(), request("/items", Map.of(), HttpHeaders.of()),
+                (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpHeaders.of("set-cookie", "session=1"), HttpBody.plaintext("private"))))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(error.code()).isEqualTo(500);
+        assertThat(withCookie.headers().has("etag")).isFalse();
+        assertThat(cache.map).isEmpty();
+    }
+
+    @Test
+    void escapedQueryValuesDoNotCollideWithSeparateParameters() throws Exception {
+        // given
+        var interceptor = new ResponseCacheHttpServerInterceptor(new MapCache(), "/items", List.of(), List.of());
+        var calls = new AtomicInteger();
+
+        // when
+        // ?a=1%26b%3D2 is decoded to a single parameter with value "1&b=2"
+        var escaped = interceptor.intercept(Context.clear(), request("/items", Map.of("a", List.of("1&b=2")), HttpHeaders.of()), (ctx, rq) -> ok(calls, "escaped"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var separate = interceptor.intercept(Context.clear(), request("/items", Map.of("a", List.of("1"), "b", List.of("2")), HttpHeaders.of()), (ctx, rq) -> ok(calls, "separate"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(calls).hasValue(2);
+        assertThat(body(escaped)).isEqualTo("escaped");
+        assertThat(body(separate)).isEqualTo("separate");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void asyncCacheIsUsedThroughAsyncApi() throws Exception {
+        // given
+        AsyncCache<HttpResponseCacheKey, CachedHttpResponse> cache = Mockito.mock(AsyncCache.class);
+        when(cache.getAsync(any(HttpResponseCacheKey.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(cache.putAsync(any(HttpResponseCacheKey.class), any(CachedHttpResponse.class))).thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(1)));
+        var interceptor = new ResponseCacheHttpServerInterceptor(cache, "/items", List.of(), List.of());
+        var calls = new AtomicInteger();
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request("/items", Map.of(), HttpHeaders.of()), (ctx, rq) -> ok(calls, "content"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(body(response)).isEqualTo("content");
+        verify(cache).getAsync(any(HttpResponseCacheKey.class));
+        verify(cache).putAsync(any(HttpResponseCacheKey.class), any(CachedHttpResponse.class));
+        verify(cache, never()).get(any(HttpResponseCacheKey.class));
+        verify(cache, never()).put(any(HttpResponseCacheKey.class), any(CachedHttpResponse.class));
+    }
+
+    private static CompletableFuture<HttpServerResponse> ok(AtomicInteger calls, String content) {
+        calls.incrementAndGet();
+        return CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext(content)));
+    }
+
+    private static String body(HttpServerResponse response) throws Exception {
+        return new String(FlowUtils.toByteArrayFuture(response.body()).get(1, TimeUnit.SECONDS), StandardCharsets.UTF_8);
+    }
+
+    private static HttpServerRequest request(String path, Map<String, List<String>> queryParams, HttpHeaders headers) {
+        var request = Mockito.mock(HttpServerRequest.class);
+        when(request.path()).thenReturn(path);
+        when(request.headers()).thenReturn(headers);
+        doReturn(queryParams).when(request).queryParams();
+        return request;
+    }
+
+    private static final class MapCache implements Cache<HttpResponseCacheKey, CachedHttpResponse> {
+        private final Map<HttpResponseCacheKey, CachedHttpResponse> map = new ConcurrentHashMap<>();
+
+        @Override
+        public CachedHttpResponse get(@Nonnull HttpResponseCacheKey key) {
+            return this.map.get(key);
+        }
+
+        @Nonnull
+        @Override
+        public Map<HttpResponseCacheKey, CachedHttpResponse> get(@Nonnull Collection<HttpResponseCacheKey> keys) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public CachedHttpResponse put(@Nonnull HttpResponseCacheKey key, @Nonnull CachedHttpResponse value) {
+            this.map.put(key, value);
+            return value;
+        }
+
+        @Nonnull
+        @Override
+        public Map<HttpResponseCacheKey, CachedHttpResponse> put(@Nonnull Map<HttpResponseCacheKey, CachedHttpResponse> keyAndValues) {
+            this.map.putAll(keyAndValues);
+            return keyAndValues;
+        }
+
+        @Override
+        public CachedHttpResponse computeIfAbsent(@Nonnull HttpResponseCacheKey key, @Nonnull Function<HttpResponseCacheKey, CachedHttpResponse> mappingFunction) {
+            return this.map.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Nonnull
+        @Override
+        public Map<HttpResponseCacheKey, CachedHttpResponse> computeIfAbsent(@Nonnull Collection<HttpResponseCacheKey> keys,
+                                                                             @Nonnull Function<Set<HttpResponseCacheKey>, Map<HttpResponseCacheKey, CachedHttpResponse>> mappingFunction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void invalidate(@Nonnull HttpResponseCacheKey key) {
+            this.map.remove(key);
+        }
+
+        @Override
+        public void invalidate(@Nonnull Collection<HttpResponseCacheKey> keys) {
+            keys.forEach(this.map::remove);
+        }
+
+        @Override
+        public void invalidateAll() {
+            this.map.clear();
+        }
+    }
+}
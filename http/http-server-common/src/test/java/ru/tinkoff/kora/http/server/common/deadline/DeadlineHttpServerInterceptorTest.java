@@ -0,0 +1,133 @@
+package ru.tinkoff.kora.http.server.common.deadline;
+
+import jakarta.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.Deadline;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class DeadlineHttpServerInterceptorTest {
+
+    @Test
+    void deadlineFromHeader() throws Exception {
+        // given
+        var interceptor = new DeadlineHttpServerInterceptor(config(null, null, Duration.ofSeconds(30)));
+        var seen = new AtomicReference<Deadline>();
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request("/foo", "5000"), (ctx, rq) -> {
+            seen.set(Deadline.current(ctx));
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200));
+        });
+
+        // then
+        assertThat(response.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(200);
+        assertThat(seen.get()).isNotNull();
+        assertThat(seen.get().remaining()).isLessThanOrEqualTo(Duration.ofSeconds(5)).isGreaterThan(Duration.ofSeconds(4));
+    }
+
+    @Test
+    void routeBudgetIsUsedWhenShorterThanHeader() throws Exception {
+        // given
+        var interceptor = new DeadlineHttpServerInterceptor(config(Duration.ofSeconds(10), Map.of("/foo", Duration.ofMillis(500)), null));
+        var seen = new AtomicReference<Deadline>();
+
+        // when
+        interceptor.intercept(Context.clear(), request("/foo", "5000"), (ctx, rq) -> {
+            seen.set(Deadline.current(ctx));
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200));
+        });
+
+        // then
+        assertThat(seen.get().remaining()).isLessThanOrEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    void headerTimeoutIsLimitedByMaxTimeout() throws Exception {
+        // given
+        var interceptor = new DeadlineHttpServerInterceptor(config(null, null, Duration.ofSeconds(1)));
+        var seen = new AtomicReference<Deadline>();
+
+        // when
+        interceptor.intercept(Context.clear(), request("/foo", "60000"), (ctx, rq) -> {
+            seen.set(Deadline.current(ctx));
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200));
+        });
+
+        // then
+        assertThat(seen.get().remaining()).isLessThanOrEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void noTimeoutNoDeadline() throws Exception {
+        // given
+        var interceptor = new DeadlineHttpServerInterceptor(config(null, null, null));
+        var seen = new AtomicReference<Deadline>();
+
+        // when
+        interceptor.intercept(Context.clear(), request("/foo", "not a number"), (ctx, rq) -> {
+            seen.set(Deadline.current(ctx));
+            return CompletableFuture.completedFuture(HttpServerResponse.of(200));
+        });
+
+        // then
+        assertThat(seen.get()).isNull();
+    }
+
+    @Test
+    void expiredRequestIsNotProcessed() throws Exception {
+        // given
+        var interceptor = new DeadlineHttpServerInterceptor(config(null, null, null));
+
+        // when
+        var response = interceptor.intercept(Context.clear(), request("/foo", "0"), (ctx, rq) -> {
+            throw new IllegalStateException("Handler should not be called");
+        });
+
+        // then
+        assertThat(response.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(504);
+    }
+
+    private static HttpServerRequest request(String route, @Nullable String timeout) {
+        var request = Mockito.mock(HttpServerRequest.class);
+        when(request.route()).thenReturn(route);
+        when(request.headers()).thenReturn(timeout == null ? HttpHeaders.of() : HttpHeaders.of("x-request-timeout", timeout));
+        return request;
+    }
+
+    private static HttpServerDeadlineConfig config(@Nullable Duration defaultTimeout, @Nullable Map<String, Duration> routes, @Nullable Duration maxTimeout) {
+        return new HttpServerDeadlineConfig() {
+            @Override
+            public boolean enabled() {
+                return true;
+            }
+
+            @Override
+            public Duration defaultTimeout() {
+                return defaultTimeout;
+            }
+
+            @Override
+            public Map<String, Duration> routes() {
+                return routes;
+            }
+
+            @Override
+            public Duration maxTimeout() {
+                return maxTimeout;
+            }
+        };
+    }
+}
@@ -7,24 +7,37 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import reactor.adapter.JdkFlowAdapter;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.common.util.Size;
 import ru.tinkoff.kora.http.common.body.HttpBodyInput;
 import ru.tinkoff.kora.http.common.cookie.Cookie;
 import ru.tinkoff.kora.http.common.cookie.Cookies;
+import ru.tinkoff.kora.http.common.form.FormMultipart;
+import ru.tinkoff.kora.http.common.form.FormMultipart.FormPart.MultipartFileStream;
 import ru.tinkoff.kora.http.common.header.HttpHeaders;
 import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponseException;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.Flow;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class MultipartReaderTest {
     @RepeatedTest(100)
@@ -238,6 +251,262 @@ class MultipartReaderTest {
             }, Index.atIndex(1));
     }
 
+    @RepeatedTest(100)
+    void streamingRandomChunks() {
+        var e = """
+            preamble\r
+            --boundary\r
+            Content-Disposition: form-data; name="field1"\r
+            Content-Type: text/plain\r
+            \r
+            value1\r
+            --boundary\r
+            Content-Disposition: form-data; name="field2"; filename="example.txt"\r
+            Content-Type: text/plain\r
+            \r
+            value2\r
+            --boundary--\r
+            \r""".getBytes(StandardCharsets.UTF_8);
+        var request = new SimpleHttpServerRequest("POST", "/", randomChunks(e), new Map.Entry[]{
+            Map.entry("content-type", "multipart/form-data; boundary=\"boundary\"")
+        }, Map.of());
+        var result = MultipartReader.readStreaming(request, config(1024, null))
+            .toCompletableFuture().join();
+
+        assertThat(result)
+            .satisfies(part -> {
+                assertThat(part.name()).isEqualTo("field1");
+                assertThat(part.fileName()).isNull();
+                assertThat(part.contentType()).isEqualTo("text/plain");
+                assertThat(FlowUtils.toByteArrayFuture(part.content()).join()).asString(StandardCharsets.UTF_8).isEqualTo("value1");
+            }, Index.atIndex(0))
+            .satisfies(part -> {
+                assertThat(part.name()).isEqualTo("field2");
+                assertThat(part.fileName()).isEqualTo("example.txt");
+                assertThat(part.contentType()).isEqualTo("text/plain");
+                assertThat(FlowUtils.toByteArrayFuture(part.content()).join()).asString(StandardCharsets.UTF_8).isEqualTo("value2");
+            }, Index.atIndex(1));
+    }
+
+    @RepeatedTest(10)
+    void streamingContentLikeBoundary() {
+        var content = "--boundar\r\n--boundar--\r\n-boundary\r\n\r\n-\r\n--".repeat(50);
+        var e = ("--boundary\r\n"
+            + "Content-Disposition: form-data; name=\"field1\"\r\n"
+            + "\r\n"
+            + content + "\r\n"
+            + "--boundary--\r\n").getBytes(StandardCharsets.UTF_8);
+        var request = new SimpleHttpServerRequest("POST", "/", randomChunks(e), new Map.Entry[]{
+            Map.entry("content-type", "multipart/form-data; boundary=boundary")
+        }, Map.of());
+        var result = MultipartReader.readStreaming(request, config(16, null))
+            .toCompletableFuture().join();
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).contentType()).isNull();
+        assertThat(FlowUtils.toByteArrayFuture(result.get(0).content()).join()).asString(StandardCharsets.UTF_8).isEqualTo(content);
+    }
+
+    @Test
+    void streamingSpillsLargePartToTempFile() throws IOException {
+        var tempDirectory = Files.createTempDirectory("multipart-test");
+        var boundary = "A-B--MIME-BOUNDARY--b96857b1a70d2dc4-17e9b561ad7--Y-Z";
+        var content = new byte[3 * 1024 * 1024 + 17];
+        ThreadLocalRandom.current().nextBytes(content);
+        var f = Flux.just(StandardCharsets.UTF_8.encode("--" + boundary + "\r\nContent-Disposition: form-data; name=\"field1\"\r\n\r\nvalue1\r\n"))
+            .concatWithValues(StandardCharsets.UTF_8.encode("--" + boundary + "\r\nContent-Disposition: form-data; name=\"field2\"; filename=\"example.bin\"\r\n\r\n"))
+            .concatWith(Flux.range(0, content.length / 8192 + 1).map(i -> ByteBuffer.wrap(content, i * 8192, Math.min(8192, content.length - i * 8192))))
+            .concatWithValues(StandardCharsets.UTF_8.encode("\r\n--" + boundary + "--\r\n"));
+        var request = new SimpleHttpServerRequest("POST", "/", f, new Map.Entry[]{
+            Map.entry("content-type", "multipart/form-data; boundary=" + boundary)
+        }, Map.of());
+
+        var result = MultipartReader.readStreaming(request, config(64 * 1024, tempDirectory.toString()))
+            .toCompletableFuture().join();
+
+        assertThat(result).hasSize(2);
+        try (var files = Files.list(tempDirectory)) {
+            assertThat(files).hasSize(1);
+        }
+        assertThat(FlowUtils.toByteArrayFuture(result.get(0).content()).join()).asString(StandardCharsets.UTF_8).isEqualTo("value1");
+        assertThat(result.get(1).fileName()).isEqualTo("example.bin");
+        assertThat(FlowUtils.toByteArrayFuture(result.get(1).content()).join()).isEqualTo(content);
+        try (var files = Files.list(tempDirectory)) {
+            assertThat(files).isEmpty();
+        }
+        Files.delete(tempDirectory);
+    }
+
+    @Test
+    void streamingUnexpectedEnd() {
+        var e = """
+            --boundary\r
+            Content-Disposition: form-data; name="field1"\r
+            \r
+            value1""".getBytes(StandardCharsets.UTF_8);
+        var request = new SimpleHttpServerRequest("POST", "/", randomChunks(e), new Map.Entry[]{
+            Map.entry("content-type", "multipart/form-data; boundary=boundary")
+        }, Map.of());
+
+        assertThatThrownBy(() -> MultipartReader.readStreaming(request, config(1024, null)).toCompletableFuture().join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(HttpServerResponseException.class);
+    }
+
+    @Test
+    void streamingPartIsPublishedBeforeBodyEnds() {
+        var body = Sinks.many().unicast().<ByteBuffer>onBackpressureBuffer();
+        var request = new SimpleHttpServerRequest("POST", "/", body.asFlux(), new Map.Entry[]{
+            Map.entry("content-type", "multipart/form-data; boundary=boundary")
+        }, Map.of());
+        var parts = new ArrayList<MultipartFileStream>();
+        var completed = new AtomicBoolean();
+        var subscription = new AtomicReference<Flow.Subscription>();
+        MultipartReader.readParts(request, config(1024, null), null).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(MultipartFileStream item) {
+                parts.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {}
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+
+        body.tryEmitNext(StandardCharsets.UTF_8.encode("--boundary\r\nContent-Disposition: form-data; name=\"field1\"\r\n\r\nvalue1\r\n--boundary\r\n"));
+        assertThat(parts).isEmpty();
+        subscription.get().request(1);
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0).name()).isEqualTo("field1");
+        assertThat(FlowUtils.toByteArrayFuture(parts.get(0).content()).join()).asString(StandardCharsets.UTF_8).isEqualTo("value1");
+
+        body.tryEmitNext(StandardCharsets.UTF_8.encode("Content-Disposition: form-data; name=\"field2\"\r\n\r\nvalue2\r\n--boundary--\r\n"));
+        body.tryEmitComplete();
+        assertThat(parts).hasSize(1);
+        assertThat(completed).isFalse();
+        subscription.get().request(1);
+        assertThat(parts).hasSize(2);
+        assertThat(completed).isTrue();
+        assertThat(FlowUtils.toByteArrayFuture(parts.get(1).content()).join()).asString(StandardCharsets.UTF_8).isEqualTo("value2");
+    }
+
+    @Test
+    void streamingSpillsOnBlockingExecutor() throws IOException {
+        var tempDirectory = Files.createTempDirectory("multipart-test");
+        var executorService = Executors.newSingleThreadExecutor();
+        var spillWrites = new AtomicInteger();
+        var executor = new BlockingRequestExecutor() {
+            private final BlockingRequestExecutor delegate = new BlockingRequestExecutor.Default(executorService);
+
+            @Override
+            public <T> CompletionStage<T> execute(Context context, Callable<T> handler) {
+                spillWrites.incrementAndGet();
+                return delegate.execute(context, handler);
+            }
+        };
+        var content = new byte[256 * 1024 + 17];
+        ThreadLocalRandom.current().nextBytes(content);
+        var f = Flux.just(StandardCharsets.UTF_8.encode("--boundary\r\nContent-Disposition: form-data; name=\"field1\"; filename=\"example.bin\"\r\n\r\n"))
+            .concatWith(Flux.range(0, content.length / 8192 + 1).map(i -> ByteBuffer.wrap(content, i * 8192, Math.min(8192, content.length - i * 8192))))
+            .concatWithValues(StandardCharsets.UTF_8.encode("\r\n--boundary--\r\n"));
+        var request = new SimpleHttpServerRequest("POST", "/", f, new Map.Entry[]{
+            Map.entry("content-type", "multipart/form-data; boundary=boundary")
+        }, Map.of());
+        try {
+            var result = MultipartReader.readStreaming(request, config(16 * 1024, tempDirectory.toString()), executor)
+                .toCompletableFuture().join();
+
+            assertThat(spillWrites).hasPositiveValue();
+            assertThat(result).hasSize(1);
+            assertThat(FlowUtils.toByteArrayFuture(result.get(0).content()).join()).isEqualTo(content);
+            try (var files = Files.list(tempDirectory)) {
+                assertThat(files).isEmpty();
+            }
+        } finally {
+            executorService.shutdown();
+            Files.delete(tempDirectory);
+        }
+    }
+
+    @Test
+    void blockingMapperSpillsOnItsOwnThreadWhenUploadsExceedBlockingThreads() throws Exception {
+        var tempDirectory = Files.createTempDirectory("multipart-test");
+        var threads = 2;
+        var uploads = threads * 3;
+        var executorService = Executors.newFixedThreadPool(threads);
+        var executor = new BlockingRequestExecutor.Default(executorService);
+        var mapper = new FormMultipartServerRequestMapper(config(16 * 1024, tempDirectory.toString()));
+        var content = new byte[256 * 1024 + 17];
+        ThreadLocalRandom.current().nextBytes(content);
+        try {
+            var results = new ArrayList<CompletableFuture<FormMultipart>>();
+            for (int i = 0; i < uploads; i++) {
+                // body is delivered by another thread, same as server IO thread delivers it
+                var f = Flux.just(StandardCharsets.UTF_8.encode("--boundary\r\nContent-Disposition: form-data; name=\"field1\"; filename=\"example.bin\"\r\n\r\n"))
+                    .concatWith(Flux.range(0, content.length / 8192 + 1).map(j -> ByteBuffer.wrap(content, j * 8192, Math.min(8192, content.length - j * 8192))))
+                    .concatWithValues(StandardCharsets.UTF_8.encode("\r\n--boundary--\r\n"))
+                    .publishOn(Schedulers.parallel(), 1);
+                var request = new SimpleHttpServerRequest("POST", "/", f, new Map.Entry[]{
+                    Map.entry("content-type", "multipart/form-data; boundary=boundary")
+                }, Map.of());
+                results.add(executor.execute(Context.current(), () -> mapper.apply(request)).toCompletableFuture());
+            }
+
+            for (var result : results) {
+                var form = result.get(30, TimeUnit.SECONDS);
+                assertThat(form.parts()).hasSize(1);
+                var part = (MultipartFileStream) form.parts().get(0);
+                assertThat(FlowUtils.toByteArrayFuture(part.content()).join()).isEqualTo(content);
+            }
+            try (var files = Files.list(tempDirectory)) {
+                assertThat(files).isEmpty();
+            }
+        } finally {
+            executorService.shutdownNow();
+            Files.delete(tempDirectory);
+        }
+    }
+
+    private static Flux<ByteBuffer> randomChunks(byte[] body) {
+        return Flux.create(sink -> {
+            var i = 0;
+            while (i < body.length) {
+                var len = Math.min(ThreadLocalRandom.current().nextInt(10), body.length - i);
+                sink.next(ByteBuffer.wrap(body, i, len));
+                i += len;
+            }
+            sink.complete();
+        });
+    }
+
+    private static HttpServerMultipartConfig config(long inMemoryThreshold, @Nullable String tempDirectory) {
+        return new HttpServerMultipartConfig() {
+            @Override
+            public boolean streaming() {
+                return true;
+            }
+
+            @Override
+            public Size inMemoryThreshold() {
+                return Size.of(inMemoryThreshold, Size.Type.BYTES);
+            }
+
+            @Override
+            public String tempDirectory() {
+                return tempDirectory;
+            }
+        };
+    }
+
     static class SimpleHttpServerRequest implements HttpServerRequest {
         private final String method;
         private final String path;
@@ -0,0 +1,159 @@
+package ru.tinkoff.kora.http.server.common.limit;
+
+import jakarta.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitHttpServerInterceptorTest {
+
+    @Test
+    void excessRequestsAreRejected() throws Exception {
+        // given
+        var metrics = Mockito.mock(HttpServerMetrics.class);
+        var interceptor = new ConcurrencyLimitHttpServerInterceptor(config(2, false, null), metrics);
+        var request = request("/foo");
+        var first = new CompletableFuture<HttpServerResponse>();
+        var second = new CompletableFuture<HttpServerResponse>();
+
+        // when
+        var r1 = interceptor.intercept(Context.clear(), request, (ctx, rq) -> first);
+        var r2 = interceptor.intercept(Context.clear(), request, (ctx, rq) -> second);
+        var r3 = interceptor.intercept(Context.clear(), request, (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200)));
+
+        // then
+        assertThat(r1.toCompletableFuture()).isNotDone();
+        assertThat(r2.toCompletableFuture()).isNotDone();
+        var rejected = r3.toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertThat(rejected.code()).isEqualTo(503);
+        assertThat(rejected.headers().getFirst("retry-after")).isEqualTo("1");
+        verify(metrics).concurrencyLimiterCreated(eq(null), any(), any());
+        verify(metrics).concurrencyLimitRejected(null);
+
+        // when
+        first.complete(HttpServerResponse.of(200));
+        var r4 = interceptor.intercept(Context.clear(), request, (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200)));
+
+        // then
+        assertThat(r4.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(200);
+    }
+
+    @Test
+    void failedChainReleasesPermit() throws Exception {
+        // given
+        var interceptor = new ConcurrencyLimitHttpServerInterceptor(config(1, false, null), null);
+        var request = request("/foo");
+
+        // when
+        var failed = interceptor.intercept(Context.clear(), request, (ctx, rq) -> CompletableFuture.failedFuture(new RuntimeException("test")));
+        var next = interceptor.intercept(Context.clear(), request, (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200)));
+
+        // then
+        assertThat(failed.toCompletableFuture()).isCompletedExceptionally();
+        assertThat(next.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(200);
+    }
+
+    @Test
+    void perRouteLimits() throws Exception {
+        // given
+        var metrics = Mockito.mock(HttpServerMetrics.class);
+        var interceptor = new ConcurrencyLimitHttpServerInterceptor(config(1, true, Set.of("/foo", "/bar")), metrics);
+        var pending = new CompletableFuture<HttpServerResponse>();
+
+        // when
+        interceptor.intercept(Context.clear(), request("/foo"), (ctx, rq) -> pending);
+        var foo = interceptor.intercept(Context.clear(), request("/foo"), (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200)));
+        var bar = interceptor.intercept(Context.clear(), request("/bar"), (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200)));
+        var baz = interceptor.intercept(Context.clear(), request("/baz"), (ctx, rq) -> CompletableFuture.completedFuture(HttpServerResponse.of(200)));
+
+        // then
+        assertThat(foo.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(503);
+        assertThat(bar.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(200);
+        assertThat(baz.toCompletableFuture().get(1, TimeUnit.SECONDS).code()).isEqualTo(200);
+        verify(metrics, times(2)).concurrencyLimiterCreated(any(), any(), any());
+        verify(metrics).concurrencyLimitRejected("/foo");
+    }
+
+    @Test
+    void limitDecreasesWhenLatencyGrows() {
+        // given
+        var limit = new GradientConcurrencyLimit(config(100, false, null));
+        for (int i = 0; i < 1000; i++) {
+            fill(limit);
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10));
+            drain(limit);
+        }
+        var stableLimit = limit.limit();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            fill(limit);
+            limit.release(TimeUnit.MILLISECONDS.toNanos(100));
+            drain(limit);
+        }
+
+        // then
+        assertThat(stableLimit).isGreaterThanOrEqualTo(100);
+        assertThat(limit.limit()).isLessThan(stableLimit / 2);
+    }
+
+    private static void fill(GradientConcurrencyLimit limit) {
+        while (limit.tryAcquire()) {
+        }
+    }
+
+    private static void drain(GradientConcurrencyLimit limit) {
+        while (limit.inflight() > 0) {
+            limit.release(-1);
+        }
+    }
+
+    private static HttpServerRequest request(String route) {
+        var request = Mockito.mock(HttpServerRequest.class);
+        when(request.route()).thenReturn(route);
+        return request;
+    }
+
+    private static HttpServerConcurrencyLimitConfig config(int initialLimit, boolean perRoute, @Nullable Set<String> routes) {
+        return new HttpServerConcurrencyLimitConfig() {
+            @Override
+            public boolean enabled() {
+                return true;
+            }
+
+            @Override
+            public int initialLimit() {
+                return initialLimit;
+            }
+
+            @Override
+            public int minLimit() {
+                return 1;
+            }
+
+            @Override
+            public boolean perRoute() {
+                return perRoute;
+            }
+
+            @Override
+            public Set<String> routes() {
+                return routes;
+            }
+        };
+    }
+}
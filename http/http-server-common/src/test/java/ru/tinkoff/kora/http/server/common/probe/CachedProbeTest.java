@@ -0,0 +1,184 @@
+package ru.tinkoff.kora.http.server.common.probe;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.http.server.common.telemetry.PrivateApiMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+class CachedProbeTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final PrivateApiMetrics metrics = Mockito.mock(PrivateApiMetrics.class);
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void probeIsEvaluatedOnEveryRequestWithoutTtl() throws Exception {
+        // given
+        var calls = new AtomicInteger();
+        var probe = this.probe(config(Duration.ofSeconds(1), Duration.ZERO), p -> {
+            calls.incrementAndGet();
+            return null;
+        });
+
+        // when
+        var first = probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var second = probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        assertThat(calls).hasValue(2);
+        verify(this.metrics, Mockito.times(2)).probeEvaluated(eq("readiness"), eq("test"), eq("success"), anyLong());
+    }
+
+    @Test
+    void resultIsCachedForTtl() throws Exception {
+        // given
+        var calls = new AtomicInteger();
+        var probe = this.probe(config(Duration.ofSeconds(1), Duration.ofMinutes(1)), p -> {
+            calls.incrementAndGet();
+            return "Failed";
+        });
+
+        // when
+        var first = probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var second = probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(first).isEqualTo("Failed");
+        assertThat(second).isEqualTo("Failed");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void staleResultIsReturnedWhileRefreshedInBackground() throws Exception {
+        // given
+        var calls = new AtomicInteger();
+        var probe = this.probe(config(Duration.ofSeconds(1), Duration.ofMillis(200)), p -> calls.incrementAndGet() == 1 ? null : "Failed");
+        assertThat(probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS)).isNull();
+        Thread.sleep(120);
+
+        // when
+        var stale = probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(stale).isNull();
+        Thread.sleep(50);
+        assertThat(calls).hasValue(2);
+        assertThat(probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS)).isEqualTo("Failed");
+    }
+
+    @Test
+    void concurrentRequestsShareEvaluation() throws Exception {
+        // given
+        var calls = new AtomicInteger();
+        var latch = new CountDownLatch(1);
+        var probe = this.probe(config(Duration.ofSeconds(5), Duration.ZERO), p -> {
+            calls.incrementAndGet();
+            latch.await();
+            return null;
+        });
+
+        // when
+        var first = probe.evaluate().toCompletableFuture();
+        var second = probe.evaluate().toCompletableFuture();
+        latch.countDown();
+
+        // then
+        assertThat(first.get(1, TimeUnit.SECONDS)).isNull();
+        assertThat(second.get(1, TimeUnit.SECONDS)).isNull();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void slowProbeFailsWithTimeout() throws Exception {
+        // given
+        var latch = new CountDownLatch(1);
+        var probe = this.probe(config(Duration.ofMillis(50), Duration.ZERO), p -> {
+            latch.await();
+            return null;
+        });
+
+        // when
+        var result = probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS);
+        latch.countDown();
+
+        // then
+        assertThat(result).isEqualTo("Probe failed: timeout");
+        verify(this.metrics).probeEvaluated(eq("readiness"), eq("test"), eq("timeout"), anyLong());
+    }
+
+    @Test
+    void hungProbeStaysInflightAndTimeoutIsReturnedMeanwhile() throws Exception {
+        // given
+        var calls = new AtomicInteger();
+        var latch = new CountDownLatch(1);
+        var probe = this.probe(config(Duration.ofMillis(50), Duration.ZERO), p -> {
+            if (calls.incrementAndGet() == 1) {
+                latch.await();
+            }
+            return null;
+        });
+        assertThat(probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS)).isEqualTo("Probe failed: timeout");
+
+        // when
+        var meanwhile = probe.evaluate().toCompletableFuture();
+
+        // then
+        assertThat(meanwhile).isCompletedWithValue("Probe failed: timeout");
+        assertThat(calls).hasValue(1);
+        latch.countDown();
+        verify(this.metrics, Mockito.timeout(1000)).probeEvaluated(eq("readiness"), eq("test"), eq("timeout"), anyLong());
+        Thread.sleep(50);
+        assertThat(probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS)).isNull();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void probeExceptionIsFailure() throws Exception {
+        // given
+        var probe = this.probe(config(Duration.ofSeconds(1), Duration.ZERO), p -> {
+            throw new IllegalStateException("connection refused");
+        });
+
+        // when
+        var result = probe.evaluate().toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(result).isEqualTo("Probe failed: connection refused");
+        verify(this.metrics).probeEvaluated(eq("readiness"), eq("test"), eq("failure"), anyLong());
+    }
+
+    private CachedProbe<Object> probe(HttpServerProbeConfig config, CachedProbe.ProbeFunction<Object> function) {
+        return new CachedProbe<>("readiness", "test", new Object(), function, config, this.executor, () -> this.metrics);
+    }
+
+    private static HttpServerProbeConfig config(Duration timeout, Duration cacheTtl) {
+        return new HttpServerProbeConfig() {
+            @Override
+            public Duration timeout() {
+                return timeout;
+            }
+
+            @Override
+            public Duration cacheTtl() {
+                return cacheTtl;
+            }
+        };
+    }
+}
@@ -0,0 +1,229 @@
+package ru.tinkoff.kora.http.server.common.resource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.body.FileRegionHttpBodyOutput;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+class StaticContentHandlersTest {
+
+    @TempDir
+    Path dir;
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(r -> new Thread(r, "static-blocking"));
+    private final BlockingRequestExecutor executor = new BlockingRequestExecutor.Default(executorService);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void fileIsServedAsFileRegionWithValidators() throws Exception {
+        // given
+        Files.writeString(dir.resolve("app.js"), "console.log(1)");
+        var handler = StaticContentHandlers.directory("/static", dir, "max-age=60", executor);
+
+        // when
+        var response = handle(handler, "app.js", HttpHeaders.of());
+
+        // then
+        assertThat(handler.routeTemplate()).isEqualTo("/static/*");
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(response.body()).isInstanceOf(FileRegionHttpBodyOutput.class);
+        assertThat(response.body().contentType()).isEqualTo("text/javascript; charset=utf-8");
+        assertThat(content(response)).isEqualTo("console.log(1)");
+        assertThat(response.headers().getFirst("etag")).isNotNull();
+        assertThat(response.headers().getFirst("last-modified")).isNotNull();
+        assertThat(response.headers().getFirst("accept-ranges")).isEqualTo("bytes");
+        assertThat(response.headers().getFirst("cache-control")).isEqualTo("max-age=60");
+    }
+
+    @Test
+    void matchingEtagReturnsNotModified() throws Exception {
+        // given
+        Files.writeString(dir.resolve("index.html"), "<html></html>");
+        var handler = StaticContentHandlers.directory("/static", dir, executor);
+        var etag = handle(handler, "index.html", HttpHeaders.of()).headers().getFirst("etag");
+        var lastModified = handle(handler, "", HttpHeaders.of()).headers().getFirst("last-modified");
+
+        // when
+        var byEtag = handle(handler, "index.html", HttpHeaders.of("if-none-match", "\"other\", W/" + etag));
+        var byDate = handle(handler, "index.html", HttpHeaders.of("if-modified-since", lastModified));
+        var changed = handle(handler, "index.html", HttpHeaders.of("if-none-match", "\"other\""));
+
+        // then
+        assertThat(byEtag.code()).isEqualTo(304);
+        assertThat(byEtag.headers().getFirst("etag")).isEqualTo(etag);
+        assertThat(byDate.code()).isEqualTo(304);
+        assertThat(changed.code()).isEqualTo(200);
+    }
+
+    @Test
+    void singleRangeIsServed() throws Exception {
+        // given
+        Files.writeString(dir.resolve("data.txt"), "0123456789");
+        var handler = StaticContentHandlers.directory("/static", dir, executor);
+
+        // when
+        var middle = handle(handler, "data.txt", HttpHeaders.of("range", "bytes=2-4"));
+        var suffix = handle(handler, "data.txt", HttpHeaders.of("range", "bytes=-3"));
+        var unsatisfiable = handle(handler, "data.txt", HttpHeaders.of("range", "bytes=20-"));
+        var multiple = handle(handler, "data.txt", HttpHeaders.of("range", "bytes=0-1,4-5"));
+        var staleIfRange = handle(handler, "data.txt", HttpHeaders.of("range", "bytes=2-4", "if-range", "\"stale\""));
+
+        // then
+        assertThat(middle.code()).isEqualTo(206);
+        assertThat(middle.headers().getFirst("content-range")).isEqualTo("bytes 2-4/10");
+        assertThat(content(middle)).isEqualTo("234");
+        assertThat(suffix.code()).isEqualTo(206);
+        assertThat(content(suffix)).isEqualTo("789");
+        assertThat(unsatisfiable.code()).isEqualTo(416);
+        assertThat(unsatisfiable.headers().getFirst("content-range")).isEqualTo("bytes */10");
+        assertThat(multiple.code()).isEqualTo(200);
+        assertThat(staleIfRange.code()).isEqualTo(200);
+        assertThat(content(staleIfRange)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void fileIsResolvedOnBlockingExecutor() throws Exception {
+        // given
+        Files.writeString(dir.resolve("app.js"), "console.log(1)");
+        var handler = StaticContentHandlers.directory("/static", dir, executor);
+        var request = Mockito.mock(HttpServerRequest.class);
+        var resolvedOn = new CompletableFuture<String>();
+        when(request.pathParams()).thenReturn(Map.of("*", "app.js"));
+        when(request.headers()).then(invocation -> {
+            resolvedOn.complete(Thread.currentThread().getName());
+            return HttpHeaders.of();
+        });
+
+        // when
+        var response = handler.handle(Context.clear(), request).toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(resolvedOn.get(1, TimeUnit.SECONDS)).isEqualTo("static-blocking");
+    }
+
+    @Test
+    void pathOutsideOfDirectoryIsNotFound() throws Exception {
+        // given
+        var root = Files.createDirectory(dir.resolve("public"));
+        Files.writeString(dir.resolve("secret.txt"), "secret");
+        var handler = StaticContentHandlers.directory("/static", root, executor);
+
+        // when
+        var traversal = handle(handler, "../secret.txt", HttpHeaders.of());
+        var missing = handle(handler, "missing.txt", HttpHeaders.of());
+
+        // then
+        assertThat(traversal.code()).isEqualTo(404);
+        assertThat(missing.code()).isEqualTo(404);
+    }
+
+    @Test
+    void classpathResourceIsCachedWithPrecompressedVariant() throws Exception {
+        // given
+        var resources = Files.createDirectories(dir.resolve("static"));
+        Files.writeString(resources.resolve("app.css"), "body {}");
+        Files.writeString(resources.resolve("app.css.gz"), "gzipped");
+        try (var classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null)) {
+            var handler = StaticContentHandlers.classpath("/assets/", classLoader, "static", List.of("app.css"), null, StaticContentHandlers.DEFAULT_MAX_CACHED_SIZE, null);
+            Files.delete(resources.resolve("app.css"));
+
+            // when
+            var identity = handle(handler, "app.css", HttpHeaders.of());
+            var gzip = handle(handler, "app.css", HttpHeaders.of("accept-encoding", "br;q=0, gzip"));
+            var notListed = handle(handler, "app.css.gz", HttpHeaders.of());
+
+            // then
+            assertThat(identity.code()).isEqualTo(200);
+            assertThat(identity.body().getFullContentIfAvailable()).isNotNull();
+            assertThat(content(identity)).isEqualTo("body {}");
+            assertThat(identity.headers().getFirst("vary")).isEqualTo("accept-encoding");
+            assertThat(identity.headers().getFirst("content-encoding")).isNull();
+            assertThat(gzip.code()).isEqualTo(200);
+            assertThat(gzip.headers().getFirst("content-encoding")).isEqualTo("gzip");
+            assertThat(gzip.headers().getFirst("etag")).isNotEqualTo(identity.headers().getFirst("etag"));
+            assertThat(content(gzip)).isEqualTo("gzipped");
+            assertThat(notListed.code()).isEqualTo(404);
+        }
+    }
+
+    @Test
+    void classpathResourceAboveCachedSizeIsReadOnBlockingExecutor() throws Exception {
+        // given
+        var resources = Files.createDirectories(dir.resolve("static"));
+        var content = "0123456789".repeat(10);
+        Files.writeString(resources.resolve("big.txt"), content);
+        var reads = new AtomicInteger();
+        var countingExecutor = new BlockingRequestExecutor() {
+            @Override
+            public <T> CompletionStage<T> execute(Context context, Callable<T> handler) {
+                reads.incrementAndGet();
+                return executor.execute(context, handler);
+            }
+        };
+        try (var classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null)) {
+            assertThatThrownBy(() -> StaticContentHandlers.classpath("/assets", classLoader, "static", List.of("big.txt"), null, 16, null))
+                .isInstanceOf(IllegalArgumentException.class);
+            var handler = StaticContentHandlers.classpath("/assets", classLoader, "static", List.of("big.txt"), null, 16, countingExecutor);
+
+            // when
+            var full = handle(handler, "big.txt", HttpHeaders.of());
+            var range = handle(handler, "big.txt", HttpHeaders.of("range", "bytes=10-24"));
+
+            // then
+            assertThat(reads).hasValue(0);
+            assertThat(full.code()).isEqualTo(200);
+            assertThat(full.body().getFullContentIfAvailable()).isNull();
+            assertThat(full.body().contentLength()).isEqualTo(100);
+            assertThat(content(full)).isEqualTo(content);
+            assertThat(reads).hasPositiveValue();
+            assertThat(range.code()).isEqualTo(206);
+            assertThat(range.headers().getFirst("content-range")).isEqualTo("bytes 10-24/100");
+            assertThat(content(range)).isEqualTo(content.substring(10, 25));
+        }
+    }
+
+    private static HttpServerResponse handle(HttpServerRequestHandler handler, String path, HttpHeaders headers) throws Exception {
+        var request = Mockito.mock(HttpServerRequest.class);
+        when(request.pathParams()).thenReturn(Map.of("*", path));
+        when(request.headers()).thenReturn(headers);
+        return handler.handle(Context.clear(), request).toCompletableFuture().get(1, TimeUnit.SECONDS);
+    }
+
+    private static String content(HttpServerResponse response) throws Exception {
+        var os = new ByteArrayOutputStream();
+        response.body().write(os);
+        return os.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,181 @@
+package ru.tinkoff.kora.http.server.common.router;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathTemplateRouterTests {
+
+    private static final List<String> ROUTES = List.of(
+        "/",
+        "/foo",
+        "/foo/",
+        "/foo/{id}",
+        "/foo/bar",
+        "/foo/{id}/baz",
+        "/foo/bar/{x}",
+        "/w/*",
+        "/w/{id}",
+        "/p*",
+        "/q/{a}/*",
+        "/foo//bar",
+        "/x/{a}/b/{c}",
+        "/x/{a}/{b}/c"
+    );
+
+    static Stream<Arguments> sameAsMatcher() {
+        return Stream.of(
+            "/", "", "/foo", "/foo/", "/foo/1", "/foo/bar", "/foo/1/baz", "/foo/bar/baz", "/foo/bar/",
+            "/w/1", "/w/a/b", "/w", "/w/", "/pq/r", "/p", "/q/1/", "/q/1/y/z", "/q/1", "/foo//bar",
+            "/x/1/b/2", "/x/1/2/c", "/x/1/b/c", "/zzz", "/foo/b%20ar", "/foo/b%3Far/baz"
+        ).map(Arguments::of);
+    }
+
+    @ParameterizedTest
+    @MethodSource("sameAsMatcher")
+    void matchesSameAsPathTemplateMatcher(String path) {
+        // given
+        var matcher = new PathTemplateMatcher<String>();
+        var router = new PathTemplateRouter<String>();
+        for (var route : ROUTES) {
+            matcher.add(route, route);
+            assertThat(router.add(route, route)).isNull();
+        }
+
+        // when
+        var expected = matcher.match(path);
+        var actual = router.match(path);
+
+        // then
+        if (expected == null) {
+            assertThat(actual).isNull();
+        } else {
+            assertThat(actual).isNotNull();
+            assertThat(actual.matchedTemplate()).isEqualTo(expected.matchedTemplate());
+            assertThat(actual.parameters()).containsExactlyEntriesOf(expected.parameters());
+            assertThat(actual.value()).isEqualTo(expected.value());
+        }
+    }
+
+    @Test
+    void equivalentTemplateReturnsPrevious() {
+        // given
+        var router = new PathTemplateRouter<String>();
+        router.add("/foo/{bar}/baz", "first");
+
+        // when
+        var previous = router.add("/foo/{other}/baz", "second");
+
+        // then
+        assertThat(previous).isNotNull();
+        assertThat(previous.getKey().templateString()).isEqualTo("/foo/{bar}/baz");
+        assertThat(previous.getValue()).isEqualTo("first");
+    }
+
+    @Test
+    void equivalentWildcardReturnsPrevious() {
+        // given
+        var router = new PathTemplateRouter<String>();
+        router.add("/foo/*", "first");
+
+        // when
+        var previous = router.add("/foo/*", "second");
+
+        // then
+        assertThat(previous).isNotNull();
+        assertThat(previous.getValue()).isEqualTo("first");
+    }
+
+    @Test
+    void trailingSlashTemplateIsNotEquivalent() {
+        // given
+        var router = new PathTemplateRouter<String>();
+        router.add("/foo/{bar}", "first");
+
+        // when
+        var previous = router.add("/foo/{bar}/", "second");
+
+        // then
+        assertThat(previous).isNull();
+        assertThat(router.match("/foo/1").value()).isEqualTo("first");
+        assertThat(router.match("/foo/1/").value()).isEqualTo("second");
+    }
+
+    @Test
+    void staticSegmentAfterParameterBeforeWildcard() {
+        // given
+        var router = new PathTemplateRouter<String>();
+        router.add("/q/{a}/*", "wildcard");
+        router.add("/q/{a}/x", "static");
+
+        // when
+        var match = router.match("/q/1/x");
+
+        // then
+        assertThat(match).isNotNull();
+        assertThat(match.value()).isEqualTo("static");
+        assertThat(match.parameters()).isEqualTo(Map.of("a", "1"));
+    }
+
+    @Test
+    void backtracksFromStaticBranch() {
+        // given
+        var router = new PathTemplateRouter<String>();
+        router.add("/foo/bar/baz", "static");
+        router.add("/foo/{id}/qux", "template");
+
+        // when
+        var match = router.match("/foo/bar/qux");
+
+        // then
+        assertThat(match).isNotNull();
+        assertThat(match.value()).isEqualTo("template");
+        assertThat(match.parameters()).isEqualTo(Map.of("id", "bar"));
+    }
+
+    @Test
+    void emptySegmentDoesNotMatchParameter() {
+        // given
+        var router = new PathTemplateRouter<String>();
+        router.add("/foo/{id}/bar", "value");
+
+        // when
+        var match = router.match("/foo//bar");
+
+        // then
+        assertThat(match).isNull();
+    }
+
+    @Test
+    void parameterByIndex() {
+        // given
+        var router = new PathTemplateRouter<String>();
+        router.add("/foo/{first}/bar/{second}/*", "value");
+
+        // when
+        var match = router.match("/foo/1/bar/22/some/file");
+
+        // then
+        assertThat(match).isNotNull();
+        assertThat(match.parameter(0, "first")).isEqualTo("1");
+        assertThat(match.parameter(1, "second")).isEqualTo("22");
+        assertThat(match.parameter(0, "second")).isEqualTo("22");
+        assertThat(match.parameter(3, "unknown")).isNull();
+        assertThat(match.parameters()).containsExactly(Map.entry("first", "1"), Map.entry("second", "22"), Map.entry("*", "some/file"));
+    }
+
+    @Test
+    void parameterIndexOfTemplate() {
+        assertThat(PathTemplateRouter.parameterIndex("/foo/{first}/bar/{second}", "first")).isEqualTo(0);
+        assertThat(PathTemplateRouter.parameterIndex("/foo/{first}/bar/{second}", "second")).isEqualTo(1);
+        assertThat(PathTemplateRouter.parameterIndex("/foo/{first}/bar/{second}", "fir")).isEqualTo(-1);
+        assertThat(PathTemplateRouter.parameterIndex("/foo/bar", "first")).isEqualTo(-1);
+    }
+}
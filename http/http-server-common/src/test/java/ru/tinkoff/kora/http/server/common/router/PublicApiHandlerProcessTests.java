@@ -11,10 +11,19 @@ import ru.tinkoff.kora.http.common.body.HttpBody;
 import ru.tinkoff.kora.http.common.body.HttpBodyInput;
 import ru.tinkoff.kora.http.common.header.HttpHeaders;
 import ru.tinkoff.kora.http.server.common.$HttpServerConfig_ConfigValueExtractor.HttpServerConfig_Impl;
+import ru.tinkoff.kora.http.server.common.$HttpServerConfig_HttpServerCompressionConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.$HttpServerConfig_HttpServerHttp2Config_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.HttpServerConfig;
 import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.body.$HttpServerRequestBodyConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.deadline.$HttpServerDeadlineConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.form.$HttpServerMultipartConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandler;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandlerImpl;
+import ru.tinkoff.kora.http.server.common.limit.$HttpServerConcurrencyLimitConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.probe.$HttpServerProbeConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.singleflight.$HttpServerSingleFlightConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.stream.$HttpServerEventStreamConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.$HttpServerLoggerConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.$HttpServerTelemetryConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTelemetry;
@@ -160,6 +169,7 @@ class PublicApiHandlerProcessTests {
             8080,
             8085,
             "/metrics",
+            Duration.ZERO,
             "/system/readiness",
             "/system/liveness",
             ignoreTrailingSlash,
@@ -174,7 +184,16 @@ class PublicApiHandlerProcessTests {
                 new $HttpServerLoggerConfig_ConfigValueExtractor.HttpServerLoggerConfig_Defaults(),
                 new $TelemetryConfig_TracingConfig_ConfigValueExtractor.TracingConfig_Impl(true),
                 new $TelemetryConfig_MetricsConfig_ConfigValueExtractor.MetricsConfig_Impl(null, null)
-            )
+            ),
+            $HttpServerConfig_HttpServerCompressionConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerConfig_HttpServerHttp2Config_ConfigValueExtractor.DEFAULTS,
+            $HttpServerMultipartConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerRequestBodyConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerDeadlineConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerConcurrencyLimitConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerSingleFlightConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerEventStreamConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerProbeConfig_ConfigValueExtractor.DEFAULTS
         );
     }
 
@@ -4,10 +4,19 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import ru.tinkoff.kora.http.server.common.$HttpServerConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.$HttpServerConfig_HttpServerCompressionConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.$HttpServerConfig_HttpServerHttp2Config_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.HttpServerConfig;
 import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.body.$HttpServerRequestBodyConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.deadline.$HttpServerDeadlineConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.form.$HttpServerMultipartConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandler;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandlerImpl;
+import ru.tinkoff.kora.http.server.common.limit.$HttpServerConcurrencyLimitConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.probe.$HttpServerProbeConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.singleflight.$HttpServerSingleFlightConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.stream.$HttpServerEventStreamConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.$HttpServerLoggerConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.$HttpServerTelemetryConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTelemetryFactory;
@@ -151,6 +160,7 @@ class PublicApiHandlerTest {
             0,
             0,
             "/metrics",
+            Duration.ZERO,
             "/system/readiness",
             "/system/liveness",
             ignoreTrailingSlash,
@@ -165,7 +175,16 @@ class PublicApiHandlerTest {
                 new $HttpServerLoggerConfig_ConfigValueExtractor.HttpServerLoggerConfig_Impl(true, true, Collections.emptySet(), Collections.emptySet(), "***", false),
                 new $TelemetryConfig_TracingConfig_ConfigValueExtractor.TracingConfig_Impl(true),
                 new $TelemetryConfig_MetricsConfig_ConfigValueExtractor.MetricsConfig_Impl(true, TelemetryConfig.MetricsConfig.DEFAULT_SLO)
-            ));
+            ),
+            $HttpServerConfig_HttpServerCompressionConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerConfig_HttpServerHttp2Config_ConfigValueExtractor.DEFAULTS,
+            $HttpServerMultipartConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerRequestBodyConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerDeadlineConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerConcurrencyLimitConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerSingleFlightConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerEventStreamConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerProbeConfig_ConfigValueExtractor.DEFAULTS);
     }
 
     private HttpServerRequestHandler handler(String method, String route) {
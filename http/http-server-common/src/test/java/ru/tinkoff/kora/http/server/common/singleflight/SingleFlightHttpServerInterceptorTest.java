@@ -0,0 +1,206 @@
+package ru.tinkoff.kora.http.server.common.singleflight;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.common.util.Size;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.HttpServerRequest;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.HttpServerResponseException;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SingleFlightHttpServerInterceptorTest {
+
+    @Test
+    void identicalRequestsShareSingleResponse() throws Exception {
+        // given
+        var metrics = Mockito.mock(HttpServerMetrics.class);
+        var interceptor = new SingleFlightHttpServerInterceptor(config(), metrics);
+        var calls = new AtomicInteger();
+        var pending = new CompletableFuture<HttpServerResponse>();
+
+        // when
+        var r1 = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        var r2 = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        var r3 = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        pending.complete(HttpServerResponse.of(200, HttpHeaders.of("x-test", "1"), HttpBody.plaintext("content")));
+
+        // then
+        assertThat(calls).hasValue(1);
+        for (var r : List.of(r1, r2, r3)) {
+            var response = r.toCompletableFuture().get(1, TimeUnit.SECONDS);
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.headers().getFirst("x-test")).isEqualTo("1");
+            assertThat(body(response)).isEqualTo("content");
+        }
+        verify(metrics, times(2)).singleFlightCoalesced("/items");
+    }
+
+    @Test
+    void completedFlightIsNotReused() throws Exception {
+        // given
+        var interceptor = new SingleFlightHttpServerInterceptor(config(), null);
+        var calls = new AtomicInteger();
+
+        // when
+        interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> ok(calls, "first"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var second = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> ok(calls, "second"))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(calls).hasValue(2);
+        assertThat(body(second)).isEqualTo("second");
+    }
+
+    @Test
+    void requestsWithDifferentVaryHeadersAreNotCoalesced() throws Exception {
+        // given
+        var interceptor = new SingleFlightHttpServerInterceptor(config(), null);
+        var calls = new AtomicInteger();
+        var pending = new CompletableFuture<HttpServerResponse>();
+
+        // when
+        var first = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of("authorization", "user1")), (ctx, rq) -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        var second = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of("authorization", "user2")), (ctx, rq) -> ok(calls, "user2"));
+        pending.complete(HttpServerResponse.of(200, HttpBody.plaintext("user1")));
+
+        // then
+        assertThat(calls).hasValue(2);
+        assertThat(body(first.toCompletableFuture().get(1, TimeUnit.SECONDS))).isEqualTo("user1");
+        assertThat(body(second.toCompletableFuture().get(1, TimeUnit.SECONDS))).isEqualTo("user2");
+    }
+
+    @Test
+    void notIdempotentAndNotConfiguredRequestsAreNotCoalesced() throws Exception {
+        // given
+        var interceptor = new SingleFlightHttpServerInterceptor(config(), null);
+        var calls = new AtomicInteger();
+        var pending = new CompletableFuture<HttpServerResponse>();
+
+        // when
+        interceptor.intercept(Context.clear(), request("POST", "/items", HttpHeaders.of()), (ctx, rq) -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        interceptor.intercept(Context.clear(), request("POST", "/items", HttpHeaders.of()), (ctx, rq) -> ok(calls, "post"));
+        interceptor.intercept(Context.clear(), request("GET", "/other", HttpHeaders.of()), (ctx, rq) -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        interceptor.intercept(Context.clear(), request("GET", "/other", HttpHeaders.of()), (ctx, rq) -> ok(calls, "other"));
+
+        // then
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void waitersAreProcessedWhenResponseCanNotBeShared() throws Exception {
+        // given
+        var interceptor = new SingleFlightHttpServerInterceptor(config(), null);
+        var calls = new AtomicInteger();
+        var pending = new CompletableFuture<HttpServerResponse>();
+
+        // when
+        var first = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        var second = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> ok(calls, "second"));
+        pending.complete(HttpServerResponse.of(200, HttpHeaders.of("set-cookie", "session=1"), HttpBody.plaintext("first")));
+
+        // then
+        assertThat(body(first.toCompletableFuture().get(1, TimeUnit.SECONDS))).isEqualTo("first");
+        assertThat(body(second.toCompletableFuture().get(1, TimeUnit.SECONDS))).isEqualTo("second");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void failureIsPropagatedToWaiters() throws Exception {
+        // given
+        var interceptor = new SingleFlightHttpServerInterceptor(config(), null);
+        var pending = new CompletableFuture<HttpServerResponse>();
+
+        // when
+        var first = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> pending);
+        var second = interceptor.intercept(Context.clear(), request("GET", "/items", HttpHeaders.of()), (ctx, rq) -> pending);
+        pending.completeExceptionally(HttpServerResponseException.of(503, "unavailable"));
+
+        // then
+        assertThatThrownBy(() -> first.toCompletableFuture().get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseInstanceOf(HttpServerResponseException.class);
+        assertThatThrownBy(() -> second.toCompletableFuture().get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseInstanceOf(HttpServerResponseException.class);
+    }
+
+    private static CompletableFuture<HttpServerResponse> ok(AtomicInteger calls, String content) {
+        calls.incrementAndGet();
+        return CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext(content)));
+    }
+
+    private static String body(HttpServerResponse response) throws Exception {
+        return new String(FlowUtils.toByteArrayFuture(response.body()).get(1, TimeUnit.SECONDS), StandardCharsets.UTF_8);
+    }
+
+    private static HttpServerRequest request(String method, String route, HttpHeaders headers) {
+        var request = Mockito.mock(HttpServerRequest.class);
+        when(request.method()).thenReturn(method);
+        when(request.route()).thenReturn(route);
+        when(request.path()).thenReturn(route);
+        when(request.headers()).thenReturn(headers);
+        doReturn(Map.of()).when(request).queryParams();
+        return request;
+    }
+
+    private static HttpServerSingleFlightConfig config() {
+        return new HttpServerSingleFlightConfig() {
+            @Override
+            public boolean enabled() {
+                return true;
+            }
+
+            @Override
+            public Set<String> routes() {
+                return Set.of("/items");
+            }
+
+            @Override
+            public Size maxBodySize() {
+                return Size.of(1, Size.Type.KiB);
+            }
+        };
+    }
+}
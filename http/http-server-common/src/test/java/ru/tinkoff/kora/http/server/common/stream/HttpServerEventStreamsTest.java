@@ -0,0 +1,194 @@
+package ru.tinkoff.kora.http.server.common.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.common.util.Size;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class HttpServerEventStreamsTest {
+
+    private final HttpServerMetrics metrics = Mockito.mock(HttpServerMetrics.class);
+    private final HttpServerEventStreams streams = new HttpServerEventStreams(new HttpServerEventStreamConfig() {
+        @Override
+        public Size maxBufferedSize() {
+            return Size.of(64, Size.Type.BYTES);
+        }
+
+        @Override
+        public int prefetch() {
+            return 4;
+        }
+    }, metrics);
+
+    @BeforeEach
+    void setUp() {
+        streams.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streams.release();
+    }
+
+    @Test
+    void sseEventIsEncodedWithAllFields() {
+        // given
+        var event = new ServerSentEvent("1", "update", "line1\nline2", Duration.ofSeconds(1));
+
+        // when
+        var encoded = new String(HttpServerEventStreams.encode(event), StandardCharsets.UTF_8);
+
+        // then
+        assertThat(encoded).isEqualTo("id: 1\nevent: update\nretry: 1000\ndata: line1\ndata: line2\n\n");
+    }
+
+    @Test
+    void eventsAreWrittenOnDemandAndUpstreamIsReplenished() {
+        // given
+        var publisher = new TestPublisher();
+        var subscriber = new TestSubscriber();
+        streams.sseBody(publisher).subscribe(subscriber);
+
+        // then
+        assertThat(publisher.requested.get()).isEqualTo(4);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            publisher.next(ServerSentEvent.of("e" + i));
+        }
+
+        // then
+        assertThat(subscriber.chunks).isEmpty();
+
+        // when
+        subscriber.subscription.request(4);
+
+        // then
+        assertThat(subscriber.chunks).containsExactly("data: e0\n\n", "data: e1\n\n", "data: e2\n\n", "data: e3\n\n");
+        assertThat(publisher.requested.get()).isGreaterThan(4);
+        verify(metrics, times(4)).eventStreamBuffered(anyLong());
+
+        // when
+        publisher.complete();
+
+        // then
+        assertThat(subscriber.completed).isTrue();
+        verify(metrics).eventStreamStarted();
+        verify(metrics).eventStreamFinished(false);
+    }
+
+    @Test
+    void slowConsumerIsEvictedWhenBufferOverflows() {
+        // given
+        var publisher = new TestPublisher();
+        var subscriber = new TestSubscriber();
+        streams.sseBody(publisher).subscribe(subscriber);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            publisher.next(ServerSentEvent.of("event number " + i));
+        }
+
+        // then
+        assertThat(publisher.cancelled).isTrue();
+        assertThat(subscriber.error).isInstanceOf(SlowEventStreamConsumerException.class);
+        verify(metrics, never()).eventStreamBuffered(anyLong());
+        verify(metrics).eventStreamFinished(true);
+    }
+
+    @Test
+    void ndjsonItemsAreSeparatedWithLineBreaks() {
+        // given
+        var publisher = new TestPublisher();
+        var subscriber = new TestSubscriber();
+        streams.ndjsonBody(publisher, e -> ("{\"data\":\"" + e.data() + "\"}").getBytes(StandardCharsets.UTF_8)).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        // when
+        publisher.next(ServerSentEvent.of("a"));
+        publisher.next(ServerSentEvent.of("b"));
+        publisher.complete();
+
+        // then
+        assertThat(String.join("", subscriber.chunks)).isEqualTo("{\"data\":\"a\"}\n{\"data\":\"b\"}\n");
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    /**
+     * Hot publisher that emits regardless of demand, like a broadcast of server side events
+     */
+    private static final class TestPublisher implements Flow.Publisher<ServerSentEvent> {
+        private final AtomicLong requested = new AtomicLong();
+        private volatile boolean cancelled;
+        private Flow.Subscriber<? super ServerSentEvent> subscriber;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ServerSentEvent> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+
+        void next(ServerSentEvent event) {
+            if (!cancelled) {
+                subscriber.onNext(event);
+            }
+        }
+
+        void complete() {
+            subscriber.onComplete();
+        }
+    }
+
+    private static final class TestSubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final List<String> chunks = new CopyOnWriteArrayList<>();
+        private Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            chunks.add(StandardCharsets.UTF_8.decode(item).toString());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+}
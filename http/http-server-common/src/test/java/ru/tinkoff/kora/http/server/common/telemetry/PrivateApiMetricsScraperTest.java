@@ -0,0 +1,68 @@
+package ru.tinkoff.kora.http.server.common.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrivateApiMetricsScraperTest {
+    private final AtomicInteger scrapes = new AtomicInteger();
+    private final PrivateApiMetrics metrics = () -> "metric_total " + this.scrapes.incrementAndGet() + "\n";
+    private final PrivateApiMetricsScraper scraper = new PrivateApiMetricsScraper(Runnable::run);
+
+    @Test
+    void expositionIsWrittenToStreamWithoutCache() throws Exception {
+        // when
+        var response = this.scraper.scrape(this.metrics, null, Duration.ZERO).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var out = new ByteArrayOutputStream();
+        response.body().write(out);
+
+        // then
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(response.body().contentLength()).isEqualTo(-1);
+        assertThat(response.headers().has("content-encoding")).isFalse();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("metric_total 1\n");
+    }
+
+    @Test
+    void expositionIsGzippedWhenAccepted() throws Exception {
+        // when
+        var response = this.scraper.scrape(this.metrics, "deflate, gzip;q=0.5", Duration.ZERO).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var out = new ByteArrayOutputStream();
+        response.body().write(out);
+
+        // then
+        assertThat(response.headers().getFirst("content-encoding")).isEqualTo("gzip");
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("metric_total 1\n");
+        }
+    }
+
+    @Test
+    void cachedExpositionIsSharedForTtl() throws Exception {
+        // when
+        var first = this.scraper.scrape(this.metrics, null, Duration.ofMinutes(1)).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        var second = this.scraper.scrape(this.metrics, null, Duration.ofMinutes(1)).toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(this.scrapes).hasValue(1);
+        assertThat(first.body().getFullContentIfAvailable()).isEqualTo(second.body().getFullContentIfAvailable());
+        assertThat(second.body().contentLength()).isEqualTo("metric_total 1\n".length());
+    }
+
+    @Test
+    void gzipNegotiation() {
+        assertThat(PrivateApiMetricsScraper.acceptsGzip(null)).isFalse();
+        assertThat(PrivateApiMetricsScraper.acceptsGzip("gzip")).isTrue();
+        assertThat(PrivateApiMetricsScraper.acceptsGzip("identity, *")).isTrue();
+        assertThat(PrivateApiMetricsScraper.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PrivateApiMetricsScraper.acceptsGzip("deflate, br")).isFalse();
+    }
+}
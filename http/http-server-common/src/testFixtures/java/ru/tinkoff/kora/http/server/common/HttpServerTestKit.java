@@ -4,11 +4,13 @@ import jakarta.annotation.Nullable;
 import okhttp3.ConnectionPool;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okio.BufferedSink;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -39,13 +41,24 @@ import ru.tinkoff.kora.common.util.ReactorUtils;
 import ru.tinkoff.kora.http.common.HttpResultCode;
 import ru.tinkoff.kora.http.common.body.HttpBody;
 import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
+import ru.tinkoff.kora.http.common.body.PooledHttpBodyInput;
 import ru.tinkoff.kora.http.common.header.HttpHeaders;
 import ru.tinkoff.kora.http.common.header.MutableHttpHeaders;
 import ru.tinkoff.kora.http.server.common.$HttpServerConfig_ConfigValueExtractor.HttpServerConfig_Impl;
+import ru.tinkoff.kora.http.server.common.body.$HttpServerRequestBodyConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.deadline.$HttpServerDeadlineConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.form.$HttpServerMultipartConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandler;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestMapper;
+import ru.tinkoff.kora.http.server.common.limit.$HttpServerConcurrencyLimitConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.probe.$HttpServerProbeConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.http.server.common.singleflight.$HttpServerSingleFlightConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.stream.$HttpServerEventStreamConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.http.server.common.stream.HttpServerEventStreamConfig;
+import ru.tinkoff.kora.http.server.common.stream.HttpServerEventStreams;
+import ru.tinkoff.kora.http.server.common.stream.ServerSentEvent;
 import ru.tinkoff.kora.http.server.common.telemetry.$HttpServerLoggerConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.$HttpServerTelemetryConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.telemetry.DefaultHttpServerTelemetryFactory;
@@ -59,15 +72,20 @@ import ru.tinkoff.kora.telemetry.common.$TelemetryConfig_MetricsConfig_ConfigVal
 import ru.tinkoff.kora.telemetry.common.$TelemetryConfig_TracingConfig_ConfigValueExtractor;
 import ru.tinkoff.kora.telemetry.common.TelemetryConfig;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentLinkedDeque;
@@ -80,6 +98,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static java.time.Instant.now;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -125,6 +145,8 @@ public abstract class HttpServerTestKit {
             return metrics;
         }
     };
+    protected HttpServerConfig.HttpServerCompressionConfig compression = $HttpServerConfig_HttpServerCompressionConfig_ConfigValueExtractor.DEFAULTS;
+    protected HttpServerConfig.HttpServerHttp2Config http2 = $HttpServerConfig_HttpServerHttp2Config_ConfigValueExtractor.DEFAULTS;
     protected HttpServerLogger logger = Mockito.mock(HttpServerLogger.class);
     protected HttpServerLoggerFactory loggerFactory = new HttpServerLoggerFactory() {
         @Nullable
@@ -512,6 +534,258 @@ public abstract class HttpServerTestKit {
         //todo request body tests
     }
 
+    @Nested
+    public class CompressionTest {
+        private static final String TEXT = "hello world ".repeat(1000);
+
+        @BeforeEach
+        void setUp() {
+            compression = new $HttpServerConfig_HttpServerCompressionConfig_ConfigValueExtractor.HttpServerCompressionConfig_Impl(true, 64, Set.of("text/plain"), 6, 4);
+        }
+
+        @Test
+        void testFullBodyGzip() throws IOException {
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext(TEXT))));
+            startServer(handler);
+
+            var request = request("/")
+                .header("Accept-Encoding", "deflate;q=0.5, gzip")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+                assertThat(response.header("Vary")).isEqualToIgnoringCase("Accept-Encoding");
+                var compressed = response.body().bytes();
+                assertThat(compressed.length).isLessThan(TEXT.length());
+                try (var is = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                    assertThat(new String(is.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(TEXT);
+                }
+            }
+            verify(metrics, timeout(100)).responseCompressed(eq("gzip"), eq((long) TEXT.length()), Mockito.anyLong());
+        }
+
+        @Test
+        void testStreamingBodyDeflate() throws IOException {
+            var chunks = Flux.range(0, 10).map(i -> ByteBuffer.wrap(TEXT.getBytes(StandardCharsets.UTF_8)));
+            var httpResponse = httpResponse(200, -1, "text/plain; charset=utf-8", JdkFlowAdapter.publisherToFlowPublisher(chunks));
+            var handler = handler(GET, "/", request -> Mono.delay(Duration.ofMillis(10)).thenReturn(httpResponse));
+            startServer(handler);
+
+            var request = request("/")
+                .header("Accept-Encoding", "deflate")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("Content-Encoding")).isEqualTo("deflate");
+                try (var is = new InflaterInputStream(response.body().byteStream())) {
+                    assertThat(new String(is.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(TEXT.repeat(10));
+                }
+            }
+        }
+
+        @Test
+        void testBlockingBodyGzip() throws IOException {
+            var body = new HttpBodyOutput() {
+                @Override
+                public long contentLength() {
+                    return -1;
+                }
+
+                @Override
+                public String contentType() {
+                    return "text/plain";
+                }
+
+                @Override
+                public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+                    throw new IllegalStateException();
+                }
+
+                @Override
+                public void write(OutputStream os) throws IOException {
+                    for (int i = 0; i < 10; i++) {
+                        os.write(TEXT.getBytes(StandardCharsets.UTF_8));
+                        os.flush();
+                    }
+                }
+
+                @Override
+                public void close() {}
+            };
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.supplyAsync(() -> HttpServerResponse.of(200, body), CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS)));
+            startServer(handler);
+
+            var request = request("/")
+                .header("Accept-Encoding", "gzip")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+                try (var is = new GZIPInputStream(response.body().byteStream())) {
+                    assertThat(new String(is.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(TEXT.repeat(10));
+                }
+            }
+        }
+
+        @Test
+        void testSmallBodyIsNotCompressed() throws IOException {
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext("hello world"))));
+            startServer(handler);
+
+            var request = request("/")
+                .header("Accept-Encoding", "gzip")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("Content-Encoding")).isNull();
+                assertThat(response.body().string()).isEqualTo("hello world");
+            }
+        }
+
+        @Test
+        void testStrongEtagIsWeakenedWhenCompressed() throws IOException {
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpHeaders.of("etag", "\"abc\""), HttpBody.plaintext(TEXT))));
+            startServer(handler);
+
+            var request = request("/")
+                .header("Accept-Encoding", "gzip")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+                assertThat(response.header("ETag")).isEqualTo("W/\"abc\"");
+            }
+        }
+
+        @Test
+        void testPartialContentIsNotCompressed() throws IOException {
+            var part = TEXT.substring(0, 1000);
+            var headers = HttpHeaders.of("content-range", "bytes 0-999/" + TEXT.length(), "etag", "\"abc\"");
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(206, headers, HttpBody.plaintext(part))));
+            startServer(handler);
+
+            var request = request("/")
+                .header("Accept-Encoding", "gzip")
+                .header("Range", "bytes=0-999")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(206);
+                assertThat(response.header("Content-Encoding")).isNull();
+                assertThat(response.header("ETag")).isEqualTo("\"abc\"");
+                assertThat(response.body().string()).isEqualTo(part);
+            }
+        }
+
+        @Test
+        void testNotAcceptedEncodingIsNotCompressed() throws IOException {
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext(TEXT))));
+            startServer(handler);
+
+            var request = request("/")
+                .header("Accept-Encoding", "gzip;q=0, br")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("Content-Encoding")).isNull();
+                assertThat(response.body().string()).isEqualTo(TEXT);
+            }
+        }
+    }
+
+    @Nested
+    public class Http2Test {
+        private final HttpClient http2Client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+
+        @BeforeEach
+        void setUp() {
+            http2 = new $HttpServerConfig_HttpServerHttp2Config_ConfigValueExtractor.HttpServerHttp2Config_Impl(true, 100, 65535, 16384);
+        }
+
+        @Test
+        void testUpgradeToH2c() throws Exception {
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext("hello world"))));
+            startServer(handler);
+            var request = java.net.http.HttpRequest.newBuilder(URI.create("http://localhost:%d/".formatted(httpServer.port()))).GET().build();
+
+            var upgrade = http2Client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
+            var response = http2Client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
+
+            assertThat(upgrade.statusCode()).isEqualTo(200);
+            assertThat(upgrade.body()).isEqualTo("hello world");
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).isEqualTo("hello world");
+            assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        }
+
+        @Test
+        void testConcurrentStreams() throws Exception {
+            var httpResponse = HttpServerResponse.of(200, HttpBody.plaintext("hello world"));
+            var handler = handler(GET, "/", request -> Mono.delay(Duration.ofMillis(ThreadLocalRandom.current().nextInt(10, 100))).thenReturn(httpResponse));
+            startServer(handler);
+            var request = java.net.http.HttpRequest.newBuilder(URI.create("http://localhost:%d/".formatted(httpServer.port()))).GET().build();
+            http2Client.send(request, java.net.http.HttpResponse.BodyHandlers.discarding());
+
+            var futures = new ArrayList<CompletableFuture<java.net.http.HttpResponse<String>>>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(http2Client.sendAsync(request, java.net.http.HttpResponse.BodyHandlers.ofString()));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            for (var future : futures) {
+                var response = future.get();
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.body()).isEqualTo("hello world");
+                assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+            }
+            verifyResponse("GET", "/", 200, HttpResultCode.SUCCESS, "localhost", "http", ArgumentMatchers::isNull, anyLong(), timeout(100).times(51));
+        }
+
+        @Test
+        void testPriorKnowledge() throws IOException {
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext("hello world"))));
+            startServer(handler);
+            var priorKnowledgeClient = client.newBuilder()
+                .protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE))
+                .build();
+
+            try (var response = priorKnowledgeClient.newCall(request("/").get().build()).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.protocol()).isEqualTo(Protocol.H2_PRIOR_KNOWLEDGE);
+                assertThat(response.body().string()).isEqualTo("hello world");
+            }
+        }
+
+        @Test
+        void testDisabled() throws Exception {
+            http2 = $HttpServerConfig_HttpServerHttp2Config_ConfigValueExtractor.DEFAULTS;
+            var handler = handler(GET, "/", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext("hello world"))));
+            startServer(handler);
+            var request = java.net.http.HttpRequest.newBuilder(URI.create("http://localhost:%d/".formatted(httpServer.port()))).GET().build();
+
+            http2Client.send(request, java.net.http.HttpResponse.BodyHandlers.discarding());
+            var response = http2Client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_1_1);
+        }
+    }
+
     @Test
     void testHelloWorld() throws IOException, InterruptedException {
         var httpResponse = HttpServerResponse.of(200, HttpBody.plaintext("hello world"));
@@ -899,6 +1173,76 @@ public abstract class HttpServerTestKit {
 
     }
 
+    @Test
+    void testPooledRequestBody() throws IOException {
+        var bodies = new ConcurrentLinkedDeque<byte[]>();
+        for (var size : new int[]{100, 64 * 1024, 5 * 1024 * 1024}) {
+            var buf = new byte[size];
+            ThreadLocalRandom.current().nextBytes(buf);
+            bodies.add(buf);
+        }
+        var handler = handler(POST, "/", request -> {
+            var body = request.body();
+            var content = body instanceof PooledHttpBodyInput pooled
+                ? pooled.readPooled(buffer -> {
+                    var data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                    return data;
+                })
+                : body.asArrayStage();
+            return Mono.fromCompletionStage(content).map(data -> Arrays.equals(data, bodies.peek())
+                ? HttpServerResponse.of(200, HttpBody.plaintext("ok"))
+                : HttpServerResponse.of(500, HttpBody.plaintext("content mismatch")));
+        });
+
+        this.startServer(handler);
+        byte[] buf;
+        while ((buf = bodies.peek()) != null) {
+            var request = request("/")
+                .post(RequestBody.create(buf))
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.body().string()).isEqualTo("ok");
+            }
+            bodies.poll();
+        }
+    }
+
+    @Test
+    void testEventStream() throws Exception {
+        var streams = new HttpServerEventStreams(new HttpServerEventStreamConfig() {
+            @Override
+            public Duration heartbeatInterval() {
+                return Duration.ofMillis(100);
+            }
+        }, null);
+        streams.init();
+        try {
+            var events = Flux.just(ServerSentEvent.of("1", "price", "100"), ServerSentEvent.of("2", "price", "line1\nline2"))
+                .concatWith(Mono.delay(Duration.ofMillis(500)).then(Mono.<ServerSentEvent>empty()));
+            var handler = handler(GET, "/", request -> Mono.just(streams.sse(JdkFlowAdapter.publisherToFlowPublisher(events))));
+
+            this.startServer(handler);
+
+            var request = request("/")
+                .get()
+                .build();
+
+            try (var response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.header("content-type")).startsWith("text/event-stream");
+                assertThat(response.header("cache-control")).isEqualTo("no-cache");
+                assertThat(response.body().string())
+                    .startsWith("id: 1\nevent: price\ndata: 100\n\nid: 2\nevent: price\ndata: line1\ndata: line2\n\n")
+                    .contains(":\n\n");
+            }
+        } finally {
+            streams.release();
+        }
+    }
+
     @Test
     void testSyncByteArrayRequestMapper() throws IOException {
         var module = new HttpServerRequestMapperModule() {};
@@ -1128,6 +1472,7 @@ public abstract class HttpServerTestKit {
             0,
             0,
             "/metrics",
+            Duration.ZERO,
             "/system/readiness",
             "/system/liveness",
             ignoreTrailingSlash,
@@ -1142,7 +1487,16 @@ public abstract class HttpServerTestKit {
                 new $HttpServerLoggerConfig_ConfigValueExtractor.HttpServerLoggerConfig_Impl(true, true, Collections.emptySet(), Collections.emptySet(), "***", false),
                 new $TelemetryConfig_TracingConfig_ConfigValueExtractor.TracingConfig_Impl(true),
                 new $TelemetryConfig_MetricsConfig_ConfigValueExtractor.MetricsConfig_Impl(true, TelemetryConfig.MetricsConfig.DEFAULT_SLO)
-            )
+            ),
+            this.compression,
+            this.http2,
+            $HttpServerMultipartConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerRequestBodyConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerDeadlineConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerConcurrencyLimitConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerSingleFlightConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerEventStreamConfig_ConfigValueExtractor.DEFAULTS,
+            $HttpServerProbeConfig_ConfigValueExtractor.DEFAULTS
         );
         var publicApiHandler = new PublicApiHandler(List.of(handlers), interceptors, new DefaultHttpServerTelemetryFactory(this.loggerFactory, this.metricsFactory, null), config);
         this.httpServer = this.httpServer(valueOf(config), publicApiHandler);
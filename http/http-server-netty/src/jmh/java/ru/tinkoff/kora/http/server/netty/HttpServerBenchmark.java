@@ -0,0 +1,208 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.undertow.server.DefaultByteBufferPool;
+import org.openjdk.jmh.annotations.*;
+import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.server.common.HttpServer;
+import ru.tinkoff.kora.http.server.common.HttpServerConfig;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestHandlerImpl;
+import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTelemetryConfig;
+import ru.tinkoff.kora.http.server.undertow.UndertowHttpServer;
+import ru.tinkoff.kora.http.server.undertow.UndertowPublicApiHandler;
+import ru.tinkoff.kora.netty.common.NettyChannelFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Netty and Undertow public HTTP servers in the style of wrk: every benchmark thread is a keep-alive HTTP/1.1 connection sending requests one after another
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Measurement(time = 5, iterations = 5)
+@Warmup(time = 5, iterations = 3)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+@Fork(1)
+public class HttpServerBenchmark {
+    private static final String RESPONSE = "hello world";
+
+    @Param({"netty", "undertow"})
+    public String server;
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private HttpServer httpServer;
+
+    @Setup
+    public void setup() {
+        var config = new BenchmarkConfig();
+        var handler = HttpServerRequestHandlerImpl.get("/hello", (ctx, request) -> CompletableFuture.completedFuture(HttpServerResponse.of(200, HttpBody.plaintext(RESPONSE))));
+        var publicApiHandler = new PublicApiHandler(List.of(handler), List.of(), telemetryConfig -> null, config);
+        var threads = Runtime.getRuntime().availableProcessors();
+        this.httpServer = switch (this.server) {
+            case "netty" -> {
+                this.bossGroup = new NioEventLoopGroup(1);
+                this.workerGroup = new NioEventLoopGroup(threads);
+                var channelFactory = new NettyChannelFactory() {
+                    @Override
+                    public ChannelFactory<Channel> getClientFactory(boolean domainSocket) {
+                        return NioSocketChannel::new;
+                    }
+
+                    @Override
+                    public ChannelFactory<ServerChannel> getServerFactory(boolean domainSocket) {
+                        return NioServerSocketChannel::new;
+                    }
+                };
+                yield new NettyHttpServer(valueOf(config), valueOf(new NettyPublicApiHandler(publicApiHandler, null, null)), this.bossGroup, this.workerGroup, channelFactory);
+            }
+            case "undertow" -> new UndertowHttpServer(valueOf(config), valueOf(new UndertowPublicApiHandler(publicApiHandler, null)), null, new DefaultByteBufferPool(true, 16 * 1024 - 20));
+            default -> throw new IllegalArgumentException(this.server);
+        };
+        this.httpServer.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.httpServer.release();
+        if (this.bossGroup != null) {
+            this.bossGroup.shutdownGracefully().syncUninterruptibly();
+            this.workerGroup.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Connection {
+        private Socket socket;
+        private OutputStream out;
+        private InputStream in;
+        private byte[] request;
+        private final byte[] buffer = new byte[8 * 1024];
+
+        @Setup
+        public void setup(HttpServerBenchmark benchmark) throws IOException {
+            this.socket = new Socket();
+            this.socket.setTcpNoDelay(true);
+            this.socket.connect(new InetSocketAddress("localhost", benchmark.httpServer.port()));
+            this.out = this.socket.getOutputStream();
+            this.in = this.socket.getInputStream();
+            this.request = "GET /hello HTTP/1.1\r\nHost: localhost\r\nAccept: */*\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            this.socket.close();
+        }
+
+        /**
+         * Reads single response with content length, response head and body are expected to fit the buffer
+         */
+        int exchange() throws IOException {
+            this.out.write(this.request);
+            this.out.flush();
+            var read = 0;
+            var bodyStart = -1;
+            var contentLength = -1;
+            while (true) {
+                var n = this.in.read(this.buffer, read, this.buffer.length - read);
+                if (n < 0) {
+                    throw new IOException("Connection closed");
+                }
+                read += n;
+                if (bodyStart < 0) {
+                    bodyStart = indexOfHeadEnd(this.buffer, read);
+                    if (bodyStart >= 0) {
+                        contentLength = contentLength(this.buffer, bodyStart);
+                    }
+                }
+                if (bodyStart >= 0 && read >= bodyStart + contentLength) {
+                    return read;
+                }
+            }
+        }
+
+        private static int indexOfHeadEnd(byte[] buffer, int length) {
+            for (int i = 3; i < length; i++) {
+                if (buffer[i] == '\n' && buffer[i - 1] == '\r' && buffer[i - 2] == '\n' && buffer[i - 3] == '\r') {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+
+        private static int contentLength(byte[] buffer, int headLength) {
+            var head = new String(buffer, 0, headLength, StandardCharsets.US_ASCII);
+            for (var line : head.split("\r\n")) {
+                var colon = line.indexOf(':');
+                if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("content-length")) {
+                    return Integer.parseInt(line.substring(colon + 1).trim());
+                }
+            }
+            throw new IllegalStateException("Response without content-length: " + head);
+        }
+    }
+
+    @Benchmark
+    public int helloWorld(Connection connection) throws IOException {
+        return connection.exchange();
+    }
+
+    private static <T> ValueOf<T> valueOf(T instance) {
+        return new ValueOf<>() {
+            @Override
+            public T get() {
+                return instance;
+            }
+
+            @Override
+            public void refresh() {
+            }
+        };
+    }
+
+    private static final class BenchmarkConfig implements HttpServerConfig {
+        @Override
+        public int publicApiHttpPort() {
+            return 0;
+        }
+
+        @Override
+        public Duration shutdownWait() {
+            return Duration.ofMillis(100);
+        }
+
+        @Override
+        public HttpServerTelemetryConfig telemetry() {
+            return null;
+        }
+
+        @Override
+        public HttpServerCompressionConfig compression() {
+            return new HttpServerCompressionConfig() {};
+        }
+
+        @Override
+        public HttpServerHttp2Config http2() {
+            return new HttpServerHttp2Config() {};
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Writes response body from a blocking thread in chunks of channel allocator buffers, waiting for the write of a chunk when the channel is not writable.
+ * Response headers are written with the first chunk, so response can still be replaced while nothing is {@link #isStarted() started}.
+ */
+final class NettyChunkedOutputStream extends OutputStream {
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final ChannelHandlerContext ctx;
+    private final HttpResponse response;
+    @Nullable
+    private ByteBuf buffer;
+    private boolean started;
+    private boolean closed;
+
+    NettyChunkedOutputStream(ChannelHandlerContext ctx, HttpResponse response) {
+        this.ctx = ctx;
+        this.response = response;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            var buffer = this.buffer;
+            if (buffer == null) {
+                buffer = this.buffer = this.ctx.alloc().buffer(CHUNK_SIZE);
+            }
+            var toWrite = Math.min(len, buffer.writableBytes());
+            buffer.writeBytes(b, off, toWrite);
+            off += toWrite;
+            len -= toWrite;
+            if (!buffer.isWritable()) {
+                this.writeChunk(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.writeChunk(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.writeChunk(false);
+        this.start();
+        await(this.ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT));
+    }
+
+    boolean isStarted() {
+        return this.started;
+    }
+
+    /**
+     * Releases buffered chunk that is not written yet
+     */
+    void discard() {
+        var buffer = this.buffer;
+        if (buffer != null) {
+            this.buffer = null;
+            buffer.release();
+        }
+    }
+
+    private void writeChunk(boolean flush) throws IOException {
+        var buffer = this.buffer;
+        if (buffer == null || !buffer.isReadable()) {
+            return;
+        }
+        this.buffer = null;
+        this.start();
+        // chunk is flushed before waiting for it, otherwise its write would never complete
+        var writable = this.ctx.channel().isWritable();
+        var future = flush || !writable
+            ? this.ctx.writeAndFlush(new DefaultHttpContent(buffer))
+            : this.ctx.write(new DefaultHttpContent(buffer));
+        if (!writable) {
+            await(future);
+        }
+    }
+
+    private void start() {
+        if (!this.started) {
+            this.started = true;
+            this.ctx.write(this.response);
+        }
+    }
+
+    private static void await(ChannelFuture future) throws IOException {
+        try {
+            future.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (!future.isSuccess()) {
+            throw new IOException(future.cause());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
+
+import java.util.List;
+
+final class NettyCompressionExchange implements HttpServerResponseCompression.Exchange {
+    private final HttpRequest request;
+    private final HttpResponse response;
+
+    NettyCompressionExchange(HttpRequest request, HttpResponse response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    @Override
+    public int statusCode() {
+        return this.response.status().code();
+    }
+
+    @Override
+    public boolean isHeadRequest() {
+        return HttpMethod.HEAD.equals(this.request.method());
+    }
+
+    @Override
+    public List<String> requestHeaders(String name) {
+        return this.request.headers().getAll(name);
+    }
+
+    @Override
+    public List<String> responseHeaders(String name) {
+        return this.response.headers().getAll(name);
+    }
+
+    @Override
+    public void setResponseHeader(String name, String value) {
+        this.response.headers().set(name, value);
+    }
+
+    @Override
+    public void addResponseHeader(String name, String value) {
+        this.response.headers().add(name, value);
+    }
+
+    @Override
+    public void removeResponseHeader(String name) {
+        this.response.headers().remove(name);
+    }
+}
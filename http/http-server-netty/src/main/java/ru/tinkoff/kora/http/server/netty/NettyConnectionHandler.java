@@ -0,0 +1,194 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.kora.http.common.body.HttpBody;
+import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.server.netty.request.NettyRequestHttpBody;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handles requests of a single connection or of a single http2 stream one by one.
+ * <p>
+ * Pipelined requests are not processed until response for the previous one is written: they are queued and channel reading is paused.
+ */
+final class NettyConnectionHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyConnectionHandler.class);
+
+    private final NettyPublicApiHandler publicApiHandler;
+    private final AtomicInteger activeRequests;
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+
+    @Nullable
+    private NettyRequestHttpBody body;
+    private boolean responding;
+    private boolean reading;
+
+    NettyConnectionHandler(NettyPublicApiHandler publicApiHandler, AtomicInteger activeRequests) {
+        this.publicApiHandler = publicApiHandler;
+        this.activeRequests = activeRequests;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof HttpObject)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        if (this.responding && (msg instanceof HttpRequest || !this.pending.isEmpty())) {
+            // pipelined request
+            this.pending.add(msg);
+            ctx.channel().config().setAutoRead(false);
+            return;
+        }
+        this.read(ctx, (HttpObject) msg);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            // connection is idle between requests or client stopped sending request body
+            if (!this.responding || this.reading) {
+                ctx.close();
+            }
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        var body = this.body;
+        if (body != null && this.reading) {
+            body.fail(new IOException("Connection closed before request body was read"));
+        }
+        Object msg;
+        while ((msg = this.pending.poll()) != null) {
+            ReferenceCountUtil.release(msg);
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        var body = this.body;
+        if (body != null && this.reading) {
+            body.fail(cause);
+        }
+        logger.debug("Public HTTP Server (Netty) connection error", cause);
+        ctx.close();
+    }
+
+    private void read(ChannelHandlerContext ctx, HttpObject msg) {
+        try {
+            if (msg instanceof HttpRequest request) {
+                this.startRequest(ctx, request);
+            }
+            if (msg instanceof HttpContent content) {
+                var body = this.body;
+                if (body != null) {
+                    body.offer(content.content().retain());
+                }
+                if (msg instanceof LastHttpContent) {
+                    this.reading = false;
+                    if (body != null) {
+                        body.complete();
+                    }
+                    if (!this.responding) {
+                        this.finishExchange(ctx);
+                    }
+                }
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    private void startRequest(ChannelHandlerContext ctx, HttpRequest request) {
+        if (request.decoderResult().isFailure()) {
+            var response = new DefaultFullHttpResponse(request.protocolVersion(), HttpResponseStatus.BAD_REQUEST, Unpooled.EMPTY_BUFFER);
+            response.headers().set(HttpHeaderNames.SERVER, "kora/netty").setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+        this.responding = true;
+        this.reading = !(request instanceof LastHttpContent);
+        this.activeRequests.incrementAndGet();
+        final HttpBodyInput body;
+        if (this.hasBody(ctx, request)) {
+            var contentType = request.headers().get(HttpHeaderNames.CONTENT_TYPE);
+            var nettyBody = new NettyRequestHttpBody(ctx.channel(), HttpUtil.getContentLength(request, -1L), contentType);
+            this.body = nettyBody;
+            body = nettyBody;
+        } else {
+            this.body = null;
+            body = HttpBody.empty();
+        }
+        this.publicApiHandler.handleRequest(ctx, request, body, () -> {
+            if (ctx.executor().inEventLoop()) {
+                this.onResponseComplete(ctx);
+            } else {
+                ctx.executor().execute(() -> this.onResponseComplete(ctx));
+            }
+        });
+    }
+
+    private boolean hasBody(ChannelHandlerContext ctx, HttpRequest request) {
+        if (request instanceof FullHttpRequest full) {
+            return full.content().isReadable();
+        }
+        var contentLength = HttpUtil.getContentLength(request, -1L);
+        if (contentLength >= 0) {
+            return contentLength > 0;
+        }
+        // http2 request without end of stream flag always has data frames
+        return HttpUtil.isTransferEncodingChunked(request) || ctx.channel() instanceof Http2StreamChannel;
+    }
+
+    private void onResponseComplete(ChannelHandlerContext ctx) {
+        if (!this.responding) {
+            return;
+        }
+        this.responding = false;
+        this.activeRequests.decrementAndGet();
+        if (!this.reading) {
+            this.finishExchange(ctx);
+            return;
+        }
+        // rest of request body is not needed anymore and is discarded as it arrives
+        var body = this.body;
+        if (body != null) {
+            body.close();
+        } else {
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+
+    private void finishExchange(ChannelHandlerContext ctx) {
+        this.body = null;
+        Object msg;
+        while ((msg = this.pending.peek()) != null) {
+            if (this.responding && msg instanceof HttpRequest) {
+                break;
+            }
+            this.pending.poll();
+            this.read(ctx, (HttpObject) msg);
+        }
+        if (this.pending.isEmpty()) {
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.body.FileRegionHttpBodyOutput;
+import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
+import ru.tinkoff.kora.http.server.common.HttpServer;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
+import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.http.server.common.router.PublicApiResponse;
+import ru.tinkoff.kora.http.server.common.stream.EventStreamHttpBodyOutput;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTracer;
+import ru.tinkoff.kora.http.server.netty.request.NettyPublicApiRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Processes single request and writes its response to the channel, {@code onComplete} is called once when response is written or failed
+ */
+final class NettyExchangeProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpServer.class);
+    private static final Class<?> REACTOR_NON_BLOCKING;
+
+    static {
+        Class<?> reactorNonBlocking = null;
+        try {
+            reactorNonBlocking = Thread.currentThread().getContextClassLoader().loadClass("reactor.core.scheduler.NonBlocking");
+        } catch (ClassNotFoundException ignore) {
+        }
+        REACTOR_NON_BLOCKING = reactorNonBlocking;
+    }
+
+    private final ChannelHandlerContext ctx;
+    private final HttpRequest request;
+    private final HttpBodyInput body;
+    private final PublicApiHandler publicApiHandler;
+    private final Context context;
+    @Nullable
+    private final HttpServerTracer tracer;
+    @Nullable
+    private final HttpServerResponseCompression compression;
+    private final Runnable onComplete;
+
+    NettyExchangeProcessor(ChannelHandlerContext ctx, HttpRequest request, HttpBodyInput body, PublicApiHandler publicApiHandler, Context context,
+                           @Nullable HttpServerTracer tracer, @Nullable HttpServerResponseCompression compression, Runnable onComplete) {
+        this.ctx = ctx;
+        this.request = request;
+        this.body = body;
+        this.publicApiHandler = publicApiHandler;
+        this.context = context;
+        this.tracer = tracer;
+        this.compression = compression;
+        this.onComplete = onComplete;
+    }
+
+    void run() {
+        var context = this.context;
+        var oldContext = Context.current();
+        context.inject();
+        try {
+            var request = new NettyPublicApiRequest(this.request, this.body);
+            var response = this.publicApiHandler.process(context, request);
+            if (response.response().isDone()) {
+                try {
+                    var httpResponse = response.response().join();
+                    if (httpResponse == null) {
+                        this.sendResponse(response, HttpServerResponse.of(500), new IllegalStateException("Illegal state: response future is empty"));
+                    } else {
+                        this.sendResponse(response, httpResponse, null);
+                    }
+                } catch (CompletionException e) {
+                    this.sendException(response, Objects.requireNonNullElse(e.getCause(), e));
+                } catch (Throwable e) {
+                    this.sendException(response, e);
+                }
+                return;
+            }
+            response.response().whenComplete((httpServerResponse, throwable) -> {
+                if (httpServerResponse != null) {
+                    this.sendResponse(response, httpServerResponse, null);
+                } else if (throwable instanceof CompletionException ce && ce.getCause() != null) {
+                    this.sendException(response, ce.getCause());
+                } else if (throwable != null) {
+                    this.sendException(response, throwable);
+                } else {
+                    this.sendResponse(response, HttpServerResponse.of(500), new IllegalStateException("Illegal state: response future is empty"));
+                }
+            });
+        } catch (Throwable exception) {
+            log.warn("Error dropped", exception);
+            this.ctx.writeAndFlush(this.plainResponse(500, Objects.requireNonNullElse(exception.getMessage(), "no message")))
+                .addListener(f -> this.onComplete.run());
+        } finally {
+            oldContext.inject();
+        }
+    }
+
+    private void sendResponse(PublicApiResponse response, HttpServerResponse httpResponse, @Nullable Throwable error) {
+        var code = httpResponse.code();
+        var nettyResponse = new DefaultHttpResponse(this.request.protocolVersion(), HttpResponseStatus.valueOf(code));
+        var responseHeaders = nettyResponse.headers();
+        var tracer = this.tracer;
+        if (tracer != null) {
+            tracer.inject(this.context, responseHeaders, (carrier, key, value) -> carrier.add(key, value));
+        }
+        responseHeaders.set(HttpHeaderNames.SERVER, "kora/netty");
+
+        var headers = httpResponse.headers();
+        var body = httpResponse.body();
+        if (body == null) {
+            this.setHeaders(responseHeaders, headers, null);
+            this.sendFullBody(response, nettyResponse, httpResponse, null, error);
+            return;
+        }
+        this.setHeaders(responseHeaders, headers, body.contentType());
+        var contentType = body.contentType();
+        if (contentType != null) {
+            responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, contentType);
+        }
+        // stream channels of http2 connection can't write file regions
+        if (body instanceof FileRegionHttpBodyOutput fileRegion && !(this.ctx.channel() instanceof Http2StreamChannel)) {
+            this.sendFileRegion(response, nettyResponse, httpResponse, fileRegion, error);
+            return;
+        }
+        var full = body.getFullContentIfAvailable();
+        if (full != null) {
+            this.sendFullBody(response, nettyResponse, httpResponse, full, error);
+            return;
+        }
+
+        var contentLength = body.contentLength();
+        // event stream is long-lived: it is written as connection allows without holding a thread, and compression would delay events
+        var eventStream = body instanceof EventStreamHttpBodyOutput<?>;
+        var compressor = this.compression == null || eventStream ? null : this.compression.start(new NettyCompressionExchange(this.request, nettyResponse), contentLength);
+        if (contentLength >= 0 && compressor == null) {
+            HttpUtil.setContentLength(nettyResponse, contentLength);
+        } else if (nettyResponse.protocolVersion().equals(HttpVersion.HTTP_1_1)) {
+            HttpUtil.setTransferEncodingChunked(nettyResponse, true);
+        }
+        if (this.isInBlockingThread() && !eventStream) {
+            this.sendBlockingBody(response, nettyResponse, httpResponse, body, compressor, error);
+        } else {
+            body.subscribe(new ResponseBodySubscriber(response, nettyResponse, httpResponse, compressor, error));
+        }
+    }
+
+    private void setHeaders(io.netty.handler.codec.http.HttpHeaders responseHeaders, ru.tinkoff.kora.http.common.header.HttpHeaders headers, @Nullable String contentType) {
+        for (var header : headers) {
+            var key = header.getKey();
+            if (key.equals("server")) {
+                continue;
+            }
+            if (key.equals("content-type") && contentType != null) {
+                continue;
+            }
+            if (key.equals("content-length")) {
+                continue;
+            }
+            if (key.equals("transfer-encoding")) {
+                continue;
+            }
+            responseHeaders.add(key, header.getValue());
+        }
+    }
+
+    private void sendFullBody(PublicApiResponse response, HttpResponse nettyResponse, HttpServerResponse httpResponse, @Nullable ByteBuffer body, @Nullable Throwable error) {
+        final ByteBuf content;
+        if (body == null || body.remaining() == 0) {
+            content = Unpooled.EMPTY_BUFFER;
+        } else {
+            var compressor = this.compression == null ? null : this.compression.start(new NettyCompressionExchange(this.request, nettyResponse), body.remaining());
+            if (compressor != null) {
+                body = compressor.compress(body);
+            }
+            // response buffer and whole body compressor output belong to this response, so they are written as is without copying to an allocator buffer
+            content = Unpooled.wrappedBuffer(body);
+        }
+        var fullResponse = new DefaultFullHttpResponse(nettyResponse.protocolVersion(), nettyResponse.status(), content, nettyResponse.headers(), EmptyHttpHeaders.INSTANCE);
+        HttpUtil.setContentLength(fullResponse, content.readableBytes());
+        this.ctx.writeAndFlush(fullResponse).addListener(this.completion(response, httpResponse, error));
+    }
+
+    private void sendFileRegion(PublicApiResponse response, HttpResponse nettyResponse, HttpServerResponse httpResponse, FileRegionHttpBodyOutput body, @Nullable Throwable error) {
+        final FileChannel file;
+        try {
+            file = body.openChannel();
+            if (file.size() < body.position() + body.contentLength()) {
+                file.close();
+                throw new IOException("File " + body.file() + " is shorter than response region");
+            }
+        } catch (IOException e) {
+            response.closeBodyError(500, e);
+            this.ctx.writeAndFlush(this.plainResponse(500, Objects.requireNonNullElse(e.getMessage(), "no message")))
+                .addListener(f -> this.onComplete.run());
+            return;
+        }
+        HttpUtil.setContentLength(nettyResponse, body.contentLength());
+        this.ctx.write(nettyResponse);
+        // file is transferred straight from page cache to the socket and is closed when region is released
+        this.ctx.write(new DefaultFileRegion(file, body.position(), body.contentLength()));
+        this.ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(this.completion(response, httpResponse, error));
+    }
+
+    private void sendBlockingBody(PublicApiResponse response, HttpResponse nettyResponse, HttpServerResponse httpResponse, HttpBodyOutput body,
+                                  @Nullable HttpServerResponseCompression.Compressor compressor, @Nullable Throwable error) {
+        var out = new NettyChunkedOutputStream(this.ctx, nettyResponse);
+        try (var os = compressor == null ? out : compressor.outputStream(out)) {
+            body.write(os);
+        } catch (IOException e) {
+            if (compressor != null) {
+                compressor.discard();
+            }
+            out.discard();
+            response.closeConnectionError(nettyResponse.status().code(), e);
+            this.failResponse(out.isStarted(), e);
+            return;
+        } catch (Exception e) {
+            if (compressor != null) {
+                compressor.discard();
+            }
+            out.discard();
+            response.closeBodyError(nettyResponse.status().code(), e);
+            this.failResponse(out.isStarted(), e);
+            return;
+        }
+        response.closeSendResponseSuccess(httpResponse.code(), httpResponse.headers(), error);
+        this.onComplete.run();
+    }
+
+    private void sendException(PublicApiResponse response, Throwable error) {
+        if (error instanceof HttpServerResponse rs) {
+            this.sendResponse(response, rs, error);
+            return;
+        }
+        this.ctx.writeAndFlush(this.plainResponse(500, Objects.requireNonNullElse(error.getMessage(), "Unknown error"))).addListener(f -> {
+            if (f.isSuccess()) {
+                response.closeSendResponseSuccess(500, null, error);
+            } else {
+                error.addSuppressed(f.cause());
+                response.closeConnectionError(500, error);
+                this.ctx.close();
+            }
+            this.onComplete.run();
+        });
+    }
+
+    /**
+     * Response can't be sent when body fails after its headers are written, so connection is closed
+     */
+    private void failResponse(boolean started, Throwable error) {
+        if (started) {
+            this.ctx.close();
+            this.onComplete.run();
+        } else {
+            this.ctx.writeAndFlush(this.plainResponse(500, Objects.requireNonNullElse(error.getMessage(), "Unknown error")))
+                .addListener(f -> this.onComplete.run());
+        }
+    }
+
+    private FullHttpResponse plainResponse(int code, String message) {
+        var content = Unpooled.wrappedBuffer(message.getBytes(StandardCharsets.UTF_8));
+        var response = new DefaultFullHttpResponse(this.request.protocolVersion(), HttpResponseStatus.valueOf(code), content);
+        response.headers()
+            .set(HttpHeaderNames.SERVER, "kora/netty")
+            .set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=utf-8")
+            .set(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+        return response;
+    }
+
+    private ChannelFutureListener completion(PublicApiResponse response, HttpServerResponse httpResponse, @Nullable Throwable error) {
+        return f -> {
+            if (f.isSuccess()) {
+                response.closeSendResponseSuccess(httpResponse.code(), httpResponse.headers(), error);
+            } else {
+                response.closeConnectionError(httpResponse.code(), error == null ? f.cause() : error);
+                f.channel().close();
+            }
+            this.onComplete.run();
+        };
+    }
+
+    private boolean isInBlockingThread() {
+        var t = Thread.currentThread();
+        if (this.ctx.executor().inEventLoop() || t instanceof FastThreadLocalThread) {
+            return false;
+        }
+        return REACTOR_NON_BLOCKING == null || !REACTOR_NON_BLOCKING.isInstance(t);
+    }
+
+    private final class ResponseBodySubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final PublicApiResponse response;
+        private final HttpResponse nettyResponse;
+        private final HttpServerResponse httpResponse;
+        @Nullable
+        private final HttpServerResponseCompression.Compressor compressor;
+        @Nullable
+        private final Throwable error;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile Flow.Subscription subscription;
+        private boolean started;
+
+        private ResponseBodySubscriber(PublicApiResponse response, HttpResponse nettyResponse, HttpServerResponse httpResponse,
+                                       @Nullable HttpServerResponseCompression.Compressor compressor, @Nullable Throwable error) {
+            this.response = response;
+            this.nettyResponse = nettyResponse;
+            this.httpResponse = httpResponse;
+            this.compressor = compressor;
+            this.error = error;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            this.subscription = s;
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer byteBuffer) {
+            if (this.finished.get()) {
+                return;
+            }
+            this.start();
+            final ByteBuf chunk;
+            if (this.compressor == null) {
+                // next body buffer is requested only after this one is written, so it is not copied
+                chunk = Unpooled.wrappedBuffer(byteBuffer);
+            } else {
+                // compressor output is a view of its reused buffer
+                chunk = copy(this.compressor.compressChunk(byteBuffer));
+            }
+            ctx.writeAndFlush(new DefaultHttpContent(chunk)).addListener(f -> {
+                if (f.isSuccess()) {
+                    this.subscription.request(1);
+                } else if (this.finished.compareAndSet(false, true)) {
+                    this.subscription.cancel();
+                    if (this.compressor != null) {
+                        this.compressor.discard();
+                    }
+                    f.channel().close();
+                    this.response.closeConnectionError(this.httpResponse.code(), this.error == null ? f.cause() : this.error);
+                    onComplete.run();
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!this.finished.compareAndSet(false, true)) {
+                return;
+            }
+            if (this.compressor != null) {
+                this.compressor.discard();
+            }
+            if (this.started) {
+                this.response.closeBodyError(this.httpResponse.code(), this.error == null ? t : this.error);
+            } else {
+                this.response.closeBodyError(500, this.error == null ? t : this.error);
+            }
+            failResponse(this.started, t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!this.finished.compareAndSet(false, true)) {
+                return;
+            }
+            this.start();
+            final LastHttpContent last;
+            if (this.compressor == null) {
+                last = LastHttpContent.EMPTY_LAST_CONTENT;
+            } else {
+                last = new DefaultLastHttpContent(copy(this.compressor.finishChunks()));
+                this.compressor.release();
+            }
+            ctx.writeAndFlush(last).addListener(completion(this.response, this.httpResponse, this.error));
+        }
+
+        private ByteBuf copy(ByteBuffer chunk) {
+            return ctx.alloc().buffer(chunk.remaining()).writeBytes(chunk);
+        }
+
+        private void start() {
+            if (!this.started) {
+                this.started = true;
+                ctx.write(this.nettyResponse);
+            }
+        }
+    }
+}
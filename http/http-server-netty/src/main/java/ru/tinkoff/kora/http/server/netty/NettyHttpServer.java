@@ -0,0 +1,220 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.handler.codec.http.HttpMessage;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerExpectContinueHandler;
+import io.netty.handler.codec.http.HttpServerKeepAliveHandler;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.*;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AsciiString;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.common.readiness.ReadinessProbe;
+import ru.tinkoff.kora.common.readiness.ReadinessProbeFailure;
+import ru.tinkoff.kora.common.util.TimeUtils;
+import ru.tinkoff.kora.http.server.common.HttpServer;
+import ru.tinkoff.kora.http.server.common.HttpServerConfig;
+import ru.tinkoff.kora.logging.common.arg.StructuredArgument;
+import ru.tinkoff.kora.netty.common.NettyChannelFactory;
+
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Public HTTP server on event loops shared with other Netty based modules.
+ * <p>
+ * Connections are served with HTTP/1.1, when HTTP/2 is enabled cleartext connections with prior knowledge and HTTP/1.1 Upgrade to h2c are accepted too.
+ */
+public class NettyHttpServer implements HttpServer, ReadinessProbe {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyHttpServer.class);
+    private static final int MAX_UPGRADE_CONTENT_LENGTH = 64 * 1024;
+
+    private final AtomicReference<HttpServerState> state = new AtomicReference<>(HttpServerState.INIT);
+    private final AtomicInteger activeRequests = new AtomicInteger(0);
+    private final ValueOf<HttpServerConfig> config;
+    private final ValueOf<NettyPublicApiHandler> publicApiHandler;
+    private final EventLoopGroup bossGroup;
+    private final EventLoopGroup workerGroup;
+    private final NettyChannelFactory channelFactory;
+
+    private volatile ChannelGroup connections;
+    private volatile Channel channel;
+
+    public NettyHttpServer(ValueOf<HttpServerConfig> config,
+                           ValueOf<NettyPublicApiHandler> publicApiHandler,
+                           EventLoopGroup bossGroup,
+                           EventLoopGroup workerGroup,
+                           NettyChannelFactory channelFactory) {
+        this.config = config;
+        this.publicApiHandler = publicApiHandler;
+        this.bossGroup = bossGroup;
+        this.workerGroup = workerGroup;
+        this.channelFactory = channelFactory;
+    }
+
+    @Override
+    public void release() {
+        logger.debug("Public HTTP Server (Netty) stopping...");
+        this.state.set(HttpServerState.SHUTDOWN);
+        final long started = TimeUtils.started();
+        var channel = this.channel;
+        if (channel != null) {
+            // stop accepting new connections, but let accepted ones finish their requests
+            channel.close().syncUninterruptibly();
+            this.channel = null;
+        }
+        final Duration shutdownAwait = this.config.get().shutdownWait();
+        logger.debug("Public HTTP Server (Netty) awaiting graceful shutdown...");
+        var deadline = System.nanoTime() + shutdownAwait.toNanos();
+        try {
+            while (this.activeRequests.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.activeRequests.get() > 0) {
+            logger.warn("Public HTTP Server (Netty) failed completing graceful shutdown in {}", shutdownAwait);
+        }
+        var connections = this.connections;
+        if (connections != null) {
+            connections.close().awaitUninterruptibly();
+            this.connections = null;
+        }
+        logger.info("Public HTTP Server (Netty) stopped in {}", TimeUtils.tookForLogging(started));
+    }
+
+    @Override
+    public void init() {
+        try {
+            logger.debug("Public HTTP Server (Netty) starting...");
+            final long started = TimeUtils.started();
+            this.connections = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+            this.channel = this.createServer().bind(this.config.get().publicApiHttpPort()).syncUninterruptibly().channel();
+            this.state.set(HttpServerState.RUN);
+            var data = StructuredArgument.marker("port", this.port());
+            logger.info(data, "Public HTTP Server (Netty) started in {}", TimeUtils.tookForLogging(started));
+        } catch (Exception e) {
+            if (e instanceof BindException || e.getCause() instanceof BindException) {
+                throw new RuntimeException("Public HTTP Server (Netty) failed to start, cause port '%s' is already in use"
+                    .formatted(config.get().publicApiHttpPort()), e);
+            } else {
+                throw new RuntimeException("Public HTTP Server (Netty) failed to start on port '%s', due to: %s"
+                    .formatted(config.get().publicApiHttpPort(), e.getMessage()), e);
+            }
+        }
+    }
+
+    private ServerBootstrap createServer() {
+        var config = this.config.get();
+        var handler = this.publicApiHandler.get();
+        return new ServerBootstrap()
+            .group(this.bossGroup, this.workerGroup)
+            .channelFactory(this.channelFactory.getServerFactory())
+            .childOption(ChannelOption.SO_KEEPALIVE, config.socketKeepAliveEnabled())
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childHandler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    NettyHttpServer.this.connections.add(ch);
+                    NettyHttpServer.this.initChannel(ch, config, handler);
+                }
+            });
+    }
+
+    private void initChannel(Channel ch, HttpServerConfig config, NettyPublicApiHandler handler) {
+        var pipeline = ch.pipeline();
+        var readTimeout = config.socketReadTimeout().toMillis();
+        if (readTimeout > 0) {
+            pipeline.addLast(new IdleStateHandler(readTimeout, 0, 0, TimeUnit.MILLISECONDS));
+        }
+        var http2 = config.http2();
+        if (!http2.enabled()) {
+            this.initHttp1(pipeline, handler);
+            return;
+        }
+
+        var settings = Http2Settings.defaultSettings()
+            .maxConcurrentStreams(http2.maxConcurrentStreams())
+            .initialWindowSize(http2.initialWindowSize())
+            .maxFrameSize(http2.maxFrameSize())
+            .pushEnabled(false);
+        var streamInitializer = new ChannelInitializer<Http2StreamChannel>() {
+            @Override
+            protected void initChannel(Http2StreamChannel stream) {
+                stream.pipeline()
+                    .addLast(new Http2StreamFrameToHttpObjectCodec(true))
+                    .addLast(new NettyConnectionHandler(handler, NettyHttpServer.this.activeRequests));
+            }
+        };
+        var sourceCodec = new HttpServerCodec();
+        var upgradeHandler = new HttpServerUpgradeHandler(sourceCodec, protocol -> {
+            if (AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) {
+                return new Http2ServerUpgradeCodec(Http2FrameCodecBuilder.forServer().initialSettings(settings).build(), new Http2MultiplexHandler(streamInitializer));
+            }
+            return null;
+        }, MAX_UPGRADE_CONTENT_LENGTH);
+        var priorKnowledgeHandler = new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.pipeline().addLast(Http2FrameCodecBuilder.forServer().initialSettings(settings).build(), new Http2MultiplexHandler(streamInitializer));
+            }
+        };
+        pipeline.addLast(new CleartextHttp2ServerUpgradeHandler(sourceCodec, upgradeHandler, priorKnowledgeHandler));
+        // connection stays HTTP/1.1 if the first request is not an upgrade one
+        pipeline.addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                if (msg instanceof HttpMessage) {
+                    var pipeline = ctx.pipeline();
+                    pipeline.addAfter(ctx.name(), null, new NettyConnectionHandler(handler, NettyHttpServer.this.activeRequests));
+                    pipeline.addAfter(ctx.name(), null, new HttpServerExpectContinueHandler());
+                    pipeline.addAfter(ctx.name(), null, new HttpServerKeepAliveHandler());
+                    pipeline.remove(this);
+                }
+                ctx.fireChannelRead(msg);
+            }
+        });
+    }
+
+    private void initHttp1(ChannelPipeline pipeline, NettyPublicApiHandler handler) {
+        pipeline.addLast(new HttpServerCodec());
+        pipeline.addLast(new HttpServerKeepAliveHandler());
+        pipeline.addLast(new HttpServerExpectContinueHandler());
+        pipeline.addLast(new NettyConnectionHandler(handler, this.activeRequests));
+    }
+
+    @Override
+    public int port() {
+        var channel = this.channel;
+        if (channel == null) {
+            return -1;
+        }
+        return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    @Override
+    public ReadinessProbeFailure probe() {
+        return switch (this.state.get()) {
+            case INIT -> new ReadinessProbeFailure("Public HTTP Server (Netty) init");
+            case RUN -> null;
+            case SHUTDOWN -> new ReadinessProbeFailure("Public HTTP Server (Netty) shutdown");
+        };
+    }
+
+    private enum HttpServerState {
+        INIT, RUN, SHUTDOWN
+    }
+}
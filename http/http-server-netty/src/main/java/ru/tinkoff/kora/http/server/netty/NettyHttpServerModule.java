@@ -0,0 +1,96 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.channel.EventLoopGroup;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.application.graph.LifecycleWrapper;
+import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.common.DefaultComponent;
+import ru.tinkoff.kora.common.Tag;
+import ru.tinkoff.kora.common.annotation.Root;
+import ru.tinkoff.kora.http.server.common.HttpServerConfig;
+import ru.tinkoff.kora.http.server.common.HttpServerModule;
+import ru.tinkoff.kora.http.server.common.PrivateApiHandler;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
+import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
+import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetricsFactory;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTracerFactory;
+import ru.tinkoff.kora.netty.common.NettyChannelFactory;
+import ru.tinkoff.kora.netty.common.NettyCommonModule;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP server on event loops of {@link NettyCommonModule}, so HTTP server, gRPC server and Netty based clients share same IO threads
+ */
+public interface NettyHttpServerModule extends HttpServerModule, NettyCommonModule {
+
+    default NettyPublicApiHandler nettyPublicApiHandler(PublicApiHandler publicApiHandler,
+                                                        @Nullable HttpServerTracerFactory tracerFactory,
+                                                        @Nullable HttpServerMetricsFactory metricsFactory,
+                                                        HttpServerConfig config) {
+        var tracer = tracerFactory == null ? null : tracerFactory.get(config.telemetry().tracing());
+        var metrics = metricsFactory == null ? null : metricsFactory.get(config.telemetry().metrics());
+        var compression = HttpServerResponseCompression.create(config.compression(), metrics);
+        return new NettyPublicApiHandler(publicApiHandler, tracer, compression);
+    }
+
+    @Root
+    default NettyHttpServer nettyHttpServer(ValueOf<HttpServerConfig> config,
+                                            ValueOf<NettyPublicApiHandler> handler,
+                                            @Tag(NettyCommonModule.BossLoopGroup.class) EventLoopGroup bossGroup,
+                                            @Tag(NettyCommonModule.WorkerLoopGroup.class) EventLoopGroup workerGroup,
+                                            NettyChannelFactory channelFactory) {
+        return new NettyHttpServer(config, handler, bossGroup, workerGroup, channelFactory);
+    }
+
+    default NettyPrivateApiHandler nettyPrivateApiHandler(PrivateApiHandler privateApiHandler, @Tag(NettyHttpServer.class) ExecutorService executor) {
+        return new NettyPrivateApiHandler(privateApiHandler, executor);
+    }
+
+    @Root
+    default NettyPrivateHttpServer nettyPrivateHttpServer(ValueOf<HttpServerConfig> config,
+                                                          ValueOf<NettyPrivateApiHandler> privateApiHandler,
+                                                          @Tag(NettyCommonModule.BossLoopGroup.class) EventLoopGroup bossGroup,
+                                                          @Tag(NettyCommonModule.WorkerLoopGroup.class) EventLoopGroup workerGroup,
+                                                          NettyChannelFactory channelFactory) {
+        return new NettyPrivateHttpServer(config, privateApiHandler, bossGroup, workerGroup, channelFactory);
+    }
+
+    @Tag(NettyHttpServer.class)
+    default LifecycleWrapper<ExecutorService> nettyHttpServerBlockingExecutor(HttpServerConfig config) {
+        var threadNumber = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(
+            config.blockingThreads(),
+            config.blockingThreads(),
+            config.threadKeepAliveTimeout().toMillis(),
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                var thread = new Thread(r, "kora-netty-blocking-" + threadNumber.incrementAndGet());
+                thread.setDaemon(false);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return new LifecycleWrapper<>(
+            executor,
+            e -> {},
+            e -> {
+                e.shutdown();
+                if (!e.awaitTermination(config.shutdownWait().toMillis(), TimeUnit.MILLISECONDS)) {
+                    e.shutdownNow();
+                }
+            }
+        );
+    }
+
+    @DefaultComponent
+    default BlockingRequestExecutor nettyBlockingRequestExecutor(@Tag(NettyHttpServer.class) ExecutorService executor) {
+        return new BlockingRequestExecutor.Default(executor);
+    }
+}
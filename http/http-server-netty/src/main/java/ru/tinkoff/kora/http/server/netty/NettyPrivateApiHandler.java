@@ -0,0 +1,113 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.*;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
+import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.PrivateApiHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+
+@ChannelHandler.Sharable
+public class NettyPrivateApiHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private final PrivateApiHandler privateApiHandler;
+    private final Executor blockingExecutor;
+
+    public NettyPrivateApiHandler(PrivateApiHandler privateApiHandler, Executor blockingExecutor) {
+        this.privateApiHandler = privateApiHandler;
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        var version = request.protocolVersion();
+        this.privateApiHandler.handle(request.uri(), new NettyHttpHeaders(request.headers()))
+            .whenComplete((rs, error) -> {
+                if (error != null) {
+                    var message = String.valueOf(error.getMessage());
+                    ctx.writeAndFlush(fullResponse(version, 500, Unpooled.wrappedBuffer(StandardCharsets.UTF_8.encode(message)), "text/plain; charset=utf-8"));
+                    return;
+                }
+                if (rs == null) {
+                    ctx.writeAndFlush(fullResponse(version, 500, Unpooled.EMPTY_BUFFER, null));
+                    return;
+                }
+                var body = rs.body();
+                if (body == null) {
+                    var response = fullResponse(version, rs.code(), Unpooled.EMPTY_BUFFER, null);
+                    setHeaders(response, rs);
+                    ctx.writeAndFlush(response);
+                    return;
+                }
+                var full = body.getFullContentIfAvailable();
+                if (full != null) {
+                    var response = fullResponse(version, rs.code(), Unpooled.wrappedBuffer(full), body.contentType());
+                    setHeaders(response, rs);
+                    ctx.writeAndFlush(response);
+                    closeQuietly(body);
+                    return;
+                }
+                this.sendStreamingBody(ctx, version, rs, body);
+            });
+    }
+
+    /**
+     * Body of unknown length is written straight to connection in chunks instead of being collected in memory
+     */
+    private void sendStreamingBody(ChannelHandlerContext ctx, HttpVersion version, HttpServerResponse rs, HttpBodyOutput body) {
+        var response = new DefaultHttpResponse(version, HttpResponseStatus.valueOf(rs.code()));
+        setHeaders(response, rs);
+        if (body.contentType() != null) {
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, body.contentType());
+        }
+        if (body.contentLength() >= 0) {
+            HttpUtil.setContentLength(response, body.contentLength());
+        } else if (version.equals(HttpVersion.HTTP_1_1)) {
+            HttpUtil.setTransferEncodingChunked(response, true);
+        }
+        this.blockingExecutor.execute(() -> {
+            var out = new NettyChunkedOutputStream(ctx, response);
+            try (body) {
+                body.write(out);
+                out.close();
+            } catch (Exception e) {
+                out.discard();
+                ctx.close();
+            }
+        });
+    }
+
+    private static void setHeaders(HttpResponse response, HttpServerResponse rs) {
+        for (var header : rs.headers()) {
+            var key = header.getKey();
+            if (key.equals("server") || key.equals("content-length") || key.equals("transfer-encoding")) {
+                continue;
+            }
+            response.headers().add(key, header.getValue());
+        }
+    }
+
+    private static FullHttpResponse fullResponse(HttpVersion version, int code, ByteBuf content, @Nullable String contentType) {
+        var response = new DefaultFullHttpResponse(version, HttpResponseStatus.valueOf(code), content);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+        if (contentType != null) {
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
+        }
+        return response;
+    }
+
+    private static void closeQuietly(HttpBodyOutput body) {
+        try {
+            body.close();
+        } catch (IOException ignore) {
+        }
+    }
+}
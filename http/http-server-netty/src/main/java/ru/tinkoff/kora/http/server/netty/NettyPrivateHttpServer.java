@@ -0,0 +1,103 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerKeepAliveHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.common.util.TimeUtils;
+import ru.tinkoff.kora.http.server.common.HttpServerConfig;
+import ru.tinkoff.kora.http.server.common.PrivateHttpServer;
+import ru.tinkoff.kora.logging.common.arg.StructuredArgument;
+import ru.tinkoff.kora.netty.common.NettyChannelFactory;
+
+import java.net.BindException;
+import java.net.InetSocketAddress;
+
+public class NettyPrivateHttpServer implements PrivateHttpServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyPrivateHttpServer.class);
+    private static final int MAX_CONTENT_LENGTH = 64 * 1024;
+
+    private final ValueOf<HttpServerConfig> config;
+    private final ValueOf<NettyPrivateApiHandler> privateApiHandler;
+    private final EventLoopGroup bossGroup;
+    private final EventLoopGroup workerGroup;
+    private final NettyChannelFactory channelFactory;
+
+    private volatile Channel channel;
+
+    public NettyPrivateHttpServer(ValueOf<HttpServerConfig> config,
+                                  ValueOf<NettyPrivateApiHandler> privateApiHandler,
+                                  EventLoopGroup bossGroup,
+                                  EventLoopGroup workerGroup,
+                                  NettyChannelFactory channelFactory) {
+        this.config = config;
+        this.privateApiHandler = privateApiHandler;
+        this.bossGroup = bossGroup;
+        this.workerGroup = workerGroup;
+        this.channelFactory = channelFactory;
+    }
+
+    @Override
+    public void release() {
+        var channel = this.channel;
+        if (channel != null) {
+            logger.debug("Private HTTP Server (Netty) stopping...");
+            final long started = TimeUtils.started();
+            channel.close().syncUninterruptibly();
+            this.channel = null;
+            logger.info("Private HTTP Server (Netty) stopped in {}", TimeUtils.tookForLogging(started));
+        }
+    }
+
+    @Override
+    public void init() {
+        try {
+            logger.debug("Private HTTP Server (Netty) starting...");
+            final long started = TimeUtils.started();
+            this.channel = this.createServer().bind(this.config.get().privateApiHttpPort()).syncUninterruptibly().channel();
+            var data = StructuredArgument.marker("port", this.port());
+            logger.info(data, "Private HTTP Server (Netty) started in {}", TimeUtils.tookForLogging(started));
+        } catch (Exception e) {
+            if (e instanceof BindException || e.getCause() instanceof BindException) {
+                throw new RuntimeException("Private HTTP Server (Netty) failed to start, cause port '%s' is already in use"
+                    .formatted(config.get().privateApiHttpPort()), e);
+            } else {
+                throw new RuntimeException("Private HTTP Server (Netty) failed to start on port '%s', due to: %s"
+                    .formatted(config.get().privateApiHttpPort(), e.getMessage()), e);
+            }
+        }
+    }
+
+    private ServerBootstrap createServer() {
+        var handler = this.privateApiHandler.get();
+        return new ServerBootstrap()
+            .group(this.bossGroup, this.workerGroup)
+            .channelFactory(this.channelFactory.getServerFactory())
+            .childHandler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline()
+                        .addLast(new HttpServerCodec())
+                        .addLast(new HttpServerKeepAliveHandler())
+                        .addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+                        .addLast(handler);
+                }
+            });
+    }
+
+    @Override
+    public int port() {
+        var channel = this.channel;
+        if (channel == null) {
+            return -1;
+        }
+        return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpRequest;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
+import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTracer;
+
+public final class NettyPublicApiHandler {
+
+    private final PublicApiHandler publicApiHandler;
+    @Nullable
+    private final HttpServerTracer tracer;
+    @Nullable
+    private final HttpServerResponseCompression compression;
+
+    public NettyPublicApiHandler(PublicApiHandler publicApiHandler, @Nullable HttpServerTracer tracer, @Nullable HttpServerResponseCompression compression) {
+        this.publicApiHandler = publicApiHandler;
+        this.tracer = tracer;
+        this.compression = compression;
+    }
+
+    /**
+     * Should be called from channel event loop, {@code onComplete} is called once response is written or failed and may be called from any thread
+     */
+    public void handleRequest(ChannelHandlerContext ctx, HttpRequest request, HttpBodyInput body, Runnable onComplete) {
+        var context = Context.clear();
+        var exchangeProcessor = new NettyExchangeProcessor(ctx, request, body, this.publicApiHandler, context, this.tracer, this.compression, onComplete);
+        exchangeProcessor.run();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.tinkoff.kora.http.server.netty.request;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.router.PublicApiRequest;
+import ru.tinkoff.kora.http.server.netty.NettyHttpHeaders;
+
+import java.util.*;
+
+public class NettyPublicApiRequest implements PublicApiRequest {
+    private final HttpRequest request;
+    private final QueryStringDecoder decoder;
+    private final NettyHttpHeaders headers;
+    private final HttpBodyInput body;
+
+    public NettyPublicApiRequest(HttpRequest request, HttpBodyInput body) {
+        this.request = request;
+        this.decoder = new QueryStringDecoder(request.uri());
+        this.headers = new NettyHttpHeaders(request.headers());
+        this.body = body;
+    }
+
+    @Override
+    public String method() {
+        return this.request.method().name();
+    }
+
+    @Override
+    public String path() {
+        return this.decoder.path();
+    }
+
+    @Override
+    public String hostName() {
+        var host = this.request.headers().get(HttpHeaderNames.HOST);
+        if (host == null) {
+            return "";
+        }
+        if (host.startsWith("[")) {
+            // ipv6 literal
+            var end = host.indexOf(']');
+            return end < 0 ? host : host.substring(0, end + 1);
+        }
+        var colon = host.indexOf(':');
+        return colon < 0 ? host : host.substring(0, colon);
+    }
+
+    @Override
+    public String scheme() {
+        return "http";
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return this.headers;
+    }
+
+    @Override
+    public Map<String, ? extends Collection<String>> queryParams() {
+        var nettyQueryParams = this.decoder.parameters();
+        if (nettyQueryParams.isEmpty()) {
+            return Map.of();
+        }
+
+        var queryParams = new LinkedHashMap<String, List<String>>(nettyQueryParams.size());
+        for (var entry : nettyQueryParams.entrySet()) {
+            var value = new ArrayList<String>(entry.getValue().size());
+            for (var it : entry.getValue()) {
+                if (!it.isEmpty()) {
+                    value.add(it);
+                }
+            }
+            queryParams.put(entry.getKey(), value);
+        }
+        return Collections.unmodifiableMap(queryParams);
+    }
+
+    @Override
+    public HttpBodyInput body() {
+        return this.body;
+    }
+}
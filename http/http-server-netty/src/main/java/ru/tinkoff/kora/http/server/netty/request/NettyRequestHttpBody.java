@@ -0,0 +1,268 @@
+package ru.tinkoff.kora.http.server.netty.request;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.common.body.PooledHttpBodyInput;
+import ru.tinkoff.kora.http.common.body.ReleasableByteBuffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Request body made of channel pooled buffers as they are read from connection.
+ * <p>
+ * All state is accessed only from channel event loop. Channel auto read is switched off while there are buffers subscriber has not requested yet
+ * and switched back on when subscriber drained them, so request body is never buffered beyond a single socket read.
+ */
+public final class NettyRequestHttpBody implements PooledHttpBodyInput {
+    private static final Subscription NOOP_SUBSCRIPTION = new Subscription() {
+        @Override
+        public void request(long n) {}
+
+        @Override
+        public void cancel() {}
+    };
+
+    private final Channel channel;
+    private final long contentLength;
+    @Nullable
+    private final String contentType;
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+    private final ArrayDeque<ByteBuf> queue = new ArrayDeque<>();
+
+    @Nullable
+    private Subscriber<? super ByteBuffer> subscriber;
+    @Nullable
+    private Subscriber<? super ReleasableByteBuffer> pooledSubscriber;
+    private long demand;
+    private boolean last;
+    @Nullable
+    private Throwable error;
+    private boolean done;
+    private boolean draining;
+
+    public NettyRequestHttpBody(Channel channel, long contentLength, @Nullable String contentType) {
+        this.channel = channel;
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return this.contentLength;
+    }
+
+    @Nullable
+    @Override
+    public String contentType() {
+        return this.contentType;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> s) {
+        if (!this.subscribed.compareAndSet(false, true)) {
+            s.onSubscribe(NOOP_SUBSCRIPTION);
+            s.onError(new IllegalStateException("Body was already subscribed"));
+            return;
+        }
+        this.runInEventLoop(() -> {
+            this.subscriber = s;
+            s.onSubscribe(new BodySubscription());
+            this.drain();
+        });
+    }
+
+    @Override
+    public void subscribePooled(Subscriber<? super ReleasableByteBuffer> s) {
+        if (!this.subscribed.compareAndSet(false, true)) {
+            s.onSubscribe(NOOP_SUBSCRIPTION);
+            s.onError(new IllegalStateException("Body was already subscribed"));
+            return;
+        }
+        this.runInEventLoop(() -> {
+            this.pooledSubscriber = s;
+            s.onSubscribe(new BodySubscription());
+            this.drain();
+        });
+    }
+
+    @Override
+    public InputStream asInputStream() {
+        if (this.channel.eventLoop().inEventLoop()) {
+            // blocking read in event loop would never finish
+            return null;
+        }
+        return PooledHttpBodyInput.super.asInputStream();
+    }
+
+    @Override
+    public void close() {
+        this.subscribed.set(true);
+        this.runInEventLoop(this::discard);
+    }
+
+    /**
+     * Called by connection handler with retained request content
+     */
+    public void offer(ByteBuf content) {
+        if (this.done) {
+            content.release();
+            return;
+        }
+        if (!content.isReadable()) {
+            content.release();
+        } else {
+            this.queue.add(content);
+        }
+        this.drain();
+        if (!this.queue.isEmpty() && !this.done) {
+            this.channel.config().setAutoRead(false);
+        }
+    }
+
+    /**
+     * Called by connection handler when last request content was read
+     */
+    public void complete() {
+        this.last = true;
+        this.drain();
+    }
+
+    /**
+     * Called by connection handler when connection failed or closed before request was fully read
+     */
+    public void fail(Throwable error) {
+        if (this.last) {
+            return;
+        }
+        this.error = error;
+        this.drain();
+    }
+
+    /**
+     * @return true if the whole request body was read from connection
+     */
+    public boolean isLast() {
+        return this.last;
+    }
+
+    private void drain() {
+        if (this.draining || this.done) {
+            return;
+        }
+        var s = this.subscriber;
+        var ps = this.pooledSubscriber;
+        if (s == null && ps == null) {
+            return;
+        }
+        this.draining = true;
+        try {
+            while (this.demand > 0 && !this.queue.isEmpty()) {
+                this.demand--;
+                var buf = this.queue.poll();
+                if (ps != null) {
+                    ps.onNext(new NettyReleasableByteBuffer(buf));
+                } else {
+                    var copy = ByteBuffer.allocate(buf.readableBytes());
+                    buf.readBytes(copy);
+                    buf.release();
+                    s.onNext(copy.flip());
+                }
+                if (this.done) {
+                    return;
+                }
+            }
+            if (!this.queue.isEmpty()) {
+                return;
+            }
+            if (this.last) {
+                this.done = true;
+                if (ps != null) {
+                    ps.onComplete();
+                } else {
+                    s.onComplete();
+                }
+            } else if (this.error != null) {
+                this.done = true;
+                if (ps != null) {
+                    ps.onError(this.error);
+                } else {
+                    s.onError(this.error);
+                }
+            } else if (this.demand > 0) {
+                this.channel.config().setAutoRead(true);
+            }
+        } finally {
+            this.draining = false;
+        }
+    }
+
+    private void discard() {
+        this.done = true;
+        ByteBuf buf;
+        while ((buf = this.queue.poll()) != null) {
+            buf.release();
+        }
+        if (!this.last) {
+            // rest of the body is read and released by connection handler
+            this.channel.config().setAutoRead(true);
+        }
+    }
+
+    private void runInEventLoop(Runnable runnable) {
+        var eventLoop = this.channel.eventLoop();
+        if (eventLoop.inEventLoop()) {
+            runnable.run();
+        } else {
+            eventLoop.execute(runnable);
+        }
+    }
+
+    private final class BodySubscription implements Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                runInEventLoop(() -> {
+                    if (!done) {
+                        var s = subscriber;
+                        var ps = pooledSubscriber;
+                        discard();
+                        var e = new IllegalArgumentException("Requested " + n + " items, should be positive");
+                        if (ps != null) {
+                            ps.onError(e);
+                        } else if (s != null) {
+                            s.onError(e);
+                        }
+                    }
+                });
+                return;
+            }
+            runInEventLoop(() -> {
+                var d = demand + n;
+                demand = d < 0 ? Long.MAX_VALUE : d;
+                drain();
+            });
+        }
+
+        @Override
+        public void cancel() {
+            runInEventLoop(NettyRequestHttpBody.this::discard);
+        }
+    }
+
+    private record NettyReleasableByteBuffer(ByteBuf buf, ByteBuffer buffer) implements ReleasableByteBuffer {
+        private NettyReleasableByteBuffer(ByteBuf buf) {
+            this(buf, buf.nioBuffer().asReadOnlyBuffer());
+        }
+
+        @Override
+        public void release() {
+            this.buf.release();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.tinkoff.kora.http.server.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.jupiter.api.AfterAll;
+import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.http.server.common.*;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
+import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.netty.common.NettyChannelFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class NettyHttpServerTest extends HttpServerTestKit {
+    private static final EventLoopGroup bossGroup = new NioEventLoopGroup(1);
+    private static final EventLoopGroup workerGroup = new NioEventLoopGroup(2);
+    private static final ExecutorService blockingExecutor = Executors.newCachedThreadPool();
+    private static final NettyChannelFactory channelFactory = new NettyChannelFactory() {
+        @Override
+        public ChannelFactory<Channel> getClientFactory(boolean domainSocket) {
+            return NioSocketChannel::new;
+        }
+
+        @Override
+        public ChannelFactory<ServerChannel> getServerFactory(boolean domainSocket) {
+            return NioServerSocketChannel::new;
+        }
+    };
+
+    @AfterAll
+    static void afterAll() {
+        bossGroup.shutdownGracefully().syncUninterruptibly();
+        workerGroup.shutdownGracefully().syncUninterruptibly();
+        blockingExecutor.shutdownNow();
+    }
+
+    @Override
+    protected HttpServer httpServer(ValueOf<HttpServerConfig> config, PublicApiHandler publicApiHandler) {
+        var handler = new NettyPublicApiHandler(publicApiHandler, null, HttpServerResponseCompression.create(config.get().compression(), metrics));
+        return new NettyHttpServer(config, valueOf(handler), bossGroup, workerGroup, channelFactory);
+    }
+
+    @Override
+    protected PrivateHttpServer privateHttpServer(ValueOf<HttpServerConfig> config, PrivateApiHandler privateApiHandler) {
+        return new NettyPrivateHttpServer(config, valueOf(new NettyPrivateApiHandler(privateApiHandler, blockingExecutor)), bossGroup, workerGroup, channelFactory);
+    }
+}
@@ -25,5 +25,7 @@ object HttpServerClassNames {
     val httpServerResponseMapper = ClassName("ru.tinkoff.kora.http.server.common.handler", "HttpServerResponseMapper");
     val httpServerRequestMapper = ClassName("ru.tinkoff.kora.http.server.common.handler", "HttpServerRequestMapper");
     val httpServerRequest = ClassName("ru.tinkoff.kora.http.server.common", "HttpServerRequest");
+    val responseCache = ClassName("ru.tinkoff.kora.http.server.common.annotation", "ResponseCache");
+    val responseCacheInterceptor = ClassName("ru.tinkoff.kora.http.server.common.cache", "ResponseCacheHttpServerInterceptor");
 
 }
@@ -1,10 +1,12 @@
 package ru.tinkoff.kora.http.server.symbol.procesor
 
+import com.google.devtools.ksp.getAllSuperTypes
 import com.google.devtools.ksp.symbol.*
 import com.squareup.kotlinpoet.*
 import com.squareup.kotlinpoet.ParameterizedTypeName.Companion.parameterizedBy
 import com.squareup.kotlinpoet.ksp.toClassName
 import com.squareup.kotlinpoet.ksp.toTypeName
+import ru.tinkoff.kora.http.server.common.router.PathTemplateRouter
 import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.cookie
 import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.header
 import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.httpRoute
@@ -19,6 +21,8 @@ import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.intercep
 import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.interceptWithContainer
 import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.path
 import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.query
+import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.responseCache
+import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.responseCacheInterceptor
 import ru.tinkoff.kora.http.server.symbol.procesor.HttpServerClassNames.stringParameterReader
 import ru.tinkoff.kora.ksp.common.AnnotationUtils.findAnnotation
 import ru.tinkoff.kora.ksp.common.AnnotationUtils.findValueNoDefault
@@ -30,6 +34,7 @@ import ru.tinkoff.kora.ksp.common.CommonClassNames.isList
 import ru.tinkoff.kora.ksp.common.CommonClassNames.isSet
 import ru.tinkoff.kora.ksp.common.KotlinPoetUtils.controlFlow
 import ru.tinkoff.kora.ksp.common.KspCommonUtils.findRepeatableAnnotation
+import ru.tinkoff.kora.ksp.common.exception.ProcessingErrorException
 import ru.tinkoff.kora.ksp.common.makeTagAnnotationSpec
 import ru.tinkoff.kora.ksp.common.parseMappingData
 import ru.tinkoff.kora.ksp.common.parseTags
@@ -108,25 +113,34 @@ class RouteProcessor {
             funBuilder.addParameter("_executor", HttpServerClassNames.blockingRequestExecutor)
         }
 
+        val interceptorNames = ArrayList<String>(interceptors.size + 1)
+        for (i in interceptors.indices) {
+            val interceptor = interceptors[i]
+            val interceptorName = "_interceptor" + (i + 1)
+            interceptorNames.add(interceptorName)
+            val builder = ParameterSpec.builder(interceptorName, interceptor.type)
+            if (interceptor.tag != null) {
+                builder.addAnnotation(interceptor.tag)
+            }
+            funBuilder.addParameter(builder.build())
+        }
+        if (funBuilder.addResponseCache(function, requestMappingData)) {
+            // innermost, so authorization and other interceptors still run on cache hits
+            interceptorNames.add("_responseCacheInterceptor")
+        }
+
         funBuilder.controlFlow("return %T.of(%S, %S) { _ctx, _request ->", httpServerRequestHandlerImpl, requestMappingData.method, requestMappingData.pathTemplate) {
             var requestName = "_request"
-            for (i in interceptors.indices) {
-                val interceptor = interceptors[i]
-                val interceptorName = "_interceptor" + (i + 1)
+            for (i in interceptorNames.indices) {
                 val newRequestName = "_request" + (i + 1)
                 funBuilder.beginControlFlow("try")
-                funBuilder.beginControlFlow("%N.intercept(_ctx, %N) { _ctx, %N ->", interceptorName, requestName, newRequestName)
+                funBuilder.beginControlFlow("%N.intercept(_ctx, %N) { _ctx, %N ->", interceptorNames[i], requestName, newRequestName)
                 requestName = newRequestName
-                val builder = ParameterSpec.builder(interceptorName, interceptor.type)
-                if (interceptor.tag != null) {
-                    builder.addAnnotation(interceptor.tag)
-                }
-                funBuilder.addParameter(builder.build())
             }
 
             funBuilder.beginControlFlow("try")
 
-            function.parameters.forEach { funBuilder.generateParameterDeclaration(it, requestName) }
+            function.parameters.forEach { funBuilder.generateParameterDeclaration(it, requestName, requestMappingData.pathTemplate) }
 
             val params = function.parameters.joinToString(",") { it.name!!.asString() }
             if (isBlocking) {
@@ -191,7 +205,7 @@ class RouteProcessor {
                 .endControlFlow()
         }
 
-        for (i in interceptors) {
+        for (i in interceptorNames) {
             funBuilder.nextControlFlow("catch (_e: Exception)")
                 .addStatement("%T.failedFuture(_e)", CompletableFuture::class)
                 .endControlFlow()
@@ -201,7 +215,30 @@ class RouteProcessor {
         return funBuilder
     }
 
-    private fun FunSpec.Builder.generateParameterDeclaration(param: KSValueParameter, requestName: String) {
+    private fun FunSpec.Builder.addResponseCache(function: KSFunctionDeclaration, route: Route): Boolean {
+        val annotation = function.findAnnotation(responseCache) ?: return false
+        if (!route.method.equals("GET", true)) {
+            throw ProcessingErrorException("@ResponseCache can be used only on GET routes", function)
+        }
+        val cacheType = annotation.findValueNoDefault<KSType>("value")!!
+        val cacheDeclaration = cacheType.declaration as? KSClassDeclaration
+        if (cacheDeclaration == null || cacheDeclaration.getAllSuperTypes().none { it.declaration.qualifiedName?.asString() == "ru.tinkoff.kora.cache.Cache" }) {
+            throw ProcessingErrorException("@ResponseCache value should implement ru.tinkoff.kora.cache.Cache<HttpResponseCacheKey, CachedHttpResponse>", function)
+        }
+        val queries = annotation.findValueNoDefault<List<String>>("queries") ?: listOf()
+        val headers = annotation.findValueNoDefault<List<String>>("headers") ?: listOf()
+        addParameter("_responseCache", cacheType.toTypeName())
+        addStatement(
+            "val _responseCacheInterceptor = %T(_responseCache, %S, listOf(%L), listOf(%L))",
+            responseCacheInterceptor,
+            route.pathTemplate,
+            queries.map { CodeBlock.of("%S", it) }.joinToCode(", "),
+            headers.map { CodeBlock.of("%S", it) }.joinToCode(", ")
+        )
+        return true
+    }
+
+    private fun FunSpec.Builder.generateParameterDeclaration(param: KSValueParameter, requestName: String, pathTemplate: String) {
         param.findAnnotation(query)?.let {
             return parseQueryParameter(param, it)
         }
@@ -209,7 +246,7 @@ class RouteProcessor {
             return parseHeaderParameter(param, it)
         }
         param.findAnnotation(path)?.let {
-            return parsePathParameter(param, it)
+            return parsePathParameter(param, it, pathTemplate)
         }
         param.findAnnotation(cookie)?.let {
             return parseCookieParameter(param, it)
@@ -230,7 +267,7 @@ class RouteProcessor {
         return Route(method, "$rootPath${path}")
     }
 
-    private fun FunSpec.Builder.parsePathParameter(parameter: KSValueParameter, annotation: KSAnnotation) {
+    private fun FunSpec.Builder.parsePathParameter(parameter: KSValueParameter, annotation: KSAnnotation, pathTemplate: String) {
         val name = annotation.findValueNoDefault<String>("value").let {
             if (it.isNullOrBlank()) {
                 parameter.name!!.asString()
@@ -240,14 +277,16 @@ class RouteProcessor {
         }
         val parameterName = parameter.name!!.asString()
         val parameterTypeName = parameter.type.toTypeName()
+        val index = PathTemplateRouter.parameterIndex(pathTemplate, name)
+        val args = if (index < 0) CodeBlock.of("_request, %S", name) else CodeBlock.of("_request, %L, %S", index, name)
         val extractor = ExtractorFunctions.path[parameterTypeName]
         if (extractor != null) {
-            addStatement("val %N = %M(_request, %S)", parameterName, extractor, name)
+            addStatement("val %N = %M(%L)", parameterName, extractor, args)
         } else {
             val stringExtractor = ExtractorFunctions.path[STRING]!!
             val readerParameterName = "_${parameterName}StringParameterReader"
             addCode("val %N = ", parameterName).check400 {
-                addStatement("%N.read(%M(_request, %S))", readerParameterName, stringExtractor, name)
+                addStatement("%N.read(%M(%L))", readerParameterName, stringExtractor, args)
             }
         }
     }
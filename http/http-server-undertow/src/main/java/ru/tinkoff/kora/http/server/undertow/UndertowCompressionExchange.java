@@ -0,0 +1,57 @@
+package ru.tinkoff.kora.http.server.undertow;
+
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
+
+import java.util.List;
+
+final class UndertowCompressionExchange implements HttpServerResponseCompression.Exchange {
+    private final HttpServerExchange exchange;
+
+    UndertowCompressionExchange(HttpServerExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    @Override
+    public int statusCode() {
+        return this.exchange.getStatusCode();
+    }
+
+    @Override
+    public boolean isHeadRequest() {
+        return this.exchange.getRequestMethod().equals(Methods.HEAD);
+    }
+
+    @Override
+    public List<String> requestHeaders(String name) {
+        return values(this.exchange.getRequestHeaders().get(name));
+    }
+
+    @Override
+    public List<String> responseHeaders(String name) {
+        return values(this.exchange.getResponseHeaders().get(name));
+    }
+
+    @Override
+    public void setResponseHeader(String name, String value) {
+        this.exchange.getResponseHeaders().put(HttpString.tryFromString(name), value);
+    }
+
+    @Override
+    public void addResponseHeader(String name, String value) {
+        this.exchange.getResponseHeaders().add(HttpString.tryFromString(name), value);
+    }
+
+    @Override
+    public void removeResponseHeader(String name) {
+        this.exchange.getResponseHeaders().remove(name);
+    }
+
+    private static List<String> values(@Nullable HeaderValues values) {
+        return values == null ? List.of() : values;
+    }
+}
@@ -10,21 +10,28 @@ import io.undertow.util.HttpString;
 import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xnio.ChannelListener;
 import org.xnio.IoUtils;
+import org.xnio.channels.StreamSinkChannel;
 import ru.tinkoff.kora.common.Context;
 import ru.tinkoff.kora.common.util.flow.LazySingleSubscription;
 import ru.tinkoff.kora.common.util.flow.SingleSubscription;
+import ru.tinkoff.kora.http.common.body.FileRegionHttpBodyOutput;
 import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
 import ru.tinkoff.kora.http.common.header.HttpHeaders;
 import ru.tinkoff.kora.http.server.common.HttpServer;
 import ru.tinkoff.kora.http.server.common.HttpServerResponse;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
 import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
 import ru.tinkoff.kora.http.server.common.router.PublicApiResponse;
+import ru.tinkoff.kora.http.server.common.stream.EventStreamHttpBodyOutput;
 import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTracer;
 import ru.tinkoff.kora.http.server.undertow.request.UndertowPublicApiRequest;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.concurrent.CompletionException;
@@ -59,12 +66,19 @@ public class UndertowExchangeProcessor implements Runnable {
     private final Context context;
     @Nullable
     private final HttpServerTracer tracer;
+    @Nullable
+    private final HttpServerResponseCompression compression;
 
     public UndertowExchangeProcessor(HttpServerExchange exchange, PublicApiHandler publicApiHandler, Context context, @Nullable HttpServerTracer tracer) {
+        this(exchange, publicApiHandler, context, tracer, null);
+    }
+
+    public UndertowExchangeProcessor(HttpServerExchange exchange, PublicApiHandler publicApiHandler, Context context, @Nullable HttpServerTracer tracer, @Nullable HttpServerResponseCompression compression) {
         this.exchange = exchange;
         this.publicApiHandler = publicApiHandler;
         this.context = context;
         this.tracer = tracer;
+        this.compression = compression;
     }
 
     @Override
@@ -139,6 +153,10 @@ public class UndertowExchangeProcessor implements Runnable {
         if (contentType != null) {
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, contentType);
         }
+        if (body instanceof FileRegionHttpBodyOutput fileRegion) {
+            this.sendFileRegion(response, httpResponse, fileRegion, error);
+            return;
+        }
         var full = body.getFullContentIfAvailable();
         if (full != null) {
             this.sendFullBody(response, httpResponse, full, error);
@@ -146,16 +164,22 @@ public class UndertowExchangeProcessor implements Runnable {
         }
 
         var contentLength = body.contentLength();
-        if (contentLength >= 0) {
+        // event stream is long-lived: it is written as connection allows without holding a thread, and compression would delay events
+        var eventStream = body instanceof EventStreamHttpBodyOutput<?>;
+        var compressor = this.compression == null || eventStream ? null : this.compression.start(new UndertowCompressionExchange(exchange), contentLength);
+        if (contentLength >= 0 && compressor == null) {
             exchange.setResponseContentLength(contentLength);
         }
-        if (this.isInBlockingThread()) {
+        if (this.isInBlockingThread() && !eventStream) {
             if (!exchange.isBlocking()) {
                 exchange.startBlocking();
             }
-            try (var os = exchange.getOutputStream()) {
+            try (var os = this.outputStream(exchange, compressor)) {
                 body.write(os);
             } catch (IOException e) {
+                if (compressor != null) {
+                    compressor.discard();
+                }
                 response.closeConnectionError(exchange.getStatusCode(), e);
                 if (!exchange.isResponseStarted()) {
                     exchange.setStatusCode(500);
@@ -163,6 +187,9 @@ public class UndertowExchangeProcessor implements Runnable {
                 }
                 return;
             } catch (Exception e) {
+                if (compressor != null) {
+                    compressor.discard();
+                }
                 response.closeBodyError(exchange.getStatusCode(), e);
                 if (!exchange.isResponseStarted()) {
                     exchange.setStatusCode(500);
@@ -173,11 +200,19 @@ public class UndertowExchangeProcessor implements Runnable {
             if (exchange.isComplete()) {
                 response.closeSendResponseSuccess(exchange.getStatusCode(), httpResponse.headers(), error);
             }
+        } else if (eventStream) {
+            // events are published from application threads, sender must only be used from connection io thread
+            body.subscribe(new IoThreadSubscriber(exchange, new HttpResponseBodySubscriber(exchange, response, headers, null, error)));
         } else {
-            sendStreamingBody(response, headers, body, error);
+            sendStreamingBody(response, headers, body, compressor, error);
         }
     }
 
+    private OutputStream outputStream(HttpServerExchange exchange, @Nullable HttpServerResponseCompression.Compressor compressor) {
+        var os = exchange.getOutputStream();
+        return compressor == null ? os : compressor.outputStream(os);
+    }
+
     private void setHeaders(HeaderMap responseHeaders, HttpHeaders headers, @Nullable String contentType) {
         for (var header : headers) {
             var key = header.getKey();
@@ -209,6 +244,10 @@ public class UndertowExchangeProcessor implements Runnable {
             });
             exchange.endExchange();
         } else {
+            var compressor = this.compression == null ? null : this.compression.start(new UndertowCompressionExchange(exchange), body.remaining());
+            if (compressor != null) {
+                body = compressor.compress(body);
+            }
             exchange.setResponseContentLength(body.remaining());
             // io.undertow.io.DefaultIoCallback
             exchange.getResponseSender().send(body, new IoCallback() {
@@ -252,6 +291,34 @@ public class UndertowExchangeProcessor implements Runnable {
         }
     }
 
+    private void sendFileRegion(PublicApiResponse response, HttpServerResponse httpResponse, FileRegionHttpBodyOutput body, @Nullable Throwable error) {
+        var exchange = this.exchange;
+        final FileChannel file;
+        try {
+            file = body.openChannel();
+            if (file.size() < body.position() + body.contentLength()) {
+                IoUtils.safeClose(file);
+                throw new IOException("File " + body.file() + " is shorter than response region");
+            }
+        } catch (IOException e) {
+            response.closeBodyError(500, e);
+            exchange.setStatusCode(500);
+            exchange.endExchange();
+            return;
+        }
+        exchange.setResponseContentLength(body.contentLength());
+        exchange.addExchangeCompleteListener((e, nextListener) -> {
+            IoUtils.safeClose(file);
+            nextListener.proceed();
+        });
+        var transfer = new FileRegionTransfer(exchange, response, httpResponse.headers(), file, body.position(), body.contentLength(), error);
+        if (exchange.isInIoThread()) {
+            transfer.run();
+        } else {
+            exchange.getIoThread().execute(transfer);
+        }
+    }
+
     private void sendException(PublicApiResponse response, Throwable error) {
         if (!(error instanceof HttpServerResponse rs)) {
             exchange.setStatusCode(500);
@@ -296,13 +363,17 @@ public class UndertowExchangeProcessor implements Runnable {
             return;
         }
 
+        var compressor = this.compression == null ? null : this.compression.start(new UndertowCompressionExchange(exchange), body.contentLength());
         if (this.isInBlockingThread()) {
             if (!exchange.isBlocking()) {
                 exchange.startBlocking();
             }
-            try (var os = exchange.getOutputStream()) {
+            try (var os = this.outputStream(exchange, compressor)) {
                 body.write(os);
             } catch (IOException e) {
+                if (compressor != null) {
+                    compressor.discard();
+                }
                 if (!exchange.isResponseStarted()) {
                     exchange.setStatusCode(500);
                 } else {
@@ -319,7 +390,7 @@ public class UndertowExchangeProcessor implements Runnable {
             response.closeSendResponseSuccess(exchange.getStatusCode(), rs.headers(), error);
             return;
         }
-        sendStreamingBody(response, HttpHeaders.empty(), body, error);
+        sendStreamingBody(response, HttpHeaders.empty(), body, compressor, error);
     }
 
     private boolean isInBlockingThread() {
@@ -340,22 +411,134 @@ public class UndertowExchangeProcessor implements Runnable {
         return false;
     }
 
-    private void sendStreamingBody(PublicApiResponse response, HttpHeaders headers, HttpBodyOutput body, @Nullable Throwable error) {
-        body.subscribe(new HttpResponseBodySubscriber(exchange, response, headers, error));
+    private void sendStreamingBody(PublicApiResponse response, HttpHeaders headers, HttpBodyOutput body, @Nullable HttpServerResponseCompression.Compressor compressor, @Nullable Throwable error) {
+        body.subscribe(new HttpResponseBodySubscriber(exchange, response, headers, compressor, error));
+    }
+
+    /**
+     * Transfers file region straight from page cache to the socket, waiting for connection write readiness when socket buffer is full
+     */
+    private static final class FileRegionTransfer implements Runnable, ChannelListener<StreamSinkChannel> {
+        private final HttpServerExchange exchange;
+        private final PublicApiResponse response;
+        private final HttpHeaders headers;
+        private final FileChannel file;
+        @Nullable
+        private final Throwable error;
+        private long position;
+        private long remaining;
+
+        private FileRegionTransfer(HttpServerExchange exchange, PublicApiResponse response, HttpHeaders headers, FileChannel file, long position, long count, @Nullable Throwable error) {
+            this.exchange = exchange;
+            this.response = response;
+            this.headers = headers;
+            this.file = file;
+            this.position = position;
+            this.remaining = count;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            this.transfer(this.exchange.getResponseChannel());
+        }
+
+        @Override
+        public void handleEvent(StreamSinkChannel channel) {
+            channel.suspendWrites();
+            this.transfer(channel);
+        }
+
+        private void transfer(StreamSinkChannel channel) {
+            try {
+                while (this.remaining > 0) {
+                    var written = channel.transferFrom(this.file, this.position, this.remaining);
+                    if (written == 0) {
+                        channel.getWriteSetter().set(this);
+                        channel.resumeWrites();
+                        return;
+                    }
+                    this.position += written;
+                    this.remaining -= written;
+                }
+            } catch (IOException e) {
+                IoUtils.safeClose(this.exchange.getConnection());
+                this.response.closeConnectionError(this.exchange.getStatusCode(), this.error == null ? e : this.error);
+                return;
+            }
+            this.exchange.addExchangeCompleteListener((e, nextListener) -> {
+                this.response.closeSendResponseSuccess(e.getStatusCode(), this.headers, this.error);
+                nextListener.proceed();
+            });
+            this.exchange.endExchange();
+        }
+    }
+
+    /**
+     * Delivers body signals on exchange io thread: signals from other threads are queued to io thread,
+     * signals on io thread are delivered in place only when nothing is queued so that their order is kept
+     */
+    private static final class IoThreadSubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final HttpServerExchange exchange;
+        private final Flow.Subscriber<ByteBuffer> delegate;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private IoThreadSubscriber(HttpServerExchange exchange, Flow.Subscriber<ByteBuffer> delegate) {
+            this.exchange = exchange;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            this.delegate.onSubscribe(s);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            this.execute(() -> this.delegate.onNext(item));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.execute(() -> this.delegate.onError(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            this.execute(this.delegate::onComplete);
+        }
+
+        private void execute(Runnable signal) {
+            if (this.exchange.isInIoThread() && this.queued.get() == 0) {
+                signal.run();
+                return;
+            }
+            this.queued.incrementAndGet();
+            this.exchange.getIoThread().execute(() -> {
+                try {
+                    signal.run();
+                } finally {
+                    this.queued.decrementAndGet();
+                }
+            });
+        }
     }
 
     private static class HttpResponseBodySubscriber implements Flow.Subscriber<ByteBuffer> {
         private final HttpServerExchange exchange;
         private final PublicApiResponse response;
         private final HttpHeaders headers;
+        @Nullable
+        private final HttpServerResponseCompression.Compressor compressor;
         private final Throwable error;
         private volatile Subscription subscription;
         private final AtomicInteger state = new AtomicInteger(0);
 
-        private HttpResponseBodySubscriber(HttpServerExchange exchange, PublicApiResponse response, HttpHeaders headers, @Nullable Throwable error) {
+        private HttpResponseBodySubscriber(HttpServerExchange exchange, PublicApiResponse response, HttpHeaders headers, @Nullable HttpServerResponseCompression.Compressor compressor, @Nullable Throwable error) {
             this.exchange = exchange;
             this.response = response;
             this.headers = headers;
+            this.compressor = compressor;
             this.error = error;
         }
 
@@ -374,9 +557,11 @@ public class UndertowExchangeProcessor implements Runnable {
                 return;
             }
 
+            var compressor = this.compressor;
             if (subscription instanceof SingleSubscription<?> || subscription instanceof LazySingleSubscription<?>) {
-                this.exchange.setResponseContentLength(byteBuffer.remaining());
-                this.exchange.getResponseSender().send(byteBuffer, new IoCallback() {
+                var body = compressor == null ? byteBuffer : compressor.compress(byteBuffer);
+                this.exchange.setResponseContentLength(body.remaining());
+                this.exchange.getResponseSender().send(body, new IoCallback() {
                     @Override
                     public void onComplete(HttpServerExchange exchange, Sender sender) {
                         if (exchange.isComplete()) {
@@ -398,17 +583,20 @@ public class UndertowExchangeProcessor implements Runnable {
                 return;
             }
 
-            this.exchange.getResponseSender().send(byteBuffer, new IoCallback() {
+            final ByteBuffer chunk;
+            if (compressor == null) {
+                chunk = byteBuffer;
+            } else {
+                chunk = compressor.compressChunk(byteBuffer);
+                DirectByteBufferDeallocator.free(byteBuffer);
+            }
+            this.exchange.getResponseSender().send(chunk, new IoCallback() {
                 @Override
                 public void onComplete(HttpServerExchange exchange, Sender sender) {
                     var newState = HttpResponseBodySubscriber.this.state.decrementAndGet();
-                    DirectByteBufferDeallocator.free(byteBuffer);
+                    DirectByteBufferDeallocator.free(chunk);
                     if ((newState & (0x1 << 24)) != 0) {
-                        exchange.addExchangeCompleteListener((ex, nextListener) -> {
-                            HttpResponseBodySubscriber.this.response.closeSendResponseSuccess(ex.getStatusCode(), headers, null);
-                            nextListener.proceed();
-                        });
-                        exchange.endExchange();
+                        HttpResponseBodySubscriber.this.endExchange(headers, null);
                     } else {
                         HttpResponseBodySubscriber.this.subscription.request(1);
                     }
@@ -416,7 +604,10 @@ public class UndertowExchangeProcessor implements Runnable {
 
                 @Override
                 public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
-                    DirectByteBufferDeallocator.free(byteBuffer);
+                    DirectByteBufferDeallocator.free(chunk);
+                    if (compressor != null) {
+                        compressor.discard();
+                    }
                     HttpResponseBodySubscriber.this.subscription.cancel();
                     exchange.getResponseSender().close();
                     HttpResponseBodySubscriber.this.response.closeConnectionError(exchange.getStatusCode(), error == null ? exception : error);
@@ -427,6 +618,9 @@ public class UndertowExchangeProcessor implements Runnable {
         @Override
         public void onError(Throwable t) {
             var exchange = this.exchange;
+            if (this.compressor != null) {
+                this.compressor.discard();
+            }
             if (exchange.isResponseStarted()) {
                 exchange.getResponseSender().close();
                 HttpResponseBodySubscriber.this.response.closeBodyError(exchange.getStatusCode(), error == null ? t : error);
@@ -434,6 +628,7 @@ public class UndertowExchangeProcessor implements Runnable {
             } else {
                 exchange.setStatusCode(500);
                 exchange.getResponseHeaders().remove(Headers.CONTENT_LENGTH);
+                exchange.getResponseHeaders().remove(Headers.CONTENT_ENCODING);
                 exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain");
                 exchange.getResponseSender().send(t.getMessage());
                 exchange.endExchange();
@@ -450,12 +645,38 @@ public class UndertowExchangeProcessor implements Runnable {
             var newState = this.state.updateAndGet(oldState -> oldState | (0x1 << 24));
             if (newState == (0x1 << 24)) {
                 // no chunks if flight
+                this.endExchange(null, error);
+            }
+        }
+
+        private void endExchange(@Nullable HttpHeaders headers, @Nullable Throwable error) {
+            var compressor = this.compressor;
+            if (compressor == null) {
                 this.exchange.addExchangeCompleteListener((exchange, nextListener) -> {
-                    HttpResponseBodySubscriber.this.response.closeSendResponseSuccess(exchange.getStatusCode(), null, error);
+                    HttpResponseBodySubscriber.this.response.closeSendResponseSuccess(exchange.getStatusCode(), headers, error);
                     nextListener.proceed();
                 });
                 this.exchange.endExchange();
+                return;
             }
+            var trailer = compressor.finishChunks();
+            compressor.release();
+            this.exchange.getResponseSender().send(trailer, new IoCallback() {
+                @Override
+                public void onComplete(HttpServerExchange exchange, Sender sender) {
+                    exchange.addExchangeCompleteListener((ex, nextListener) -> {
+                        HttpResponseBodySubscriber.this.response.closeSendResponseSuccess(ex.getStatusCode(), headers, error);
+                        nextListener.proceed();
+                    });
+                    exchange.endExchange();
+                }
+
+                @Override
+                public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
+                    exchange.getResponseSender().close();
+                    HttpResponseBodySubscriber.this.response.closeConnectionError(exchange.getStatusCode(), error == null ? exception : error);
+                }
+            });
         }
     }
 
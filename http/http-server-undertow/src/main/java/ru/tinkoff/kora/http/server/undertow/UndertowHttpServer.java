@@ -1,6 +1,7 @@
 package ru.tinkoff.kora.http.server.undertow;
 
 import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
 import io.undertow.connector.ByteBufferPool;
 import io.undertow.server.handlers.GracefulShutdownHandler;
 import jakarta.annotation.Nullable;
@@ -90,14 +91,23 @@ public class UndertowHttpServer implements HttpServer, ReadinessProbe {
 
     private Undertow createServer() {
         var config = this.config.get();
-        return Undertow.builder()
+        var builder = Undertow.builder()
             .addHttpListener(config.publicApiHttpPort(), "0.0.0.0", this.gracefulShutdown)
             .setWorker(this.xnioWorker)
             .setByteBufferPool(this.byteBufferPool)
             .setServerOption(Options.READ_TIMEOUT, ((int) config.socketReadTimeout().toMillis()))
             .setServerOption(Options.WRITE_TIMEOUT, ((int) config.socketWriteTimeout().toMillis()))
-            .setServerOption(Options.KEEP_ALIVE, config.socketKeepAliveEnabled())
-            .build();
+            .setServerOption(Options.KEEP_ALIVE, config.socketKeepAliveEnabled());
+        var http2 = config.http2();
+        if (http2.enabled()) {
+            // cleartext listener accepts both prior knowledge connections and HTTP/1.1 Upgrade: h2c when HTTP/2 is enabled
+            builder.setServerOption(UndertowOptions.ENABLE_HTTP2, true)
+                .setServerOption(UndertowOptions.HTTP2_SETTINGS_MAX_CONCURRENT_STREAMS, http2.maxConcurrentStreams())
+                .setServerOption(UndertowOptions.HTTP2_SETTINGS_INITIAL_WINDOW_SIZE, http2.initialWindowSize())
+                .setServerOption(UndertowOptions.HTTP2_SETTINGS_MAX_FRAME_SIZE, http2.maxFrameSize())
+                .setServerOption(UndertowOptions.HTTP2_SETTINGS_ENABLE_PUSH, false);
+        }
+        return builder.build();
     }
 
     @Override
@@ -14,17 +14,22 @@ import ru.tinkoff.kora.common.annotation.Root;
 import ru.tinkoff.kora.config.common.Config;
 import ru.tinkoff.kora.config.common.extractor.ConfigValueExtractor;
 import ru.tinkoff.kora.http.server.common.HttpServerConfig;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
 import ru.tinkoff.kora.http.server.common.handler.BlockingRequestExecutor;
 import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetricsFactory;
 import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTracerFactory;
 
 public interface UndertowHttpServerModule extends UndertowModule {
 
     default UndertowPublicApiHandler undertowPublicApiHandler(PublicApiHandler publicApiHandler,
                                                               @Nullable HttpServerTracerFactory tracerFactory,
+                                                              @Nullable HttpServerMetricsFactory metricsFactory,
                                                               HttpServerConfig config) {
         var tracer = tracerFactory == null ? null : tracerFactory.get(config.telemetry().tracing());
-        return new UndertowPublicApiHandler(publicApiHandler, tracer);
+        var metrics = metricsFactory == null ? null : metricsFactory.get(config.telemetry().metrics());
+        var compression = HttpServerResponseCompression.create(config.compression(), metrics);
+        return new UndertowPublicApiHandler(publicApiHandler, tracer, compression);
     }
 
     @Root
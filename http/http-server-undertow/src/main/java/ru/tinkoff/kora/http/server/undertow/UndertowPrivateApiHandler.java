@@ -3,16 +3,14 @@ package ru.tinkoff.kora.http.server.undertow;
 import io.undertow.io.IoCallback;
 import io.undertow.io.Sender;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
 import io.undertow.util.SameThreadExecutor;
+import org.xnio.IoUtils;
 import ru.tinkoff.kora.http.server.common.PrivateApiHandler;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.Flow;
 
 public class UndertowPrivateApiHandler {
 
@@ -24,8 +22,9 @@ public class UndertowPrivateApiHandler {
 
     public void handleRequest(HttpServerExchange exchange) {
         var path = exchange.getRequestPath() + "?" + exchange.getQueryString();
+        var headers = new UndertowHttpHeaders(exchange.getRequestHeaders());
 
-        exchange.dispatch(SameThreadExecutor.INSTANCE, () -> this.privateApiHandler.handle(path)
+        exchange.dispatch(SameThreadExecutor.INSTANCE, () -> this.privateApiHandler.handle(path, headers)
             .whenCompleteAsync((response, error) -> {
                 if (error != null) {
                     exchange.setStatusCode(500);
@@ -38,12 +37,24 @@ public class UndertowPrivateApiHandler {
                     return;
                 }
                 exchange.setStatusCode(response.code());
+                for (var header : response.headers()) {
+                    var key = header.getKey();
+                    if (key.equals("server") || key.equals("content-length") || key.equals("transfer-encoding")) {
+                        continue;
+                    }
+                    exchange.getResponseHeaders().putAll(HttpString.tryFromString(key), header.getValue());
+                }
                 var body = response.body();
                 if (body == null) {
                     exchange.endExchange();
                     return;
                 }
-                exchange.setResponseContentLength(body.contentLength());
+                if (body.contentType() != null) {
+                    exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, body.contentType());
+                }
+                if (body.contentLength() >= 0) {
+                    exchange.setResponseContentLength(body.contentLength());
+                }
                 var full = body.getFullContentIfAvailable();
                 if (full != null) {
                     exchange.getResponseSender().send(full, new IoCallback() {
@@ -68,40 +79,16 @@ public class UndertowPrivateApiHandler {
                     });
                     return;
                 }
-                body.subscribe(new Flow.Subscriber<ByteBuffer>() {
-                    private final List<ByteBuffer> buf = Collections.synchronizedList(new ArrayList<>());
-
-                    @Override
-                    public void onSubscribe(Flow.Subscription subscription) {
-                        subscription.request(Long.MAX_VALUE);
-                    }
-
-                    @Override
-                    public void onNext(ByteBuffer item) {
-                        buf.add(item);
-                    }
-
-                    @Override
-                    public void onError(Throwable throwable) {
-                        exchange.setStatusCode(500);
-                        exchange.getResponseSender().send(error.getMessage(), StandardCharsets.UTF_8);
-                        try {
-                            body.close();
-                        } catch (IOException ignore) {
-                        }
-                    }
-
-                    @Override
-                    public void onComplete() {
-                        var arr = buf.toArray(ByteBuffer[]::new);
-                        exchange.getConnection().getWorker().execute(() -> exchange.getResponseSender().send(arr));
-                        try {
-                            body.close();
-                        } catch (IOException ignore) {
-                        }
+                // body of unknown length is written straight to connection instead of being collected in memory
+                exchange.getConnection().getWorker().execute(() -> {
+                    try (body) {
+                        exchange.startBlocking();
+                        body.write(exchange.getOutputStream());
+                    } catch (Exception e) {
+                        IoUtils.safeClose(exchange.getConnection());
                     }
+                    exchange.endExchange();
                 });
-
             }, exchange.getConnection().getIoThread()));
     }
 }
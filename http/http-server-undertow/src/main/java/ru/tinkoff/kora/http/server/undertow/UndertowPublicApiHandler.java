@@ -4,6 +4,7 @@ import io.undertow.server.HttpServerExchange;
 import io.undertow.util.SameThreadExecutor;
 import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
 import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
 import ru.tinkoff.kora.http.server.common.telemetry.HttpServerTracer;
 
@@ -12,15 +13,22 @@ public final class UndertowPublicApiHandler {
     private final PublicApiHandler publicApiHandler;
     @Nullable
     private final HttpServerTracer tracer;
+    @Nullable
+    private final HttpServerResponseCompression compression;
 
     public UndertowPublicApiHandler(PublicApiHandler publicApiHandler, @Nullable HttpServerTracer tracer) {
+        this(publicApiHandler, tracer, null);
+    }
+
+    public UndertowPublicApiHandler(PublicApiHandler publicApiHandler, @Nullable HttpServerTracer tracer, @Nullable HttpServerResponseCompression compression) {
         this.publicApiHandler = publicApiHandler;
         this.tracer = tracer;
+        this.compression = compression;
     }
 
     public void handleRequest(HttpServerExchange exchange) {
         var context = Context.clear();
-        var exchangeProcessor = new UndertowExchangeProcessor(exchange, this.publicApiHandler, context, this.tracer);
+        var exchangeProcessor = new UndertowExchangeProcessor(exchange, this.publicApiHandler, context, this.tracer, this.compression);
         exchange.dispatch(SameThreadExecutor.INSTANCE, exchangeProcessor);
     }
 }
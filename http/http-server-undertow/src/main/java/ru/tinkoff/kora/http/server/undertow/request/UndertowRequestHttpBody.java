@@ -3,24 +3,22 @@ package ru.tinkoff.kora.http.server.undertow.request;
 import io.undertow.server.Connectors;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.Headers;
-import io.undertow.util.SameThreadExecutor;
 import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.common.Context;
 import ru.tinkoff.kora.common.util.FlowUtils;
 import ru.tinkoff.kora.common.util.flow.ErrorSubscription;
-import ru.tinkoff.kora.http.common.body.HttpBodyInput;
+import ru.tinkoff.kora.http.common.body.PooledHttpBodyInput;
+import ru.tinkoff.kora.http.common.body.ReleasableByteBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.LinkedList;
 import java.util.Queue;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow.Subscriber;
 
-public final class UndertowRequestHttpBody implements HttpBodyInput {
+public final class UndertowRequestHttpBody implements PooledHttpBodyInput {
     private final Context context;
     private final HttpServerExchange exchange;
 
@@ -89,6 +87,14 @@ public final class UndertowRequestHttpBody implements HttpBodyInput {
         }
     }
 
+    @Override
+    public void subscribePooled(Subscriber<? super ReleasableByteBuffer> s) {
+        var prefetched = this.prefetchedData;
+        this.prefetchedData = null;
+        var subscription = new UndertowRequestHttpBodyPooledSubscription(s, this.exchange, prefetched == null ? new ArrayDeque<>() : prefetched);
+        s.onSubscribe(subscription);
+    }
+
     @Override
     public InputStream asInputStream() {
         if (this.exchange.isInIoThread()) {
@@ -107,70 +113,4 @@ public final class UndertowRequestHttpBody implements HttpBodyInput {
         });
         this.exchange.getRequestReceiver().resume();
     }
-
-    @Override
-    public CompletionStage<ByteBuffer> asBufferStage() {
-        var exchange = this.exchange;
-        var future = new CompletableFuture<ByteBuffer>();
-        exchange.getRequestReceiver().receiveFullBytes(
-            (ex, message) -> {
-                ex.dispatch(SameThreadExecutor.INSTANCE, () -> {
-                    var prefetched = this.prefetchedData;
-                    if (prefetched == null || prefetchedData.isEmpty()) {
-                        future.complete(ByteBuffer.wrap(message));
-                        return;
-                    }
-                    this.prefetchedData = null;
-
-                    var result = buildArray(prefetched, message);
-                    future.complete(ByteBuffer.wrap(result));
-                });
-            },
-            (ex, error) -> ex.dispatch(SameThreadExecutor.INSTANCE, () -> future.completeExceptionally(error))
-        );
-        return future;
-    }
-
-    @Override
-    public CompletionStage<byte[]> asArrayStage() {
-        var exchange = this.exchange;
-        var future = new CompletableFuture<byte[]>();
-        exchange.getRequestReceiver().receiveFullBytes(
-            (ex, message) -> {
-                ex.dispatch(SameThreadExecutor.INSTANCE, () -> {
-                    var prefetched = this.prefetchedData;
-                    if (prefetched == null || prefetchedData.isEmpty()) {
-                        future.complete(message);
-                        return;
-                    }
-                    this.prefetchedData = null;
-
-                    var result = buildArray(prefetched, message);
-                    future.complete(result);
-                });
-            },
-            (ex, error) -> ex.dispatch(SameThreadExecutor.INSTANCE, () -> future.completeExceptionally(error))
-        );
-        return future;
-    }
-
-    private byte[] buildArray(Queue<byte[]> prefetched, byte[] message) {
-        var all = new ArrayList<byte[]>();
-        var size = message.length;
-        while (!prefetched.isEmpty()) {
-            var data = prefetched.poll();
-            all.add(data);
-            size += data.length;
-        }
-
-        all.add(message);
-
-        var result = new byte[size];
-        var pos = 0;
-        for (byte[] bytes : all) {
-            System.arraycopy(bytes, 0, result, pos, bytes.length);
-            pos += bytes.length;
-        }
-        return result;
-    }
 }
@@ -0,0 +1,173 @@
+package ru.tinkoff.kora.http.server.undertow.request;
+
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.server.Connectors;
+import io.undertow.server.HttpServerExchange;
+import jakarta.annotation.Nullable;
+import org.xnio.ChannelListener;
+import org.xnio.channels.StreamSourceChannel;
+import ru.tinkoff.kora.http.common.body.ReleasableByteBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Reads request channel directly into connection pool buffers and hands them to subscriber as read-only views.
+ * Channel is accessed only from exchange IO thread, so all subscriber signals come from it.
+ */
+final class UndertowRequestHttpBodyPooledSubscription implements Subscription, ChannelListener<StreamSourceChannel> {
+
+    static final AtomicLongFieldUpdater<UndertowRequestHttpBodyPooledSubscription> REQUESTED = AtomicLongFieldUpdater.newUpdater(UndertowRequestHttpBodyPooledSubscription.class, "demand");
+    volatile long demand = 0;
+
+    private final Subscriber<? super ReleasableByteBuffer> s;
+    private final HttpServerExchange exchange;
+    private final Queue<byte[]> prefetchedData;
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private volatile boolean cancelled = false;
+    @Nullable
+    private StreamSourceChannel channel;
+
+    UndertowRequestHttpBodyPooledSubscription(Subscriber<? super ReleasableByteBuffer> s, HttpServerExchange exchange, Queue<byte[]> prefetchedData) {
+        this.s = s;
+        this.exchange = exchange;
+        this.prefetchedData = prefetchedData;
+        this.exchange.addExchangeCompleteListener((ex, next) -> {
+            next.proceed();
+            if (this.done.compareAndSet(false, true)) {
+                this.s.onError(new IllegalStateException("Response send before request body is fully read"));
+            }
+        });
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            if (this.done.compareAndSet(false, true)) {
+                this.cancelled = true;
+                this.s.onError(new IllegalArgumentException("Requested " + n + " items, should be positive"));
+                this.exchange.getIoThread().execute(this::drain);
+            }
+            return;
+        }
+        var oldDemand = Operators.addCap(REQUESTED, this, n);
+        if (oldDemand <= 0) {
+            this.exchange.getIoThread().execute(this::drain);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (this.done.compareAndSet(false, true)) {
+            this.cancelled = true;
+            this.exchange.getIoThread().execute(this::drain);
+        }
+    }
+
+    @Override
+    public void handleEvent(StreamSourceChannel channel) {
+        this.drain();
+    }
+
+    private void drain() {
+        var channel = this.channel;
+        if (channel == null) {
+            Connectors.resetRequestChannel(this.exchange);
+            channel = this.channel = this.exchange.getRequestChannel();
+            Connectors.resetRequestChannel(this.exchange);
+            channel.getReadSetter().set(this);
+        }
+        if (this.cancelled) {
+            this.discard(channel);
+            return;
+        }
+        while (this.demand > 0 && !this.prefetchedData.isEmpty() && !this.done.get()) {
+            REQUESTED.decrementAndGet(this);
+            this.s.onNext(new Chunk(null, ByteBuffer.wrap(this.prefetchedData.poll()).asReadOnlyBuffer()));
+        }
+        var pool = this.exchange.getConnection().getByteBufferPool();
+        while (this.demand > 0 && !this.done.get()) {
+            var pooled = pool.allocate();
+            var buffer = pooled.getBuffer();
+            buffer.clear();
+            final int res;
+            try {
+                res = channel.read(buffer);
+            } catch (IOException e) {
+                pooled.close();
+                channel.suspendReads();
+                if (this.done.compareAndSet(false, true)) {
+                    this.s.onError(e);
+                }
+                return;
+            }
+            if (res < 0) {
+                pooled.close();
+                channel.suspendReads();
+                if (this.done.compareAndSet(false, true)) {
+                    this.s.onComplete();
+                }
+                return;
+            }
+            if (res == 0) {
+                pooled.close();
+                channel.resumeReads();
+                return;
+            }
+            REQUESTED.decrementAndGet(this);
+            this.s.onNext(new Chunk(pooled, buffer.flip().asReadOnlyBuffer()));
+        }
+        if (this.cancelled) {
+            this.discard(channel);
+        } else {
+            channel.suspendReads();
+        }
+    }
+
+    private void discard(StreamSourceChannel channel) {
+        try (var pooled = this.exchange.getConnection().getByteBufferPool().allocate()) {
+            var buffer = pooled.getBuffer();
+            int res;
+            do {
+                buffer.clear();
+                res = channel.read(buffer);
+            } while (res > 0);
+            if (res == 0) {
+                channel.resumeReads();
+            } else {
+                channel.suspendReads();
+            }
+        } catch (IOException e) {
+            channel.suspendReads();
+        }
+    }
+
+    private static final class Chunk implements ReleasableByteBuffer {
+        @Nullable
+        private final PooledByteBuffer pooled;
+        private final ByteBuffer buffer;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Chunk(@Nullable PooledByteBuffer pooled, ByteBuffer buffer) {
+            this.pooled = pooled;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public ByteBuffer buffer() {
+            return this.buffer;
+        }
+
+        @Override
+        public void release() {
+            if (this.pooled != null && this.released.compareAndSet(false, true)) {
+                this.pooled.close();
+            }
+        }
+    }
+}
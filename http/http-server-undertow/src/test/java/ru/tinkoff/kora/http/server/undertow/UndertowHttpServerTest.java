@@ -3,6 +3,7 @@ package ru.tinkoff.kora.http.server.undertow;
 import io.undertow.server.DefaultByteBufferPool;
 import ru.tinkoff.kora.application.graph.ValueOf;
 import ru.tinkoff.kora.http.server.common.*;
+import ru.tinkoff.kora.http.server.common.compression.HttpServerResponseCompression;
 import ru.tinkoff.kora.http.server.common.router.PublicApiHandler;
 
 class UndertowHttpServerTest extends HttpServerTestKit {
@@ -11,7 +12,7 @@ class UndertowHttpServerTest extends HttpServerTestKit {
     protected HttpServer httpServer(ValueOf<HttpServerConfig> config, PublicApiHandler publicApiHandler) {
         return new UndertowHttpServer(
             config,
-            valueOf(new UndertowPublicApiHandler(publicApiHandler, null)),
+            valueOf(new UndertowPublicApiHandler(publicApiHandler, null, HttpServerResponseCompression.create(config.get().compression(), metrics))),
             null,
             new DefaultByteBufferPool(false, 1024)
         );
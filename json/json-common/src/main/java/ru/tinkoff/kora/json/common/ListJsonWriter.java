@@ -13,6 +13,13 @@ public class ListJsonWriter<T> implements JsonWriter<List<T>> {
         this.writer = writer;
     }
 
+    /**
+     * @return writer of list elements
+     */
+    public JsonWriter<T> elementWriter() {
+        return this.writer;
+    }
+
     @Override
     public void write(JsonGenerator gen, @Nullable List<T> object) throws IOException {
         if (object == null) {
@@ -13,6 +13,13 @@ public class SetJsonWriter<T> implements JsonWriter<Set<T>> {
         this.writer = writer;
     }
 
+    /**
+     * @return writer of set elements
+     */
+    public JsonWriter<T> elementWriter() {
+        return this.writer;
+    }
+
     @Override
     public void write(JsonGenerator gen, @Nullable Set<T> object) throws IOException {
         if (object == null) {
@@ -0,0 +1,212 @@
+package ru.tinkoff.kora.json.module.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.json.common.JsonWriter;
+import ru.tinkoff.kora.json.common.ListJsonWriter;
+import ru.tinkoff.kora.json.common.SetJsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serializes value into fixed size chunks on subscriber demand: chunks are produced only when there is no serialized chunk to emit.
+ * <p>
+ * Jackson generator can't be suspended in the middle of a value, so list and set values written by {@link ListJsonWriter} and {@link SetJsonWriter}
+ * are serialized by element until a chunk is filled, other values are serialized completely on first request.
+ * Emitted chunks are not referenced anymore, so they can be collected as soon as they are written.
+ */
+final class JsonChunkedSubscription<T> implements Flow.Subscription {
+    private final Flow.Subscriber<? super ByteBuffer> subscriber;
+    private final Context context;
+    private final JsonWriter<T> writer;
+    @Nullable
+    private final T value;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final ChunkedOutputStream out = new ChunkedOutputStream();
+    private volatile boolean done = false;
+    @Nullable
+    private JsonGenerator gen;
+    @Nullable
+    private JsonWriter<Object> elementWriter;
+    @Nullable
+    private Iterator<?> elements;
+    private boolean serialized = false;
+
+    JsonChunkedSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, Context context, JsonWriter<T> writer, @Nullable T value) {
+        this.subscriber = subscriber;
+        this.context = context;
+        this.writer = writer;
+        this.value = value;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            if (!this.done) {
+                this.done = true;
+                this.subscriber.onError(new IllegalArgumentException("Requested " + n + " items, should be positive"));
+            }
+            return;
+        }
+        this.demand.getAndAccumulate(n, (current, requested) -> current + requested < 0 ? Long.MAX_VALUE : current + requested);
+        if (this.wip.getAndIncrement() != 0) {
+            return;
+        }
+        var ctx = Context.current();
+        this.context.inject();
+        try {
+            var missed = 1;
+            do {
+                if (!this.drain()) {
+                    this.release();
+                    return;
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        } finally {
+            ctx.inject();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        this.done = true;
+        if (this.wip.getAndIncrement() == 0) {
+            this.release();
+        }
+    }
+
+    /**
+     * @return false if subscription is terminated
+     */
+    private boolean drain() {
+        while (!this.done && this.demand.get() > 0) {
+            var chunk = this.out.chunks.poll();
+            if (chunk == null) {
+                if (this.serialized) {
+                    break;
+                }
+                try {
+                    this.serializeNext();
+                } catch (Throwable e) {
+                    this.done = true;
+                    this.subscriber.onError(e);
+                    return false;
+                }
+                continue;
+            }
+            this.demand.decrementAndGet();
+            this.subscriber.onNext(chunk);
+        }
+        if (!this.done && this.serialized && this.out.chunks.isEmpty()) {
+            this.done = true;
+            this.subscriber.onComplete();
+            return false;
+        }
+        return !this.done;
+    }
+
+    /**
+     * Writes value until at least one chunk is filled or value is written completely
+     */
+    @SuppressWarnings("unchecked")
+    private void serializeNext() throws IOException {
+        var gen = this.gen;
+        if (gen == null) {
+            gen = this.gen = JsonHttpBodyOutput.createGenerator(this.out);
+            if (this.value instanceof Collection<?> collection && (this.writer instanceof ListJsonWriter<?> || this.writer instanceof SetJsonWriter<?>)) {
+                this.elementWriter = (JsonWriter<Object>) (this.writer instanceof ListJsonWriter<?> list ? list.elementWriter() : ((SetJsonWriter<?>) this.writer).elementWriter());
+                this.elements = collection.iterator();
+                gen.writeStartArray(collection, collection.size());
+            } else {
+                this.writer.write(gen, this.value);
+                this.finishSerialization(gen);
+                return;
+            }
+        }
+        var elements = this.elements;
+        // generator flushes its own buffer into the stream when it's full, so a chunk is filled after a few elements
+        while (elements.hasNext()) {
+            this.elementWriter.write(gen, elements.next());
+            if (!this.out.chunks.isEmpty()) {
+                return;
+            }
+        }
+        gen.writeEndArray();
+        this.finishSerialization(gen);
+    }
+
+    private void finishSerialization(JsonGenerator gen) throws IOException {
+        this.gen = null;
+        this.elements = null;
+        gen.close();
+        this.out.finish();
+        this.serialized = true;
+    }
+
+    private void release() {
+        var gen = this.gen;
+        if (gen != null) {
+            this.gen = null;
+            this.elements = null;
+            try {
+                gen.close();
+            } catch (IOException | RuntimeException ignore) {
+            }
+        }
+        if (this.done) {
+            this.out.chunks.clear();
+        }
+    }
+
+    private static final class ChunkedOutputStream extends OutputStream {
+        private final ArrayDeque<ByteBuffer> chunks = new ArrayDeque<>();
+        private byte[] current = new byte[JsonHttpBodyOutput.CHUNK_SIZE];
+        private int position = 0;
+
+        @Override
+        public void write(int b) {
+            if (this.position == this.current.length) {
+                this.nextChunk();
+            }
+            this.current[this.position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                if (this.position == this.current.length) {
+                    this.nextChunk();
+                }
+                var toCopy = Math.min(len, this.current.length - this.position);
+                System.arraycopy(b, off, this.current, this.position, toCopy);
+                this.position += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        private void nextChunk() {
+            this.chunks.add(ByteBuffer.wrap(this.current));
+            this.current = new byte[JsonHttpBodyOutput.CHUNK_SIZE];
+            this.position = 0;
+        }
+
+        private void finish() {
+            if (this.position > 0) {
+                this.chunks.add(ByteBuffer.wrap(this.current, 0, this.position));
+            }
+            this.current = null;
+        }
+    }
+}
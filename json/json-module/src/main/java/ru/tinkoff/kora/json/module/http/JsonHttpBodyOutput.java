@@ -1,9 +1,10 @@
 package ru.tinkoff.kora.json.module.http;
 
 import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import jakarta.annotation.Nullable;
 import ru.tinkoff.kora.common.Context;
-import ru.tinkoff.kora.common.util.flow.LazySingleSubscription;
+import ru.tinkoff.kora.common.util.flow.SingleSubscription;
 import ru.tinkoff.kora.http.common.body.HttpBodyOutput;
 import ru.tinkoff.kora.json.common.JsonWriter;
 import ru.tinkoff.kora.json.module.JsonModule;
@@ -13,11 +14,20 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.concurrent.Flow;
 
+/**
+ * Value is serialized when body is subscribed: small values are emitted as a single buffer with known content length,
+ * larger ones as a sequence of fixed size chunks on subscriber demand, so no contiguous array of the whole body is allocated.
+ */
 public final class JsonHttpBodyOutput<T> implements HttpBodyOutput {
+    static final int CHUNK_SIZE = 16 * 1024;
+
     private final JsonWriter<T> writer;
     private final Context context;
     @Nullable
     private final T value;
+    @Nullable
+    private ByteBuffer singleChunk;
+    private boolean singleChunkProbed;
 
     public JsonHttpBodyOutput(JsonWriter<T> writer, Context context, @Nullable T value) {
         this.writer = writer;
@@ -25,9 +35,13 @@ public final class JsonHttpBodyOutput<T> implements HttpBodyOutput {
         this.context = context;
     }
 
+    /**
+     * @return exact length if serialized value fits in a single chunk, -1 otherwise
+     */
     @Override
     public long contentLength() {
-        return -1;
+        var singleChunk = this.singleChunk();
+        return singleChunk == null ? -1 : singleChunk.remaining();
     }
 
     @Override
@@ -35,17 +49,34 @@ public final class JsonHttpBodyOutput<T> implements HttpBodyOutput {
         return "application/json";
     }
 
+    /**
+     * @return serialized value if it fits in a single chunk, so server can send it without subscription; probe is shared with {@link #contentLength()}
+     */
+    @Nullable
+    @Override
+    public ByteBuffer getFullContentIfAvailable() {
+        var singleChunk = this.singleChunk();
+        return singleChunk == null ? null : singleChunk.slice();
+    }
+
     @Override
     public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
-        subscriber.onSubscribe(new LazySingleSubscription<>(subscriber, context, () -> {
-            var resultBytes = this.writer.toByteArray(value);
-            return ByteBuffer.wrap(resultBytes);
-        }));
+        var singleChunk = this.singleChunkProbed ? this.singleChunk : null;
+        if (singleChunk != null) {
+            subscriber.onSubscribe(new SingleSubscription<>(subscriber, this.context, singleChunk.slice()));
+        } else {
+            subscriber.onSubscribe(new JsonChunkedSubscription<>(subscriber, this.context, this.writer, this.value));
+        }
     }
 
     @Override
     public void write(OutputStream os) throws IOException {
-        try (var gen = JsonModule.JSON_FACTORY.createGenerator(os, JsonEncoding.UTF8)) {
+        var singleChunk = this.singleChunkProbed ? this.singleChunk : null;
+        if (singleChunk != null) {
+            os.write(singleChunk.array(), singleChunk.arrayOffset(), singleChunk.remaining());
+            return;
+        }
+        try (var gen = createGenerator(os)) {
             this.writer.write(gen, this.value);
         }
     }
@@ -54,4 +85,79 @@ public final class JsonHttpBodyOutput<T> implements HttpBodyOutput {
     public void close() throws IOException {
 
     }
+
+    /**
+     * Serialization is aborted as soon as output exceeds single chunk, so large values cost at most a chunk of wasted work here
+     */
+    @Nullable
+    private ByteBuffer singleChunk() {
+        if (this.singleChunkProbed) {
+            return this.singleChunk;
+        }
+        this.singleChunkProbed = true;
+        var out = new SingleChunkOutputStream();
+        var ctx = Context.current();
+        this.context.inject();
+        try (var gen = createGenerator(out)) {
+            this.writer.write(gen, this.value);
+            gen.flush();
+        } catch (IOException | RuntimeException e) {
+            // value does not fit or can't be serialized, error will be reported on subscribe
+            return null;
+        } finally {
+            ctx.inject();
+        }
+        if (out.overflow) {
+            return null;
+        }
+        return this.singleChunk = ByteBuffer.wrap(out.buf, 0, out.size);
+    }
+
+    /**
+     * Every body path writes with the same generator settings, so the same value is serialized to the same bytes whichever path server takes
+     */
+    static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        var gen = JsonModule.JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        gen.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        return gen;
+    }
+
+    private static final class SingleChunkOutputStream extends OutputStream {
+        private final byte[] buf = new byte[CHUNK_SIZE];
+        private int size = 0;
+        private boolean overflow = false;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (this.size == this.buf.length) {
+                throw this.overflow();
+            }
+            this.buf[this.size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (this.size + len > this.buf.length) {
+                throw this.overflow();
+            }
+            System.arraycopy(b, off, this.buf, this.size, len);
+            this.size += len;
+        }
+
+        private IOException overflow() {
+            this.overflow = true;
+            return new OverflowException();
+        }
+    }
+
+    private static final class OverflowException extends IOException {
+        private OverflowException() {
+            super("Serialized value does not fit in a single chunk");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
@@ -2,11 +2,13 @@ package ru.tinkoff.kora.json.module.http.server;
 
 import ru.tinkoff.kora.common.util.ByteBufferInputStream;
 import ru.tinkoff.kora.common.util.FlowUtils;
+import ru.tinkoff.kora.http.common.body.PooledHttpBodyInput;
 import ru.tinkoff.kora.http.server.common.HttpServerRequest;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestMapper;
 import ru.tinkoff.kora.json.common.JsonReader;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
@@ -31,6 +33,9 @@ public final class JsonReaderAsyncHttpServerRequestMapper<T> implements HttpServ
                 }
             }
         }
+        if (body instanceof PooledHttpBodyInput pooled) {
+            return pooled.readPooled(this::read);
+        }
         return FlowUtils.toByteArrayFuture(request.body())
             .thenApply(bytes -> {
                 try {
@@ -40,4 +45,12 @@ public final class JsonReaderAsyncHttpServerRequestMapper<T> implements HttpServ
                 }
             });
     }
+
+    private T read(ByteBuffer content) throws IOException {
+        if (content.hasArray()) {
+            return this.reader.read(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        } else {
+            return this.reader.read(new ByteBufferInputStream(content));
+        }
+    }
 }
@@ -1,12 +1,14 @@
 package ru.tinkoff.kora.json.module.http.server;
 
 import ru.tinkoff.kora.common.util.ByteBufferInputStream;
+import ru.tinkoff.kora.http.common.body.PooledHttpBodyInput;
 import ru.tinkoff.kora.http.server.common.HttpServerRequest;
 import ru.tinkoff.kora.http.server.common.HttpServerResponseException;
 import ru.tinkoff.kora.http.server.common.handler.HttpServerRequestMapper;
 import ru.tinkoff.kora.json.common.JsonReader;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutionException;
 
 public final class JsonReaderHttpServerRequestMapper<T> implements HttpServerRequestMapper<T> {
@@ -33,13 +35,27 @@ public final class JsonReaderHttpServerRequestMapper<T> implements HttpServerReq
                 }
             }
             try {
+                if (body instanceof PooledHttpBodyInput pooled) {
+                    return pooled.readPooled(this::read).toCompletableFuture().get();
+                }
                 var bytes = body.asArrayStage().toCompletableFuture().get();
                 return this.reader.read(bytes);
             } catch (InterruptedException e) {
                 throw HttpServerResponseException.of(500, e);
             } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
                 throw HttpServerResponseException.of(500, e.getCause());
             }
         }
     }
+
+    private T read(ByteBuffer content) throws IOException {
+        if (content.hasArray()) {
+            return this.reader.read(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        } else {
+            return this.reader.read(new ByteBufferInputStream(content));
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package ru.tinkoff.kora.json.module.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.json.common.JsonWriter;
+import ru.tinkoff.kora.json.common.ListJsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonHttpBodyOutputTest {
+
+    @Test
+    void smallValueIsProbedOnce() throws IOException {
+        var writes = new AtomicInteger();
+        JsonWriter<String> writer = (gen, value) -> {
+            writes.incrementAndGet();
+            gen.writeString(value);
+        };
+        var body = new JsonHttpBodyOutput<>(writer, Context.current(), "value");
+
+        assertThat(body.contentLength()).isEqualTo(7);
+        assertThat(body.getFullContentIfAvailable()).isEqualTo(ByteBuffer.wrap("\"value\"".getBytes(StandardCharsets.UTF_8)));
+        assertThat(body.getFullContentIfAvailable()).isEqualTo(ByteBuffer.wrap("\"value\"".getBytes(StandardCharsets.UTF_8)));
+        var subscriber = new TestSubscriber();
+        body.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.bytes()).asString(StandardCharsets.UTF_8).isEqualTo("\"value\"");
+        assertThat(subscriber.completed).isTrue();
+        assertThat(writes).hasValue(1);
+    }
+
+    @Test
+    void largeValueHasNoFullContent() {
+        var body = new JsonHttpBodyOutput<>(new ListJsonWriter<String>(JsonGenerator::writeString), Context.current(), elements(10_000));
+
+        assertThat(body.contentLength()).isEqualTo(-1);
+        assertThat(body.getFullContentIfAvailable()).isNull();
+    }
+
+    @Test
+    void largeValueIsSerializedOnDemand() throws IOException {
+        var writes = new AtomicInteger();
+        JsonWriter<String> elementWriter = (gen, value) -> {
+            writes.incrementAndGet();
+            gen.writeString(value);
+        };
+        var writer = new ListJsonWriter<>(elementWriter);
+        var value = elements(10_000);
+        var expected = writer.toByteArray(value);
+        writes.set(0);
+        var body = new JsonHttpBodyOutput<>(writer, Context.current(), value);
+
+        var subscriber = new TestSubscriber();
+        body.subscribe(subscriber);
+        assertThat(writes).hasValue(0);
+
+        subscriber.subscription.request(1);
+        assertThat(subscriber.chunks).hasSize(1);
+        assertThat(subscriber.chunks.get(0).length).isEqualTo(JsonHttpBodyOutput.CHUNK_SIZE);
+        assertThat(writes.get()).isPositive().isLessThan(value.size() / 4);
+
+        subscriber.subscription.request(2);
+        assertThat(subscriber.chunks).hasSize(3);
+        assertThat(writes.get()).isLessThan(value.size() / 2);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(writes).hasValue(value.size());
+        assertThat(subscriber.bytes()).isEqualTo(expected);
+    }
+
+    @Test
+    void cancelledValueIsNotSerializedFurther() {
+        var writes = new AtomicInteger();
+        var writer = new ListJsonWriter<String>((gen, value) -> {
+            writes.incrementAndGet();
+            gen.writeString(value);
+        });
+        var body = new JsonHttpBodyOutput<>(writer, Context.current(), elements(10_000));
+
+        var subscriber = new TestSubscriber();
+        body.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        var written = writes.get();
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertThat(writes).hasValue(written);
+        assertThat(subscriber.chunks).hasSize(1);
+        assertThat(subscriber.completed).isFalse();
+    }
+
+    @Test
+    void bigDecimalIsPlainOnEveryPath() throws IOException {
+        var number = new BigDecimal("1E+3");
+        var small = new JsonHttpBodyOutput<BigDecimal>(JsonGenerator::writeNumber, Context.current(), number);
+        assertThat(small.getFullContentIfAvailable()).isEqualTo(ByteBuffer.wrap("1000".getBytes(StandardCharsets.UTF_8)));
+
+        var notProbed = new JsonHttpBodyOutput<BigDecimal>(JsonGenerator::writeNumber, Context.current(), number);
+        var out = new ByteArrayOutputStream();
+        notProbed.write(out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("1000");
+
+        var numbers = IntStream.range(0, 10_000).mapToObj(i -> number).toList();
+        var large = new JsonHttpBodyOutput<>(new ListJsonWriter<BigDecimal>(JsonGenerator::writeNumber), Context.current(), numbers);
+        var subscriber = new TestSubscriber();
+        large.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.bytes()).asString(StandardCharsets.UTF_8)
+            .isEqualTo(numbers.stream().map(BigDecimal::toPlainString).collect(Collectors.joining(",", "[", "]")));
+    }
+
+    private static List<String> elements(int size) {
+        return IntStream.range(0, size).mapToObj(i -> "element-" + i).toList();
+    }
+
+    private static final class TestSubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final List<byte[]> chunks = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            var bytes = new byte[item.remaining()];
+            item.get(bytes);
+            this.chunks.add(bytes);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+
+        private byte[] bytes() {
+            var out = new ByteArrayOutputStream();
+            for (var chunk : this.chunks) {
+                out.writeBytes(chunk);
+            }
+            return out.toByteArray();
+        }
+    }
+}
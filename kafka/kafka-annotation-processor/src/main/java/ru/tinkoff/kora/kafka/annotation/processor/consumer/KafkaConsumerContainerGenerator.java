@@ -71,6 +71,8 @@ public class KafkaConsumerContainerGenerator {
         var consumerParameter = parameters.stream().filter(r -> r instanceof ConsumerParameter.Consumer).map(ConsumerParameter.Consumer.class::cast).findFirst();
         if (handlerTypeName.rawType.equals(recordHandler)) {
             methodBuilder.addCode("var wrappedHandler = $T.wrapHandlerRecord(telemetry, $L, handler);\n", handlerWrapper, consumerParameter.isEmpty());
+        } else if (handlerTypeName.rawType.equals(recordAsyncHandler)) {
+            methodBuilder.addCode("var wrappedHandler = $T.wrapHandlerRecordAsync(telemetry, handler);\n", handlerWrapper);
         } else {
             methodBuilder.addCode("var wrappedHandler = $T.wrapHandlerRecords(telemetry, $L, handler, config.allowEmptyRecords());\n", handlerWrapper, consumerParameter.isEmpty());
         }
@@ -2,6 +2,7 @@ package ru.tinkoff.kora.kafka.annotation.processor.consumer;
 
 import com.squareup.javapoet.*;
 import ru.tinkoff.kora.annotation.processor.common.CommonClassNames;
+import ru.tinkoff.kora.annotation.processor.common.CommonUtils;
 import ru.tinkoff.kora.annotation.processor.common.ProcessingErrorException;
 import ru.tinkoff.kora.annotation.processor.common.TagUtils;
 
@@ -68,7 +69,7 @@ public class KafkaConsumerHandlerGenerator {
         var catchesKeyException = parameters.stream().anyMatch(p -> p instanceof ConsumerParameter.KeyDeserializationException || p instanceof ConsumerParameter.Exception);
         var catchesValueException = parameters.stream().anyMatch(p -> p instanceof ConsumerParameter.ValueDeserializationException || p instanceof ConsumerParameter.Exception);
 
-        methodBuilder.returns(ParameterizedTypeName.get(recordHandler, keyType, valueType));
+        methodBuilder.returns(ParameterizedTypeName.get(recordHandlerType(executableElement, parameters), keyType, valueType));
         b.add("return (consumer, tctx, record) -> {$>\n");
         if (catchesKeyException || catchesValueException) {
             if (catchesKeyException) {
@@ -95,7 +96,7 @@ public class KafkaConsumerHandlerGenerator {
             b.add("$<\n}\n");
         }
 
-        b.add("controller.$N(", executableElement.getSimpleName());
+        addListenerCallStart(b, executableElement);
 
         for (int i = 0; i < parameters.size(); i++) {
             if (i > 0) b.add(", ");
@@ -117,7 +118,7 @@ public class KafkaConsumerHandlerGenerator {
                 );
             }
         }
-        b.add(");");
+        addListenerCallEnd(b, executableElement);
         b.add("$<\n};\n");
         var keyTag = TagUtils.parseTagValue(keyTypeMirror);
         var valueTag = TagUtils.parseTagValue(valueTypeMirror);
@@ -167,7 +168,7 @@ public class KafkaConsumerHandlerGenerator {
         var catchesKeyException = keyParameter != null && parameters.stream().anyMatch(p -> p instanceof ConsumerParameter.KeyDeserializationException || p instanceof ConsumerParameter.Exception);
         var catchesValueException = parameters.stream().anyMatch(p -> p instanceof ConsumerParameter.ValueDeserializationException || p instanceof ConsumerParameter.Exception);
 
-        methodBuilder.returns(ParameterizedTypeName.get(recordHandler, keyType, valueType));
+        methodBuilder.returns(ParameterizedTypeName.get(recordHandlerType(executableElement, parameters), keyType, valueType));
         var b = CodeBlock.builder();
         b.add("return (consumer, tctx, record) -> {$>\n");
         if (catchesKeyException) {
@@ -201,7 +202,7 @@ public class KafkaConsumerHandlerGenerator {
         if (catchesKeyException || catchesValueException) {
             b.add("$<\n}\n");
         }
-        b.add("controller.$N(", executableElement.getSimpleName());
+        addListenerCallStart(b, executableElement);
 
         var keySeen = false;
         for (int i = 0; i < parameters.size(); i++) {
@@ -235,7 +236,7 @@ public class KafkaConsumerHandlerGenerator {
                 );
             }
         }
-        b.add(");");
+        addListenerCallEnd(b, executableElement);
         b.add("$<\n};\n");
         var keyTag = keyParameter == null ? Set.<String>of() : TagUtils.parseTagValue(keyParameter.element());
         var valueTag = TagUtils.parseTagValue(valueParameter.element());
@@ -292,4 +293,37 @@ public class KafkaConsumerHandlerGenerator {
         methodBuilder.addCode(b.build());
         return new HandlerMethod(methodBuilder.build(), keyType, keyTag, valueType, valueTag);
     }
+
+    private static boolean isAsync(ExecutableElement executableElement) {
+        var returnType = executableElement.getReturnType();
+        return CommonUtils.isFuture(returnType) || CommonUtils.isMono(returnType);
+    }
+
+    private static ClassName recordHandlerType(ExecutableElement executableElement, List<ConsumerParameter> parameters) {
+        if (!isAsync(executableElement)) {
+            return recordHandler;
+        }
+        for (var parameter : parameters) {
+            if (parameter instanceof ConsumerParameter.Consumer) {
+                var message = "Kafka listener method returning CompletionStage or Mono can't have Consumer parameter, record offset is committed by container when record is completed";
+                throw new ProcessingErrorException(message, parameter.element());
+            }
+        }
+        return recordAsyncHandler;
+    }
+
+    private static void addListenerCallStart(CodeBlock.Builder b, ExecutableElement executableElement) {
+        if (isAsync(executableElement)) {
+            b.add("return ");
+        }
+        b.add("controller.$N(", executableElement.getSimpleName());
+    }
+
+    private static void addListenerCallEnd(CodeBlock.Builder b, ExecutableElement executableElement) {
+        if (CommonUtils.isMono(executableElement.getReturnType())) {
+            b.add(").toFuture();");
+        } else {
+            b.add(");");
+        }
+    }
 }
@@ -340,12 +340,12 @@ final class KafkaPublisherGenerator {
                 b.add("return ");
             }
             if (publishData.callback() != null) {
-                b.add("this.delegate.send(_record, (_meta, _ex) -> {$>\n");
+                b.add("$T.await(this.delegate.send(_record, (_meta, _ex) -> {$>\n", generatedPublisher);
                 b.addStatement("_tctx.onCompletion(_meta, _ex)");
                 b.add("$N.onCompletion(_meta, _ex);", publishData.callback().getSimpleName());
-                b.add("$<\n}).get();");
+                b.add("$<\n}));");
             } else {
-                b.add("this.delegate.send(_record, _tctx).get();");
+                b.add("$T.await(this.delegate.send(_record, _tctx));", generatedPublisher);
             }
             b.add("$<\n} catch (InterruptedException e) {$>\n");
             b.add("throw new $T(e);", recordPublisherException);
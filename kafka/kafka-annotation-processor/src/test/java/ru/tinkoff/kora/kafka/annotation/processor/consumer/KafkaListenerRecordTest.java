@@ -3,12 +3,16 @@ package ru.tinkoff.kora.kafka.annotation.processor.consumer;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
+import ru.tinkoff.kora.application.graph.TypeRef;
 import ru.tinkoff.kora.application.graph.ValueOf;
 import ru.tinkoff.kora.common.Tag;
 import ru.tinkoff.kora.kafka.common.consumer.ConsumerAwareRebalanceListener;
 import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordAsyncHandler;
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetryFactory;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class KafkaListenerRecordTest extends AbstractKafkaListenerAnnotationProcessorTest {
@@ -234,4 +238,37 @@ public class KafkaListenerRecordTest extends AbstractKafkaListenerAnnotationProc
             .hasValueError()
         );
     }
+
+    @Test
+    public void testProcessRecordAsync() throws NoSuchMethodException {
+        compile("""
+            public class KafkaListenerClass {
+                @KafkaListener("test.config.path")
+                public java.util.concurrent.CompletionStage<Void> process(ConsumerRecord<String, String> event) {
+                    return java.util.concurrent.CompletableFuture.completedFuture(null);
+                }
+            }
+            """);
+
+        var module = compileResult.loadClass("KafkaListenerClassModule");
+        var container = module.getMethod("kafkaListenerClassProcessContainer", KafkaListenerConfig.class, ValueOf.class, Deserializer.class, Deserializer.class, KafkaConsumerTelemetryFactory.class, ConsumerAwareRebalanceListener.class);
+        assertThat(container.getParameters()[1].getParameterizedType()).isEqualTo(TypeRef.of(
+            ValueOf.class,
+            TypeRef.of(KafkaRecordAsyncHandler.class, String.class, String.class)
+        ));
+    }
+
+    @Test
+    public void testProcessRecordAsyncWithConsumerIsNotAllowed() {
+        compile(List.of(new KafkaListenerAnnotationProcessor()), """
+            public class KafkaListenerClass {
+                @KafkaListener("test.config.path")
+                public java.util.concurrent.CompletionStage<Void> process(Consumer<String, String> consumer, ConsumerRecord<String, String> event) {
+                    return java.util.concurrent.CompletableFuture.completedFuture(null);
+                }
+            }
+            """);
+
+        assertThat(compileResult.isFailed()).isTrue();
+    }
 }
@@ -35,6 +35,7 @@ object KafkaClassNames {
 
     val recordHandler = ClassName("ru.tinkoff.kora.kafka.common.consumer.containers.handlers", "KafkaRecordHandler")
     val recordsHandler = ClassName("ru.tinkoff.kora.kafka.common.consumer.containers.handlers", "KafkaRecordsHandler")
+    val recordAsyncHandler = ClassName("ru.tinkoff.kora.kafka.common.consumer.containers.handlers", "KafkaRecordAsyncHandler")
 
     val kafkaPublisherAnnotation = ClassName("ru.tinkoff.kora.kafka.common.annotation", "KafkaPublisher");
     val kafkaTopicAnnotation = ClassName("ru.tinkoff.kora.kafka.common.annotation", "KafkaPublisher", "Topic");
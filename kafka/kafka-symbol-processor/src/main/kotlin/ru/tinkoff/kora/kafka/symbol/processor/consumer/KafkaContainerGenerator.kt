@@ -44,6 +44,8 @@ class KafkaContainerGenerator {
         funBuilder.addStatement("val telemetry = telemetryFactory.get(%S, config.driverProperties(), config.telemetry())", configPath)
         if (handlerType.rawType == KafkaClassNames.recordHandler) {
             funBuilder.addStatement("val wrappedHandler = %T.wrapHandlerRecord(telemetry, %L, handler)", KafkaClassNames.handlerWrapper, consumerParameter == null)
+        } else if (handlerType.rawType == KafkaClassNames.recordAsyncHandler) {
+            funBuilder.addStatement("val wrappedHandler = %T.wrapHandlerRecordAsync(telemetry, handler)", KafkaClassNames.handlerWrapper)
         } else {
             funBuilder.addStatement("val wrappedHandler = %T.wrapHandlerRecords(telemetry, %L, handler, config.allowEmptyRecords())", KafkaClassNames.handlerWrapper, consumerParameter == null)
         }
@@ -9,12 +9,16 @@ import com.squareup.kotlinpoet.ParameterizedTypeName.Companion.parameterizedBy
 import com.squareup.kotlinpoet.ksp.toClassName
 import com.squareup.kotlinpoet.ksp.toTypeName
 import ru.tinkoff.kora.kafka.symbol.processor.KafkaClassNames
+import ru.tinkoff.kora.kafka.symbol.processor.KafkaClassNames.recordAsyncHandler
 import ru.tinkoff.kora.kafka.symbol.processor.KafkaClassNames.recordHandler
 import ru.tinkoff.kora.kafka.symbol.processor.KafkaClassNames.recordKeyDeserializationException
 import ru.tinkoff.kora.kafka.symbol.processor.KafkaClassNames.recordValueDeserializationException
 import ru.tinkoff.kora.kafka.symbol.processor.KafkaClassNames.recordsHandler
 import ru.tinkoff.kora.kafka.symbol.processor.KafkaUtils.getConsumerTags
 import ru.tinkoff.kora.kafka.symbol.processor.KafkaUtils.handlerFunName
+import ru.tinkoff.kora.ksp.common.FunctionUtils.isCompletionStage
+import ru.tinkoff.kora.ksp.common.FunctionUtils.isMono
+import ru.tinkoff.kora.ksp.common.FunctionUtils.isSuspend
 import ru.tinkoff.kora.ksp.common.KotlinPoetUtils.controlFlow
 import ru.tinkoff.kora.ksp.common.TagUtils.parseTags
 import ru.tinkoff.kora.ksp.common.TagUtils.toTagSpecTypes
@@ -60,7 +64,7 @@ class KafkaHandlerGenerator(private val kspLogger: KSPLogger) {
         }
         val catchesKeyException = parameters.any { it is ConsumerParameter.KeyDeserializationException || it is ConsumerParameter.Exception }
         val catchesValueException = parameters.any { it is ConsumerParameter.ValueDeserializationException || it is ConsumerParameter.Exception }
-        val handlerType = recordHandler.parameterizedBy(keyType, valueType)
+        val handlerType = recordHandlerType(function, parameters).parameterizedBy(keyType, valueType)
         b.returns(handlerType)
         b.controlFlow("return %T { consumer, tctx, record ->", handlerType) {
             if (catchesKeyException || catchesValueException) {
@@ -105,7 +109,7 @@ class KafkaHandlerGenerator(private val kspLogger: KSPLogger) {
                     }
                 )
             }
-            addCode(")\n")
+            addCode(listenerCallEnd(function))
             if (function.modifiers.contains(Modifier.SUSPEND)) {
                 b.endControlFlow()
             }
@@ -208,7 +212,7 @@ class KafkaHandlerGenerator(private val kspLogger: KSPLogger) {
         val catchesKeyException = parameters.any { it is ConsumerParameter.KeyDeserializationException || it is ConsumerParameter.Exception }
         val catchesValueException = parameters.any { it is ConsumerParameter.ValueDeserializationException || it is ConsumerParameter.Exception }
 
-        val handlerType = recordHandler.parameterizedBy(keyType, valueType)
+        val handlerType = recordHandlerType(functionDeclaration, parameters).parameterizedBy(keyType, valueType)
         b.returns(handlerType)
         b.addCode(CodeBlock.builder().controlFlow("return %T { consumer, tctx, record ->", handlerType) {
             if (catchesKeyException) {
@@ -276,7 +280,7 @@ class KafkaHandlerGenerator(private val kspLogger: KSPLogger) {
                 }
             }
 
-            add(")\n")
+            add(listenerCallEnd(functionDeclaration))
             if (functionDeclaration.modifiers.contains(Modifier.SUSPEND)) {
                 endControlFlow()
             }
@@ -287,4 +291,25 @@ class KafkaHandlerGenerator(private val kspLogger: KSPLogger) {
 
         return HandlerFunction(b.build(), keyType, keyTag, valueType, valueTag)
     }
+
+    private fun isAsync(function: KSFunctionDeclaration) = !function.isSuspend() && (function.isCompletionStage() || function.isMono())
+
+    private fun recordHandlerType(function: KSFunctionDeclaration, parameters: List<ConsumerParameter>): ClassName {
+        if (!isAsync(function)) {
+            return recordHandler
+        }
+        for (parameter in parameters) {
+            if (parameter is ConsumerParameter.Consumer) {
+                val message = "Kafka listener method returning CompletionStage or Mono can't have Consumer parameter, record offset is committed by container when record is completed"
+                throw ProcessingErrorException(message, parameter.parameter)
+            }
+        }
+        return recordAsyncHandler
+    }
+
+    private fun listenerCallEnd(function: KSFunctionDeclaration) = if (isAsync(function) && function.isMono()) {
+        ").toFuture()\n"
+    } else {
+        ")\n"
+    }
 }
@@ -390,6 +390,9 @@ class KafkaPublisherGenerator(val env: SymbolProcessorEnvironment, val resolver:
             if (publishMethod.returnType!!.toTypeName() != UNIT) {
                 b.addCode("return ")
             }
+            if (!publishMethod.isFuture()) {
+                b.addCode("%T.await(", KafkaClassNames.generatedPublisher)
+            }
             b.controlFlow("this.delegate!!.send(_record) { _meta, _ex ->") {
                 addStatement("_tctx.onCompletion(_meta, _ex)")
                 if (publishData.callback != null) {
@@ -397,7 +400,7 @@ class KafkaPublisherGenerator(val env: SymbolProcessorEnvironment, val resolver:
                 }
             }
             if (!publishMethod.isFuture()) {
-                b.addCode(".get()\n")
+                b.addCode(")\n")
             }
         }
 
@@ -4,9 +4,12 @@ import org.apache.kafka.common.serialization.Deserializer
 import org.assertj.core.api.Assertions
 import org.junit.jupiter.api.Disabled
 import org.junit.jupiter.api.Test
+import ru.tinkoff.kora.application.graph.TypeRef
+import ru.tinkoff.kora.application.graph.ValueOf
 import ru.tinkoff.kora.common.Tag
 import ru.tinkoff.kora.kafka.common.consumer.ConsumerAwareRebalanceListener
 import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordAsyncHandler
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordHandler
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetryFactory
 
@@ -157,4 +160,71 @@ class KafkaListenerRecordTest : AbstractKafkaListenerAnnotationProcessorTest() {
             """.trimIndent()
         )
     }
+
+    @Test
+    fun testProcessRecordCompletionStage() {
+        compile(
+            """
+            class KafkaListenerClass {
+                @KafkaListener("test.config.path")
+                fun process(event: ConsumerRecord<String, String>): java.util.concurrent.CompletionStage<Void?> {
+                    return java.util.concurrent.CompletableFuture.completedFuture(null)
+                }
+            }
+            
+            """.trimIndent()
+        )
+
+        assertAsyncHandler()
+    }
+
+    @Test
+    fun testProcessKeyAndValueMono() {
+        compile(
+            """
+            class KafkaListenerClass {
+                @KafkaListener("test.config.path")
+                fun process(key: String, value: String): reactor.core.publisher.Mono<Void> {
+                    return reactor.core.publisher.Mono.empty()
+                }
+            }
+            
+            """.trimIndent()
+        )
+
+        assertAsyncHandler()
+    }
+
+    @Test
+    fun testProcessRecordCompletionStageWithConsumerIsNotAllowed() {
+        compile0(
+            """
+            class KafkaListenerClass {
+                @KafkaListener("test.config.path")
+                fun process(consumer: Consumer<String, String>, event: ConsumerRecord<String, String>): java.util.concurrent.CompletionStage<Void?> {
+                    return java.util.concurrent.CompletableFuture.completedFuture(null)
+                }
+            }
+            
+            """.trimIndent()
+        )
+
+        Assertions.assertThat(compileResult.isFailed()).isTrue()
+    }
+
+    private fun assertAsyncHandler() {
+        val module = compileResult.loadClass("KafkaListenerClassModule")
+        val container = module.getMethod(
+            "kafkaListenerClassProcessContainer",
+            KafkaListenerConfig::class.java,
+            ValueOf::class.java,
+            Deserializer::class.java,
+            Deserializer::class.java,
+            KafkaConsumerTelemetryFactory::class.java,
+            ConsumerAwareRebalanceListener::class.java
+        )
+        Assertions.assertThat(container.parameters[1].parameterizedType).isEqualTo(
+            TypeRef.of(ValueOf::class.java, TypeRef.of(KafkaRecordAsyncHandler::class.java, String::class.java, String::class.java))
+        )
+    }
 }
@@ -53,8 +53,95 @@ public interface KafkaListenerConfig {
         return false;
     }
 
+    /**
+     * How processed offsets are committed when auto commit is disabled
+     */
+    default CommitStrategy commitStrategy() {
+        return CommitStrategy.RECORD_SYNC;
+    }
+
+    /**
+     * Max time between commits for {@link CommitStrategy#PERIODIC} and between synchronous commits for {@link CommitStrategy#ASYNC}
+     */
+    default Duration commitInterval() {
+        return Duration.ofSeconds(5);
+    }
+
+    /**
+     * Max processed records between commits for {@link CommitStrategy#PERIODIC}
+     */
+    default int commitBatchSize() {
+        return 1000;
+    }
+
+    /**
+     * Number of records of a single consumer processed in parallel, records with same key are still processed in order.
+     * Values greater than 1 are applied to record listeners without consumer parameter only
+     */
+    default int parallelism() {
+        return 1;
+    }
+
+    /**
+     * Max records polled but not yet processed in parallel mode or by async listener, consumer is paused until half of them are processed
+     */
+    default int maxInflightRecords() {
+        return 1000;
+    }
+
+    /**
+     * Failed records of record listeners are forwarded to retry topics instead of being retried in place, applied in subscribe mode only
+     */
+    @Nullable
+    RetryConfig retry();
+
     TelemetryConfig telemetry();
 
+    enum CommitStrategy {
+        /**
+         * Synchronous commit after each processed record, or after each processed batch for batch listeners
+         */
+        RECORD_SYNC,
+        /**
+         * Synchronous commit of all records processed after each poll
+         */
+        POLL_SYNC,
+        /**
+         * Asynchronous commit after each poll and synchronous one every {@link #commitInterval()}
+         */
+        ASYNC,
+        /**
+         * Synchronous commit once {@link #commitInterval()} has passed or {@link #commitBatchSize()} records were processed
+         */
+        PERIODIC
+    }
+
+    @ConfigValueExtractor
+    interface RetryConfig {
+
+        /**
+         * Delays of retry attempts, failed record is forwarded to topic named after listened topic and delay of next attempt, e.g. {@code orders-retry-5s}.
+         * Retry topics are created by user and are subscribed together with listened topics, topics pattern has to match them itself
+         */
+        default List<Duration> delays() {
+            return List.of();
+        }
+
+        /**
+         * Suffix of topic where record is forwarded after last attempt or if it can't be deserialized, e.g. {@code orders-dlt}
+         */
+        default String deadLetterTopicSuffix() {
+            return "-dlt";
+        }
+
+        /**
+         * Properties of producer that forwards failed records, same as publisher driver properties.
+         * They are not inherited from listener driver properties, so {@code bootstrap.servers} and security settings have to be set here too.
+         * Serializers are always byte array ones, because records are forwarded as they were polled
+         */
+        Properties driverProperties();
+    }
+
     default KafkaListenerConfig withDriverPropertiesOverrides(Map<String, Object> overrides) {
         var props = new Properties();
         props.putAll(driverProperties());
@@ -71,6 +158,12 @@ public interface KafkaListenerConfig {
             partitionRefreshInterval(),
             shutdownWait(),
             allowEmptyRecords(),
+            commitStrategy(),
+            commitInterval(),
+            commitBatchSize(),
+            parallelism(),
+            maxInflightRecords(),
+            retry(),
             telemetry()
         );
     }
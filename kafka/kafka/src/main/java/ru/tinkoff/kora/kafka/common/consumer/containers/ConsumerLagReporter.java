@@ -0,0 +1,55 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports lag of assigned partitions from high watermark and position cached by consumer on fetch, so no requests are made to broker.
+ * Lag is the number of records between last polled record and the end of partition, partitions without fetched data yet are skipped.
+ * Lag of partitions that are revoked or lost is removed right after the poll that unassigned them.
+ * Must be used from consumer poll thread, same as consumer itself.
+ */
+final class ConsumerLagReporter {
+
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final KafkaConsumerTelemetry<?, ?> telemetry;
+    private final Set<TopicPartition> reported = new HashSet<>();
+    private long lastReport = System.nanoTime() - REPORT_INTERVAL;
+
+    ConsumerLagReporter(KafkaConsumerTelemetry<?, ?> telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    void report(Consumer<?, ?> consumer) {
+        var assignment = this.reported.isEmpty() ? null : consumer.assignment();
+        if (assignment != null) {
+            var it = this.reported.iterator();
+            while (it.hasNext()) {
+                var partition = it.next();
+                if (!assignment.contains(partition)) {
+                    it.remove();
+                    this.telemetry.removeLag(partition);
+                }
+            }
+        }
+
+        var now = System.nanoTime();
+        if (now - this.lastReport < REPORT_INTERVAL) {
+            return;
+        }
+        this.lastReport = now;
+        for (var partition : assignment == null ? consumer.assignment() : assignment) {
+            var lag = consumer.currentLag(partition);
+            if (lag.isPresent()) {
+                this.telemetry.reportLag(partition, lag.getAsLong());
+                this.reported.add(partition);
+            }
+        }
+    }
+}
@@ -84,6 +84,7 @@ public final class KafkaAssignConsumerContainer<K, V> implements Lifecycle {
 
     public void launchPollLoop(Consumer<K, V> consumer, int number, long started) {
         try (consumer; var t = telemetry.get(consumer)) {
+            var lagReporter = new ConsumerLagReporter(telemetry);
             var allPartitions = this.partitions.get();
             var partitions = List.<TopicPartition>of();
             logger.info("Kafka Consumer '{}' started in {}", consumerPrefix, TimeUtils.tookForLogging(started));
@@ -172,9 +173,9 @@ public final class KafkaAssignConsumerContainer<K, V> implements Lifecycle {
                         var lastRecord = partitionRecords.get(partitionRecords.size() - 1);
                         synchronized (this.offsets) {
                             this.offsets.set(partition.partition(), lastRecord.offset());
-                            this.refreshLag(consumer);
                         }
                     }
+                    lagReporter.report(consumer);
 
                     backoffTimeout.set(config.backoffTimeout().toMillis());
                 } catch (WakeupException ignore) {
@@ -200,21 +201,6 @@ public final class KafkaAssignConsumerContainer<K, V> implements Lifecycle {
         }
     }
 
-    private void refreshLag(Consumer<K, V> consumer) {
-        for (var entry : consumer.endOffsets(this.partitions.get()).entrySet()) {
-            var p = entry.getKey();
-            var latestOffset = entry.getValue();
-            var currentOffset = this.offsets.get(p.partition());
-            if (currentOffset != null) {
-                // add -1 cause
-                // In the default read_uncommitted isolation level endOffsets() returns, the end offset is the high watermark
-                // (that is, the offset of the last successfully replicated message plus one)
-                var lag = latestOffset - currentOffset - 1;
-                this.telemetry.reportLag(p, lag);
-            }
-        }
-    }
-
     private final AtomicLong lastUpdateTime = new AtomicLong(0);
 
     private boolean refreshPartitions(List<TopicPartition> partitions) {
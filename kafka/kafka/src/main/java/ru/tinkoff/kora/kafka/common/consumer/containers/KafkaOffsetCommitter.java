@@ -0,0 +1,286 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.requests.OffsetFetchResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig.CommitStrategy;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tracks processed offsets of a single consumer and commits them according to {@link CommitStrategy}.
+ * Committed offset of a partition is the offset after highest processed one, such that all polled records before it are processed too.
+ * Must be used from consumer poll thread, same as consumer itself.
+ */
+public final class KafkaOffsetCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaOffsetCommitter.class);
+
+    private final Consumer<?, ?> consumer;
+    private final CommitStrategy strategy;
+    private final long commitIntervalNanos;
+    private final int commitBatchSize;
+    private final boolean commitAllowed;
+    private final Map<TopicPartition, PartitionOffsets> partitions = new HashMap<>();
+    private long lastSyncCommit = System.nanoTime();
+    private int processedSinceCommit;
+
+    public KafkaOffsetCommitter(Consumer<?, ?> consumer, KafkaListenerConfig config, boolean commitAllowed) {
+        this(consumer, config.commitStrategy(), config.commitInterval(), config.commitBatchSize(), commitAllowed);
+    }
+
+    public KafkaOffsetCommitter(Consumer<?, ?> consumer, CommitStrategy strategy, Duration commitInterval, int commitBatchSize, boolean commitAllowed) {
+        this.consumer = consumer;
+        this.strategy = strategy;
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.commitBatchSize = commitBatchSize;
+        this.commitAllowed = commitAllowed;
+    }
+
+    /**
+     * @return false if offsets are committed by kafka consumer itself
+     */
+    public boolean commitAllowed() {
+        return this.commitAllowed;
+    }
+
+    /**
+     * Registers polled records, so offset is not committed past record that is not yet processed
+     */
+    public void polled(ConsumerRecords<?, ?> records) {
+        if (!this.commitAllowed) {
+            return;
+        }
+        for (var partition : records.partitions()) {
+            var offsets = this.partitions.computeIfAbsent(partition, p -> new PartitionOffsets());
+            for (var record : records.records(partition)) {
+                offsets.polled(record.offset());
+            }
+        }
+    }
+
+    public void processed(ConsumerRecord<?, ?> record) {
+        if (!this.commitAllowed) {
+            return;
+        }
+        var partition = new TopicPartition(record.topic(), record.partition());
+        var offsets = this.partitions.computeIfAbsent(partition, p -> new PartitionOffsets());
+        offsets.processed(record.offset(), record.leaderEpoch());
+        this.processedSinceCommit++;
+        if (this.strategy == CommitStrategy.RECORD_SYNC && offsets.committable > offsets.committed) {
+            this.commitSync(Map.of(partition, offsets.toCommit()));
+            offsets.committed = offsets.committable;
+            this.processedSinceCommit = 0;
+        }
+    }
+
+    public void processed(ConsumerRecords<?, ?> records) {
+        if (!this.commitAllowed) {
+            return;
+        }
+        for (var partition : records.partitions()) {
+            var offsets = this.partitions.computeIfAbsent(partition, p -> new PartitionOffsets());
+            for (var record : records.records(partition)) {
+                offsets.processed(record.offset(), record.leaderEpoch());
+                this.processedSinceCommit++;
+            }
+        }
+    }
+
+    /**
+     * Called by container after records of each poll are handled
+     */
+    public void pollCompleted() {
+        if (!this.commitAllowed) {
+            return;
+        }
+        switch (this.strategy) {
+            case RECORD_SYNC, POLL_SYNC -> this.commitSync();
+            case ASYNC -> {
+                if (System.nanoTime() - this.lastSyncCommit >= this.commitIntervalNanos) {
+                    this.commitSync();
+                } else {
+                    this.commitAsync();
+                }
+            }
+            case PERIODIC -> {
+                if (this.processedSinceCommit >= this.commitBatchSize || System.nanoTime() - this.lastSyncCommit >= this.commitIntervalNanos) {
+                    this.commitSync();
+                }
+            }
+        }
+    }
+
+    /**
+     * Commits processed offsets of revoked partitions before they are assigned to another consumer
+     */
+    public void partitionsRevoked(Collection<TopicPartition> partitions) {
+        if (!this.commitAllowed) {
+            return;
+        }
+        var offsets = this.pending(partitions);
+        try {
+            if (!offsets.isEmpty()) {
+                this.commitSync(offsets);
+            }
+        } finally {
+            this.partitions.keySet().removeAll(partitions);
+        }
+    }
+
+    /**
+     * Lost partitions are already owned by another consumer, so their offsets are not committed
+     */
+    public void partitionsLost(Collection<TopicPartition> partitions) {
+        this.partitions.keySet().removeAll(partitions);
+    }
+
+    /**
+     * Synchronously commits all processed offsets that are not committed yet
+     */
+    public void commitSync() {
+        if (!this.commitAllowed) {
+            return;
+        }
+        var offsets = this.pending(this.partitions.keySet());
+        if (!offsets.isEmpty()) {
+            this.commitSync(offsets);
+            for (var partition : offsets.keySet()) {
+                var partitionOffsets = this.partitions.get(partition);
+                partitionOffsets.committed = Math.max(partitionOffsets.committed, offsets.get(partition).offset());
+            }
+        }
+        this.lastSyncCommit = System.nanoTime();
+        this.processedSinceCommit = 0;
+    }
+
+    private void commitAsync() {
+        var offsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+        for (var entry : this.partitions.entrySet()) {
+            var partitionOffsets = entry.getValue();
+            if (partitionOffsets.committable > Math.max(partitionOffsets.committed, partitionOffsets.requested)) {
+                partitionOffsets.requested = partitionOffsets.committable;
+                offsets.put(entry.getKey(), partitionOffsets.toCommit());
+            }
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+        this.consumer.commitAsync(offsets, (committed, exception) -> {
+            if (exception != null) {
+                logger.warn("Kafka Consumer async commit of {} failed, offsets will be committed with next commit", offsets, exception);
+            }
+            for (var entry : offsets.entrySet()) {
+                var partitionOffsets = this.partitions.get(entry.getKey());
+                if (partitionOffsets == null) {
+                    continue;
+                }
+                if (exception == null) {
+                    partitionOffsets.committed = Math.max(partitionOffsets.committed, entry.getValue().offset());
+                } else {
+                    partitionOffsets.requested = -1;
+                }
+            }
+        });
+    }
+
+    private void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        try {
+            this.consumer.commitSync(offsets);
+        } catch (WakeupException e) {
+            // retry commit if thrown on consumer release
+            this.consumer.commitSync(offsets);
+            throw e;
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> pending(Collection<TopicPartition> partitions) {
+        var result = new HashMap<TopicPartition, OffsetAndMetadata>();
+        for (var partition : partitions) {
+            var offsets = this.partitions.get(partition);
+            if (offsets != null && offsets.committable > offsets.committed) {
+                result.put(partition, offsets.toCommit());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Polled offsets of a partition that are not yet processed in polling order, which is ascending but not always contiguous
+     */
+    private static final class PartitionOffsets {
+        private long[] inflight = new long[16];
+        private boolean[] done = new boolean[16];
+        private int head;
+        private int tail;
+        private long committable = -1;
+        private long committed = -1;
+        private long requested = -1;
+        private Optional<Integer> leaderEpoch = Optional.empty();
+
+        void polled(long offset) {
+            if (this.tail == this.inflight.length) {
+                var size = this.tail - this.head;
+                if (size * 2 > this.inflight.length) {
+                    this.inflight = Arrays.copyOf(this.inflight, this.inflight.length * 2);
+                    this.done = Arrays.copyOf(this.done, this.done.length * 2);
+                }
+                System.arraycopy(this.inflight, this.head, this.inflight, 0, size);
+                System.arraycopy(this.done, this.head, this.done, 0, size);
+                Arrays.fill(this.done, size, this.done.length, false);
+                this.head = 0;
+                this.tail = size;
+            }
+            this.inflight[this.tail] = offset;
+            this.done[this.tail] = false;
+            this.tail++;
+        }
+
+        void processed(long offset, Optional<Integer> leaderEpoch) {
+            if (this.head == this.tail) {
+                // record was not registered as polled, nothing to wait for
+                if (offset + 1 > this.committable) {
+                    this.committable = offset + 1;
+                    this.leaderEpoch = leaderEpoch;
+                }
+                return;
+            }
+            var index = this.inflight[this.head] == offset
+                ? this.head
+                : Arrays.binarySearch(this.inflight, this.head, this.tail, offset);
+            if (index < 0) {
+                return;
+            }
+            this.done[index] = true;
+            while (this.head < this.tail && this.done[this.head]) {
+                this.committable = this.inflight[this.head] + 1;
+                this.leaderEpoch = leaderEpoch;
+                this.head++;
+            }
+            if (this.head == this.tail) {
+                this.head = 0;
+                this.tail = 0;
+            }
+        }
+
+        OffsetAndMetadata toCommit() {
+            /*
+             * The committed offset should be the next message your application will consume, i.e. lastProcessedMessageOffset + 1
+             * @see org.apache.kafka.clients.consumer.KafkaConsumer#commitSync(Map)
+             */
+            return new OffsetAndMetadata(this.committable, this.leaderEpoch, OffsetFetchResponse.NO_METADATA);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import jakarta.annotation.Nullable;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
+import ru.tinkoff.kora.kafka.common.exceptions.RecordKeyDeserializationException;
+import ru.tinkoff.kora.kafka.common.exceptions.RecordValueDeserializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Forwards failed records to retry topics and to dead letter topic, so failed record does not stall its partition.
+ * Record is forwarded with its raw key, value and headers, attempt and failure are added as headers.
+ * Record of listened topic goes to retry topic of first delay, record of retry topic goes to the next one and record of last retry topic goes to dead letter topic.
+ * <p>
+ * Forwarding producer is a plain byte array {@link KafkaProducer} configured with {@link KafkaListenerConfig.RetryConfig#driverProperties()},
+ * it is not a generated publisher and reports no publisher telemetry.
+ * Forwarded record is reported by consumer telemetry as a record failed with the listener error, and every forward is logged.
+ */
+public final class KafkaRetryPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaRetryPublisher.class);
+
+    public static final String ATTEMPT_HEADER = "kora-retry-attempt";
+    public static final String ORIGINAL_TOPIC_HEADER = "kora-retry-original-topic";
+    public static final String ORIGINAL_PARTITION_HEADER = "kora-retry-original-partition";
+    public static final String ORIGINAL_OFFSET_HEADER = "kora-retry-original-offset";
+    public static final String EXCEPTION_HEADER = "kora-retry-exception";
+    public static final String EXCEPTION_MESSAGE_HEADER = "kora-retry-exception-message";
+
+    private final String consumerPrefix;
+    private final KafkaListenerConfig.RetryConfig config;
+    private final List<String> retrySuffixes;
+    private final List<Duration> delays;
+    @Nullable
+    private volatile Producer<byte[], byte[]> producer;
+
+    public KafkaRetryPublisher(String consumerPrefix, KafkaListenerConfig.RetryConfig config) {
+        this(consumerPrefix, config, null);
+    }
+
+    KafkaRetryPublisher(String consumerPrefix, KafkaListenerConfig.RetryConfig config, @Nullable Producer<byte[], byte[]> producer) {
+        this.consumerPrefix = consumerPrefix;
+        this.config = config;
+        this.delays = List.copyOf(config.delays());
+        this.retrySuffixes = new ArrayList<>(this.delays.size());
+        for (var delay : this.delays) {
+            this.retrySuffixes.add("-retry-" + formatDelay(delay));
+        }
+        this.producer = producer;
+    }
+
+    /**
+     * @return listened topics followed by their retry topics
+     */
+    public List<String> subscription(List<String> topics) {
+        var result = new LinkedHashSet<>(topics);
+        for (var topic : topics) {
+            for (var suffix : this.retrySuffixes) {
+                result.add(topic + suffix);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Record is a retry record only if it was forwarded by retry publisher and its topic is exactly the retry topic of its attempt,
+     * so listened topic that merely ends with a retry suffix is never delayed
+     *
+     * @return delay of retry record or null if record is not a retry record
+     */
+    @Nullable
+    public Duration delay(ConsumerRecord<?, ?> record) {
+        var headers = record.headers();
+        var attemptHeader = headers.lastHeader(ATTEMPT_HEADER);
+        var originalTopicHeader = headers.lastHeader(ORIGINAL_TOPIC_HEADER);
+        if (attemptHeader == null || originalTopicHeader == null) {
+            return null;
+        }
+        var attempt = parseAttempt(attemptHeader.value());
+        if (attempt < 1 || attempt > this.retrySuffixes.size()) {
+            return null;
+        }
+        var retryTopic = new String(originalTopicHeader.value(), StandardCharsets.UTF_8) + this.retrySuffixes.get(attempt - 1);
+        return record.topic().equals(retryTopic) ? this.delays.get(attempt - 1) : null;
+    }
+
+    /**
+     * Sends record to the next topic, returned stage is completed when record is acknowledged by broker
+     */
+    public CompletionStage<Void> forward(ConsumerRecord<?, ?> record, Throwable error) {
+        var producer = this.producer;
+        if (producer == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Kafka Consumer '" + this.consumerPrefix + "' retry producer is not started"));
+        }
+        if (!(record instanceof ConsumerRecordWrapper<?, ?> wrapper)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Kafka Consumer '" + this.consumerPrefix + "' can forward only records polled by container"));
+        }
+
+        var raw = wrapper.unwrap();
+        var headers = new RecordHeaders(raw.headers().toArray());
+        var attemptHeader = headers.lastHeader(ATTEMPT_HEADER);
+        var attempt = attemptHeader == null ? 0 : parseAttempt(attemptHeader.value());
+        var originalTopicHeader = headers.lastHeader(ORIGINAL_TOPIC_HEADER);
+        String originalTopic;
+        if (originalTopicHeader == null) {
+            originalTopic = raw.topic();
+            headers.add(ORIGINAL_TOPIC_HEADER, raw.topic().getBytes(StandardCharsets.UTF_8));
+            headers.add(ORIGINAL_PARTITION_HEADER, Integer.toString(raw.partition()).getBytes(StandardCharsets.UTF_8));
+            headers.add(ORIGINAL_OFFSET_HEADER, Long.toString(raw.offset()).getBytes(StandardCharsets.UTF_8));
+        } else {
+            originalTopic = new String(originalTopicHeader.value(), StandardCharsets.UTF_8);
+        }
+        headers.remove(ATTEMPT_HEADER);
+        headers.remove(EXCEPTION_HEADER);
+        headers.remove(EXCEPTION_MESSAGE_HEADER);
+        headers.add(ATTEMPT_HEADER, Integer.toString(attempt + 1).getBytes(StandardCharsets.UTF_8));
+        headers.add(EXCEPTION_HEADER, error.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        headers.add(EXCEPTION_MESSAGE_HEADER, Objects.requireNonNullElse(error.getMessage(), "").getBytes(StandardCharsets.UTF_8));
+
+        // record that can't be deserialized will fail on every attempt
+        var topic = attempt < this.retrySuffixes.size() && !isDeserializationError(error)
+            ? originalTopic + this.retrySuffixes.get(attempt)
+            : originalTopic + this.config.deadLetterTopicSuffix();
+        var producerRecord = new ProducerRecord<>(topic, null, System.currentTimeMillis(), raw.key(), raw.value(), headers);
+
+        var future = new CompletableFuture<Void>();
+        try {
+            producer.send(producerRecord, (metadata, e) -> {
+                if (e != null) {
+                    future.completeExceptionally(e);
+                } else {
+                    logger.warn("Kafka Consumer '{}' forwarded failed record of topic '{}' partition {} offset {} to '{}'",
+                        this.consumerPrefix, raw.topic(), raw.partition(), raw.offset(), topic);
+                    future.complete(null);
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    void init() {
+        if (this.producer == null) {
+            this.producer = new KafkaProducer<>(this.config.driverProperties(), new ByteArraySerializer(), new ByteArraySerializer());
+        }
+    }
+
+    void release(Duration timeout) {
+        var producer = this.producer;
+        if (producer != null) {
+            this.producer = null;
+            producer.close(timeout);
+        }
+    }
+
+    private static int parseAttempt(byte[] value) {
+        try {
+            return Integer.parseInt(new String(value, StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean isDeserializationError(Throwable error) {
+        for (var e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof RecordKeyDeserializationException || e instanceof RecordValueDeserializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String formatDelay(Duration delay) {
+        var millis = delay.toMillis();
+        if (millis > 0 && millis % 3_600_000 == 0) {
+            return millis / 3_600_000 + "h";
+        } else if (millis > 0 && millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        } else if (millis > 0 && millis % 1000 == 0) {
+            return millis / 1000 + "s";
+        } else {
+            return millis + "ms";
+        }
+    }
+}
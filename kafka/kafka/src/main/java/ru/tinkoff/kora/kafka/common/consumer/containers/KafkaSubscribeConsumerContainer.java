@@ -13,6 +13,7 @@ import org.apache.kafka.common.serialization.Deserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.tinkoff.kora.application.graph.Lifecycle;
+import ru.tinkoff.kora.application.graph.internal.loom.VirtualThreadExecutorHolder;
 import ru.tinkoff.kora.common.Context;
 import ru.tinkoff.kora.common.util.TimeUtils;
 import ru.tinkoff.kora.kafka.common.KafkaUtils;
@@ -20,10 +21,13 @@ import ru.tinkoff.kora.kafka.common.KafkaUtils.NamedThreadFactory;
 import ru.tinkoff.kora.kafka.common.consumer.ConsumerAwareRebalanceListener;
 import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.BaseKafkaRecordsHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.AsyncRecordHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.RecordHandler;
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -40,8 +44,14 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
     private final Deserializer<V> valueDeserializer;
     private final KafkaConsumerTelemetry<K, V> telemetry;
     private volatile ExecutorService executorService;
+    @Nullable
+    private volatile ExecutorService workerExecutorService;
+    @Nullable
+    private volatile Executor workerExecutor;
 
     private final BaseKafkaRecordsHandler<K, V> handler;
+    @Nullable
+    private final KafkaRetryPublisher retryPublisher;
     private final Set<Consumer<K, V>> consumers = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
     @Nullable
     private final ConsumerAwareRebalanceListener rebalanceListener;
@@ -60,7 +70,6 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
             throw new IllegalArgumentException("Group id is required for subscribe container");
         }
 
-        this.handler = handler;
         this.rebalanceListener = rebalanceListener;
         var autoCommit = config.driverProperties().get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG);
         if (autoCommit == null) {
@@ -79,11 +88,33 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
             this.consumerPrefix = consumerName;
         }
         this.telemetry = telemetry;
+        if (config.retry() == null) {
+            this.retryPublisher = null;
+        } else if (handler instanceof RecordHandler<K, V> recordHandler && recordHandler.shouldCommit()) {
+            this.retryPublisher = new KafkaRetryPublisher(this.consumerPrefix, config.retry());
+            handler = recordHandler.withRetry(this.retryPublisher);
+        } else if (handler instanceof AsyncRecordHandler<K, V> asyncHandler) {
+            this.retryPublisher = new KafkaRetryPublisher(this.consumerPrefix, config.retry());
+            handler = asyncHandler.withRetry(this.retryPublisher);
+        } else {
+            this.retryPublisher = null;
+            logger.warn("Kafka Consumer '{}' retry is ignored, only record listeners without consumer parameter forward failed records", consumerPrefix);
+        }
+        this.handler = handler;
+        if (config.parallelism() > 1 && !(handler instanceof AsyncRecordHandler<K, V>) && !(handler instanceof RecordHandler<K, V> recordHandler && recordHandler.shouldCommit())) {
+            logger.warn("Kafka Consumer '{}' parallelism is ignored, only record listeners without consumer parameter are processed in parallel", consumerPrefix);
+        }
     }
 
     public void launchPollLoop(Consumer<K, V> consumer, long started) {
+        var pauses = new PartitionPauses();
+        launchPollLoop(consumer, new KafkaOffsetCommitter(consumer, this.config, this.commitAllowed), createProcessor(pauses), createDelayer(pauses), started);
+    }
+
+    private void launchPollLoop(Consumer<K, V> consumer, KafkaOffsetCommitter committer, @Nullable ParallelRecordProcessor<K, V> processor, @Nullable RetryTopicDelayer delayer, long started) {
         try (consumer; var t = this.telemetry.get(consumer)) {
             consumers.add(consumer);
+            var lagReporter = new ConsumerLagReporter(telemetry);
             logger.info("Kafka Consumer '{}' started in {}", consumerPrefix, TimeUtils.tookForLogging(started));
 
             boolean isFirstPoll = true;
@@ -91,7 +122,12 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
                 try {
                     logger.trace("Kafka Consumer '{}' polling...", consumerPrefix);
 
-                    var records = consumer.poll(config.pollTimeout());
+                    var pollTimeout = processor == null ? config.pollTimeout() : processor.pollTimeout(config.pollTimeout());
+                    if (delayer != null) {
+                        delayer.resumeDue(consumer);
+                        pollTimeout = delayer.pollTimeout(pollTimeout);
+                    }
+                    var records = consumer.poll(pollTimeout);
                     if (isFirstPoll) {
                         logger.info("Kafka Consumer '{}' first poll in {}",
                             consumerPrefix, TimeUtils.tookForLogging(started));
@@ -114,7 +150,16 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
                         logger.trace("Kafka Consumer '{}' polled '0' records", consumerPrefix);
                     }
 
-                    handler.handle(records, consumer, this.commitAllowed);
+                    if (delayer != null) {
+                        records = delayer.delay(records, consumer);
+                    }
+                    if (processor != null) {
+                        processor.dispatch(records, consumer, committer);
+                    } else {
+                        handler.handle(records, consumer, committer);
+                    }
+                    committer.pollCompleted();
+                    lagReporter.report(consumer);
                     backoffTimeout.set(config.backoffTimeout().toMillis());
                 } catch (WakeupException ignore) {
                 } catch (Exception e) {
@@ -132,6 +177,10 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
                     Context.clear();
                 }
             }
+            if (processor != null) {
+                processor.close(consumer, committer);
+            }
+            commitOnClose(committer);
         } catch (Exception e) {
             logger.error("Kafka Consumer '{}' poll loop got unhandled exception", consumerPrefix, e);
         } finally {
@@ -139,19 +188,44 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
         }
     }
 
+    /**
+     * Records processed before shutdown or handler failure are committed before consumer is closed
+     */
+    private void commitOnClose(KafkaOffsetCommitter committer) {
+        try {
+            committer.commitSync();
+        } catch (WakeupException e) {
+            // commit is retried by committer on wakeup
+        } catch (Exception e) {
+            logger.warn("Kafka Consumer '{}' failed to commit processed offsets on close", consumerPrefix, e);
+        }
+    }
+
     @Override
     public void init() {
         if (config.threads() > 0 && this.isActive.compareAndSet(false, true)) {
             logger.debug("Kafka Consumer '{}' starting in subscribe mode...", consumerPrefix);
             final long started = TimeUtils.started();
 
+            if (config.parallelism() > 1 && handler instanceof RecordHandler<K, V> recordHandler && recordHandler.shouldCommit()) {
+                if (VirtualThreadExecutorHolder.status() == VirtualThreadExecutorHolder.VirtualThreadStatus.ENABLED) {
+                    workerExecutor = VirtualThreadExecutorHolder.executor();
+                } else {
+                    var workers = Executors.newFixedThreadPool(config.threads() * config.parallelism(), new NamedThreadFactory(consumerPrefix + "-worker-"));
+                    workerExecutorService = workers;
+                    workerExecutor = workers;
+                }
+            }
+            if (retryPublisher != null) {
+                retryPublisher.init();
+            }
             executorService = Executors.newFixedThreadPool(config.threads(), new NamedThreadFactory(consumerPrefix));
             for (int i = 0; i < config.threads(); i++) {
                 executorService.execute(() -> {
                     while (isActive.get()) {
                         var consumer = initializeConsumer();
                         if (consumer != null) {
-                            launchPollLoop(consumer, started);
+                            launchPollLoop(consumer.consumer(), consumer.committer(), consumer.processor(), consumer.delayer(), started);
                         }
                     }
                 });
@@ -174,6 +248,16 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
                     logger.warn("Kafka Consumer '{}' failed completing graceful shutdown in {}", consumerPrefix, config.shutdownWait());
                 }
             }
+            if (workerExecutorService != null) {
+                // consumers await their records on close, so workers are idle at this point
+                shutdownExecutorService(workerExecutorService, config.shutdownWait());
+                workerExecutorService = null;
+            }
+            workerExecutor = null;
+            if (retryPublisher != null) {
+                // consumers are stopped at this point, so no more records are forwarded
+                retryPublisher.release(config.shutdownWait());
+            }
 
             logger.info("Kafka Consumer '{}' stopped in {}", consumerPrefix, TimeUtils.tookForLogging(started));
         }
@@ -199,8 +283,35 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
         }
     }
 
+    private record SubscribedConsumer<K, V>(Consumer<K, V> consumer, KafkaOffsetCommitter committer, @Nullable ParallelRecordProcessor<K, V> processor, @Nullable RetryTopicDelayer delayer) {}
+
+    @Nullable
+    private RetryTopicDelayer createDelayer(PartitionPauses pauses) {
+        return this.retryPublisher == null ? null : new RetryTopicDelayer(this.retryPublisher, pauses);
+    }
+
+    @Nullable
+    private ParallelRecordProcessor<K, V> createProcessor(PartitionPauses pauses) {
+        if (this.handler instanceof AsyncRecordHandler<K, V> asyncHandler) {
+            // async records are started on poll thread, so in-flight records are bounded by max in-flight records only
+            return new ParallelRecordProcessor<>(consumerPrefix, asyncHandler, telemetry, pauses, config.maxInflightRecords(), config.shutdownWait());
+        }
+        if (!(this.handler instanceof RecordHandler<K, V> recordHandler)) {
+            return null;
+        }
+        var executor = this.workerExecutor;
+        if (executor != null) {
+            return new ParallelRecordProcessor<>(consumerPrefix, recordHandler, telemetry, pauses, executor, config.parallelism(), config.maxInflightRecords(), config.shutdownWait());
+        }
+        if (this.retryPublisher != null) {
+            // records are handled on poll thread, but poll thread does not wait for forwards of failed records to be acknowledged
+            return new ParallelRecordProcessor<>(consumerPrefix, recordHandler, telemetry, pauses, config.maxInflightRecords(), config.shutdownWait());
+        }
+        return null;
+    }
+
     @Nullable
-    private Consumer<K, V> initializeConsumer() {
+    private SubscribedConsumer<K, V> initializeConsumer() {
         try {
             return this.buildConsumer();
         } catch (Exception e) {
@@ -214,61 +325,66 @@ public final class KafkaSubscribeConsumerContainer<K, V> implements Lifecycle {
         }
     }
 
-    private Consumer<K, V> buildConsumer() {
-        var consumer = new KafkaConsumer<>(this.config.driverProperties(), new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    private SubscribedConsumer<K, V> buildConsumer() {
+        var realConsumer = new KafkaConsumer<>(this.config.driverProperties(), new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        var consumer = new ConsumerWrapper<>(realConsumer, keyDeserializer, valueDeserializer);
+        var committer = new KafkaOffsetCommitter(consumer, this.config, this.commitAllowed);
+        var pauses = new PartitionPauses();
+        var processor = createProcessor(pauses);
+        var delayer = createDelayer(pauses);
         try {
-            if (config.topicsPattern() != null) {
-                if (rebalanceListener != null) {
-                    consumer.subscribe(config.topicsPattern(), new ConsumerRebalanceListener() {
-                        @Override
-                        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
-                            rebalanceListener.onPartitionsRevoked(consumer, partitions);
-                        }
-
-                        @Override
-                        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
-                            rebalanceListener.onPartitionsAssigned(consumer, partitions);
-                        }
-
-                        @Override
-                        public void onPartitionsLost(Collection<TopicPartition> partitions) {
-                            rebalanceListener.onPartitionsLost(consumer, partitions);
-                        }
-                    });
-                } else {
-                    consumer.subscribe(config.topicsPattern());
+            var listener = new ConsumerRebalanceListener() {
+                @Override
+                public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                    if (processor != null) {
+                        processor.partitionsRevoked(consumer, committer, partitions);
+                    }
+                    committer.partitionsRevoked(partitions);
+                    pauses.partitionsRevoked(partitions);
+                    if (delayer != null) {
+                        delayer.partitionsRevoked(partitions);
+                    }
+                    if (rebalanceListener != null) {
+                        rebalanceListener.onPartitionsRevoked(realConsumer, partitions);
+                    }
                 }
-            } else if (config.topics() != null) {
-                if (rebalanceListener != null) {
-                    consumer.subscribe(config.topics(), new ConsumerRebalanceListener() {
-                        @Override
-                        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
-                            rebalanceListener.onPartitionsRevoked(consumer, partitions);
-                        }
 
-                        @Override
-                        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
-                            rebalanceListener.onPartitionsAssigned(consumer, partitions);
-                        }
+                @Override
+                public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                    if (processor != null) {
+                        processor.partitionsAssigned(consumer, partitions);
+                    }
+                    if (rebalanceListener != null) {
+                        rebalanceListener.onPartitionsAssigned(realConsumer, partitions);
+                    }
+                }
 
-                        @Override
-                        public void onPartitionsLost(Collection<TopicPartition> partitions) {
-                            rebalanceListener.onPartitionsLost(consumer, partitions);
-                        }
-                    });
-                } else {
-                    consumer.subscribe(config.topics());
+                @Override
+                public void onPartitionsLost(Collection<TopicPartition> partitions) {
+                    committer.partitionsLost(partitions);
+                    pauses.partitionsRevoked(partitions);
+                    if (delayer != null) {
+                        delayer.partitionsRevoked(partitions);
+                    }
+                    if (rebalanceListener != null) {
+                        rebalanceListener.onPartitionsLost(realConsumer, partitions);
+                    }
                 }
+            };
+            if (config.topicsPattern() != null) {
+                realConsumer.subscribe(config.topicsPattern(), listener);
+            } else if (config.topics() != null) {
+                realConsumer.subscribe(retryPublisher == null ? config.topics() : retryPublisher.subscription(config.topics()), listener);
             }
         } catch (Exception e) {
             try {
-                consumer.close();
+                realConsumer.close();
             } catch (Exception suppressed) {
                 e.addSuppressed(suppressed);
             }
             throw e;
         }
 
-        return new ConsumerWrapper<>(consumer, keyDeserializer, valueDeserializer);
+        return new SubscribedConsumer<>(consumer, committer, processor, delayer);
     }
 }
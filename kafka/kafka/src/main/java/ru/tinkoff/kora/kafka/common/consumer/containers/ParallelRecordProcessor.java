@@ -0,0 +1,367 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.AsyncRecordHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.RecordHandler;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry.KafkaConsumerRecordsTelemetryContext;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Processes polled records of a single consumer on a fixed number of lanes, records with same key always go to the same lane and are processed in polling order.
+ * Records without key are ordered within partition.
+ * Records of async listeners, and of listeners without lanes that forward failed records to retry topics, are started on poll thread in polling order and completed concurrently,
+ * so poll thread never waits for forwarded record to be acknowledged.
+ * Completed records are passed to {@link KafkaOffsetCommitter} on poll thread, so committed offset never passes a record that is still processed.
+ * Assigned partitions are paused while number of records in flight exceeds the limit and resumed when half of them is processed,
+ * partitions assigned by rebalance in between are paused as well, partitions that are also paused by {@link RetryTopicDelayer} stay paused until it resumes them.
+ * All methods except lanes themselves must be called from consumer poll thread.
+ * Handlers get consumer that throws when called outside of poll thread, because kafka consumer is not thread safe.
+ */
+final class ParallelRecordProcessor<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelRecordProcessor.class);
+    private static final Duration INFLIGHT_POLL_TIMEOUT = Duration.ofMillis(50);
+
+    private final String consumerPrefix;
+    @Nullable
+    private final RecordHandler<K, V> handler;
+    @Nullable
+    private final AsyncRecordHandler<K, V> asyncHandler;
+    private final KafkaConsumerTelemetry<K, V> telemetry;
+    private final PartitionPauses pauses;
+    @Nullable
+    private final Lane[] lanes;
+    private final int maxInflightRecords;
+    private final Duration awaitTimeout;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<TopicPartition, AtomicInteger> partitionInflight = new HashMap<>();
+    private final ConcurrentLinkedQueue<ConsumerRecord<K, V>> completed = new ConcurrentLinkedQueue<>();
+    private volatile Throwable failure;
+    private boolean backpressure;
+    @Nullable
+    private Consumer<K, V> consumer;
+    @Nullable
+    private Consumer<K, V> guardedConsumer;
+
+    ParallelRecordProcessor(String consumerPrefix, RecordHandler<K, V> handler, KafkaConsumerTelemetry<K, V> telemetry, PartitionPauses pauses, Executor executor, int parallelism, int maxInflightRecords, Duration awaitTimeout) {
+        this.consumerPrefix = consumerPrefix;
+        this.handler = handler;
+        this.asyncHandler = null;
+        this.telemetry = telemetry;
+        this.pauses = pauses;
+        this.lanes = new Lane[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            this.lanes[i] = new Lane(executor);
+        }
+        this.maxInflightRecords = Math.max(maxInflightRecords, 1);
+        this.awaitTimeout = awaitTimeout;
+    }
+
+    /**
+     * Records are handled on poll thread, only forwards of failed records to retry topics are completed concurrently
+     */
+    ParallelRecordProcessor(String consumerPrefix, RecordHandler<K, V> handler, KafkaConsumerTelemetry<K, V> telemetry, PartitionPauses pauses, int maxInflightRecords, Duration awaitTimeout) {
+        this.consumerPrefix = consumerPrefix;
+        this.handler = handler;
+        this.asyncHandler = null;
+        this.telemetry = telemetry;
+        this.pauses = pauses;
+        this.lanes = null;
+        this.maxInflightRecords = Math.max(maxInflightRecords, 1);
+        this.awaitTimeout = awaitTimeout;
+    }
+
+    ParallelRecordProcessor(String consumerPrefix, AsyncRecordHandler<K, V> asyncHandler, KafkaConsumerTelemetry<K, V> telemetry, PartitionPauses pauses, int maxInflightRecords, Duration awaitTimeout) {
+        this.consumerPrefix = consumerPrefix;
+        this.handler = null;
+        this.asyncHandler = asyncHandler;
+        this.telemetry = telemetry;
+        this.pauses = pauses;
+        this.lanes = null;
+        this.maxInflightRecords = Math.max(maxInflightRecords, 1);
+        this.awaitTimeout = awaitTimeout;
+    }
+
+    /**
+     * Poll should not block for the whole poll timeout while there are records which completion can be committed or resume partitions
+     */
+    Duration pollTimeout(Duration pollTimeout) {
+        if (this.inflight.get() > 0 && pollTimeout.compareTo(INFLIGHT_POLL_TIMEOUT) > 0) {
+            return INFLIGHT_POLL_TIMEOUT;
+        }
+        return pollTimeout;
+    }
+
+    void dispatch(ConsumerRecords<K, V> records, Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
+        if (!records.isEmpty() && this.failure == null) {
+            committer.polled(records);
+            var batch = new Batch<>(this.telemetry.get(records), records.count());
+            var context = Context.current();
+            var guardedConsumer = this.guarded(consumer);
+            for (var partition : records.partitions()) {
+                var partitionInflight = this.partitionInflight.computeIfAbsent(partition, p -> new AtomicInteger());
+                for (var record : records.records(partition)) {
+                    this.inflight.incrementAndGet();
+                    partitionInflight.incrementAndGet();
+                    if (this.lanes == null) {
+                        this.process(batch, partitionInflight, context, guardedConsumer, record);
+                    } else {
+                        this.lane(record).execute(() -> this.process(batch, partitionInflight, context, guardedConsumer, record));
+                    }
+                }
+            }
+        }
+        this.drain(consumer, committer);
+        this.throwIfFailed(consumer, committer);
+        this.applyBackpressure(consumer);
+    }
+
+    /**
+     * Records of revoked partitions are awaited, so their offsets are committed before partitions are assigned to another consumer.
+     * Records of partitions that stay assigned are not waited for
+     */
+    void partitionsRevoked(Consumer<K, V> consumer, KafkaOffsetCommitter committer, Collection<TopicPartition> partitions) {
+        var revoked = new ArrayList<AtomicInteger>(partitions.size());
+        for (var partition : partitions) {
+            var partitionInflight = this.partitionInflight.remove(partition);
+            if (partitionInflight != null) {
+                revoked.add(partitionInflight);
+            }
+        }
+        if (!this.await(() -> allCompleted(revoked))) {
+            logger.warn("Kafka Consumer '{}' in-flight records of revoked partitions not completed in {}, their offsets are not committed", this.consumerPrefix, this.awaitTimeout);
+        }
+        this.drain(consumer, committer);
+    }
+
+    /**
+     * Partitions assigned while backpressure is applied are paused right away, so records of them are not fetched until in-flight records are processed
+     */
+    void partitionsAssigned(Consumer<K, V> consumer, Collection<TopicPartition> partitions) {
+        if (this.backpressure && !partitions.isEmpty()) {
+            this.pauses.pause(consumer, partitions, PartitionPauses.Owner.BACKPRESSURE);
+        }
+    }
+
+    void close(Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
+        if (!this.await(() -> this.inflight.get() == 0)) {
+            // offsets of records that are still processed will not be committed and these records are polled again by next consumer
+            logger.warn("Kafka Consumer '{}' in-flight records not completed in {}, {} records are left unprocessed", this.consumerPrefix, this.awaitTimeout, this.inflight.get());
+        }
+        this.drain(consumer, committer);
+    }
+
+    private void process(Batch<K, V> batch, AtomicInteger partitionInflight, Context context, Consumer<K, V> consumer, ConsumerRecord<K, V> record) {
+        if (this.failure != null) {
+            this.completed(batch, partitionInflight, record, null, false);
+            return;
+        }
+        CompletionStage<Void> stage;
+        try {
+            stage = Context.callWith(context.fork(), () -> this.handler != null
+                ? this.handler.handleRecord(consumer, batch.telemetry, record)
+                : this.asyncHandler.handleRecord(consumer, batch.telemetry, record));
+        } catch (Throwable e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        stage.whenComplete((r, e) -> this.completed(batch, partitionInflight, record, e, true));
+    }
+
+    private void completed(Batch<K, V> batch, AtomicInteger partitionInflight, ConsumerRecord<K, V> record, @Nullable Throwable error, boolean processed) {
+        if (error != null) {
+            if (this.failure == null) {
+                this.failure = error;
+            }
+        } else if (processed) {
+            this.completed.add(record);
+        }
+        batch.completed(error);
+        var partitionCompleted = partitionInflight.decrementAndGet() == 0;
+        if (this.inflight.decrementAndGet() == 0 || partitionCompleted) {
+            synchronized (this.inflight) {
+                this.inflight.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * On failure records that are already processed are committed, remaining are skipped and container is restarted after backoff same as in sequential mode
+     */
+    private void throwIfFailed(Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
+        var failure = this.failure;
+        if (failure == null) {
+            return;
+        }
+        this.await(() -> this.inflight.get() == 0);
+        this.drain(consumer, committer);
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        } else if (failure instanceof Error e) {
+            throw e;
+        } else {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    private void drain(Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
+        if (this.completed.isEmpty()) {
+            return;
+        }
+        var assignment = consumer.assignment();
+        ConsumerRecord<K, V> record;
+        while ((record = this.completed.poll()) != null) {
+            if (assignment.contains(new TopicPartition(record.topic(), record.partition()))) {
+                committer.processed(record);
+            }
+        }
+    }
+
+    private void applyBackpressure(Consumer<K, V> consumer) {
+        var inflight = this.inflight.get();
+        if (inflight >= this.maxInflightRecords) {
+            this.backpressure = true;
+        } else if (inflight <= this.maxInflightRecords / 2 && this.backpressure) {
+            this.backpressure = false;
+            this.pauses.resumeAll(consumer, PartitionPauses.Owner.BACKPRESSURE);
+        }
+        if (this.backpressure) {
+            // pause is reapplied on every poll, so partition assigned after backpressure is applied is paused even if it is missed by rebalance listener
+            this.pauses.pause(consumer, consumer.assignment(), PartitionPauses.Owner.BACKPRESSURE);
+        }
+    }
+
+    private boolean await(BooleanSupplier completed) {
+        var deadline = System.nanoTime() + this.awaitTimeout.toNanos();
+        synchronized (this.inflight) {
+            while (!completed.getAsBoolean()) {
+                var left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                try {
+                    this.inflight.wait(Math.max(left / 1_000_000, 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean allCompleted(List<AtomicInteger> partitionsInflight) {
+        for (var partitionInflight : partitionsInflight) {
+            if (partitionInflight.get() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<K, V> guarded(Consumer<K, V> consumer) {
+        if (this.consumer != consumer) {
+            var pollThread = Thread.currentThread();
+            this.consumer = consumer;
+            this.guardedConsumer = (Consumer<K, V>) Proxy.newProxyInstance(Consumer.class.getClassLoader(), new Class<?>[]{Consumer.class}, (proxy, method, args) -> {
+                if (method.getDeclaringClass() != Object.class && Thread.currentThread() != pollThread) {
+                    throw new IllegalStateException("Kafka Consumer '" + this.consumerPrefix + "' can be used only on poll thread, listener that uses consumer can't be processed in parallel");
+                }
+                try {
+                    return method.invoke(consumer, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+        return this.guardedConsumer;
+    }
+
+    private Lane lane(ConsumerRecord<K, V> record) {
+        int hash;
+        if (record instanceof ConsumerRecordWrapper<K, V> wrapper) {
+            // raw key bytes are used, so key is not deserialized on poll thread
+            var key = wrapper.unwrap().key();
+            hash = key == null ? record.partition() : Arrays.hashCode(key);
+        } else {
+            var key = record.key();
+            hash = key == null ? record.partition() : key.hashCode();
+        }
+        return this.lanes[lane(hash, this.lanes.length)];
+    }
+
+    static int lane(int keyHash, int lanes) {
+        return Math.floorMod(keyHash * 0x9E3779B9, lanes);
+    }
+
+    private static final class Batch<K, V> {
+        private final KafkaConsumerRecordsTelemetryContext<K, V> telemetry;
+        private final AtomicInteger remaining;
+        private volatile Throwable error;
+
+        private Batch(KafkaConsumerRecordsTelemetryContext<K, V> telemetry, int size) {
+            this.telemetry = telemetry;
+            this.remaining = new AtomicInteger(size);
+        }
+
+        private void completed(Throwable error) {
+            if (error != null) {
+                this.error = error;
+            }
+            if (this.remaining.decrementAndGet() == 0) {
+                this.telemetry.close(this.error);
+            }
+        }
+    }
+
+    /**
+     * Serial executor: tasks of a lane are executed one after another in submission order, but not necessarily on the same thread
+     */
+    private static final class Lane implements Runnable {
+        private final Executor executor;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Lane(Executor executor) {
+            this.executor = executor;
+        }
+
+        void execute(Runnable task) {
+            this.tasks.add(task);
+            if (this.size.getAndIncrement() == 0) {
+                this.executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                this.tasks.poll().run();
+            } while (this.size.decrementAndGet() > 0);
+        }
+    }
+}
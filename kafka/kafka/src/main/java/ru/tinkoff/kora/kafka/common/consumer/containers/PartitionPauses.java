@@ -0,0 +1,85 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pauses partitions of a single consumer on behalf of several owners, partition is resumed only when every owner that paused it has resumed it.
+ * Must be used from consumer poll thread, same as consumer itself.
+ */
+final class PartitionPauses {
+
+    enum Owner {
+        /**
+         * Too many records are in flight, see {@link ParallelRecordProcessor}
+         */
+        BACKPRESSURE,
+        /**
+         * Retry topic record is not due yet, see {@link RetryTopicDelayer}
+         */
+        RETRY_DELAY
+    }
+
+    private final Map<TopicPartition, EnumSet<Owner>> paused = new HashMap<>();
+
+    void pause(Consumer<?, ?> consumer, Collection<TopicPartition> partitions, Owner owner) {
+        var toPause = new ArrayList<TopicPartition>();
+        for (var partition : partitions) {
+            var owners = this.paused.computeIfAbsent(partition, p -> EnumSet.noneOf(Owner.class));
+            if (owners.isEmpty()) {
+                toPause.add(partition);
+            }
+            owners.add(owner);
+        }
+        if (!toPause.isEmpty()) {
+            consumer.pause(toPause);
+        }
+    }
+
+    void resume(Consumer<?, ?> consumer, Collection<TopicPartition> partitions, Owner owner) {
+        var toResume = new ArrayList<TopicPartition>();
+        for (var partition : partitions) {
+            var owners = this.paused.get(partition);
+            if (owners != null && owners.remove(owner) && owners.isEmpty()) {
+                this.paused.remove(partition);
+                toResume.add(partition);
+            }
+        }
+        if (!toResume.isEmpty()) {
+            toResume.retainAll(consumer.assignment());
+            consumer.resume(toResume);
+        }
+    }
+
+    void resumeAll(Consumer<?, ?> consumer, Owner owner) {
+        var partitions = new ArrayList<TopicPartition>();
+        for (var entry : this.paused.entrySet()) {
+            if (entry.getValue().contains(owner)) {
+                partitions.add(entry.getKey());
+            }
+        }
+        this.resume(consumer, partitions, owner);
+    }
+
+    boolean isPaused(Owner owner) {
+        for (var owners : this.paused.values()) {
+            if (owners.contains(owner)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pause of revoked or lost partition is reset by consumer, so it is forgotten by every owner
+     */
+    void partitionsRevoked(Collection<TopicPartition> partitions) {
+        this.paused.keySet().removeAll(partitions);
+    }
+}
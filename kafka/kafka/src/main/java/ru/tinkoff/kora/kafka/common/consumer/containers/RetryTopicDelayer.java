@@ -0,0 +1,109 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Holds back records of retry topics until their delay has passed since they were forwarded.
+ * Partition of a record that is not due yet is rewound to it and paused until record is due, so other partitions are polled meanwhile.
+ * Pause is shared with {@link ParallelRecordProcessor} backpressure through {@link PartitionPauses}, so neither of them resumes partition the other one still holds.
+ * Must be used from consumer poll thread, same as consumer itself.
+ */
+final class RetryTopicDelayer {
+
+    private final KafkaRetryPublisher publisher;
+    private final PartitionPauses pauses;
+    private final Map<TopicPartition, Long> resumeAt = new HashMap<>();
+
+    RetryTopicDelayer(KafkaRetryPublisher publisher, PartitionPauses pauses) {
+        this.publisher = publisher;
+        this.pauses = pauses;
+    }
+
+    /**
+     * @return records that are due, records of delayed partitions are polled again after resume
+     */
+    <K, V> ConsumerRecords<K, V> delay(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        if (records.isEmpty()) {
+            return records;
+        }
+        Map<TopicPartition, List<ConsumerRecord<K, V>>> due = null;
+        var now = System.currentTimeMillis();
+        for (var partition : records.partitions()) {
+            var partitionRecords = records.records(partition);
+            for (int i = 0; i < partitionRecords.size(); i++) {
+                var record = partitionRecords.get(i);
+                var delay = this.publisher.delay(record);
+                if (delay == null) {
+                    continue;
+                }
+                var dueAt = record.timestamp() + delay.toMillis();
+                if (dueAt <= now) {
+                    continue;
+                }
+                consumer.seek(partition, record.offset());
+                this.pauses.pause(consumer, List.of(partition), PartitionPauses.Owner.RETRY_DELAY);
+                this.resumeAt.put(partition, dueAt);
+                if (due == null) {
+                    due = new HashMap<>();
+                    for (var p : records.partitions()) {
+                        due.put(p, records.records(p));
+                    }
+                }
+                if (i == 0) {
+                    due.remove(partition);
+                } else {
+                    due.put(partition, partitionRecords.subList(0, i));
+                }
+                break;
+            }
+        }
+        return due == null ? records : new ConsumerRecords<>(due);
+    }
+
+    void resumeDue(Consumer<?, ?> consumer) {
+        if (this.resumeAt.isEmpty()) {
+            return;
+        }
+        var now = System.currentTimeMillis();
+        var assignment = consumer.assignment();
+        var toResume = new ArrayList<TopicPartition>();
+        var it = this.resumeAt.entrySet().iterator();
+        while (it.hasNext()) {
+            var entry = it.next();
+            if (!assignment.contains(entry.getKey())) {
+                it.remove();
+            } else if (entry.getValue() <= now) {
+                toResume.add(entry.getKey());
+                it.remove();
+            }
+        }
+        if (!toResume.isEmpty()) {
+            this.pauses.resume(consumer, toResume, PartitionPauses.Owner.RETRY_DELAY);
+        }
+    }
+
+    /**
+     * Poll should not block past the time when delayed partition is due
+     */
+    Duration pollTimeout(Duration pollTimeout) {
+        if (this.resumeAt.isEmpty()) {
+            return pollTimeout;
+        }
+        var nextResume = Collections.min(this.resumeAt.values());
+        var untilResume = Duration.ofMillis(Math.max(nextResume - System.currentTimeMillis(), 0));
+        return untilResume.compareTo(pollTimeout) < 0 ? untilResume : pollTimeout;
+    }
+
+    /**
+     * Pause of revoked partition is reset by consumer, its records are checked again if partition is assigned back
+     */
+    void partitionsRevoked(Collection<TopicPartition> partitions) {
+        this.resumeAt.keySet().removeAll(partitions);
+    }
+}
@@ -2,6 +2,7 @@ package ru.tinkoff.kora.kafka.common.consumer.containers.handlers;
 
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaOffsetCommitter;
 
 @FunctionalInterface
 public interface BaseKafkaRecordsHandler<K,V> {
@@ -12,4 +13,13 @@ public interface BaseKafkaRecordsHandler<K,V> {
      * @param commitAllowed if true that commit is allowed for consumer
      */
     void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, boolean commitAllowed);
+
+    /**
+     * @param records consumed records to handle by kafka consumer
+     * @param consumer consumer that consumer records
+     * @param committer tracks processed records and commits their offsets according to configured commit strategy
+     */
+    default void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
+        handle(records, consumer, committer.commitAllowed());
+    }
 }
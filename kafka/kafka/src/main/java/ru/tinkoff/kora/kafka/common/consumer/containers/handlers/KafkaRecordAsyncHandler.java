@@ -0,0 +1,17 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers.handlers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry.KafkaConsumerRecordTelemetryContext;
+
+import java.util.concurrent.CompletionStage;
+
+@FunctionalInterface
+public interface KafkaRecordAsyncHandler<K, V> {
+
+    /**
+     * @param record consumed record to handle by kafka consumer
+     * @return stage that is completed when record is processed, record offset is committed only after that
+     */
+    CompletionStage<?> handle(Consumer<K, V> consumer, KafkaConsumerRecordTelemetryContext<K, V> telemetry, ConsumerRecord<K, V> record);
+}
@@ -0,0 +1,136 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl;
+
+import jakarta.annotation.Nullable;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
+import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaOffsetCommitter;
+import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaRetryPublisher;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.BaseKafkaRecordsHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordAsyncHandler;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry.KafkaConsumerRecordsTelemetryContext;
+import ru.tinkoff.kora.kafka.common.exceptions.KafkaSkipRecordException;
+import ru.tinkoff.kora.kafka.common.exceptions.SkippableRecordException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Handler of a listener that returns {@link CompletionStage}.
+ * Subscribe container starts records on poll thread and tracks their completion without blocking,
+ * other callers get records of a poll started concurrently and awaited before return.
+ */
+public class AsyncRecordHandler<K, V> implements BaseKafkaRecordsHandler<K, V> {
+    private final KafkaConsumerTelemetry<K, V> telemetry;
+    private final ValueOf<KafkaRecordAsyncHandler<K, V>> handler;
+    @Nullable
+    private final KafkaRetryPublisher retryPublisher;
+
+    public AsyncRecordHandler(KafkaConsumerTelemetry<K, V> telemetry, ValueOf<KafkaRecordAsyncHandler<K, V>> handler) {
+        this(telemetry, handler, null);
+    }
+
+    private AsyncRecordHandler(KafkaConsumerTelemetry<K, V> telemetry, ValueOf<KafkaRecordAsyncHandler<K, V>> handler, @Nullable KafkaRetryPublisher retryPublisher) {
+        this.telemetry = telemetry;
+        this.handler = handler;
+        this.retryPublisher = retryPublisher;
+    }
+
+    /**
+     * @return handler that forwards failed records with retry publisher and commits them instead of failing
+     */
+    public AsyncRecordHandler<K, V> withRetry(KafkaRetryPublisher retryPublisher) {
+        return new AsyncRecordHandler<>(this.telemetry, this.handler, retryPublisher);
+    }
+
+    @Override
+    public void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, boolean commitAllowed) {
+        var committer = new KafkaOffsetCommitter(consumer, KafkaListenerConfig.CommitStrategy.POLL_SYNC, Duration.ZERO, 1, commitAllowed);
+        this.handle(records, consumer, committer);
+        committer.pollCompleted();
+    }
+
+    @Override
+    public void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        committer.polled(records);
+        var ctx = this.telemetry.get(records);
+        var futures = new CompletableFuture<?>[records.count()];
+        var i = 0;
+        for (var record : records) {
+            futures[i++] = this.handleRecord(consumer, ctx, record).toCompletableFuture();
+        }
+
+        RuntimeException error = null;
+        i = 0;
+        for (var record : records) {
+            try {
+                futures[i++].join();
+                committer.processed(record);
+            } catch (CompletionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException re ? re : e;
+                }
+            }
+        }
+        ctx.close(error);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Starts handling of a single record, record telemetry is closed on completion.
+     * Returned stage is completed exceptionally only if record is failed and must not be committed
+     */
+    public CompletionStage<Void> handleRecord(Consumer<K, V> consumer, KafkaConsumerRecordsTelemetryContext<K, V> ctx, ConsumerRecord<K, V> record) {
+        var recordCtx = ctx.get(record);
+        CompletionStage<?> stage;
+        try {
+            stage = this.handler.get().handle(consumer, recordCtx, record);
+            if (stage == null) {
+                stage = CompletableFuture.completedFuture(null);
+            }
+        } catch (Throwable e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+
+        var result = new CompletableFuture<Void>();
+        stage.whenComplete((r, e) -> {
+            var error = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (error == null) {
+                recordCtx.close(null);
+                result.complete(null);
+            } else if (error instanceof KafkaSkipRecordException) {
+                recordCtx.close(error.getCause());
+                result.complete(null);
+            } else if (error instanceof SkippableRecordException) {
+                recordCtx.close(error);
+                result.complete(null);
+            } else if (this.retryPublisher != null && error instanceof Exception) {
+                this.retryPublisher.forward(record, error).whenComplete((forwarded, forwardError) -> {
+                    if (forwardError != null) {
+                        error.addSuppressed(forwardError);
+                        recordCtx.close(error);
+                        result.completeExceptionally(error);
+                    } else {
+                        recordCtx.close(error);
+                        result.complete(null);
+                    }
+                });
+            } else {
+                recordCtx.close(error);
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+}
@@ -1,81 +1,118 @@
 package ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl;
 
+import jakarta.annotation.Nullable;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.OffsetAndMetadata;
-import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
-import org.apache.kafka.common.requests.OffsetFetchResponse;
 import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
+import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaOffsetCommitter;
+import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaRetryPublisher;
 import ru.tinkoff.kora.kafka.common.exceptions.KafkaSkipRecordException;
 import ru.tinkoff.kora.kafka.common.exceptions.SkippableRecordException;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.BaseKafkaRecordsHandler;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordHandler;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry.KafkaConsumerRecordTelemetryContext;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry.KafkaConsumerRecordsTelemetryContext;
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
 
-import java.util.Map;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 public class RecordHandler<K, V> implements BaseKafkaRecordsHandler<K, V> {
     private final KafkaConsumerTelemetry<K, V> telemetry;
     private final ValueOf<KafkaRecordHandler<K, V>> handler;
     private final boolean shouldCommit;
+    @Nullable
+    private final KafkaRetryPublisher retryPublisher;
 
     public RecordHandler(KafkaConsumerTelemetry<K, V> telemetry, boolean shouldCommit, ValueOf<KafkaRecordHandler<K, V>> handler) {
+        this(telemetry, shouldCommit, handler, null);
+    }
+
+    private RecordHandler(KafkaConsumerTelemetry<K, V> telemetry, boolean shouldCommit, ValueOf<KafkaRecordHandler<K, V>> handler, @Nullable KafkaRetryPublisher retryPublisher) {
         this.telemetry = telemetry;
         this.handler = handler;
         this.shouldCommit = shouldCommit;
+        this.retryPublisher = retryPublisher;
+    }
+
+    /**
+     * @return handler that forwards failed records with retry publisher and commits them instead of failing
+     */
+    public RecordHandler<K, V> withRetry(KafkaRetryPublisher retryPublisher) {
+        return new RecordHandler<>(this.telemetry, this.shouldCommit, this.handler, retryPublisher);
     }
 
     @Override
     public void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, boolean commitAllowed) {
+        var committer = new KafkaOffsetCommitter(consumer, KafkaListenerConfig.CommitStrategy.RECORD_SYNC, Duration.ZERO, 1, commitAllowed);
+        this.handle(records, consumer, committer);
+    }
+
+    @Override
+    public void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
         if (records.isEmpty()) {
             return;
         }
 
+        var shouldCommit = this.shouldCommit && committer.commitAllowed();
+        if (shouldCommit) {
+            committer.polled(records);
+        }
         var ctx = this.telemetry.get(records);
         try {
             var handler = this.handler.get();
+            List<ConsumerRecord<K, V>> forwarded = null;
+            List<CompletableFuture<Void>> forwards = null;
             for (var record : records) {
                 var recordCtx = ctx.get(record);
+                Throwable skippedException;
                 try {
-                    Throwable skippedException;
-                    try {
-                        handler.handle(consumer, recordCtx, record);
-                        skippedException = null;
-                    } catch (Throwable e) {
-                        if(e instanceof KafkaSkipRecordException) {
-                            skippedException = e.getCause();
-                        } else if (e instanceof SkippableRecordException) {
-                            skippedException = e;
-                        } else {
-                            throw e;
-                        }
-                    }
-                    if (this.shouldCommit && commitAllowed) {
-                        /**
-                         * The committed offset should be the next message your application will consume, i.e. lastProcessedMessageOffset + 1
-                         * @see org.apache.kafka.clients.consumer.KafkaConsumer#commitSync(Map)
-                         */
-                        var topicAndOffsetAndMeta = Map.of(new TopicPartition(record.topic(), record.partition()),
-                            new OffsetAndMetadata(record.offset() + 1, record.leaderEpoch(), OffsetFetchResponse.NO_METADATA));
-
-                        try {
-                            consumer.commitSync(topicAndOffsetAndMeta);
-                            recordCtx.close(skippedException);
-                        } catch (WakeupException e) {
-                            // retry commit if thrown on consumer release
-                            consumer.commitSync(topicAndOffsetAndMeta);
-                            recordCtx.close(skippedException);
-                            throw e;
-                        }
-                    } else {
-                        recordCtx.close(skippedException);
-                    }
+                    skippedException = handle(handler, consumer, recordCtx, record);
                 } catch (WakeupException e) {
                     throw e;
                 } catch (Exception e) {
-                    recordCtx.close(e);
-                    throw e;
+                    if (this.retryPublisher == null) {
+                        recordCtx.close(e);
+                        throw e;
+                    }
+                    // forwards are acknowledged concurrently, so poll thread waits for them once per poll instead of once per record
+                    if (forwards == null) {
+                        forwarded = new ArrayList<>();
+                        forwards = new ArrayList<>();
+                    }
+                    forwarded.add(record);
+                    forwards.add(forward(this.retryPublisher, recordCtx, record, e));
+                    continue;
+                }
+                if (shouldCommit) {
+                    try {
+                        committer.processed(record);
+                        recordCtx.close(skippedException);
+                    } catch (WakeupException e) {
+                        recordCtx.close(skippedException);
+                        throw e;
+                    }
+                } else {
+                    recordCtx.close(skippedException);
+                }
+            }
+            if (forwards != null) {
+                for (int i = 0; i < forwards.size(); i++) {
+                    try {
+                        forwards.get(i).join();
+                    } catch (CompletionException e) {
+                        throw e.getCause() instanceof RuntimeException re ? re : e;
+                    }
+                    if (shouldCommit) {
+                        committer.processed(forwarded.get(i));
+                    }
                 }
             }
             ctx.close(null);
@@ -84,4 +121,60 @@ public class RecordHandler<K, V> implements BaseKafkaRecordsHandler<K, V> {
             throw e;
         }
     }
+
+    /**
+     * @return true if handler does not use consumer and its records can be committed by container
+     */
+    public boolean shouldCommit() {
+        return this.shouldCommit;
+    }
+
+    /**
+     * Handles single record of polled records outside of poll loop, record telemetry is closed when returned stage is completed.
+     * Stage is completed exceptionally only if record is failed and must not be committed, record forwarded to retry topic is completed when broker acknowledges it
+     */
+    public CompletionStage<Void> handleRecord(Consumer<K, V> consumer, KafkaConsumerRecordsTelemetryContext<K, V> ctx, ConsumerRecord<K, V> record) {
+        var recordCtx = ctx.get(record);
+        Throwable skippedException;
+        try {
+            skippedException = handle(this.handler.get(), consumer, recordCtx, record);
+        } catch (Exception e) {
+            if (this.retryPublisher == null || e instanceof WakeupException) {
+                recordCtx.close(e);
+                throw e;
+            }
+            return forward(this.retryPublisher, recordCtx, record, e);
+        }
+        recordCtx.close(skippedException);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Nullable
+    private static <K, V> Throwable handle(KafkaRecordHandler<K, V> handler, Consumer<K, V> consumer, KafkaConsumerRecordTelemetryContext<K, V> recordCtx, ConsumerRecord<K, V> record) {
+        try {
+            handler.handle(consumer, recordCtx, record);
+            return null;
+        } catch (KafkaSkipRecordException e) {
+            return e.getCause();
+        } catch (SkippableRecordException e) {
+            return e;
+        }
+    }
+
+    /**
+     * @return stage that is completed when forward of failed record is acknowledged, or completed with record error if forward is failed
+     */
+    private static <K, V> CompletableFuture<Void> forward(KafkaRetryPublisher retryPublisher, KafkaConsumerRecordTelemetryContext<K, V> recordCtx, ConsumerRecord<K, V> record, Exception error) {
+        var result = new CompletableFuture<Void>();
+        retryPublisher.forward(record, error).whenComplete((r, forwardError) -> {
+            if (forwardError != null) {
+                error.addSuppressed(forwardError instanceof CompletionException && forwardError.getCause() != null ? forwardError.getCause() : forwardError);
+                result.completeExceptionally(error);
+            } else {
+                result.complete(null);
+            }
+            recordCtx.close(error);
+        });
+        return result;
+    }
 }
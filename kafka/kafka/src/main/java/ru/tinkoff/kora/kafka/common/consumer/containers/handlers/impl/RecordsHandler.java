@@ -2,12 +2,15 @@ package ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl;
 
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.common.errors.WakeupException;
 import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
+import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaOffsetCommitter;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.BaseKafkaRecordsHandler;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordsHandler;
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
 
+import java.time.Duration;
+
 public class RecordsHandler<K, V> implements BaseKafkaRecordsHandler<K, V> {
     private final KafkaConsumerTelemetry<K, V> telemetry;
     private final ValueOf<KafkaRecordsHandler<K, V>> handler;
@@ -27,6 +30,13 @@ public class RecordsHandler<K, V> implements BaseKafkaRecordsHandler<K, V> {
 
     @Override
     public void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, boolean commitAllowed) {
+        var committer = new KafkaOffsetCommitter(consumer, KafkaListenerConfig.CommitStrategy.RECORD_SYNC, Duration.ZERO, 1, commitAllowed);
+        this.handle(records, consumer, committer);
+        committer.pollCompleted();
+    }
+
+    @Override
+    public void handle(ConsumerRecords<K, V> records, Consumer<K, V> consumer, KafkaOffsetCommitter committer) {
         if (records.isEmpty() && !allowEmptyRecords) {
             return;
         }
@@ -35,13 +45,8 @@ public class RecordsHandler<K, V> implements BaseKafkaRecordsHandler<K, V> {
         try {
             var handler = this.handler.get();
             handler.handle(consumer, ctx, records);
-            if (this.shouldCommit && commitAllowed) {
-                try {
-                    consumer.commitSync();
-                } catch (WakeupException e) {
-                    // retry commit if thrown on consumer release
-                    consumer.commitSync();
-                }
+            if (this.shouldCommit) {
+                committer.processed(records);
             }
             ctx.close(null);
         } catch (Exception e) {
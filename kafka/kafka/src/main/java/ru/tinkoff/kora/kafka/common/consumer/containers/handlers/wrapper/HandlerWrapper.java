@@ -2,8 +2,10 @@ package ru.tinkoff.kora.kafka.common.consumer.containers.handlers.wrapper;
 
 import ru.tinkoff.kora.application.graph.ValueOf;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.BaseKafkaRecordsHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordAsyncHandler;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordHandler;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordsHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.AsyncRecordHandler;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.RecordHandler;
 import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.RecordsHandler;
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
@@ -16,6 +18,10 @@ public final class HandlerWrapper {
         return new RecordHandler<>(telemetry, shouldCommit, handler);
     }
 
+    public static <K, V> BaseKafkaRecordsHandler<K, V> wrapHandlerRecordAsync(KafkaConsumerTelemetry<K, V> telemetry, ValueOf<KafkaRecordAsyncHandler<K, V>> handler) {
+        return new AsyncRecordHandler<>(telemetry, handler);
+    }
+
     @Deprecated
     public static <K, V> BaseKafkaRecordsHandler<K, V> wrapHandlerRecords(KafkaConsumerTelemetry<K, V> telemetry, boolean shouldCommit, ValueOf<KafkaRecordsHandler<K, V>> handler) {
         return wrapHandlerRecords(telemetry, shouldCommit, handler, false);
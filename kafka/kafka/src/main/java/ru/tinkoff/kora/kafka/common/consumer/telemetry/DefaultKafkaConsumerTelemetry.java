@@ -5,6 +5,9 @@ import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+
+import java.util.concurrent.TimeUnit;
 
 public class DefaultKafkaConsumerTelemetry<K, V> implements KafkaConsumerTelemetry<K, V> {
 
@@ -54,6 +57,13 @@ public class DefaultKafkaConsumerTelemetry<K, V> implements KafkaConsumerTelemet
         }
     }
 
+    @Override
+    public void removeLag(TopicPartition partition) {
+        if (this.metrics != null) {
+            this.metrics.removeLag(consumerName, partition);
+        }
+    }
+
     @Override
     public KafkaConsumerTelemetryContext<K, V> get(Consumer<K, V> consumer) {
         var metrics = this.metrics == null ? null : this.metrics.get(consumer);
@@ -100,6 +110,12 @@ public class DefaultKafkaConsumerTelemetry<K, V> implements KafkaConsumerTelemet
         @Override
         public KafkaConsumerRecordTelemetryContext<K, V> get(ConsumerRecord<K, V> record) {
             var recordStart = System.nanoTime();
+            if (this.metrics != null) {
+                var latency = record.timestampType() == TimestampType.NO_TIMESTAMP_TYPE || record.timestamp() < 0
+                    ? -1
+                    : TimeUnit.MILLISECONDS.toNanos(Math.max(System.currentTimeMillis() - record.timestamp(), 0));
+                this.metrics.onRecordHandleStarted(consumerName, record, recordStart - this.start, latency);
+            }
             var recordSpan = this.span == null ? null : this.span.get(record);
             if (this.logger != null) {
                 this.logger.logRecord(record);
@@ -34,6 +34,16 @@ public interface KafkaConsumerMetrics {
         onRecordProcessed(record, duration, ex);
     }
 
+    /**
+     * Called when handling of a record starts
+     *
+     * @param pollDelay nanoseconds from the end of poll to the start of record handling
+     * @param latency   nanoseconds from record timestamp to the start of record handling, negative if record has no timestamp
+     */
+    default void onRecordHandleStarted(String consumerName, ConsumerRecord<?, ?> record, long pollDelay, long latency) {
+
+    }
+
     @Deprecated
     default void reportLag(TopicPartition partition, long lag) {
 
@@ -43,6 +53,13 @@ public interface KafkaConsumerMetrics {
         reportLag(partition, lag);
     }
 
+    /**
+     * Called when partition which lag was reported is no longer assigned to consumer, because it was revoked or lost
+     */
+    default void removeLag(String consumerName, TopicPartition partition) {
+
+    }
+
     interface KafkaConsumerMetricsContext extends AutoCloseable {
         @Override
         void close();
@@ -32,4 +32,11 @@ public interface KafkaConsumerTelemetry<K, V> {
     KafkaConsumerRecordsTelemetryContext<K, V> get(ConsumerRecords<K, V> records);
 
     void reportLag(TopicPartition partition, long lag);
+
+    /**
+     * Called when partition which lag was reported is no longer assigned to consumer
+     */
+    default void removeLag(TopicPartition partition) {
+
+    }
 }
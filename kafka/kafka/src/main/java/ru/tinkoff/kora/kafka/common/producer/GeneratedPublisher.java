@@ -2,10 +2,29 @@ package ru.tinkoff.kora.kafka.common.producer;
 
 import org.apache.kafka.clients.producer.Producer;
 import ru.tinkoff.kora.application.graph.Lifecycle;
+import ru.tinkoff.kora.common.Context;
+import ru.tinkoff.kora.common.Deadline;
 import ru.tinkoff.kora.kafka.common.producer.telemetry.KafkaProducerTelemetry;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 public interface GeneratedPublisher extends Lifecycle {
     Producer<byte[], byte[]> producer();
 
     KafkaProducerTelemetry telemetry();
+
+    /**
+     * Waits for send result no longer than {@link Deadline} from the current context allows.
+     * Record is still sent after timeout, only the caller stops waiting for it.
+     */
+    static <T> T await(Future<T> future) throws InterruptedException, ExecutionException, TimeoutException {
+        var deadline = Deadline.current(Context.current());
+        if (deadline == null) {
+            return future.get();
+        }
+        return future.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+    }
 }
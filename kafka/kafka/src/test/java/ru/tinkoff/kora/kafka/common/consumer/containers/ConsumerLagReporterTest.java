@@ -0,0 +1,75 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
+
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsumerLagReporterTest {
+    private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, String> consumer = Mockito.mock(Consumer.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaConsumerTelemetry<String, String> telemetry = Mockito.mock(KafkaConsumerTelemetry.class);
+
+    @Test
+    void lagIsReportedFromConsumerCurrentLag() {
+        // given
+        var reporter = new ConsumerLagReporter(this.telemetry);
+        when(this.consumer.assignment()).thenReturn(Set.of(PARTITION_0, PARTITION_1));
+        when(this.consumer.currentLag(PARTITION_0)).thenReturn(OptionalLong.of(5));
+        when(this.consumer.currentLag(PARTITION_1)).thenReturn(OptionalLong.empty());
+
+        // when
+        reporter.report(this.consumer);
+
+        // then
+        verify(this.telemetry).reportLag(PARTITION_0, 5);
+        verify(this.telemetry, never()).reportLag(Mockito.eq(PARTITION_1), anyLong());
+        verify(this.consumer, never()).endOffsets(any());
+    }
+
+    @Test
+    void lagIsReportedOncePerInterval() {
+        // given
+        var reporter = new ConsumerLagReporter(this.telemetry);
+        when(this.consumer.assignment()).thenReturn(Set.of(PARTITION_0));
+        when(this.consumer.currentLag(PARTITION_0)).thenReturn(OptionalLong.of(5));
+
+        // when
+        reporter.report(this.consumer);
+        reporter.report(this.consumer);
+
+        // then
+        verify(this.telemetry).reportLag(PARTITION_0, 5);
+    }
+
+    @Test
+    void lagOfUnassignedPartitionIsRemovedOnNextReport() {
+        // given
+        var reporter = new ConsumerLagReporter(this.telemetry);
+        when(this.consumer.assignment()).thenReturn(Set.of(PARTITION_0, PARTITION_1));
+        when(this.consumer.currentLag(any())).thenReturn(OptionalLong.of(5));
+        reporter.report(this.consumer);
+
+        // when
+        when(this.consumer.assignment()).thenReturn(Set.of(PARTITION_1));
+        reporter.report(this.consumer);
+
+        // then
+        verify(this.telemetry).removeLag(PARTITION_0);
+        verify(this.telemetry, never()).removeLag(PARTITION_1);
+    }
+}
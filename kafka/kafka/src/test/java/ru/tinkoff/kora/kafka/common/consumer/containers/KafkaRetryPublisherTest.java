@@ -0,0 +1,165 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
+import ru.tinkoff.kora.kafka.common.exceptions.RecordValueDeserializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaRetryPublisherTest {
+    private final MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+    private final KafkaRetryPublisher publisher = new KafkaRetryPublisher("test", retryConfig(List.of(Duration.ofSeconds(5), Duration.ofMinutes(1))), this.producer);
+
+    @Test
+    void retryTopicsAreSubscribedAfterListenedTopics() {
+        // when
+        var subscription = this.publisher.subscription(List.of("orders", "payments"));
+
+        // then
+        assertThat(subscription).containsExactly("orders", "payments", "orders-retry-5s", "orders-retry-1m", "payments-retry-5s", "payments-retry-1m");
+    }
+
+    @Test
+    void failedRecordIsForwardedToFirstRetryTopicWithOriginAndError() {
+        // given
+        var record = record("orders", 3, 42, new RecordHeaders());
+
+        // when
+        this.publisher.forward(record, new IllegalStateException("failed")).toCompletableFuture().join();
+
+        // then
+        assertThat(this.producer.history()).hasSize(1);
+        var forwarded = this.producer.history().get(0);
+        assertThat(forwarded.topic()).isEqualTo("orders-retry-5s");
+        assertThat(forwarded.key()).isEqualTo("key".getBytes(StandardCharsets.UTF_8));
+        assertThat(forwarded.value()).isEqualTo("value".getBytes(StandardCharsets.UTF_8));
+        assertThat(header(forwarded, KafkaRetryPublisher.ATTEMPT_HEADER)).isEqualTo("1");
+        assertThat(header(forwarded, KafkaRetryPublisher.ORIGINAL_TOPIC_HEADER)).isEqualTo("orders");
+        assertThat(header(forwarded, KafkaRetryPublisher.ORIGINAL_PARTITION_HEADER)).isEqualTo("3");
+        assertThat(header(forwarded, KafkaRetryPublisher.ORIGINAL_OFFSET_HEADER)).isEqualTo("42");
+        assertThat(header(forwarded, KafkaRetryPublisher.EXCEPTION_HEADER)).isEqualTo(IllegalStateException.class.getName());
+        assertThat(header(forwarded, KafkaRetryPublisher.EXCEPTION_MESSAGE_HEADER)).isEqualTo("failed");
+    }
+
+    @Test
+    void failedRetryRecordIsForwardedToNextRetryTopicKeepingOrigin() {
+        // given
+        var record = record("orders-retry-5s", 0, 7, retryHeaders("orders", 1));
+
+        // when
+        this.publisher.forward(record, new IllegalStateException("failed again")).toCompletableFuture().join();
+
+        // then
+        var forwarded = this.producer.history().get(0);
+        assertThat(forwarded.topic()).isEqualTo("orders-retry-1m");
+        assertThat(header(forwarded, KafkaRetryPublisher.ATTEMPT_HEADER)).isEqualTo("2");
+        assertThat(header(forwarded, KafkaRetryPublisher.ORIGINAL_TOPIC_HEADER)).isEqualTo("orders");
+        assertThat(header(forwarded, KafkaRetryPublisher.EXCEPTION_MESSAGE_HEADER)).isEqualTo("failed again");
+        assertThat(forwarded.headers().headers(KafkaRetryPublisher.ATTEMPT_HEADER)).hasSize(1);
+    }
+
+    @Test
+    void recordOfLastRetryTopicIsForwardedToDeadLetterTopic() {
+        // given
+        var record = record("orders-retry-1m", 0, 7, retryHeaders("orders", 2));
+
+        // when
+        this.publisher.forward(record, new IllegalStateException("failed")).toCompletableFuture().join();
+
+        // then
+        assertThat(this.producer.history().get(0).topic()).isEqualTo("orders-dlt");
+    }
+
+    @Test
+    void recordThatCanNotBeDeserializedIsForwardedToDeadLetterTopic() {
+        // given
+        var record = record("orders", 0, 7, new RecordHeaders());
+        var error = new RecordValueDeserializationException(new IllegalArgumentException("bad value"), record.unwrap());
+
+        // when
+        this.publisher.forward(record, error).toCompletableFuture().join();
+
+        // then
+        assertThat(this.producer.history().get(0).topic()).isEqualTo("orders-dlt");
+    }
+
+    @Test
+    void failedSendCompletesForwardExceptionally() {
+        // given
+        var producer = new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        var publisher = new KafkaRetryPublisher("test", retryConfig(List.of(Duration.ofSeconds(5))), producer);
+        var record = record("orders", 0, 7, new RecordHeaders());
+
+        // when
+        var forward = publisher.forward(record, new IllegalStateException("failed")).toCompletableFuture();
+        assertThat(forward).isNotDone();
+        producer.errorNext(new IllegalStateException("broker is down"));
+
+        // then
+        assertThat(forward).isCompletedExceptionally();
+    }
+
+    @Test
+    void onlyRecordOfExactRetryTopicOfItsAttemptIsDelayed() {
+        // then
+        assertThat(this.publisher.delay(record("orders-retry-5s", 0, 0, retryHeaders("orders", 1)))).isEqualTo(Duration.ofSeconds(5));
+        assertThat(this.publisher.delay(record("orders-retry-1m", 0, 0, retryHeaders("orders", 2)))).isEqualTo(Duration.ofMinutes(1));
+        // listened topic that ends with retry suffix
+        assertThat(this.publisher.delay(record("audit-retry-5s", 0, 0, new RecordHeaders()))).isNull();
+        // record forwarded by another listener to its own retry topic
+        assertThat(this.publisher.delay(record("audit-retry-5s", 0, 0, retryHeaders("orders", 1)))).isNull();
+        // retry topic that does not match attempt
+        assertThat(this.publisher.delay(record("orders-retry-5s", 0, 0, retryHeaders("orders", 2)))).isNull();
+        assertThat(this.publisher.delay(record("orders-dlt", 0, 0, retryHeaders("orders", 3)))).isNull();
+    }
+
+    static ConsumerRecordWrapper<String, String> record(String topic, int partition, long offset, Headers headers) {
+        return record(topic, partition, offset, System.currentTimeMillis(), headers);
+    }
+
+    static ConsumerRecordWrapper<String, String> record(String topic, int partition, long offset, long timestamp, Headers headers) {
+        var raw = new ConsumerRecord<>(topic, partition, offset, timestamp, TimestampType.CREATE_TIME, 3, 5,
+            "key".getBytes(StandardCharsets.UTF_8), "value".getBytes(StandardCharsets.UTF_8), headers, Optional.empty());
+        return new ConsumerRecordWrapper<>(raw, new StringDeserializer(), new StringDeserializer());
+    }
+
+    static Headers retryHeaders(String originalTopic, int attempt) {
+        var headers = new RecordHeaders();
+        headers.add(KafkaRetryPublisher.ORIGINAL_TOPIC_HEADER, originalTopic.getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaRetryPublisher.ATTEMPT_HEADER, Integer.toString(attempt).getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    static KafkaListenerConfig.RetryConfig retryConfig(List<Duration> delays) {
+        return new KafkaListenerConfig.RetryConfig() {
+            @Override
+            public List<Duration> delays() {
+                return delays;
+            }
+
+            @Override
+            public Properties driverProperties() {
+                return new Properties();
+            }
+        };
+    }
+
+    private static String header(ProducerRecord<byte[], byte[]> record, String name) {
+        var header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
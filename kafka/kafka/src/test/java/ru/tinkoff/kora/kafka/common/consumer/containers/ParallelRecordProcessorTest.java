@@ -0,0 +1,430 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.kora.application.graph.ValueOf;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig.CommitStrategy;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordAsyncHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.KafkaRecordHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.AsyncRecordHandler;
+import ru.tinkoff.kora.kafka.common.consumer.containers.handlers.impl.RecordHandler;
+import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelRecordProcessorTest {
+    private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final KafkaOffsetCommitter committer = new KafkaOffsetCommitter(this.consumer, CommitStrategy.RECORD_SYNC, Duration.ZERO, 1, true);
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void recordsWithSameKeyAreProcessedInOrder() {
+        // given
+        this.consumer.assign(List.of(PARTITION_0));
+        var handled = new ConcurrentHashMap<String, List<Long>>();
+        var processor = processor(4, 1000, (consumer, telemetry, record) -> {
+            sleep(ThreadLocalRandom.current().nextInt(3));
+            handled.computeIfAbsent(record.key(), k -> Collections.synchronizedList(new ArrayList<>())).add(record.offset());
+        });
+        var records = new ArrayList<ConsumerRecord<String, String>>();
+        for (int i = 0; i < 100; i++) {
+            records.add(record(PARTITION_0, i, "key-" + (i % 5)));
+        }
+
+        // when
+        processor.dispatch(records(records), this.consumer, this.committer);
+        processor.close(this.consumer, this.committer);
+
+        // then
+        assertThat(handled).hasSize(5);
+        for (var offsets : handled.values()) {
+            assertThat(offsets).hasSize(20).isSorted();
+        }
+        assertThat(committed(PARTITION_0)).isEqualTo(100);
+    }
+
+    @Test
+    void partitionsArePausedOnMaxInflightAndResumedOnHalfOfIt() {
+        // given
+        this.consumer.assign(List.of(PARTITION_0, PARTITION_1));
+        var permits = new Semaphore(0);
+        var processed = new AtomicInteger();
+        var processor = processor(4, 4, (consumer, telemetry, record) -> {
+            permits.acquireUninterruptibly();
+            processed.incrementAndGet();
+        });
+
+        // when
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, "a"), record(PARTITION_0, 1, "b"), record(PARTITION_1, 0, "c"), record(PARTITION_1, 1, "d"))), this.consumer, this.committer);
+
+        // then
+        assertThat(this.consumer.paused()).containsExactlyInAnyOrder(PARTITION_0, PARTITION_1);
+
+        // when
+        permits.release();
+        awaitUntil(() -> processed.get() == 1);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(this.consumer.paused()).containsExactlyInAnyOrder(PARTITION_0, PARTITION_1);
+
+        // when
+        permits.release();
+        awaitUntil(() -> processed.get() == 2);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(this.consumer.paused()).isEmpty();
+
+        permits.release(2);
+        processor.close(this.consumer, this.committer);
+    }
+
+    @Test
+    void partitionsAssignedWhileBackpressureIsAppliedArePaused() {
+        // given
+        var partition2 = new TopicPartition("topic", 2);
+        this.consumer.assign(List.of(PARTITION_0));
+        var permits = new Semaphore(0);
+        var processed = new AtomicInteger();
+        var processor = processor(4, 4, (consumer, telemetry, record) -> {
+            permits.acquireUninterruptibly();
+            processed.incrementAndGet();
+        });
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, "a"), record(PARTITION_0, 1, "b"), record(PARTITION_0, 2, "c"), record(PARTITION_0, 3, "d"))), this.consumer, this.committer);
+        assertThat(this.consumer.paused()).containsExactly(PARTITION_0);
+
+        // when
+        this.consumer.assign(List.of(PARTITION_0, PARTITION_1));
+        processor.partitionsAssigned(this.consumer, List.of(PARTITION_1));
+
+        // then
+        assertThat(this.consumer.paused()).containsExactlyInAnyOrder(PARTITION_0, PARTITION_1);
+
+        // when
+        this.consumer.assign(List.of(PARTITION_0, PARTITION_1, partition2));
+        permits.release();
+        awaitUntil(() -> processed.get() == 1);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(this.consumer.paused()).containsExactlyInAnyOrder(PARTITION_0, PARTITION_1, partition2);
+
+        // when
+        permits.release();
+        awaitUntil(() -> processed.get() == 2);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(this.consumer.paused()).isEmpty();
+
+        // when
+        processor.partitionsAssigned(this.consumer, List.of(PARTITION_1));
+
+        // then
+        assertThat(this.consumer.paused()).isEmpty();
+
+        permits.release(2);
+        processor.close(this.consumer, this.committer);
+    }
+
+    @Test
+    void onlyContiguousProcessedOffsetsAreCommitted() {
+        // given
+        this.consumer.assign(List.of(PARTITION_0));
+        var lanes = 3;
+        var keys = keysOfDifferentLanes(lanes);
+        var first = new CountDownLatch(1);
+        var processed = new AtomicInteger();
+        var processor = processor(lanes, 1000, (consumer, telemetry, record) -> {
+            if (record.offset() == 0) {
+                await(first);
+            }
+            processed.incrementAndGet();
+        });
+
+        // when
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, keys.get(0)), record(PARTITION_0, 1, keys.get(1)), record(PARTITION_0, 2, keys.get(2)))), this.consumer, this.committer);
+        awaitUntil(() -> processed.get() == 2);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(committed(PARTITION_0)).isNull();
+
+        // when
+        first.countDown();
+        awaitUntil(() -> processed.get() == 3);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(committed(PARTITION_0)).isEqualTo(3);
+    }
+
+    @Test
+    void revokeWaitsOnlyForRecordsOfRevokedPartitions() throws Exception {
+        // given
+        this.consumer.assign(List.of(PARTITION_0, PARTITION_1));
+        var retained = new CountDownLatch(1);
+        var revoked = new CountDownLatch(1);
+        var processor = processor(2, 1000, (consumer, telemetry, record) -> {
+            await(record.partition() == PARTITION_0.partition() ? retained : revoked);
+        });
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, null), record(PARTITION_1, 0, null))), this.consumer, this.committer);
+
+        // when
+        var revokeCompleted = new CountDownLatch(1);
+        var revokeThread = new Thread(() -> {
+            processor.partitionsRevoked(this.consumer, this.committer, List.of(PARTITION_1));
+            revokeCompleted.countDown();
+        });
+        revokeThread.start();
+
+        // then
+        assertThat(revokeCompleted.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+        // when
+        revoked.countDown();
+
+        // then
+        assertThat(revokeCompleted.await(5, TimeUnit.SECONDS)).isTrue();
+        revokeThread.join();
+        assertThat(committed(PARTITION_1)).isEqualTo(1);
+        assertThat(committed(PARTITION_0)).isNull();
+
+        retained.countDown();
+        processor.close(this.consumer, this.committer);
+        assertThat(committed(PARTITION_0)).isEqualTo(1);
+    }
+
+    @Test
+    void closeWaitsForInflightRecords() {
+        // given
+        this.consumer.assign(List.of(PARTITION_0));
+        var processor = processor(2, 1000, (consumer, telemetry, record) -> sleep(100));
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, "a"), record(PARTITION_0, 1, "b"))), this.consumer, this.committer);
+
+        // when
+        processor.close(this.consumer, this.committer);
+
+        // then
+        assertThat(committed(PARTITION_0)).isEqualTo(2);
+    }
+
+    @Test
+    void consumerCanNotBeUsedByHandlerOutsideOfPollThread() {
+        // given
+        this.consumer.assign(List.of(PARTITION_0));
+        var error = new AtomicReference<Throwable>();
+        var processor = processor(2, 1000, (consumer, telemetry, record) -> {
+            try {
+                consumer.assignment();
+            } catch (Throwable e) {
+                error.set(e);
+                throw e;
+            }
+        });
+
+        // when
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, "a"))), this.consumer, this.committer);
+        awaitUntil(() -> error.get() != null);
+
+        // then
+        assertThat(error.get()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(committed(PARTITION_0)).isNull();
+    }
+
+    @Test
+    void asyncRecordOffsetIsCommittedOnlyAfterStageCompletes() {
+        // given
+        this.consumer.assign(List.of(PARTITION_0));
+        var stages = new ConcurrentHashMap<Long, CompletableFuture<Void>>();
+        var processor = asyncProcessor(1000, (consumer, telemetry, record) -> stages.computeIfAbsent(record.offset(), o -> new CompletableFuture<>()));
+
+        // when
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, "a"), record(PARTITION_0, 1, "b"))), this.consumer, this.committer);
+        stages.get(1L).complete(null);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(stages).hasSize(2);
+        assertThat(committed(PARTITION_0)).isNull();
+
+        // when
+        stages.get(0L).complete(null);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(committed(PARTITION_0)).isEqualTo(2);
+    }
+
+    @Test
+    void asyncInflightRecordsPausePartitionsAndResumeThem() {
+        // given
+        this.consumer.assign(List.of(PARTITION_0));
+        var stages = new ConcurrentHashMap<Long, CompletableFuture<Void>>();
+        var processor = asyncProcessor(2, (consumer, telemetry, record) -> stages.computeIfAbsent(record.offset(), o -> new CompletableFuture<>()));
+
+        // when
+        processor.dispatch(records(List.of(record(PARTITION_0, 0, "a"), record(PARTITION_0, 1, "b"))), this.consumer, this.committer);
+
+        // then
+        assertThat(this.consumer.paused()).containsExactly(PARTITION_0);
+
+        // when
+        stages.get(0L).complete(null);
+        processor.dispatch(ConsumerRecords.empty(), this.consumer, this.committer);
+
+        // then
+        assertThat(this.consumer.paused()).isEmpty();
+        assertThat(committed(PARTITION_0)).isEqualTo(1);
+
+        stages.get(1L).complete(null);
+        processor.close(this.consumer, this.committer);
+        assertThat(committed(PARTITION_0)).isEqualTo(2);
+    }
+
+    private ParallelRecordProcessor<String, String> processor(int parallelism, int maxInflightRecords, KafkaRecordHandler<String, String> handler) {
+        var telemetry = new NoopTelemetry();
+        var recordHandler = new RecordHandler<>(telemetry, true, new ValueOf<KafkaRecordHandler<String, String>>() {
+            @Override
+            public KafkaRecordHandler<String, String> get() {
+                return handler;
+            }
+
+            @Override
+            public void refresh() {
+
+            }
+        });
+        return new ParallelRecordProcessor<>("test", recordHandler, telemetry, new PartitionPauses(), this.executor, parallelism, maxInflightRecords, AWAIT_TIMEOUT);
+    }
+
+    private ParallelRecordProcessor<String, String> asyncProcessor(int maxInflightRecords, KafkaRecordAsyncHandler<String, String> handler) {
+        var telemetry = new NoopTelemetry();
+        var asyncHandler = new AsyncRecordHandler<>(telemetry, new ValueOf<KafkaRecordAsyncHandler<String, String>>() {
+            @Override
+            public KafkaRecordAsyncHandler<String, String> get() {
+                return handler;
+            }
+
+            @Override
+            public void refresh() {
+
+            }
+        });
+        return new ParallelRecordProcessor<>("test", asyncHandler, telemetry, new PartitionPauses(), maxInflightRecords, AWAIT_TIMEOUT);
+    }
+
+    private Long committed(TopicPartition partition) {
+        var offset = this.consumer.committed(Set.of(partition)).get(partition);
+        return offset == null ? null : offset.offset();
+    }
+
+    private static List<String> keysOfDifferentLanes(int lanes) {
+        var keys = new String[lanes];
+        var found = 0;
+        for (int i = 0; found < lanes; i++) {
+            var key = "key-" + i;
+            var lane = ParallelRecordProcessor.lane(key.hashCode(), lanes);
+            if (keys[lane] == null) {
+                keys[lane] = key;
+                found++;
+            }
+        }
+        return List.of(keys);
+    }
+
+    private static ConsumerRecord<String, String> record(TopicPartition partition, long offset, String key) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, key, "value");
+    }
+
+    private static ConsumerRecords<String, String> records(List<ConsumerRecord<String, String>> records) {
+        var map = new HashMap<TopicPartition, List<ConsumerRecord<String, String>>>();
+        for (var record : records) {
+            map.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), p -> new ArrayList<>()).add(record);
+        }
+        return new ConsumerRecords<>(Map.copyOf(map));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition is not met in time").isLessThan(deadline);
+            sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class NoopTelemetry implements KafkaConsumerTelemetry<String, String> {
+        @Override
+        public KafkaConsumerRecordsTelemetryContext<String, String> get(ConsumerRecords<String, String> records) {
+            return new KafkaConsumerRecordsTelemetryContext<>() {
+                @Override
+                public KafkaConsumerRecordTelemetryContext<String, String> get(ConsumerRecord<String, String> record) {
+                    return ex -> {};
+                }
+
+                @Override
+                public void close(Throwable ex) {
+
+                }
+            };
+        }
+
+        @Override
+        public void reportLag(TopicPartition partition, long lag) {
+
+        }
+    }
+}
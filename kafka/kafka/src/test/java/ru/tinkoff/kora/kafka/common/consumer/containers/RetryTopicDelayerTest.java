@@ -0,0 +1,150 @@
+package ru.tinkoff.kora.kafka.common.consumer.containers;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.tinkoff.kora.kafka.common.consumer.containers.KafkaRetryPublisherTest.record;
+import static ru.tinkoff.kora.kafka.common.consumer.containers.KafkaRetryPublisherTest.retryConfig;
+import static ru.tinkoff.kora.kafka.common.consumer.containers.KafkaRetryPublisherTest.retryHeaders;
+
+class RetryTopicDelayerTest {
+    private static final Duration DELAY = Duration.ofMillis(200);
+    private static final TopicPartition ORDERS = new TopicPartition("orders", 0);
+    private static final TopicPartition RETRY = new TopicPartition("orders-retry-200ms", 0);
+
+    private final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final PartitionPauses pauses = new PartitionPauses();
+    private final KafkaRetryPublisher publisher = new KafkaRetryPublisher("test", retryConfig(List.of(DELAY)), new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer()));
+    private final RetryTopicDelayer delayer = new RetryTopicDelayer(this.publisher, this.pauses);
+
+    RetryTopicDelayerTest() {
+        this.consumer.assign(List.of(ORDERS, RETRY));
+    }
+
+    @Test
+    void retryRecordThatIsNotDueIsPolledAgainAfterItsDelay() {
+        // given
+        var now = System.currentTimeMillis();
+        var records = records(List.of(
+            record(ORDERS.topic(), 0, 10, now, new RecordHeaders()),
+            record(RETRY.topic(), 0, 0, now - 1000, retryHeaders("orders", 1)),
+            record(RETRY.topic(), 0, 1, now, retryHeaders("orders", 1)),
+            record(RETRY.topic(), 0, 2, now, retryHeaders("orders", 1))
+        ));
+
+        // when
+        var due = this.delayer.delay(records, this.consumer);
+
+        // then
+        assertThat(due.records(ORDERS)).extracting(ConsumerRecord::offset).containsExactly(10L);
+        assertThat(due.records(RETRY)).extracting(ConsumerRecord::offset).containsExactly(0L);
+        assertThat(this.consumer.position(RETRY)).isEqualTo(1);
+        assertThat(this.consumer.paused()).containsExactly(RETRY);
+        assertThat(this.delayer.pollTimeout(Duration.ofSeconds(10))).isLessThanOrEqualTo(DELAY);
+
+        // when
+        this.delayer.resumeDue(this.consumer);
+
+        // then
+        assertThat(this.consumer.paused()).containsExactly(RETRY);
+
+        // when
+        sleep(DELAY.toMillis() + 50);
+        this.delayer.resumeDue(this.consumer);
+
+        // then
+        assertThat(this.consumer.paused()).isEmpty();
+        assertThat(this.delayer.pollTimeout(Duration.ofSeconds(10))).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void listenedTopicWithRetrySuffixIsNotDelayed() {
+        // given
+        var records = records(List.of(record(RETRY.topic(), 0, 0, System.currentTimeMillis(), new RecordHeaders())));
+
+        // when
+        var due = this.delayer.delay(records, this.consumer);
+
+        // then
+        assertThat(due.count()).isEqualTo(1);
+        assertThat(this.consumer.paused()).isEmpty();
+    }
+
+    @Test
+    void partitionPausedByBackpressureIsNotResumedByDelayer() {
+        // given
+        this.pauses.pause(this.consumer, List.of(RETRY), PartitionPauses.Owner.BACKPRESSURE);
+        this.delayer.delay(records(List.of(record(RETRY.topic(), 0, 0, System.currentTimeMillis(), retryHeaders("orders", 1)))), this.consumer);
+
+        // when
+        sleep(DELAY.toMillis() + 50);
+        this.delayer.resumeDue(this.consumer);
+
+        // then
+        assertThat(this.consumer.paused()).containsExactly(RETRY);
+
+        // when
+        this.pauses.resumeAll(this.consumer, PartitionPauses.Owner.BACKPRESSURE);
+
+        // then
+        assertThat(this.consumer.paused()).isEmpty();
+    }
+
+    @Test
+    void delayedPartitionIsNotResumedByBackpressure() {
+        // given
+        this.delayer.delay(records(List.of(record(RETRY.topic(), 0, 0, System.currentTimeMillis(), retryHeaders("orders", 1)))), this.consumer);
+        this.pauses.pause(this.consumer, this.consumer.assignment(), PartitionPauses.Owner.BACKPRESSURE);
+        assertThat(this.consumer.paused()).containsExactlyInAnyOrder(ORDERS, RETRY);
+
+        // when
+        this.pauses.resumeAll(this.consumer, PartitionPauses.Owner.BACKPRESSURE);
+
+        // then
+        assertThat(this.consumer.paused()).containsExactly(RETRY);
+    }
+
+    @Test
+    void revokedPartitionIsForgotten() {
+        // given
+        this.delayer.delay(records(List.of(record(RETRY.topic(), 0, 0, System.currentTimeMillis(), retryHeaders("orders", 1)))), this.consumer);
+
+        // when
+        this.delayer.partitionsRevoked(List.of(RETRY));
+        this.pauses.partitionsRevoked(List.of(RETRY));
+
+        // then
+        assertThat(this.delayer.pollTimeout(Duration.ofSeconds(10))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(this.pauses.isPaused(PartitionPauses.Owner.RETRY_DELAY)).isFalse();
+    }
+
+    private static ConsumerRecords<String, String> records(List<ConsumerRecordWrapper<String, String>> records) {
+        var map = new HashMap<TopicPartition, List<ConsumerRecord<String, String>>>();
+        for (var record : records) {
+            map.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), p -> new ArrayList<>()).add(record);
+        }
+        return new ConsumerRecords<>(Map.copyOf(map));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
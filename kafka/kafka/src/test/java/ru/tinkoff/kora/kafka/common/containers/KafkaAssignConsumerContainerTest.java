@@ -14,6 +14,7 @@ import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
 import ru.tinkoff.kora.common.util.Either;
 import ru.tinkoff.kora.kafka.common.consumer.$KafkaListenerConfig_ConfigValueExtractor;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig;
 import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaAssignConsumerContainer;
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerTelemetry;
 import ru.tinkoff.kora.telemetry.common.$TelemetryConfig_ConfigValueExtractor;
@@ -60,6 +61,12 @@ class KafkaAssignConsumerContainerTest {
             Duration.ofSeconds(1),
             Duration.ofMillis(10000),
             true,
+            KafkaListenerConfig.CommitStrategy.RECORD_SYNC,
+            Duration.ofSeconds(5),
+            1000,
+            1,
+            1000,
+            null,
             new $TelemetryConfig_ConfigValueExtractor.TelemetryConfig_Impl(
                 new $TelemetryConfig_LogConfig_ConfigValueExtractor.LogConfig_Impl(true),
                 new $TelemetryConfig_TracingConfig_ConfigValueExtractor.TracingConfig_Impl(true),
@@ -0,0 +1,132 @@
+package ru.tinkoff.kora.kafka.common.containers;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import ru.tinkoff.kora.kafka.common.consumer.KafkaListenerConfig.CommitStrategy;
+import ru.tinkoff.kora.kafka.common.consumer.containers.KafkaOffsetCommitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class KafkaOffsetCommitterTest {
+    private static final TopicPartition PARTITION = new TopicPartition("topic", 0);
+
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, String> consumer = Mockito.mock(Consumer.class);
+
+    @Test
+    void recordSyncCommitsEveryRecord() {
+        // given
+        var committer = new KafkaOffsetCommitter(this.consumer, CommitStrategy.RECORD_SYNC, Duration.ZERO, 1, true);
+        var records = records(1, 2);
+        committer.polled(records);
+
+        // when
+        for (var record : records) {
+            committer.processed(record);
+        }
+        committer.pollCompleted();
+
+        // then
+        verify(this.consumer).commitSync(Map.of(PARTITION, offset(2)));
+        verify(this.consumer).commitSync(Map.of(PARTITION, offset(3)));
+        Mockito.verifyNoMoreInteractions(this.consumer);
+    }
+
+    @Test
+    void pollSyncCommitsHighestContiguousOffset() {
+        // given
+        var committer = new KafkaOffsetCommitter(this.consumer, CommitStrategy.POLL_SYNC, Duration.ZERO, 1, true);
+        committer.polled(records(10, 12, 13));
+
+        // when
+        committer.processed(record(12));
+        committer.pollCompleted();
+        committer.processed(record(10));
+        committer.pollCompleted();
+
+        // then
+        verify(this.consumer).commitSync(Map.of(PARTITION, offset(13)));
+        Mockito.verifyNoMoreInteractions(this.consumer);
+    }
+
+    @Test
+    void periodicCommitsAfterBatchSize() {
+        // given
+        var committer = new KafkaOffsetCommitter(this.consumer, CommitStrategy.PERIODIC, Duration.ofHours(1), 3, true);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            committer.processed(record(i));
+            committer.pollCompleted();
+        }
+
+        // then
+        verify(this.consumer).commitSync(Map.of(PARTITION, offset(3)));
+        Mockito.verifyNoMoreInteractions(this.consumer);
+    }
+
+    @Test
+    void asyncCommitIsRetriedAfterFailureAndSyncedOnRevoke() {
+        // given
+        var committer = new KafkaOffsetCommitter(this.consumer, CommitStrategy.ASYNC, Duration.ofHours(1), 1, true);
+        var callback = ArgumentCaptor.forClass(OffsetCommitCallback.class);
+        committer.processed(records(1));
+
+        // when
+        committer.pollCompleted();
+        verify(this.consumer).commitAsync(Mockito.eq(Map.of(PARTITION, offset(2))), callback.capture());
+        callback.getValue().onComplete(Map.of(), new IllegalStateException("test"));
+        committer.pollCompleted();
+        committer.partitionsRevoked(List.of(PARTITION));
+
+        // then
+        verify(this.consumer, Mockito.times(2)).commitAsync(Mockito.eq(Map.of(PARTITION, offset(2))), any());
+        verify(this.consumer).commitSync(Map.of(PARTITION, offset(2)));
+    }
+
+    @Test
+    void nothingIsCommittedWhenCommitIsNotAllowed() {
+        // given
+        var committer = new KafkaOffsetCommitter(this.consumer, CommitStrategy.RECORD_SYNC, Duration.ZERO, 1, false);
+
+        // when
+        committer.processed(record(1));
+        committer.pollCompleted();
+        committer.commitSync();
+
+        // then
+        verify(this.consumer, never()).commitSync(anyMap());
+    }
+
+    private static ConsumerRecord<String, String> record(long offset) {
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, "key", "value");
+    }
+
+    private static ConsumerRecords<String, String> records(long... offsets) {
+        var records = new ArrayList<ConsumerRecord<String, String>>();
+        for (var offset : offsets) {
+            records.add(record(offset));
+        }
+        return new ConsumerRecords<>(Map.of(PARTITION, records));
+    }
+
+    private static OffsetAndMetadata offset(long offset) {
+        return new OffsetAndMetadata(offset, record(offset - 1).leaderEpoch(), "");
+    }
+}
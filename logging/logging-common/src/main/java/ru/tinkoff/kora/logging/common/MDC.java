@@ -5,82 +5,84 @@ import ru.tinkoff.kora.common.Context;
 import ru.tinkoff.kora.logging.common.arg.StructuredArgumentWriter;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Values are kept in context as an immutable map under {@link Context.KeyImmutable}, so {@link Context#fork()} shares them without copying
+ * and every write replaces the map of the context it was made through.
+ */
 public class MDC {
 
-    private final ConcurrentHashMap<String, StructuredArgumentWriter> values;
+    private static final Context.Key<Map<String, StructuredArgumentWriter>> MDC = new Context.KeyImmutable<>() {};
 
-    private static final Context.Key<MDC> MDC = new Context.Key<>() {
-        @Override
-        protected MDC copy(MDC object) {
-            return object == null
-                ? new MDC()
-                : new MDC(object.values);
-        }
-    };
-
-    private MDC() {
-        this.values = new ConcurrentHashMap<>();
-    }
+    private final Context context;
 
-    private MDC(ConcurrentHashMap<String, StructuredArgumentWriter> values) {
-        this.values = new ConcurrentHashMap<>(values);
+    private MDC(Context context) {
+        this.context = context;
     }
 
     public Map<String, StructuredArgumentWriter> values() {
-        return Collections.unmodifiableMap(this.values);
+        var values = this.context.get(MDC);
+        return values == null ? Map.of() : values;
     }
 
     public void remove0(String key) {
-        this.values.remove(key);
+        synchronized (this.context) {
+            var values = this.context.get(MDC);
+            if (values == null || !values.containsKey(key)) {
+                return;
+            }
+            var updated = new LinkedHashMap<>(values);
+            updated.remove(key);
+            this.context.set(MDC, Collections.unmodifiableMap(updated));
+        }
     }
 
     public void put0(String key, StructuredArgumentWriter value) {
-        this.values.put(key, value);
+        synchronized (this.context) {
+            var values = this.context.get(MDC);
+            var updated = values == null ? new LinkedHashMap<String, StructuredArgumentWriter>(4) : new LinkedHashMap<>(values);
+            updated.put(key, value);
+            this.context.set(MDC, Collections.unmodifiableMap(updated));
+        }
     }
 
     public void put0(String key, Integer value) {
         if (value == null) {
-            this.values.put(key, JsonGenerator::writeNull);
+            this.put0(key, JsonGenerator::writeNull);
         } else {
-            this.values.put(key, gen -> gen.writeNumber(value));
+            this.put0(key, gen -> gen.writeNumber(value));
         }
     }
 
     public void put0(String key, Long value) {
         if (value == null) {
-            this.values.put(key, JsonGenerator::writeNull);
+            this.put0(key, JsonGenerator::writeNull);
         } else {
-            this.values.put(key, gen -> gen.writeNumber(value));
+            this.put0(key, gen -> gen.writeNumber(value));
         }
     }
 
     public void put0(String key, String value) {
         if (value == null) {
-            this.values.put(key, JsonGenerator::writeNull);
+            this.put0(key, JsonGenerator::writeNull);
         } else {
-            this.values.put(key, gen -> gen.writeString(value));
+            this.put0(key, gen -> gen.writeString(value));
         }
     }
 
     public void put0(String key, Boolean value) {
         if (value == null) {
-            this.values.put(key, JsonGenerator::writeNull);
+            this.put0(key, JsonGenerator::writeNull);
         } else {
-            this.values.put(key, gen -> gen.writeBoolean(value));
+            this.put0(key, gen -> gen.writeBoolean(value));
         }
     }
 
 
     public static MDC get(Context ctx) {
-        var mdc = ctx.get(MDC);
-        if (mdc == null) {
-            mdc = new MDC();
-            ctx.set(MDC, mdc);
-        }
-        return mdc;
+        return new MDC(ctx);
     }
 
     public static MDC get() {
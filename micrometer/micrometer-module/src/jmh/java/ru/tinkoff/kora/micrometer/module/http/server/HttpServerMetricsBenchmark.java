@@ -0,0 +1,71 @@
+package ru.tinkoff.kora.micrometer.module.http.server;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.tinkoff.kora.http.common.HttpResultCode;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+import ru.tinkoff.kora.micrometer.module.http.server.tag.Opentelemetry123MicrometerHttpServerTagsProvider;
+import ru.tinkoff.kora.telemetry.common.TelemetryConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of http server metrics: meters resolved by keys on every request against meters bound to the route once.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} to get bytes per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Measurement(time = 5, iterations = 5)
+@Warmup(time = 5, iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class HttpServerMetricsBenchmark {
+    private static final String METHOD = "GET";
+    private static final String ROUTE = "/api/v1/users/{id}";
+    private static final String HOST = "localhost";
+    private static final String OTHER_HOST = "127.0.0.1";
+    private static final String SCHEME = "http";
+
+    private HttpServerMetrics metrics;
+    private HttpServerMetrics.HttpServerRouteMetrics routeMetrics;
+    private HttpHeaders headers;
+    private boolean other;
+
+    @Setup
+    public void setup() {
+        var config = new TelemetryConfig.MetricsConfig() {
+            @Override
+            public Boolean enabled() {
+                return true;
+            }
+
+            @Override
+            public double[] slo() {
+                return null;
+            }
+        };
+        this.metrics = new Opentelemetry123HttpServerMetrics(new SimpleMeterRegistry(), new Opentelemetry123MicrometerHttpServerTagsProvider(), config);
+        this.routeMetrics = this.metrics.bind(METHOD, ROUTE);
+        this.headers = HttpHeaders.of();
+    }
+
+    @Benchmark
+    public void keyed() {
+        this.metrics.requestStarted(METHOD, ROUTE, HOST, SCHEME);
+        this.metrics.requestFinished(200, HttpResultCode.SUCCESS, SCHEME, HOST, METHOD, ROUTE, this.headers, 1_000_000, null);
+    }
+
+    @Benchmark
+    public void bound() {
+        this.routeMetrics.requestStarted(HOST, SCHEME);
+        this.routeMetrics.requestFinished(200, HttpResultCode.SUCCESS, SCHEME, HOST, this.headers, 1_000_000, null);
+    }
+
+    @Benchmark
+    public void boundAlternatingHosts() {
+        var host = (this.other = !this.other) ? OTHER_HOST : HOST;
+        this.routeMetrics.requestStarted(host, SCHEME);
+        this.routeMetrics.requestFinished(200, HttpResultCode.SUCCESS, SCHEME, host, this.headers, 1_000_000, null);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.tinkoff.kora.micrometer.module.http.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response compression meters by content encoding, ratio is compressed size divided by uncompressed size
+ */
+final class MicrometerHttpServerCompressionMetrics {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, EncodingMeters> meters = new ConcurrentHashMap<>();
+
+    MicrometerHttpServerCompressionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void record(String encoding, long uncompressedBytes, long compressedBytes) {
+        var meters = this.meters.computeIfAbsent(encoding, this::encodingMeters);
+        if (uncompressedBytes > 0) {
+            meters.ratio.record(((double) compressedBytes) / uncompressedBytes);
+        }
+        meters.uncompressed.increment(uncompressedBytes);
+        meters.compressed.increment(compressedBytes);
+    }
+
+    private EncodingMeters encodingMeters(String encoding) {
+        var ratio = DistributionSummary.builder("http.server.response.compression.ratio")
+            .tag("http.response.content_encoding", encoding)
+            .register(this.meterRegistry);
+        var uncompressed = Counter.builder("http.server.response.compression.uncompressed")
+            .baseUnit(BaseUnits.BYTES)
+            .tag("http.response.content_encoding", encoding)
+            .register(this.meterRegistry);
+        var compressed = Counter.builder("http.server.response.compression.compressed")
+            .baseUnit(BaseUnits.BYTES)
+            .tag("http.response.content_encoding", encoding)
+            .register(this.meterRegistry);
+        return new EncodingMeters(ratio, uncompressed, compressed);
+    }
+
+    private record EncodingMeters(DistributionSummary ratio, Counter uncompressed, Counter compressed) {}
+}
@@ -0,0 +1,42 @@
+package ru.tinkoff.kora.micrometer.module.http.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.semconv.HttpAttributes;
+import jakarta.annotation.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Concurrency limiter meters by route template, limiter shared by all routes is reported with route {@code *}
+ */
+final class MicrometerHttpServerConcurrencyLimitMetrics {
+    private static final String SHARED_ROUTE = "*";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    MicrometerHttpServerConcurrencyLimitMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void limiterCreated(@Nullable String route, IntSupplier limit, IntSupplier inflight) {
+        var routeTag = Objects.requireNonNullElse(route, SHARED_ROUTE);
+        Gauge.builder("http.server.concurrency.limit", limit, IntSupplier::getAsInt)
+            .tag(HttpAttributes.HTTP_ROUTE.getKey(), routeTag)
+            .register(this.meterRegistry);
+        Gauge.builder("http.server.concurrency.inflight", inflight, IntSupplier::getAsInt)
+            .tag(HttpAttributes.HTTP_ROUTE.getKey(), routeTag)
+            .register(this.meterRegistry);
+    }
+
+    void rejected(@Nullable String route) {
+        this.rejected.computeIfAbsent(Objects.requireNonNullElse(route, SHARED_ROUTE), r -> Counter.builder("http.server.concurrency.rejected")
+                .tag(HttpAttributes.HTTP_ROUTE.getKey(), r)
+                .register(this.meterRegistry))
+            .increment();
+    }
+}
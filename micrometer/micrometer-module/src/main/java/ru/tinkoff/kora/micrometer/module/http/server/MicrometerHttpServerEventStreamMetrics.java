@@ -0,0 +1,43 @@
+package ru.tinkoff.kora.micrometer.module.http.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Event stream meters. Buffered bytes are recorded per connection on every sent event into a single summary,
+ * so distribution of client lag is visible without a meter per connection.
+ * Active streams are {@code started - finished}: counters stay correct when several metrics instances share the registry, unlike a gauge over own state.
+ */
+final class MicrometerHttpServerEventStreamMetrics {
+    private final Counter started;
+    private final DistributionSummary buffered;
+    private final Counter finished;
+    private final Counter evicted;
+
+    MicrometerHttpServerEventStreamMetrics(MeterRegistry meterRegistry) {
+        this.started = Counter.builder("http.server.stream.started")
+            .register(meterRegistry);
+        this.buffered = DistributionSummary.builder("http.server.stream.buffered")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.finished = Counter.builder("http.server.stream.finished")
+            .tag("evicted", "false")
+            .register(meterRegistry);
+        this.evicted = Counter.builder("http.server.stream.finished")
+            .tag("evicted", "true")
+            .register(meterRegistry);
+    }
+
+    void started() {
+        this.started.increment();
+    }
+
+    void buffered(long bufferedBytes) {
+        this.buffered.record(bufferedBytes);
+    }
+
+    void finished(boolean evicted) {
+        (evicted ? this.evicted : this.finished).increment();
+    }
+}
@@ -0,0 +1,117 @@
+package ru.tinkoff.kora.micrometer.module.http.server;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import jakarta.annotation.Nullable;
+import ru.tinkoff.kora.http.common.HttpResultCode;
+import ru.tinkoff.kora.http.common.header.HttpHeaders;
+import ru.tinkoff.kora.http.server.common.telemetry.HttpServerMetrics;
+import ru.tinkoff.kora.micrometer.module.http.server.tag.ActiveRequestsKey;
+import ru.tinkoff.kora.micrometer.module.http.server.tag.DurationKey;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Meters of a single route. Server usually sees a few hosts and schemes, so meters of each seen pair are kept in a small array
+ * together with durations of successful requests by status code: request path does no key allocation and no map lookup.
+ * Hosts over {@link #MAX_HOSTS} and failed requests are resolved through the shared meter maps, same as unbound requests.
+ */
+final class MicrometerHttpServerRouteMetrics implements HttpServerMetrics.HttpServerRouteMetrics {
+
+    // Host header is sent by client, so number of cached pairs is bounded
+    private static final int MAX_HOSTS = 16;
+
+    private final String method;
+    private final String pathTemplate;
+    private final Function<ActiveRequestsKey, AtomicInteger> activeRequests;
+    private final Function<DurationKey, DistributionSummary> duration;
+    private final double processingTimeDivisor;
+    private volatile HostMeters[] hostMeters = new HostMeters[0];
+
+    MicrometerHttpServerRouteMetrics(String method,
+                                     String pathTemplate,
+                                     Function<ActiveRequestsKey, AtomicInteger> activeRequests,
+                                     Function<DurationKey, DistributionSummary> duration,
+                                     double processingTimeDivisor) {
+        this.method = method;
+        this.pathTemplate = pathTemplate;
+        this.activeRequests = activeRequests;
+        this.duration = duration;
+        this.processingTimeDivisor = processingTimeDivisor;
+    }
+
+    @Override
+    public void requestStarted(String host, String scheme) {
+        this.hostMeters(host, scheme).activeRequests.incrementAndGet();
+    }
+
+    @Override
+    public void requestFinished(int statusCode, HttpResultCode resultCode, String scheme, String host, HttpHeaders headers, long processingTimeNanos, @Nullable Throwable exception) {
+        var hostMeters = this.hostMeters(host, scheme);
+        hostMeters.activeRequests.decrementAndGet();
+        final DistributionSummary summary;
+        if (exception == null) {
+            summary = hostMeters.duration(statusCode);
+        } else {
+            summary = this.duration.apply(new DurationKey(statusCode, this.method, this.pathTemplate, host, scheme, exception.getClass()));
+        }
+        summary.record(((double) processingTimeNanos) / this.processingTimeDivisor);
+    }
+
+    private HostMeters hostMeters(String host, String scheme) {
+        var hostMeters = this.hostMeters;
+        for (var meters : hostMeters) {
+            if (meters.host.equals(host) && meters.scheme.equals(scheme)) {
+                return meters;
+            }
+        }
+        var counter = this.activeRequests.apply(new ActiveRequestsKey(this.method, this.pathTemplate, host, scheme));
+        var meters = new HostMeters(host, scheme, counter);
+        if (hostMeters.length < MAX_HOSTS) {
+            synchronized (this) {
+                var current = this.hostMeters;
+                for (var existing : current) {
+                    if (existing.host.equals(host) && existing.scheme.equals(scheme)) {
+                        return existing;
+                    }
+                }
+                if (current.length < MAX_HOSTS) {
+                    var newHostMeters = Arrays.copyOf(current, current.length + 1);
+                    newHostMeters[current.length] = meters;
+                    this.hostMeters = newHostMeters;
+                }
+            }
+        }
+        return meters;
+    }
+
+    private record StatusDuration(int statusCode, DistributionSummary summary) {}
+
+    private final class HostMeters {
+        private final String host;
+        private final String scheme;
+        private final AtomicInteger activeRequests;
+        private volatile StatusDuration[] durations = new StatusDuration[0];
+
+        private HostMeters(String host, String scheme, AtomicInteger activeRequests) {
+            this.host = host;
+            this.scheme = scheme;
+            this.activeRequests = activeRequests;
+        }
+
+        private DistributionSummary duration(int statusCode) {
+            var durations = this.durations;
+            for (var duration : durations) {
+                if (duration.statusCode == statusCode) {
+                    return duration.summary;
+                }
+            }
+            var summary = MicrometerHttpServerRouteMetrics.this.duration.apply(new DurationKey(statusCode, method, pathTemplate, this.host, this.scheme, null));
+            var newDurations = Arrays.copyOf(durations, durations.length + 1);
+            newDurations[durations.length] = new StatusDuration(statusCode, summary);
+            this.durations = newDurations;
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.tinkoff.kora.micrometer.module.http.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.semconv.HttpAttributes;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Requests coalesced with identical request in flight by route template
+ */
+final class MicrometerHttpServerSingleFlightMetrics {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Counter> coalesced = new ConcurrentHashMap<>();
+
+    MicrometerHttpServerSingleFlightMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void coalesced(String route) {
+        this.coalesced.computeIfAbsent(route, r -> Counter.builder("http.server.single_flight.coalesced")
+                .tag(HttpAttributes.HTTP_ROUTE.getKey(), r)
+                .register(this.meterRegistry))
+            .increment();
+    }
+}
@@ -1,10 +1,20 @@
 package ru.tinkoff.kora.micrometer.module.http.server;
 
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 import ru.tinkoff.kora.http.server.common.telemetry.PrivateApiMetrics;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 public final class MicrometerPrivateApiMetrics implements PrivateApiMetrics {
     private final PrometheusMeterRegistry meterRegistry;
+    private final ConcurrentHashMap<ProbeKey, Timer> probeDuration = new ConcurrentHashMap<>();
 
     public MicrometerPrivateApiMetrics(PrometheusMeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -14,4 +24,23 @@ public final class MicrometerPrivateApiMetrics implements PrivateApiMetrics {
     public String scrape() {
         return this.meterRegistry.scrape();
     }
+
+    @Override
+    public void scrape(OutputStream os) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 8 * 1024);
+        this.meterRegistry.scrape(writer);
+        writer.flush();
+    }
+
+    @Override
+    public void probeEvaluated(String type, String component, String status, long processingTimeNanos) {
+        this.probeDuration.computeIfAbsent(new ProbeKey(type, component, status), k -> Timer.builder("probe.duration")
+                .tag("probe.type", k.type())
+                .tag("probe.component", k.component())
+                .tag("probe.status", k.status())
+                .register(this.meterRegistry))
+            .record(processingTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private record ProbeKey(String type, String component, String status) {}
 }
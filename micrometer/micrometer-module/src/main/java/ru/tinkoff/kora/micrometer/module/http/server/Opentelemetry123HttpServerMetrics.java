@@ -14,6 +14,7 @@ import ru.tinkoff.kora.telemetry.common.TelemetryConfig;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 public final class Opentelemetry123HttpServerMetrics implements HttpServerMetrics {
     private final MeterRegistry meterRegistry;
@@ -21,36 +22,84 @@ public final class Opentelemetry123HttpServerMetrics implements HttpServerMetric
     private final ConcurrentHashMap<ActiveRequestsKey, AtomicInteger> requestCounters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<DurationKey, DistributionSummary> duration = new ConcurrentHashMap<>();
     private final TelemetryConfig.MetricsConfig config;
+    private final MicrometerHttpServerCompressionMetrics compression;
+    private final MicrometerHttpServerConcurrencyLimitMetrics concurrencyLimit;
+    private final MicrometerHttpServerEventStreamMetrics eventStream;
+    private final MicrometerHttpServerSingleFlightMetrics singleFlight;
 
     public Opentelemetry123HttpServerMetrics(MeterRegistry meterRegistry, MicrometerHttpServerTagsProvider httpServerTagsProvider, @Nullable TelemetryConfig.MetricsConfig config) {
         this.meterRegistry = meterRegistry;
         this.httpServerTagsProvider = httpServerTagsProvider;
         this.config = config;
+        this.compression = new MicrometerHttpServerCompressionMetrics(meterRegistry);
+        this.concurrencyLimit = new MicrometerHttpServerConcurrencyLimitMetrics(meterRegistry);
+        this.eventStream = new MicrometerHttpServerEventStreamMetrics(meterRegistry);
+        this.singleFlight = new MicrometerHttpServerSingleFlightMetrics(meterRegistry);
     }
 
     @Override
     public void requestStarted(String method, String pathTemplate, String host, String scheme) {
-        var counter = requestCounters.computeIfAbsent(new ActiveRequestsKey(method, pathTemplate, host, scheme), activeRequestsKey -> {
-            var c = new AtomicInteger(0);
-            this.registerActiveRequestsGauge(activeRequestsKey, c);
-            return c;
-        });
+        var counter = this.activeRequests(new ActiveRequestsKey(method, pathTemplate, host, scheme));
         counter.incrementAndGet();
     }
 
+    @Override
+    public HttpServerRouteMetrics bind(String method, String pathTemplate) {
+        return new MicrometerHttpServerRouteMetrics(method, pathTemplate, this::activeRequests, key -> this.duration.computeIfAbsent(key, this::requestDuration), 1_000_000_000);
+    }
+
     @Override
     public void requestFinished(int statusCode, HttpResultCode resultCode, String scheme, String host, String method, String pathTemplate, HttpHeaders headers, long processingTimeNanos, Throwable exception) {
-        var counter = requestCounters.computeIfAbsent(new ActiveRequestsKey(method, pathTemplate, host, scheme), activeRequestsKey -> {
-            var c = new AtomicInteger(0);
-            this.registerActiveRequestsGauge(activeRequestsKey, c);
-            return c;
-        });
+        var counter = this.activeRequests(new ActiveRequestsKey(method, pathTemplate, host, scheme));
         counter.decrementAndGet();
         var key = new DurationKey(statusCode, method, pathTemplate, host, scheme, exception == null ? null : exception.getClass());
         this.duration.computeIfAbsent(key, this::requestDuration)
             .record(((double) processingTimeNanos) / 1_000_000_000);
     }
 
+    @Override
+    public void responseCompressed(String encoding, long uncompressedBytes, long compressedBytes) {
+        this.compression.record(encoding, uncompressedBytes, compressedBytes);
+    }
+
+    @Override
+    public void concurrencyLimiterCreated(@Nullable String route, IntSupplier limit, IntSupplier inflight) {
+        this.concurrencyLimit.limiterCreated(route, limit, inflight);
+    }
+
+    @Override
+    public void concurrencyLimitRejected(@Nullable String route) {
+        this.concurrencyLimit.rejected(route);
+    }
+
+    @Override
+    public void singleFlightCoalesced(String route) {
+        this.singleFlight.coalesced(route);
+    }
+
+    @Override
+    public void eventStreamStarted() {
+        this.eventStream.started();
+    }
+
+    @Override
+    public void eventStreamBuffered(long bufferedBytes) {
+        this.eventStream.buffered(bufferedBytes);
+    }
+
+    @Override
+    public void eventStreamFinished(boolean evicted) {
+        this.eventStream.finished(evicted);
+    }
+
+    private AtomicInteger activeRequests(ActiveRequestsKey key) {
+        return requestCounters.computeIfAbsent(key, activeRequestsKey -> {
+            var c = new AtomicInteger(0);
+            this.registerActiveRequestsGauge(activeRequestsKey, c);
+            return c;
+        });
+    }
+
     private void registerActiveRequestsGauge(ActiveRequestsKey key, AtomicInteger counter) {
         Gauge.builder("http.server.active_requests", counter, AtomicInteger::get)
             .tags(httpServerTagsProvider.getActiveRequestsTags(key))
@@ -13,6 +13,7 @@ import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.TopicPartition;
 import ru.tinkoff.kora.application.graph.Lifecycle;
 import ru.tinkoff.kora.kafka.common.consumer.telemetry.KafkaConsumerMetrics;
+import ru.tinkoff.kora.micrometer.module.kafka.consumer.tag.RecordDelayKey;
 import ru.tinkoff.kora.micrometer.module.kafka.consumer.tag.RecordsDurationKey;
 import ru.tinkoff.kora.micrometer.module.kafka.consumer.tag.RecordDurationKey;
 import ru.tinkoff.kora.micrometer.module.kafka.consumer.tag.TopicLagKey;
@@ -31,6 +32,8 @@ public final class Opentelemetry123KafkaConsumerMetrics implements KafkaConsumer
     private final ConcurrentHashMap<RecordDurationKey, DistributionSummary> metrics = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<RecordsDurationKey, DistributionSummary> metricsBatch = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<TopicLagKey, LagGauge> lagMetrics = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<RecordDelayKey, DistributionSummary> pollDelayMetrics = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<RecordDelayKey, DistributionSummary> latencyMetrics = new ConcurrentHashMap<>();
 
     private final MeterRegistry meterRegistry;
     private final Properties driverProperties;
@@ -74,6 +77,15 @@ public final class Opentelemetry123KafkaConsumerMetrics implements KafkaConsumer
         return builder.register(this.meterRegistry);
     }
 
+    private DistributionSummary delayMetric(String name, RecordDelayKey key) {
+        var builder = DistributionSummary.builder(name)
+            .serviceLevelObjectives(this.config.slo(TelemetryConfig.MetricsConfig.OpentelemetrySpec.V123))
+            .baseUnit("s")
+            .tags(tagsProvider.getRecordDelayTags(clientId, groupId, driverProperties, key));
+
+        return builder.register(this.meterRegistry);
+    }
+
     @Override
     public void onRecordsReceived(ConsumerRecords<?, ?> records) {
 
@@ -95,12 +107,29 @@ public final class Opentelemetry123KafkaConsumerMetrics implements KafkaConsumer
         this.metricsBatch.computeIfAbsent(key, this::metricBatch).record(durationDouble);
     }
 
+    @Override
+    public void onRecordHandleStarted(String consumerName, ConsumerRecord<?, ?> record, long pollDelay, long latency) {
+        var key = new RecordDelayKey(consumerName, record.topic());
+        this.pollDelayMetrics.computeIfAbsent(key, k -> delayMetric("messaging.kafka.consumer.poll.delay", k)).record(((double) pollDelay) / 1_000_000_000);
+        if (latency >= 0) {
+            this.latencyMetrics.computeIfAbsent(key, k -> delayMetric("messaging.kafka.consumer.record.latency", k)).record(((double) latency) / 1_000_000_000);
+        }
+    }
+
     @Override
     public void reportLag(String consumerName, TopicPartition partition, long lag) {
         var key = new TopicLagKey(consumerName, partition.topic(), partition.partition());
         lagMetrics.computeIfAbsent(key, k -> new LagGauge(k, clientId, driverProperties, tagsProvider, meterRegistry)).offsetLag = lag;
     }
 
+    @Override
+    public void removeLag(String consumerName, TopicPartition partition) {
+        var lagGauge = lagMetrics.remove(new TopicLagKey(consumerName, partition.topic(), partition.partition()));
+        if (lagGauge != null) {
+            meterRegistry.remove(lagGauge.gauge);
+        }
+    }
+
     @Override
     public void init() {
 
@@ -127,6 +156,13 @@ public final class Opentelemetry123KafkaConsumerMetrics implements KafkaConsumer
         for (var lagMetric : lagMetrics) {
             lagMetric.gauge.close();
         }
+        var delayMetrics = new ArrayList<>(this.pollDelayMetrics.values());
+        delayMetrics.addAll(this.latencyMetrics.values());
+        this.pollDelayMetrics.clear();
+        this.latencyMetrics.clear();
+        for (var metric : delayMetrics) {
+            metric.close();
+        }
     }
 
     private static class LagGauge {
@@ -4,8 +4,11 @@ import io.micrometer.core.instrument.Tag;
 import jakarta.annotation.Nullable;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
 
+import static io.opentelemetry.semconv.incubating.MessagingIncubatingAttributes.*;
+
 public interface MicrometerKafkaConsumerTagsProvider {
 
     List<Tag> getRecordDurationTags(@Nullable String clientId,
@@ -21,4 +24,17 @@ public interface MicrometerKafkaConsumerTagsProvider {
     List<Tag> getTopicLagTags(@Nullable String clientId,
                               Properties driverProperties,
                               TopicLagKey key);
+
+    default List<Tag> getRecordDelayTags(@Nullable String clientId,
+                                         @Nullable String groupId,
+                                         Properties driverProperties,
+                                         RecordDelayKey key) {
+        return List.of(
+            Tag.of(MESSAGING_SYSTEM.getKey(), MessagingSystemIncubatingValues.KAFKA),
+            Tag.of("messaging.kafka.consumer.name", key.consumerName()),
+            Tag.of(MESSAGING_DESTINATION_NAME.getKey(), key.topic()),
+            Tag.of(MESSAGING_CLIENT_ID.getKey(), Objects.requireNonNullElse(clientId, "")),
+            Tag.of(MESSAGING_KAFKA_CONSUMER_GROUP.getKey(), Objects.requireNonNullElse(groupId, ""))
+        );
+    }
 }
@@ -0,0 +1,3 @@
+package ru.tinkoff.kora.micrometer.module.kafka.consumer.tag;
+
+public record RecordDelayKey(String consumerName, String topic) {}
@@ -0,0 +1,78 @@
+package ru.tinkoff.kora.micrometer.module.kafka.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.kora.micrometer.module.kafka.consumer.tag.Opentelemetry120KafkaConsumerTagsProvider;
+import ru.tinkoff.kora.telemetry.common.$TelemetryConfig_MetricsConfig_ConfigValueExtractor;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Opentelemetry120KafkaConsumerMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Opentelemetry120KafkaConsumerMetrics metrics = new Opentelemetry120KafkaConsumerMetrics(
+        this.registry,
+        new Properties(),
+        new $TelemetryConfig_MetricsConfig_ConfigValueExtractor.MetricsConfig_Impl(null, null),
+        new Opentelemetry120KafkaConsumerTagsProvider()
+    );
+
+    @Test
+    void recordHandleStartReportsPollDelayAndRecordLatency() {
+        // given
+        var record = new ConsumerRecord<>("topic", 0, 0, "key", "value");
+
+        // when
+        this.metrics.onRecordHandleStarted("consumer", record, TimeUnit.SECONDS.toNanos(2), TimeUnit.SECONDS.toNanos(3));
+
+        // then
+        var pollDelay = this.registry.find("messaging.kafka.consumer.poll.delay").tag("messaging.kafka.consumer.name", "consumer").tag("messaging.destination.name", "topic").summary();
+        assertThat(pollDelay).isNotNull();
+        assertThat(pollDelay.count()).isEqualTo(1);
+        assertThat(pollDelay.totalAmount()).isEqualTo(2000.0);
+        var latency = this.registry.find("messaging.kafka.consumer.record.latency").tag("messaging.destination.name", "topic").summary();
+        assertThat(latency).isNotNull();
+        assertThat(latency.count()).isEqualTo(1);
+        assertThat(latency.totalAmount()).isEqualTo(3000.0);
+    }
+
+    @Test
+    void recordLatencyIsNotReportedForRecordWithoutTimestamp() {
+        // given
+        var record = new ConsumerRecord<>("topic", 0, 0, "key", "value");
+
+        // when
+        this.metrics.onRecordHandleStarted("consumer", record, TimeUnit.SECONDS.toNanos(2), -1);
+
+        // then
+        assertThat(this.registry.find("messaging.kafka.consumer.poll.delay").summary()).isNotNull();
+        assertThat(this.registry.find("messaging.kafka.consumer.record.latency").summary()).isNull();
+    }
+
+    @Test
+    void lagGaugeReportsLastLagAndIsRemovedWithPartition() {
+        // given
+        var partition0 = new TopicPartition("topic", 0);
+        var partition1 = new TopicPartition("topic", 1);
+        this.metrics.reportLag("consumer", partition0, 10);
+        this.metrics.reportLag("consumer", partition1, 20);
+
+        // when
+        this.metrics.reportLag("consumer", partition0, 5);
+
+        // then
+        assertThat(this.registry.find("messaging.kafka.consumer.lag").tag("messaging.kafka.destination.partition", "0").gauge().value()).isEqualTo(5);
+        assertThat(this.registry.find("messaging.kafka.consumer.lag").tag("messaging.kafka.destination.partition", "1").gauge().value()).isEqualTo(20);
+
+        // when
+        this.metrics.removeLag("consumer", partition0);
+
+        // then
+        assertThat(this.registry.find("messaging.kafka.consumer.lag").tag("messaging.kafka.destination.partition", "0").gauge()).isNull();
+        assertThat(this.registry.find("messaging.kafka.consumer.lag").tag("messaging.kafka.destination.partition", "1").gauge()).isNotNull();
+    }
+}
@@ -7,12 +7,8 @@ import ru.tinkoff.kora.common.Context;
 import ru.tinkoff.kora.logging.common.MDC;
 
 public class OpentelemetryContext {
-    private static final Context.Key<OpentelemetryContext> KEY = new Context.Key<>() {
-        @Override
-        protected OpentelemetryContext copy(OpentelemetryContext object) {
-            return new OpentelemetryContext(object.context);
-        }
-    };
+    // wrapped opentelemetry context is immutable, so forked contexts share it
+    private static final Context.Key<OpentelemetryContext> KEY = new Context.KeyImmutable<>() {};
 
     private final io.opentelemetry.context.Context context;
 
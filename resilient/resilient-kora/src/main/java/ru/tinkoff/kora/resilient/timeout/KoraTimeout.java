@@ -55,8 +55,7 @@ final class KoraTimeout implements Timeout {
             Context current = Context.current();
             e.execute(() -> {
                 try {
-                    current.inject();
-                    runnable.run();
+                    Context.runWith(current, runnable);
                     future.complete(null);
                 } catch (Throwable ex) {
                     future.completeExceptionally(ex);
@@ -86,8 +85,7 @@ final class KoraTimeout implements Timeout {
             Context current = Context.current();
             e.execute(() -> {
                 try {
-                    current.inject();
-                    var result = callable.call();
+                    var result = Context.callWith(current, callable);
                     future.complete(result);
                 } catch (Throwable ex) {
                     future.completeExceptionally(ex);